@@ -1,240 +1,223 @@
 package com.playtech;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.playtech.report.Report;
-import com.playtech.report.column.Column;
-import com.playtech.report.transformer.Transformer;
-import com.playtech.util.xml.XmlParser; // Используем наш XmlParser
-
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.InvalidPathException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import com.playtech.report.exec.BatchRunner;
+import com.playtech.report.exec.CommandLineArgs;
+import com.playtech.report.exec.PreviewRunner;
+import com.playtech.report.exec.ReportCancelledException;
+import com.playtech.report.exec.ReportGenerationException;
+import com.playtech.report.exec.ReportPipeline;
+import com.playtech.report.exec.ReportProgress;
+import com.playtech.report.exec.ShardWorker;
+import com.playtech.report.exec.SingleReportRunner;
+import com.playtech.report.exec.TailRunner;
+import com.playtech.util.io.InputFiles;
+
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-
+import java.util.stream.Stream;
+
+import static com.playtech.report.exec.CommandLineArgs.OPTION_ALLOWED_LATENESS;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_BATCH;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_CACHE_DIR;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_CODEGEN;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_CONCURRENT;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_MEMORY_BUDGET;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_PREVIEW;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_PROGRESS_INTERVAL;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_RESULT_CACHE;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_RESULT_CACHE_SIZE;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_SHARD;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_STATUS_FILE;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_TAIL;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_TAIL_IDLE;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_WORKERS;
+import static com.playtech.report.exec.CommandLineArgs.OPTION_WORKER_HOSTS;
+
+/** Command line of report generation: parses the arguments and runs the report mode they select (runners are in report.exec). */
 public class ReportGenerator {
 
+    // --- Command line options ---
+    private static final List<String> KNOWN_OPTIONS = List.of(OPTION_CACHE_DIR, OPTION_BATCH, OPTION_CONCURRENT, OPTION_MEMORY_BUDGET,
+            OPTION_RESULT_CACHE, OPTION_RESULT_CACHE_SIZE, OPTION_PROGRESS_INTERVAL, OPTION_STATUS_FILE, OPTION_WORKERS, OPTION_WORKER_HOSTS,
+            OPTION_SHARD, OPTION_TAIL, OPTION_ALLOWED_LATENESS, OPTION_TAIL_IDLE, OPTION_CODEGEN,
+            OPTION_PREVIEW);
+    private static final String USAGE = "Usage: java com.playtech.ReportGenerator <input.csv> <config.xml> <output.jsnol>"
+            + " [--" + OPTION_CACHE_DIR + "=<dir>] [--" + OPTION_RESULT_CACHE + "=<dir> [--" + OPTION_RESULT_CACHE_SIZE + "=<MB>]]"
+            + " [--" + OPTION_WORKERS + "=<processes> [--" + OPTION_WORKER_HOSTS + "=<host1,host2,...>]]"
+            + " [--" + OPTION_TAIL + " [--" + OPTION_ALLOWED_LATENESS + "=<seconds>] [--" + OPTION_TAIL_IDLE + "=<seconds>]] [--" + OPTION_CODEGEN + "]"
+            + " [--" + OPTION_PREVIEW + "[=<sampled lines>]]"
+            + " | <input.csv> <config1.xml,config2.xml,...|config dir> <output dir> --" + OPTION_BATCH
+            + " [--" + OPTION_CONCURRENT + "[=<cpu threads>]] [--" + OPTION_MEMORY_BUDGET + "=<MB>]"
+            + ", common options: [--" + OPTION_PROGRESS_INTERVAL + "=<seconds>] [--" + OPTION_STATUS_FILE + "=<file>]";
+    private static final int DEFAULT_PROGRESS_INTERVAL_SECONDS = 5;
+    private static final int EXIT_CANCELLED = 130;
+    private static final Duration CANCEL_TIMEOUT = Duration.ofSeconds(30); // Time given to a cancelled run to clean up
+
     // --- Main Logic ---
     public static void main(String[] args) {
         System.out.println("Received arguments: " + Arrays.toString(args));
+        int exitCode = 0;
+        ReportProgress progress = new ReportProgress(Duration.ZERO, null);
+        ReportProgress.State finalState = ReportProgress.State.DONE;
+        Thread cancelHook = null;
         try {
             // 1. Processing args (3 args)
             CommandLineArgs cmdArgs = parseArguments(args);
-
-            // 2. Loading configuration from XML
-            Report report = loadReportConfiguration(cmdArgs.xmlPath());
-
-            // 3. Loading and primary parsing CSV
-            InitialData initialCsvData = loadAndParseCsvData(cmdArgs.csvPath());
-
-            // 4. Transformation data in format List<Map<String, Object>>
-            List<Map<String, Object>> dataRowsAsMapList = convertToMapList(
-                    initialCsvData.rows(), initialCsvData.headers()
-            );
-
-            // 5. Applying transformers (now the can modify dataRowsAsMapList)
-            applyTransformations(report, dataRowsAsMapList);
-
-            // 6. Generating output file (using dataRowsAsMapList after transformation)
-            generateOutput(dataRowsAsMapList, cmdArgs.outputPath());
+            progress = createProgress(cmdArgs);
+            ReportPipeline.setProgress(progress);
+            cancelHook = registerCancelHook(progress);
+
+            // 2. Single report, or several reports sharing one scan of the input (or running as concurrent jobs)
+            if (cmdArgs.option(OPTION_SHARD) != null) {
+                ShardWorker.run(cmdArgs);
+            } else if (cmdArgs.option(OPTION_TAIL) != null) {
+                TailRunner.run(cmdArgs);
+            } else if (cmdArgs.option(OPTION_PREVIEW) != null) {
+                PreviewRunner.run(cmdArgs);
+            } else if (cmdArgs.option(OPTION_BATCH) != null && cmdArgs.option(OPTION_CONCURRENT) != null) {
+                BatchRunner.runConcurrent(cmdArgs);
+            } else if (cmdArgs.option(OPTION_BATCH) != null) {
+                BatchRunner.run(cmdArgs);
+            } else {
+                SingleReportRunner.run(cmdArgs);
+            }
 
             System.out.println("Report generated successfully!");
 
+        } catch (ReportCancelledException e) {
+            System.err.println(e.getMessage() + ", no output was written.");
+            finalState = ReportProgress.State.CANCELLED;
+            exitCode = EXIT_CANCELLED;
         } catch (ReportGenerationException e) {
-            System.err.println("Report generation failed: " + e.getMessage());
-            if (e.getCause() != null) {
-                System.err.println("Cause: " + e.getCause().getMessage());
-                e.getCause().printStackTrace(); // Printing StackTrace as reason for diagnose
+            if (e.getCause() instanceof ReportCancelledException cancelled) {
+                System.err.println(cancelled.getMessage() + ", no output was written.");
+                finalState = ReportProgress.State.CANCELLED;
+                exitCode = EXIT_CANCELLED;
             } else {
-                e.printStackTrace();
+                System.err.println("Report generation failed: " + e.getMessage());
+                if (e.getCause() != null) {
+                    System.err.println("Cause: " + e.getCause().getMessage());
+                    e.getCause().printStackTrace(); // Printing StackTrace as reason for diagnose
+                } else {
+                    e.printStackTrace();
+                }
+                finalState = ReportProgress.State.FAILED;
+                exitCode = 1;
             }
-            System.exit(1);
         } catch (Exception e) {
             System.err.println("An unexpected error occurred: " + e.getMessage());
             e.printStackTrace();
-            System.exit(1);
+            finalState = ReportProgress.State.FAILED;
+            exitCode = 1;
+        }
+        // Final state is published before exit, shutdown hook of a cancelled run waits for it
+        progress.finish(finalState);
+        unregisterCancelHook(cancelHook);
+        if (exitCode != 0) {
+            System.exit(exitCode);
         }
-        // finally { clearContext(); } // Clearing of context is not needed anymore
     }
 
-    // --- Additional methods ---
-
-    /** Processes 3 args of command line. */
-    private static CommandLineArgs parseArguments(String[] args) throws ReportGenerationException {
-        if (args == null || args.length != 3) {
-            throw new ReportGenerationException("Usage: java com.playtech.ReportGenerator <input.csv> <config.xml> <output.jsnol>");
+    /** Progress is printed every --progress-interval seconds (5 by default, 0 disables) and written to --status-file. */
+    private static ReportProgress createProgress(CommandLineArgs cmdArgs) throws ReportGenerationException {
+        int seconds = DEFAULT_PROGRESS_INTERVAL_SECONDS;
+        String interval = cmdArgs.option(OPTION_PROGRESS_INTERVAL);
+        if (interval != null && !interval.trim().equals("0")) {
+            seconds = cmdArgs.positiveOption(OPTION_PROGRESS_INTERVAL, 0);
+        } else if (interval != null) {
+            seconds = 0;
         }
-        return new CommandLineArgs(args[0], args[1], args[2]);
+        String statusFile = cmdArgs.option(OPTION_STATUS_FILE);
+        return new ReportProgress(Duration.ofSeconds(seconds), statusFile != null ? ReportPipeline.validateAndGetPath(statusFile) : null);
     }
 
-    /** Loading configuration report out XML file. */
-    private static Report loadReportConfiguration(String xmlPath) throws ReportGenerationException {
-        try {
-            System.out.println("Loading report configuration from: " + xmlPath);
-            // Fixed: Using the right method parseReport
-            Report report = XmlParser.parseReport(xmlPath);
-            if (report == null) {
-                throw new ReportGenerationException("Failed to parse report configuration: result is null.");
+    /**
+     * SIGTERM / Ctrl+C cancel the run cooperatively: running stage stops at its next checkpoint and removes its
+     * temporary output, the JVM exits once that is done (or after a timeout).
+     */
+    private static Thread registerCancelHook(ReportProgress runProgress) {
+        Thread hook = new Thread(() -> {
+            System.err.println("Cancelling report generation...");
+            runProgress.cancel();
+            try {
+                if (!runProgress.awaitFinish(CANCEL_TIMEOUT)) {
+                    System.err.println("Report generation did not stop within " + CANCEL_TIMEOUT.toSeconds() + " s.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            System.out.println("Report configuration loaded successfully.");
-            return report;
-        } catch (Exception e) { // Catching JAXBException and other possible errors
-            throw new ReportGenerationException("Failed to load or parse report configuration XML: " + xmlPath, e);
-        }
+        }, "report-cancel");
+        Runtime.getRuntime().addShutdownHook(hook);
+        return hook;
     }
 
-    /** Loading data out of CSV and returning headers and rows. */
-    private static InitialData loadAndParseCsvData(String csvFilePath) throws ReportGenerationException {
-        System.out.println("Loading initial data from CSV: " + csvFilePath);
-        Path inputPath = validateAndGetPath(csvFilePath);
-
-        List<String> lines;
+    private static void unregisterCancelHook(Thread hook) {
+        if (hook == null) return;
         try {
-            lines = Files.readAllLines(inputPath, StandardCharsets.UTF_8);
-            System.out.println("Read " + lines.size() + " lines from CSV.");
-        } catch (IOException e) {
-            throw new ReportGenerationException("Failed to read CSV file: " + csvFilePath, e);
+            Runtime.getRuntime().removeShutdownHook(hook);
+        } catch (IllegalStateException e) {
+            // JVM is already shutting down, the hook is running
         }
+    }
 
-        if (lines.isEmpty()) {
-            System.out.println("CSV file is empty. Returning empty data.");
-            return new InitialData(new ArrayList<>(), new ArrayList<>()); // Returning empty lists
+    /** Processes 3 args of command line, followed by optional --name=value options. */
+    private static CommandLineArgs parseArguments(String[] args) throws ReportGenerationException {
+        List<String> positional = new ArrayList<>();
+        Map<String, String> options = new LinkedHashMap<>();
+        if (args != null) {
+            for (String arg : args) {
+                if (arg.startsWith("--")) {
+                    int separator = arg.indexOf('=');
+                    String name = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+                    if (!KNOWN_OPTIONS.contains(name)) {
+                        throw new ReportGenerationException("Unknown option: " + arg + ". " + USAGE);
+                    }
+                    options.put(name, separator < 0 ? "true" : arg.substring(separator + 1));
+                } else {
+                    positional.add(arg);
+                }
+            }
         }
-
-        List<String> headers = Arrays.asList(lines.get(0).split(","));
-        System.out.println("CSV Headers: " + headers);
-
-        List<List<Object>> initialDataRows = new ArrayList<>();
-        for (int i = 1; i < lines.size(); i++) {
-            String[] values = lines.get(i).split(",", -1);
-            initialDataRows.add(new ArrayList<>(Arrays.asList(values))); // Keep as rows
+        if (positional.size() != 3) {
+            throw new ReportGenerationException(USAGE);
         }
-        System.out.println("Parsed " + initialDataRows.size() + " data rows.");
-        return new InitialData(headers, initialDataRows); // Returning result
-    }
-
-    /** Checking path to file and returning object Path. */
-    private static Path validateAndGetPath(String filePath) throws ReportGenerationException {
-        try {
-            Path path = Paths.get(filePath);
-            return path;
-        } catch (InvalidPathException e) {
-            throw new ReportGenerationException("Invalid file path: " + filePath, e);
+        if ((options.containsKey(OPTION_CONCURRENT) || options.containsKey(OPTION_MEMORY_BUDGET)) && !options.containsKey(OPTION_BATCH)) {
+            throw new ReportGenerationException("Options --" + OPTION_CONCURRENT + " and --" + OPTION_MEMORY_BUDGET + " require --" + OPTION_BATCH + ". " + USAGE);
         }
-    }
-
-    /** Formating data out of list list into map list (row). */
-    private static List<Map<String, Object>> convertToMapList(List<List<Object>> dataRows, List<String> headers) {
-        List<Map<String, Object>> mapList = new ArrayList<>();
-        if (headers == null || headers.isEmpty() || dataRows == null) { // Checking dataRows
-            System.err.println("Warning: Cannot convert data to map list - headers or data are missing/empty.");
-            return mapList;
+        if ((options.containsKey(OPTION_WORKERS) || options.containsKey(OPTION_SHARD)) && options.containsKey(OPTION_BATCH)) {
+            throw new ReportGenerationException("Option --" + OPTION_WORKERS + " is supported for single reports only. " + USAGE);
         }
-        int numColumns = headers.size();
-        int rowNum = 0;
-        for (List<Object> rowList : dataRows) {
-            rowNum++;
-            if (rowList != null && rowList.size() == numColumns) {
-                Map<String, Object> rowMap = new LinkedHashMap<>();
-                for (int i = 0; i < numColumns; i++) {
-                    rowMap.put(headers.get(i), rowList.get(i)); // Using Header as key
-                }
-                mapList.add(rowMap);
-            } else {
-                System.err.printf("Warning: Skipping row %d during initial conversion due to inconsistent column count (expected %d, found %d).%n",
-                        rowNum, numColumns, (rowList == null ? 0 : rowList.size()));
-            }
+        if (options.containsKey(OPTION_WORKER_HOSTS) && !options.containsKey(OPTION_WORKERS)) {
+            throw new ReportGenerationException("Option --" + OPTION_WORKER_HOSTS + " requires --" + OPTION_WORKERS + ". " + USAGE);
         }
-        System.out.println("Converted " + mapList.size() + " rows to List<Map<String, Object>> format.");
-        return mapList;
-    }
-
-    /** Applying transformers to data (by map list). */
-    private static void applyTransformations(Report report, List<Map<String, Object>> dataRows) throws ReportGenerationException {
-        // Принимает List<Map<String, Object>>
-        if (report.getTransformers() == null || report.getTransformers().isEmpty()) {
-            System.out.println("No transformers defined. Skipping transformation phase.");
-            return;
+        if (options.containsKey(OPTION_TAIL) && (options.containsKey(OPTION_BATCH) || options.containsKey(OPTION_WORKERS)
+                || options.containsKey(OPTION_RESULT_CACHE) || options.containsKey(OPTION_CACHE_DIR))) {
+            throw new ReportGenerationException("Option --" + OPTION_TAIL + " can not be combined with --" + OPTION_BATCH + ", --" + OPTION_WORKERS
+                    + ", --" + OPTION_RESULT_CACHE + " or --" + OPTION_CACHE_DIR + ". " + USAGE);
         }
-        System.out.println("Applying " + report.getTransformers().size() + " transformers...");
-        int count = 0;
-        for (Transformer transformer : report.getTransformers()) {
-            count++;
-            System.out.printf("Applying transformer %d: %s%n", count, transformer.getClass().getSimpleName());
-            try {
-                transformer.transform(report, dataRows);
-            } catch (Exception e) {
-                System.err.println("Error applying transformer #" + count + " (" + transformer.getClass().getName() + "): " + e.getMessage());
-                if(e.getCause() != null) { e.getCause().printStackTrace(); } else { e.printStackTrace(); }
-                throw new ReportGenerationException("Failed during transformation #" + count + " (" + transformer.getClass().getName() + ")", e);
-            }
+        if ((options.containsKey(OPTION_ALLOWED_LATENESS) || options.containsKey(OPTION_TAIL_IDLE)) && !options.containsKey(OPTION_TAIL)) {
+            throw new ReportGenerationException("Options --" + OPTION_ALLOWED_LATENESS + " and --" + OPTION_TAIL_IDLE + " require --" + OPTION_TAIL + ". " + USAGE);
         }
-        System.out.println("All transformers applied successfully.");
-    }
-
-    /** Calls generation of output file. */
-    private static void generateOutput(List<Map<String, Object>> finalDataRows, String outputFilePath) throws ReportGenerationException {
-        // Getting final list of maps
-        System.out.println("Preparing to generate output to: " + outputFilePath);
-        try {
-            // Pushing final data straight
-            generateJsonl(finalDataRows, outputFilePath);
-        } catch (IOException e) {
-            throw new ReportGenerationException("Failed to write output file: " + outputFilePath, e);
+        if (options.containsKey(OPTION_PREVIEW) && (options.containsKey(OPTION_BATCH) || options.containsKey(OPTION_WORKERS)
+                || options.containsKey(OPTION_TAIL) || options.containsKey(OPTION_RESULT_CACHE) || options.containsKey(OPTION_CACHE_DIR))) {
+            throw new ReportGenerationException("Option --" + OPTION_PREVIEW + " can not be combined with --" + OPTION_BATCH + ", --" + OPTION_WORKERS
+                    + ", --" + OPTION_TAIL + ", --" + OPTION_RESULT_CACHE + " or --" + OPTION_CACHE_DIR + ". " + USAGE);
         }
-    }
-
-    /** Generating file report in format JSON Lines (jsonl). */
-    private static void generateJsonl(List<Map<String, Object>> jsonDataRows, String outputFilePath) throws IOException {
-        System.out.println("Generating JSON Lines report to: " + outputFilePath);
-        Path outputPath = null; // Using validator of path
-        try {
-            outputPath = validateAndGetPath(outputFilePath);
-        } catch (ReportGenerationException e) {
-            throw new RuntimeException(e);
+        if (InputFiles.isMultiple(positional.get(0)) && Stream.of(OPTION_BATCH, OPTION_WORKERS, OPTION_TAIL, OPTION_PREVIEW, OPTION_RESULT_CACHE,
+                OPTION_CACHE_DIR).anyMatch(options::containsKey)) {
+            throw new ReportGenerationException("Several inputs (directory, glob or list) are supported for single reports without --" + OPTION_BATCH
+                    + ", --" + OPTION_WORKERS + ", --" + OPTION_TAIL + ", --" + OPTION_PREVIEW + " or the caches. " + USAGE);
         }
-        Path parentDir = outputPath.getParent();
-
-        if (jsonDataRows == null || jsonDataRows.isEmpty()) {
-            System.out.println("No data provided to write. Generating empty file.");
-            if (parentDir != null) { Files.createDirectories(parentDir); }
-            Files.writeString(outputPath, "", StandardCharsets.UTF_8);
-            return;
+        if (options.containsKey(OPTION_CODEGEN) && options.containsKey(OPTION_BATCH)) {
+            throw new ReportGenerationException("Option --" + OPTION_CODEGEN + " is supported for single reports only. " + USAGE);
         }
-
-        if (parentDir != null) { Files.createDirectories(parentDir); }
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        int rowCount = 0;
-        try (BufferedWriter writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
-            for (Map<String, Object> rowMap : jsonDataRows) {
-                if (rowMap != null && !rowMap.isEmpty()) {
-                    String jsonLine = objectMapper.writeValueAsString(rowMap);
-                    writer.write(jsonLine);
-                    writer.newLine();
-                    rowCount++;
-                } else {
-                    System.err.printf("Warning: Skipping empty or null row map at index %d.%n", rowCount);
-                }
-            }
-            System.out.printf("Successfully wrote %d rows to JSON Lines report: %s%n", rowCount, outputFilePath);
+        if (options.containsKey(OPTION_RESULT_CACHE) && options.containsKey(OPTION_BATCH)) {
+            throw new ReportGenerationException("Option --" + OPTION_RESULT_CACHE + " is supported for single reports only. " + USAGE);
         }
+        return new CommandLineArgs(positional.get(0), positional.get(1), positional.get(2), options);
     }
-
-    // --- Additional classes ---
-    private record CommandLineArgs(String csvPath, String xmlPath, String outputPath) {}
-    // New record for returned data out of CSV parser
-    private record InitialData(List<String> headers, List<List<Object>> rows) {}
-    private static class ReportGenerationException extends Exception {
-        public ReportGenerationException(String message) { super(message); }
-        public ReportGenerationException(String message, Throwable cause) { super(message, cause); }
-    }
-}
\ No newline at end of file
+}
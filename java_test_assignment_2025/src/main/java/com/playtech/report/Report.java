@@ -1,12 +1,15 @@
 package com.playtech.report;
 
 import com.playtech.report.column.Column;
+import com.playtech.report.dimension.Dimension;
 import com.playtech.report.transformer.Transformer;
+import com.playtech.util.columnar.ColumnarFormat;
 import com.playtech.util.xml.adapters.TransformerAdapter;
 import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
 import jakarta.xml.bind.annotation.XmlElement;
 import jakarta.xml.bind.annotation.XmlElementWrapper;
+import jakarta.xml.bind.annotation.XmlIDREF;
 import jakarta.xml.bind.annotation.XmlRootElement;
 import jakarta.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
@@ -17,24 +20,47 @@ import java.util.List;
 public class Report {
     private String reportName;
     private FileFormat outputFormat;
+    private ColumnarFormat.Codec outputCompression; // Optional, chunk compression of COLUMNAR output
     @XmlElementWrapper(name = "inputs")
     @XmlElement(name = "input")
     private List<Column> inputs;
+    @XmlElementWrapper(name = "dimensions")
+    @XmlElement(name = "dimension")
+    private List<Dimension> dimensions;
     @XmlElementWrapper(name = "outputs")
     @XmlElement(name = "output")
     private List<Column> outputs;
+    @XmlIDREF
+    private Column partitionBy; // Optional, one output file per value of this column
     @XmlElementWrapper(name = "transformers")
     @XmlElement(name = "transformer")
     @XmlJavaTypeAdapter(TransformerAdapter.class)
     private List<Transformer> transformers;
 
+    private Report() {
+        // For JAXB
+    }
+
+    public Report(String reportName, FileFormat outputFormat, ColumnarFormat.Codec outputCompression, List<Column> inputs,
+                  List<Dimension> dimensions, List<Column> outputs, Column partitionBy, List<Transformer> transformers) {
+        this.reportName = reportName;
+        this.outputFormat = outputFormat;
+        this.outputCompression = outputCompression;
+        this.inputs = inputs;
+        this.dimensions = dimensions;
+        this.outputs = outputs;
+        this.partitionBy = partitionBy;
+        this.transformers = transformers;
+    }
+
     public List<Transformer> getTransformers() {
         return transformers;
     }
 
     public enum FileFormat {
         CSV,
-        JSONL
+        JSONL,
+        COLUMNAR
     }
 
     public String getReportName() {
@@ -45,11 +71,23 @@ public class Report {
         return outputFormat;
     }
 
+    public ColumnarFormat.Codec getOutputCompression() {
+        return outputCompression;
+    }
+
     public List<Column> getInputs() {
         return inputs;
     }
 
+    public List<Dimension> getDimensions() {
+        return dimensions;
+    }
+
     public List<Column> getOutputs() {
         return outputs;
     }
+
+    public Column getPartitionBy() {
+        return partitionBy;
+    }
 }
@@ -0,0 +1,57 @@
+package com.playtech.report.codegen;
+
+import com.playtech.report.Report;
+import com.playtech.report.row.Row;
+import com.playtech.report.row.RowSchema;
+import com.playtech.report.transformer.Transformer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consecutive cell wise transformers run as one segment of the generated report class: one loop over rows doing
+ * all of them per row. Rows that are not all Rows of one schema (and runs where code generation failed) go through
+ * the original transformers one after another, with the same result.
+ */
+public class GeneratedTransformer implements Transformer {
+    private final ReportCodegen codegen;
+    private final int segment;
+    private final List<Transformer> transformers;
+
+    GeneratedTransformer(ReportCodegen codegen, int segment, List<Transformer> transformers) {
+        this.codegen = codegen;
+        this.segment = segment;
+        this.transformers = List.copyOf(transformers);
+    }
+
+    /** The transformers this segment replaces, in order. */
+    public List<Transformer> getTransformers() { return transformers; }
+
+    ReportCodegen codegen() { return codegen; }
+
+    @Override
+    public void transform(Report report, List<Map<String, Object>> rows) {
+        if (rows == null || rows.isEmpty()) {
+            System.out.println("GeneratedTransformer: No data rows to process.");
+            return;
+        }
+        RowSchema schema = Row.schemaOf(rows);
+        ReportProgram program = schema != null && allOnSchema(rows, schema) ? codegen.programFor(schema) : null;
+        if (program == null) {
+            for (Transformer transformer : transformers) {
+                transformer.transform(report, rows);
+            }
+            return;
+        }
+        program.run(segment, rows);
+    }
+
+    private static boolean allOnSchema(List<Map<String, Object>> rows, RowSchema schema) {
+        for (Map<String, Object> row : rows) {
+            if (row != null && !(row instanceof Row r && r.getSchema() == schema)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,339 @@
+package com.playtech.report.codegen;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.row.RowSchema;
+import com.playtech.report.transformer.Transformer;
+import com.playtech.report.transformer.impl.DateTimeFormatterTransformer;
+import com.playtech.report.transformer.impl.MathOperationTransformer;
+import com.playtech.report.transformer.impl.StringFormatterTransformer;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates Java code for the cell wise transformers of a report (MathOperation, StringFormatter, DateTimeFormatter):
+ * every run of them becomes one segment, a loop doing all of them per row with column slots, column types, operations
+ * and format strings as constants. All segments of the report are one class, compiled in memory on first use (slots
+ * depend on the CSV header) and defined as a hidden class, whose static final fields the JIT treats as constants.
+ * Values are converted and errors reported by the same static methods the transformers use.
+ */
+public final class ReportCodegen {
+    private final String className;
+    private final List<List<Transformer>> segments = new ArrayList<>();
+    private RowSchema programSchema; // Schema of program, guarded by this
+    private ReportProgram program;
+    private boolean failed; // Code generation failed once, transformers run interpreted
+
+    private ReportCodegen(String reportName) {
+        this.className = "ReportProgram_" + (reportName != null ? reportName.replaceAll("[^A-Za-z0-9_]", "_") : "report");
+    }
+
+    /** Transformers with every run of supported transformers replaced by a segment of one generated class. */
+    public static List<Transformer> fuse(String reportName, List<Transformer> transformers) {
+        ReportCodegen codegen = new ReportCodegen(reportName);
+        List<Transformer> fused = new ArrayList<>();
+        List<Transformer> run = new ArrayList<>();
+        for (Transformer transformer : transformers) {
+            if (isSupported(transformer)) {
+                run.add(transformer);
+                continue;
+            }
+            codegen.addSegment(run, fused);
+            fused.add(transformer);
+        }
+        codegen.addSegment(run, fused);
+        if (!codegen.segments.isEmpty()) {
+            System.out.println("ReportCodegen: " + codegen.segments.stream().mapToInt(List::size).sum() + " of " + transformers.size()
+                    + " transformers run as " + codegen.segments.size() + " segment(s) of generated class " + codegen.className + ".");
+        }
+        return fused;
+    }
+
+    private void addSegment(List<Transformer> run, List<Transformer> fused) {
+        if (run.isEmpty()) return;
+        fused.add(new GeneratedTransformer(this, segments.size(), run));
+        segments.add(List.copyOf(run));
+        run.clear();
+    }
+
+    /** Transformers whose whole behaviour is per row and known before any data is read (invalid patterns are left to the transformer). */
+    static boolean isSupported(Transformer transformer) {
+        if (transformer instanceof MathOperationTransformer || transformer instanceof StringFormatterTransformer) {
+            return true;
+        }
+        if (transformer instanceof DateTimeFormatterTransformer formatter) {
+            try {
+                DateTimeFormatter.ofPattern(formatter.getFormat());
+                if (formatter.getInputFormat() != null && !formatter.getInputFormat().isEmpty()) {
+                    DateTimeFormatter.ofPattern(formatter.getInputFormat());
+                }
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /** Program for rows of schema, generated on first use. Null when code generation failed. */
+    synchronized ReportProgram programFor(RowSchema schema) {
+        if (failed) return null;
+        if (program != null && programSchema == schema) return program;
+        long start = System.nanoTime();
+        try {
+            program = compile(generateSource(schema));
+            programSchema = schema;
+            System.out.printf("ReportCodegen: generated %s for %d column slots in %d ms.%n", className, schema.size(), (System.nanoTime() - start) / 1_000_000);
+            return program;
+        } catch (Exception e) {
+            System.err.println("Warning (ReportCodegen): Code generation failed (" + e.getMessage() + "), running transformers interpreted.");
+            failed = true;
+            return null;
+        }
+    }
+
+    /** Source of the report class for rows of schema. */
+    String generateSource(RowSchema schema) {
+        StringBuilder fields = new StringBuilder();
+        StringBuilder methods = new StringBuilder();
+        StringBuilder dispatch = new StringBuilder();
+        int step = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            dispatch.append("            case ").append(s).append(" -> segment").append(s).append("(rows);\n");
+            methods.append("\n    private static void segment").append(s).append("(List<Map<String, Object>> rows) {\n")
+                    .append("        for (int i = 0, n = rows.size(); i < n; i++) {\n")
+                    .append("            if (!(rows.get(i) instanceof Row row)) continue;\n");
+            for (Transformer transformer : segments.get(s)) {
+                if (transformer instanceof MathOperationTransformer math) {
+                    appendMathOperation(methods, math, schema);
+                } else if (transformer instanceof StringFormatterTransformer formatter) {
+                    appendStringFormatter(methods, formatter, schema);
+                } else if (transformer instanceof DateTimeFormatterTransformer formatter) {
+                    appendDateTimeFormatter(methods, fields, formatter, schema, step);
+                }
+                step++;
+            }
+            methods.append("        }\n    }\n");
+        }
+        return "package " + ReportCodegen.class.getPackageName() + ";\n\n"
+                + "import com.playtech.report.column.Decimal;\n"
+                + "import com.playtech.report.row.Row;\n"
+                + "import com.playtech.report.transformer.impl.*;\n"
+                + "import java.time.format.DateTimeFormatter;\n"
+                + "import java.util.List;\n"
+                + "import java.util.Map;\n\n"
+                + "public final class " + className + " implements ReportProgram {\n"
+                + fields
+                + "\n    @Override\n    public void run(int segment, List<Map<String, Object>> rows) {\n"
+                + "        switch (segment) {\n" + dispatch
+                + "            default -> throw new IllegalArgumentException(\"No segment \" + segment);\n"
+                + "        }\n    }\n"
+                + methods
+                + "}\n";
+    }
+
+    private static void appendMathOperation(StringBuilder code, MathOperationTransformer math, RowSchema schema) {
+        Column input1 = math.getInputs().get(0);
+        Column input2 = math.getInputs().get(1);
+        int output = schema.slotOf(math.getOutput().getName());
+        String operator = math.getOperation() == MathOperationTransformer.MathOperation.ADD ? "+" : "-";
+        String exact = math.getOperation() == MathOperationTransformer.MathOperation.ADD ? "addExact" : "subtractExact";
+        String decimal1 = input1.getType() == Column.DataType.DECIMAL ? "true" : "a instanceof Decimal";
+        String decimal2 = input2.getType() == Column.DataType.DECIMAL ? "true" : "b instanceof Decimal";
+        code.append("            // MathOperation: ").append(comment(math.getOutput().getName() + " = " + input1.getName() + " " + operator + " " + input2.getName())).append('\n')
+                .append("            try {\n")
+                .append("                Object a = row.get(").append(schema.slotOf(input1.getName())).append(");\n")
+                .append("                Object b = row.get(").append(schema.slotOf(input2.getName())).append(");\n")
+                .append("                if (").append(decimal1).append(" && ").append(decimal2).append(") {\n")
+                .append("                    row.set(").append(output).append(", Decimal.ofUnscaled(Math.").append(exact)
+                .append("(MathOperationTransformer.parseUnscaled(a), MathOperationTransformer.parseUnscaled(b))));\n")
+                .append("                } else {\n")
+                .append("                    row.set(").append(output).append(", MathOperationTransformer.parseDouble(a) ").append(operator)
+                .append(" MathOperationTransformer.parseDouble(b));\n")
+                .append("                }\n")
+                .append("            } catch (Exception e) {\n")
+                .append("                row.set(").append(output).append(", MathOperationTransformer.failedValue(row, e));\n")
+                .append("            }\n");
+    }
+
+    private static void appendStringFormatter(StringBuilder code, StringFormatterTransformer formatter, RowSchema schema) {
+        int output = schema.slotOf(formatter.getOutput().getName());
+        List<Column> inputs = formatter.getInputs();
+        code.append("            // StringFormatter: ").append(comment(formatter.getOutput().getName() + " = " + formatter.getFormat())).append('\n')
+                .append("            try {\n");
+        for (int i = 0; i < inputs.size(); i++) {
+            String name = inputs.get(i).getName();
+            code.append("                Object v").append(i).append(" = row.get(").append(schema.slotOf(name)).append(");\n")
+                    .append("                if (v").append(i).append(" == null && !row.containsKey(").append(literal(name)).append(")) v").append(i).append(" = \"\";\n");
+        }
+        String arguments = IntStream.range(0, inputs.size())
+                .mapToObj(i -> "StringFormatterTransformer.formatArgument(v" + i + ")")
+                .collect(Collectors.joining(", "));
+        String concatenation = concatenationOf(formatter.getFormat(), inputs.size());
+        code.append("                row.set(").append(output).append(", ").append(concatenation != null ? concatenation
+                        : "String.format(" + literal(formatter.getFormat()) + ", new Object[] {" + arguments + "})").append(");\n")
+                .append("            } catch (Exception e) {\n")
+                .append("                row.set(").append(output).append(", StringFormatterTransformer.failedValue(row, e));\n")
+                .append("            }\n");
+    }
+
+    private static void appendDateTimeFormatter(StringBuilder code, StringBuilder fields, DateTimeFormatterTransformer formatter,
+                                                RowSchema schema, int step) {
+        int output = schema.slotOf(formatter.getOutput().getName());
+        String inputFormat = formatter.getInputFormat();
+        fields.append("    private static final DateTimeFormatter OUTPUT_").append(step).append(" = DateTimeFormatter.ofPattern(")
+                .append(literal(formatter.getFormat())).append(");\n")
+                .append("    private static final DateTimeFormatter INPUT_").append(step).append(" = ")
+                .append(inputFormat != null && !inputFormat.isEmpty() ? "DateTimeFormatter.ofPattern(" + literal(inputFormat) + ")" : "null")
+                .append(";\n");
+        code.append("            // DateTimeFormatter: ").append(comment(formatter.getOutput().getName() + " = " + formatter.getInput().getName()
+                        + " as " + formatter.getFormat())).append('\n')
+                .append("            {\n")
+                .append("                Object raw = row.get(").append(schema.slotOf(formatter.getInput().getName())).append(");\n")
+                .append("                String text = raw != null ? raw.toString() : null;\n")
+                .append("                if (text == null || text.isEmpty()) {\n")
+                .append("                    row.set(").append(output).append(", text);\n")
+                .append("                } else {\n")
+                .append("                    try {\n")
+                .append("                        row.set(").append(output).append(", OUTPUT_").append(step)
+                .append(".format(DateTimeFormatterTransformer.parse(text, INPUT_").append(step).append(")));\n")
+                .append("                    } catch (Exception e) {\n")
+                .append("                        row.set(").append(output).append(", DateTimeFormatterTransformer.failedValue(text, row, e));\n")
+                .append("                    }\n")
+                .append("                }\n")
+                .append("            }\n");
+    }
+
+    /**
+     * String concatenation doing the same as String.format when the format has only %s (arguments in order), %% and %n
+     * and there is an argument for every %s, null otherwise. Constant text is not parsed again for every row.
+     */
+    static String concatenationOf(String format, int argumentCount) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int argument = 0;
+        for (int i = 0; i < format.length(); i++) {
+            char c = format.charAt(i);
+            if (c != '%') {
+                text.append(c);
+                continue;
+            }
+            char conversion = i + 1 < format.length() ? format.charAt(++i) : 0;
+            switch (conversion) {
+                case '%' -> text.append('%');
+                case 'n' -> text.append(System.lineSeparator());
+                case 's' -> {
+                    if (argument == argumentCount) return null;
+                    if (!text.isEmpty()) parts.add(literal(text.toString()));
+                    text.setLength(0);
+                    parts.add("ReportCodegen.formatted(StringFormatterTransformer.formatArgument(v" + argument++ + "))");
+                }
+                default -> {
+                    return null; // Width, precision, other conversions: left to String.format
+                }
+            }
+        }
+        if (!text.isEmpty() || parts.isEmpty()) parts.add(literal(text.toString()));
+        return String.join(" + ", parts);
+    }
+
+    /** Argument as %s formats it. */
+    static String formatted(Object argument) {
+        return argument instanceof Formattable ? String.format("%s", argument) : String.valueOf(argument);
+    }
+
+    /** Java string literal of text. */
+    static String literal(String text) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7E) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    // Comments only hold printable ASCII without line breaks and comment ends
+    private static String comment(String text) {
+        return text.replaceAll("[^\\x20-\\x7E]", "?").replace("*/", "* /");
+    }
+
+    /** Compiles source in memory (javac of the running JDK) and defines the class as hidden class of this package. */
+    private ReportProgram compile(String source) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("no Java compiler in this runtime, a JDK is needed");
+        }
+        String qualifiedName = ReportCodegen.class.getPackageName() + "." + className;
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> classFiles = new HashMap<>();
+        JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///" + qualifiedName.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        try (JavaFileManager fileManager = new ForwardingJavaFileManager<>(compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + name.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return classFiles.computeIfAbsent(name, key -> new ByteArrayOutputStream());
+                    }
+                };
+            }
+        }) {
+            List<String> options = List.of("-classpath", System.getProperty("java.class.path"), "-proc:none", "-g:none");
+            if (!compiler.getTask(null, fileManager, diagnostics, options, null, List.of(sourceFile)).call()) {
+                throw new IllegalStateException("generated code does not compile: " + diagnostics.getDiagnostics().stream()
+                        .map(diagnostic -> diagnostic.getMessage(null)).collect(Collectors.joining("; ")));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("in memory compilation failed: " + e.getMessage(), e);
+        }
+        ByteArrayOutputStream classFile = classFiles.get(qualifiedName);
+        if (classFile == null) {
+            throw new IllegalStateException("compiler produced no class " + qualifiedName);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile.toByteArray(), true);
+        try {
+            return (ReportProgram) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("generated class could not be created: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.playtech.report.codegen;
+
+import java.util.List;
+import java.util.Map;
+
+/** Transformers of one report compiled into one class, implementations are generated by {@link ReportCodegen}. */
+public interface ReportProgram {
+
+    /** Runs the transformers of segment on rows, every row is a Row of the schema the program was generated for. */
+    void run(int segment, List<Map<String, Object>> rows);
+}
@@ -12,12 +12,22 @@ public class Column {
     private String name;
     private DataType type;
 
+    private Column() {
+        // For JAXB
+    }
+
+    public Column(String name, DataType type) {
+        this.name = name;
+        this.type = type;
+    }
+
     public enum DataType {
         STRING,
         INTEGER,
         DOUBLE,
         DATE,
         DATETIME,
+        DECIMAL, // Fixed point with 2 fraction digits (money), see Decimal
     }
 
     public String getName() {
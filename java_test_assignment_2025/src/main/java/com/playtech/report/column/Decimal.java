@@ -0,0 +1,169 @@
+package com.playtech.report.column;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Value of a DECIMAL column: fixed point number with 2 fraction digits kept as a scaled long (cents).
+ * Sums and differences are exact and overflow checked, parsing goes straight from characters to the long.
+ * It is a Number, so code that handles numbers by doubleValue() keeps working.
+ */
+public final class Decimal extends Number implements Comparable<Decimal> {
+    private static final long serialVersionUID = 1L;
+    public static final int SCALE = 2;
+    private static final long FACTOR = 100;
+
+    private final long unscaled;
+
+    private Decimal(long unscaled) {
+        this.unscaled = unscaled;
+    }
+
+    public static Decimal ofUnscaled(long unscaled) {
+        return new Decimal(unscaled);
+    }
+
+    /** Parses "-12", "12.5", "12.50" or "12,50" (surrounding spaces allowed), more than 2 fraction digits are rejected. */
+    public static Decimal parse(CharSequence text) {
+        return new Decimal(parseUnscaled(text));
+    }
+
+    /** Scaled value of text without creating any objects. */
+    public static long parseUnscaled(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+        boolean negative = false;
+        if (start < end && (text.charAt(start) == '-' || text.charAt(start) == '+')) {
+            negative = text.charAt(start) == '-';
+            start++;
+        }
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1; // -1 until separator is seen
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (fractionDigits >= 0 && ++fractionDigits > SCALE) {
+                    throw new NumberFormatException("More than " + SCALE + " fraction digits in DECIMAL value '" + text + "'");
+                }
+                // Accumulating negative value, so Long.MIN_VALUE can be parsed as well
+                value = multiplyAddExact(value, c - '0', text);
+                digits++;
+            } else if ((c == '.' || c == ',') && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                throw new NumberFormatException("Not a DECIMAL value '" + text + "'");
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a DECIMAL value '" + text + "'");
+        }
+        for (int i = Math.max(fractionDigits, 0); i < SCALE; i++) {
+            value = multiplyAddExact(value, 0, text);
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                throw new NumberFormatException("DECIMAL value out of range '" + text + "'");
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    private static long multiplyAddExact(long negativeValue, int digit, CharSequence text) {
+        if (negativeValue < Long.MIN_VALUE / 10 || negativeValue * 10 < Long.MIN_VALUE + digit) {
+            throw new NumberFormatException("DECIMAL value out of range '" + text + "'");
+        }
+        return negativeValue * 10 - digit;
+    }
+
+    /** Scaled value of a row value: Decimal, integral number or text. Floating point values are rounded half up. */
+    public static long unscaledOf(Object value) {
+        if (value instanceof Decimal decimal) {
+            return decimal.unscaled;
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return Math.multiplyExact(((Number) value).longValue(), FACTOR);
+        }
+        if (value instanceof Number number) {
+            return BigDecimal.valueOf(number.doubleValue()).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+        return parseUnscaled(value.toString());
+    }
+
+    public static Decimal valueOf(Object value) {
+        return value instanceof Decimal decimal ? decimal : new Decimal(unscaledOf(value));
+    }
+
+    public long unscaledValue() {
+        return unscaled;
+    }
+
+    public Decimal add(Decimal other) {
+        return new Decimal(Math.addExact(unscaled, other.unscaled));
+    }
+
+    public Decimal subtract(Decimal other) {
+        return new Decimal(Math.subtractExact(unscaled, other.unscaled));
+    }
+
+    /** Quotient rounded half up (away from zero), e.g. average of a sum. */
+    public static long divideRounded(long unscaled, long divisor) {
+        long quotient = unscaled / divisor;
+        long remainder = Math.abs(unscaled % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            quotient += (unscaled < 0) != (divisor < 0) ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaled, SCALE);
+    }
+
+    @Override
+    public double doubleValue() {
+        return (double) unscaled / FACTOR; // Correctly rounded while unscaled fits 53 bits
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public long longValue() {
+        return unscaled / FACTOR;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public int compareTo(Decimal other) {
+        return Long.compare(unscaled, other.unscaled);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Decimal other && unscaled == other.unscaled;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(unscaled);
+    }
+
+    /** Plain text with exactly 2 fraction digits, e.g. "-0.05". */
+    @Override
+    public String toString() {
+        long whole = unscaled / FACTOR;
+        long fraction = Math.abs(unscaled % FACTOR);
+        String sign = unscaled < 0 && whole == 0 ? "-" : "";
+        return sign + whole + "." + (fraction < 10 ? "0" : "") + fraction;
+    }
+}
@@ -0,0 +1,49 @@
+package com.playtech.report.dimension;
+
+import com.playtech.report.column.Column;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementWrapper;
+import jakarta.xml.bind.annotation.XmlID;
+
+import java.util.List;
+
+/** Small lookup CSV (e.g. game catalogue) joined to the input rows by a key column. */
+@XmlAccessorType(XmlAccessType.FIELD)
+public class Dimension {
+    @XmlID
+    private String name;
+    private String path; // Relative to the directory of the report configuration
+    private String key; // Key column name in the dimension file
+    @XmlElementWrapper(name = "columns")
+    @XmlElement(name = "column")
+    private List<Column> columns; // Columns taken from the dimension file into joined rows
+
+    private Dimension() {
+        // For JAXB
+    }
+
+    public Dimension(String name, String path, String key, List<Column> columns) {
+        this.name = name;
+        this.path = path;
+        this.key = key;
+        this.columns = columns;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+}
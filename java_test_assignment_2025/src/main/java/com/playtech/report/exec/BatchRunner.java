@@ -0,0 +1,214 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.report.output.RowWriters;
+import com.playtech.report.plan.CompiledReport;
+import com.playtech.report.plan.TransformerSignature;
+import com.playtech.report.row.Row;
+import com.playtech.report.transformer.Transformer;
+import com.playtech.report.transformer.impl.FilterTransformer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/** Runner of batch mode: several reports on one input, sharing one scan of it or running as concurrent jobs. */
+public final class BatchRunner {
+
+    private BatchRunner() {
+    }
+
+    /**
+     * Generates several reports out of one scan of the input. CSV is parsed once, transformers that are equal
+     * at the same position of several reports (e.g. same DateTimeFormatter on StartDateTime) run once and their
+     * result is shared. Every report is written to output directory as {@code <reportName>.<format extension>}.
+     */
+    public static void run(CommandLineArgs cmdArgs) throws ReportGenerationException {
+        List<BatchJob> jobs = loadBatchJobs(cmdArgs);
+        List<Column> allInputs = new ArrayList<>();
+        Set<String> allColumns = new LinkedHashSet<>(); // Columns of all reports, rows share one schema
+        for (BatchJob job : jobs) {
+            allColumns.addAll(job.columns());
+            if (job.report().getInputs() != null) {
+                for (Column input : job.report().getInputs()) {
+                    if (allInputs.stream().noneMatch(known -> known.getName().equals(input.getName()))) {
+                        allInputs.add(input);
+                    }
+                }
+            }
+        }
+
+        // Leading filters equal in all reports are pushed down into the shared scan
+        List<FilterTransformer> sharedFilters = new ArrayList<>();
+        while (true) {
+            int position = sharedFilters.size();
+            if (jobs.stream().anyMatch(job -> job.transformers().size() <= position
+                    || !(job.transformers().get(position) instanceof FilterTransformer))) {
+                break;
+            }
+            String signature = TransformerSignature.of(jobs.get(0).transformers().get(position));
+            if (jobs.stream().anyMatch(job -> !TransformerSignature.of(job.transformers().get(position)).equals(signature))) {
+                break;
+            }
+            sharedFilters.add((FilterTransformer) jobs.get(0).transformers().get(position));
+        }
+        if (!sharedFilters.isEmpty()) {
+            System.out.println("Pushing down " + sharedFilters.size() + " filter(s) shared by all reports into CSV parsing.");
+            jobs.replaceAll(job -> new BatchJob(job.report(), job.columns(), job.transformers().subList(sharedFilters.size(), job.transformers().size()), job.outputPath()));
+        }
+
+        CsvInput.InitialData initialCsvData = InputLoader.load(cmdArgs, allInputs, sharedFilters);
+        List<Map<String, Object>> rows = CsvInput.convertToMapList(initialCsvData.rows(), initialCsvData.headers(), allColumns);
+        runSharedTransformers(jobs, rows, 0);
+    }
+
+    /**
+     * Runs every report of the batch as an independent job (own scan of the input) on a virtual thread, so reading
+     * and writing files of many jobs overlaps. Converting rows and transformers run on a ForkJoin pool bounded by
+     * {@code --concurrent=<cpu threads>} (number of cores by default). Jobs start only while their estimated row
+     * memory fits into {@code --memory-budget} (3/4 of the heap by default). A failed job does not stop the others.
+     */
+    public static void runConcurrent(CommandLineArgs cmdArgs) throws ReportGenerationException {
+        List<BatchJob> jobs = loadBatchJobs(cmdArgs);
+        int cpuThreads = cmdArgs.positiveOption(CommandLineArgs.OPTION_CONCURRENT, Runtime.getRuntime().availableProcessors());
+        long memoryBudget = cmdArgs.option(CommandLineArgs.OPTION_MEMORY_BUDGET) != null
+                ? cmdArgs.positiveOption(CommandLineArgs.OPTION_MEMORY_BUDGET, 0) * 1024L * 1024L
+                : ReportJobExecutor.defaultMemoryBudget();
+        long estimatedBytes = ReportPipeline.estimateRowMemory(cmdArgs.csvPath());
+
+        Map<String, Throwable> failures;
+        try (ReportJobExecutor executor = new ReportJobExecutor(cpuThreads, memoryBudget)) {
+            System.out.printf("Running %d reports concurrently: %d CPU threads, memory budget %d MB, about %d MB per report.%n",
+                    jobs.size(), executor.getCpuParallelism(), executor.getMemoryBudget() >> 20, estimatedBytes >> 20);
+            for (BatchJob job : jobs) {
+                executor.submit(job.outputPath(), estimatedBytes, () -> {
+                    runBatchJob(cmdArgs, job, executor);
+                    return null;
+                });
+            }
+            failures = executor.awaitAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportGenerationException("Interrupted while waiting for concurrent reports", e);
+        }
+        if (!failures.isEmpty() && ReportPipeline.progress.isCancelled()) {
+            throw new ReportCancelledException("concurrent reports (" + failures.size() + " of " + jobs.size() + " stopped)");
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach((output, error) -> System.err.println("Report " + output + " failed: " + error.getMessage()));
+            Throwable first = failures.values().iterator().next();
+            throw new ReportGenerationException(failures.size() + " of " + jobs.size() + " reports failed, outputs: " + failures.keySet(), first);
+        }
+        System.out.println("All " + jobs.size() + " concurrent reports finished.");
+    }
+
+    /** One report of concurrent batch: I/O stages on the calling virtual thread, CPU stages on the executor pool. */
+    private static void runBatchJob(CommandLineArgs cmdArgs, BatchJob job, ReportJobExecutor executor) throws Exception {
+        ReportPipeline.ExecutionPlan plan = ReportPipeline.planExecution(job.transformers());
+        CsvInput.InitialData initialCsvData = InputLoader.load(cmdArgs, job.report().getInputs(), plan.pushedDownFilters());
+        List<Map<String, Object>> rows = executor.compute(() -> {
+            List<Map<String, Object>> converted = CsvInput.convertToMapList(initialCsvData.rows(), initialCsvData.headers(), job.columns());
+            ReportPipeline.applyTransformations(job.report(), plan.transformers(), converted);
+            return converted;
+        });
+        ReportOutput.generateOutput(job.report(), rows, job.outputPath());
+    }
+
+    /** Loads and compiles every report of the batch, output of each is {@code <output dir>/<reportName>.<extension>}. */
+    private static List<BatchJob> loadBatchJobs(CommandLineArgs cmdArgs) throws ReportGenerationException {
+        List<String> xmlPaths = resolveBatchConfigs(cmdArgs.xmlPath());
+        Path outputDir = ReportPipeline.validateAndGetPath(cmdArgs.outputPath());
+        System.out.println("Batch mode: " + xmlPaths.size() + " report configurations, output directory: " + outputDir);
+
+        List<BatchJob> jobs = new ArrayList<>();
+        for (String xmlPath : xmlPaths) {
+            Report report = ReportPipeline.loadReportConfiguration(xmlPath);
+            String name = report.getReportName() != null && !report.getReportName().isBlank()
+                    ? report.getReportName()
+                    : Paths.get(xmlPath).getFileName().toString().replaceFirst("\\.xml$", "");
+            CompiledReport compiled = ReportPipeline.compileReport(report);
+            String extension = RowWriters.extensionOf(RowWriters.formatOf(report));
+            jobs.add(new BatchJob(report, compiled.slotNames(), compiled.transformers(), outputDir.resolve(name + extension).toString()));
+        }
+        long distinctOutputs = jobs.stream().map(BatchJob::outputPath).distinct().count();
+        if (distinctOutputs != jobs.size()) {
+            throw new ReportGenerationException("Batch reports must have distinct report names, outputs would overwrite each other.");
+        }
+        return jobs;
+    }
+
+    /** Config argument in batch mode: directory with report XMLs or comma separated list of XML files. */
+    private static List<String> resolveBatchConfigs(String xmlArgument) throws ReportGenerationException {
+        Path path = ReportPipeline.validateAndGetPath(xmlArgument);
+        if (Files.isDirectory(path)) {
+            try (var files = Files.list(path)) {
+                List<String> xmlPaths = files.filter(file -> file.getFileName().toString().endsWith(".xml"))
+                        .map(Path::toString)
+                        .sorted()
+                        .collect(Collectors.toList());
+                if (xmlPaths.isEmpty()) {
+                    throw new ReportGenerationException("No report XML files found in directory: " + xmlArgument);
+                }
+                return xmlPaths;
+            } catch (IOException e) {
+                throw new ReportGenerationException("Failed to list report configurations in: " + xmlArgument, e);
+            }
+        }
+        return Arrays.stream(xmlArgument.split(","))
+                .map(String::trim)
+                .filter(xmlPath -> !xmlPath.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies transformer at {@code position} of every job, once per group of jobs with equal transformer there.
+     * Each group works on its own copy of rows (transformers modify rows in place), the last group takes the original.
+     */
+    private static void runSharedTransformers(List<BatchJob> jobs, List<Map<String, Object>> rows, int position) throws ReportGenerationException {
+        // Jobs without further transformers read the rows before anybody modifies them
+        Map<String, List<BatchJob>> groups = new LinkedHashMap<>();
+        for (BatchJob job : jobs) {
+            if (job.transformers().size() == position) {
+                ReportOutput.generateOutput(job.report(), rows, job.outputPath());
+            } else {
+                groups.computeIfAbsent(TransformerSignature.of(job.transformers().get(position)), signature -> new ArrayList<>()).add(job);
+            }
+        }
+        int groupIndex = 0;
+        for (List<BatchJob> group : groups.values()) {
+            boolean lastConsumer = ++groupIndex == groups.size();
+            List<Map<String, Object>> groupRows = lastConsumer ? rows : copyRows(rows);
+            BatchJob first = group.get(0);
+            if (group.size() == 1) {
+                // Nothing more to share, rest of the chain runs as for a single report
+                ReportPipeline.applyTransformations(first.report(), first.transformers().subList(position, first.transformers().size()), groupRows);
+                ReportOutput.generateOutput(first.report(), groupRows, first.outputPath());
+                continue;
+            }
+            Transformer shared = first.transformers().get(position);
+            System.out.printf("Applying shared transformer %d: %s (used by %d reports)%n", position + 1, shared.getClass().getSimpleName(), group.size());
+            ReportPipeline.applyTransformations(first.report(), List.of(shared), groupRows);
+            runSharedTransformers(group, groupRows, position + 1);
+        }
+    }
+
+    private static List<Map<String, Object>> copyRows(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> copy = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            copy.add(Row.copyOf(row));
+        }
+        return copy;
+    }
+
+    private record BatchJob(Report report, List<String> columns, List<Transformer> transformers, String outputPath) {}
+}
@@ -0,0 +1,40 @@
+package com.playtech.report.exec;
+
+import java.util.Map;
+
+/** Input, report configuration and output arguments of a run with its --name=value options (value "true" when omitted). */
+public record CommandLineArgs(String csvPath, String xmlPath, String outputPath, Map<String, String> options) {
+    public static final String OPTION_CACHE_DIR = "cache-dir";
+    public static final String OPTION_BATCH = "batch";
+    public static final String OPTION_CONCURRENT = "concurrent";
+    public static final String OPTION_MEMORY_BUDGET = "memory-budget";
+    public static final String OPTION_RESULT_CACHE = "result-cache";
+    public static final String OPTION_RESULT_CACHE_SIZE = "result-cache-size";
+    public static final String OPTION_PROGRESS_INTERVAL = "progress-interval";
+    public static final String OPTION_STATUS_FILE = "status-file";
+    public static final String OPTION_WORKERS = "workers";
+    public static final String OPTION_WORKER_HOSTS = "worker-hosts";
+    public static final String OPTION_SHARD = "shard"; // Set by the coordinator on worker command lines
+    public static final String OPTION_TAIL = "tail";
+    public static final String OPTION_ALLOWED_LATENESS = "allowed-lateness";
+    public static final String OPTION_TAIL_IDLE = "tail-idle";
+    public static final String OPTION_CODEGEN = "codegen";
+    public static final String OPTION_PREVIEW = "preview";
+
+    public String option(String name) { return options.get(name); }
+
+    /** Positive number value of option, default when the option is given without value. */
+    public int positiveOption(String name, int defaultValue) throws ReportGenerationException {
+        String value = option(name);
+        if ((value == null || value.equals("true")) && defaultValue > 0) {
+            return defaultValue;
+        }
+        try {
+            int number = Integer.parseInt(value.trim());
+            if (number > 0) return number;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new ReportGenerationException("Option --" + name + " expects a positive number, got: " + value);
+    }
+}
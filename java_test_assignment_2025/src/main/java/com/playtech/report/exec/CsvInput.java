@@ -0,0 +1,194 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.row.Row;
+import com.playtech.report.row.RowSchema;
+import com.playtech.report.transformer.impl.FilterTransformer;
+import com.playtech.util.csv.CsvFieldReader;
+import com.playtech.util.csv.CsvRecord;
+import com.playtech.util.io.CompressedFiles;
+import com.playtech.util.io.CountingInputStream;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/** Parsing of CSV input: whole file into rows, or batch by batch for the streaming runners. */
+final class CsvInput {
+    static final int STREAMING_BATCH_SIZE = 8192; // Rows parsed and transformed at once before a presorted Aggregator
+
+    private CsvInput() {
+    }
+
+    /**
+     * Loading data out of CSV and returning headers and rows. Lines rejected by pushed down filters are not split,
+     * kept lines are not split either: a row is the line with offsets of its fields, decoded on first read.
+     */
+    static InitialData loadAndParseCsvData(String csvFilePath, List<FilterTransformer> filters) throws ReportGenerationException {
+        System.out.println("Loading initial data from CSV: " + csvFilePath);
+        Path inputPath = ReportPipeline.validateAndGetPath(csvFilePath);
+
+        List<String> headers = new ArrayList<>();
+        List<List<Object>> initialDataRows = new ArrayList<>();
+        int lineCount = 0;
+        int rejectedCount = 0;
+        ReportPipeline.progress.stage("reading " + inputPath.getFileName());
+        try (CountingInputStream input = new CountingInputStream(CompressedFiles.newInputStream(inputPath)); // Plain or .gz by extension
+             BufferedReader reader = CompressedFiles.newBufferedReader(input)) {
+            if (CompressedFiles.isGzip(inputPath)) {
+                ReportPipeline.progress.addInputOfUnknownSize();
+            } else {
+                ReportPipeline.progress.addInput(Files.size(inputPath));
+            }
+            long reportedBytes = 0; // Bytes of input counted in progress
+            int pendingLines = 0;
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                System.out.println("CSV file is empty. Returning empty data.");
+                return new InitialData(new ArrayList<>(), new ArrayList<>()); // Returning empty lists
+            }
+            lineCount++;
+            headers = Arrays.asList(headerLine.split(","));
+            System.out.println("CSV Headers: " + headers);
+
+            // Reads only the fields used by predicates
+            CsvFieldReader fieldReader = filters.isEmpty() ? null : new CsvFieldReader(headers);
+            int numColumns = headers.size();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                if (++pendingLines == ReportPipeline.PROGRESS_BATCH_SIZE) {
+                    ReportPipeline.progress.addRead(input.count() - reportedBytes, pendingLines);
+                    ReportPipeline.progress.checkpoint();
+                    reportedBytes = input.count();
+                    pendingLines = 0;
+                }
+                if (fieldReader != null) {
+                    fieldReader.reset(line);
+                    // Line of wrong field count is kept for conversion to report, as without pushdown
+                    if (!matchesAll(filters, fieldReader) && CsvRecord.countFields(line) == numColumns) {
+                        rejectedCount++;
+                        continue;
+                    }
+                }
+                CsvRecord record = CsvRecord.parse(line, numColumns);
+                // Line of wrong field count is split as is, so conversion reports it
+                initialDataRows.add(record != null ? record : new ArrayList<>(Arrays.asList(line.split(",", -1))));
+            }
+            ReportPipeline.progress.addRead(input.count() - reportedBytes, pendingLines);
+        } catch (IOException e) {
+            throw new ReportGenerationException("Failed to read CSV file: " + csvFilePath, e);
+        }
+        System.out.println("Read " + lineCount + " lines from CSV.");
+        if (!filters.isEmpty()) {
+            System.out.println("Pushed down filters rejected " + rejectedCount + " lines.");
+        }
+        System.out.println("Parsed " + initialDataRows.size() + " data rows.");
+        return new InitialData(headers, initialDataRows); // Returning result
+    }
+
+    /**
+     * Reads CSV lines after the header in batches of {@value #STREAMING_BATCH_SIZE} rows on schema and passes every
+     * batch to consumer (batch is reused after). Lines rejected by pushed down filters are not split. Line numbers
+     * of warnings start after firstLine. Bytes read out of input (the stream under reader, header included) are
+     * added to progress, except for the first countedBytes which it already has.
+     */
+    static StreamedLines streamCsvBatches(BufferedReader reader, CountingInputStream input, long countedBytes, List<String> headers, RowSchema schema,
+                                          List<FilterTransformer> filters, long firstLine, BatchConsumer consumer) throws IOException, ReportGenerationException {
+        int numColumns = headers.size();
+        int[] sourceFields = Row.sourceFieldsOf(schema, headers);
+        CsvFieldReader fieldReader = filters.isEmpty() ? null : new CsvFieldReader(headers);
+        long lineCount = 0;
+        long rejectedCount = 0;
+        long reportedBytes = countedBytes;
+        List<Map<String, Object>> batch = new ArrayList<>(STREAMING_BATCH_SIZE);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineCount++;
+            if (fieldReader != null) {
+                fieldReader.reset(line);
+                // Line of wrong field count gets the warning below, as without pushdown
+                if (!matchesAll(filters, fieldReader) && CsvRecord.countFields(line) == numColumns) {
+                    rejectedCount++;
+                    continue;
+                }
+            }
+            CsvRecord record = CsvRecord.parse(line, numColumns);
+            if (record == null) {
+                System.err.printf("Warning: Skipping line %d due to inconsistent column count (expected %d, found %d).%n",
+                        firstLine + lineCount, numColumns, CsvRecord.countFields(line));
+                continue;
+            }
+            batch.add(new Row(schema, record, sourceFields));
+            if (batch.size() == STREAMING_BATCH_SIZE) {
+                ReportPipeline.progress.addRead(input.count() - reportedBytes, batch.size());
+                reportedBytes = input.count();
+                consumer.accept(batch);
+                batch.clear();
+            }
+        }
+        ReportPipeline.progress.addRead(input.count() - reportedBytes, batch.size());
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+            batch.clear();
+        }
+        return new StreamedLines(lineCount, rejectedCount);
+    }
+
+    static List<String> readCsvHeaders(Path inputPath) throws IOException {
+        try (BufferedReader reader = CompressedFiles.newBufferedReader(inputPath)) { // Plain or .gz by extension
+            String headerLine = reader.readLine();
+            return headerLine != null ? Arrays.asList(headerLine.split(",")) : List.of();
+        }
+    }
+
+    private static boolean matchesAll(List<FilterTransformer> filters, CsvFieldReader fieldReader) {
+        for (FilterTransformer filter : filters) {
+            if (!filter.test(fieldReader)) return false;
+        }
+        return true;
+    }
+
+    /** Formating data out of list list into map list (row). */
+    static List<Map<String, Object>> convertToMapList(List<List<Object>> dataRows, List<String> headers, Collection<String> reportColumns) {
+        List<Map<String, Object>> mapList = new ArrayList<>();
+        if (headers == null || headers.isEmpty() || dataRows == null) { // Checking dataRows
+            System.err.println("Warning: Cannot convert data to map list - headers or data are missing/empty.");
+            return mapList;
+        }
+        ReportPipeline.progress.stage("converting rows");
+        ReportPipeline.progress.checkpoint();
+        // CSV columns keep their order, columns produced by transformers follow, so rows are allocated once
+        RowSchema schema = new RowSchema(headers);
+        reportColumns.forEach(schema::slotOf);
+        int numColumns = headers.size();
+        int[] sourceFields = Row.sourceFieldsOf(schema, headers);
+        int rowNum = 0;
+        for (List<Object> rowList : dataRows) {
+            rowNum++;
+            if (rowList != null && rowList.size() == numColumns) {
+                // Row reads the list on demand: CSV records and cached rows decode a field when it is first read
+                mapList.add(new Row(schema, rowList, sourceFields));
+            } else {
+                System.err.printf("Warning: Skipping row %d during initial conversion due to inconsistent column count (expected %d, found %d).%n",
+                        rowNum, numColumns, (rowList == null ? 0 : rowList.size()));
+            }
+        }
+        System.out.println("Converted " + mapList.size() + " rows to slot indexed rows (" + schema.size() + " column slots).");
+        return mapList;
+    }
+
+    // New record for returned data out of CSV parser
+    record InitialData(List<String> headers, List<List<Object>> rows) {}
+
+    record StreamedLines(long lines, long rejected) {}
+
+    interface BatchConsumer {
+        void accept(List<Map<String, Object>> batch) throws ReportGenerationException;
+    }
+}
@@ -0,0 +1,103 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.transformer.impl.FilterTransformer;
+import com.playtech.util.cache.ColumnarCsvCache;
+import com.playtech.util.columnar.ColumnarFileReader;
+import com.playtech.util.columnar.ColumnarFormat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/** Input of the runners reading all rows at once: CSV text, columnar report files or CSV through the columnar cache. */
+final class InputLoader {
+
+    private InputLoader() {
+    }
+
+    /** Loading CSV data, through columnar cache if it is enabled. Columnar report files (output of other reports) are read directly. */
+    static CsvInput.InitialData load(CommandLineArgs cmdArgs, List<Column> inputs, List<FilterTransformer> filters) throws ReportGenerationException {
+        if (cmdArgs.csvPath().endsWith(ColumnarFormat.EXTENSION)) {
+            return loadColumnarData(cmdArgs.csvPath(), filters);
+        }
+        return cmdArgs.option(CommandLineArgs.OPTION_CACHE_DIR) != null
+                ? loadCsvDataCached(cmdArgs.csvPath(), cmdArgs.option(CommandLineArgs.OPTION_CACHE_DIR), inputs, filters)
+                : CsvInput.loadAndParseCsvData(cmdArgs.csvPath(), filters);
+    }
+
+    /** Loading rows out of columnar report file, values keep their written types (Long, Double or String). */
+    private static CsvInput.InitialData loadColumnarData(String inputFilePath, List<FilterTransformer> filters) throws ReportGenerationException {
+        System.out.println("Loading initial data from columnar file: " + inputFilePath);
+        Path inputPath = ReportPipeline.validateAndGetPath(inputFilePath);
+        ReportPipeline.progress.stage("reading " + inputPath.getFileName());
+        try (ColumnarFileReader reader = new ColumnarFileReader(inputPath)) {
+            long size = Files.size(inputPath);
+            ReportPipeline.progress.addInput(size);
+            List<List<Object>> rows = reader.readRows();
+            ReportPipeline.progress.addRead(size, rows.size());
+            System.out.println("Read " + rows.size() + " data rows in " + reader.getRowGroupCount() + " row group(s), columns: " + reader.getColumns());
+            return filterRows(new CsvInput.InitialData(reader.getColumns(), rows), filters);
+        } catch (IOException e) {
+            throw new ReportGenerationException("Failed to read columnar file: " + inputFilePath, e);
+        }
+    }
+
+    /** Loading CSV data out of columnar cache, cache entry is created out of parsed CSV on first run. */
+    private static CsvInput.InitialData loadCsvDataCached(String csvFilePath, String cacheDir, List<Column> inputs,
+                                                          List<FilterTransformer> filters) throws ReportGenerationException {
+        Path inputPath = ReportPipeline.validateAndGetPath(csvFilePath);
+        ColumnarCsvCache cache = new ColumnarCsvCache(ReportPipeline.validateAndGetPath(cacheDir));
+        try {
+            Path entry = cache.entryFor(inputPath, inputs);
+            ColumnarCsvCache.Table table = cache.read(entry);
+            if (table != null) {
+                long size = Files.size(inputPath);
+                ReportPipeline.progress.addInput(size);
+                ReportPipeline.progress.addRead(size, table.rows().size());
+                System.out.println("Loaded " + table.rows().size() + " data rows from columnar cache: " + entry);
+                return filterRows(new CsvInput.InitialData(table.headers(), table.rows()), filters);
+            }
+            System.out.println("Columnar cache miss, parsing CSV and writing cache entry: " + entry);
+            CsvInput.InitialData parsed = CsvInput.loadAndParseCsvData(csvFilePath, List.of()); // Cache keeps all rows, filters are applied after
+            cache.write(entry, new ColumnarCsvCache.Table(parsed.headers(), parsed.rows()), inputs);
+            return filterRows(parsed, filters);
+        } catch (IOException e) {
+            // Cache is only an optimisation, falling back to text parsing
+            System.err.println("Warning: Columnar cache is not usable (" + e.getMessage() + "), parsing CSV text.");
+            return CsvInput.loadAndParseCsvData(csvFilePath, filters);
+        }
+    }
+
+    /** Applies pushed down filters to already parsed rows. */
+    private static CsvInput.InitialData filterRows(CsvInput.InitialData data, List<FilterTransformer> filters) {
+        if (filters.isEmpty()) return data;
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        for (int i = 0; i < data.headers().size(); i++) {
+            columnIndexes.putIfAbsent(data.headers().get(i), i);
+        }
+        int before = data.rows().size();
+        List<List<Object>> kept = new ArrayList<>();
+        for (List<Object> row : data.rows()) {
+            Function<String, Object> lookup = name -> {
+                Integer index = columnIndexes.get(name);
+                return index != null && index < row.size() ? row.get(index) : null;
+            };
+            boolean matches = true;
+            for (FilterTransformer filter : filters) {
+                if (!filter.test(lookup)) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) kept.add(row);
+        }
+        System.out.println("Pushed down filters rejected " + (before - kept.size()) + " rows.");
+        return new CsvInput.InitialData(data.headers(), kept);
+    }
+}
@@ -0,0 +1,191 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.report.plan.CompiledReport;
+import com.playtech.report.row.Row;
+import com.playtech.report.row.RowSchema;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.report.transformer.impl.FilterTransformer;
+import com.playtech.util.columnar.ColumnarFormat;
+import com.playtech.util.io.CompressedFiles;
+import com.playtech.util.io.CountingInputStream;
+import com.playtech.util.io.InputFiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Runner of a single report on several input files (directory, glob or list). */
+final class MultiInputRunner {
+
+    private MultiInputRunner() {
+    }
+
+    /** Generates the report out of all input files, the rest of the chain runs on the merged rows. */
+    static void run(CommandLineArgs cmdArgs, Report report, CompiledReport compiled) throws ReportGenerationException {
+        ReportPipeline.ExecutionPlan plan = ReportPipeline.planExecution(ReportPipeline.transformersOf(cmdArgs, report, compiled));
+        IngestedInputs ingested = ingestInputs(cmdArgs, report, compiled, plan);
+        ReportPipeline.applyTransformations(report, plan.transformers().subList(ingested.resumeAt(), plan.transformers().size()), ingested.rows());
+        ReportOutput.generateOutput(report, ingested.rows(), cmdArgs.outputPath());
+    }
+
+    /**
+     * Reads several CSV files as one input: headers are checked against the report inputs, every file is parsed and
+     * passes the row local transformers as a job of its own (in parallel on a pool of all cores). A following
+     * Aggregator aggregates every file into partial aggregates, merged in file order; otherwise rows are
+     * concatenated in file order. The result is the same as of one file holding all lines (double sums can differ
+     * in the last digit), the chain continues at resumeAt.
+     */
+    private static IngestedInputs ingestInputs(CommandLineArgs cmdArgs, Report report, CompiledReport compiled,
+                                               ReportPipeline.ExecutionPlan plan) throws ReportGenerationException {
+        List<Path> inputs;
+        try {
+            inputs = InputFiles.resolve(cmdArgs.csvPath());
+        } catch (IOException e) {
+            throw new ReportGenerationException("Failed to resolve input files of: " + cmdArgs.csvPath() + " (" + e.getMessage() + ")", e);
+        }
+        // Rows of all files are on one schema, so merged partials and the rest of the chain see the same slots
+        Map<Path, List<String>> headers = readInputHeaders(inputs, report.getInputs());
+        RowSchema schema = new RowSchema(List.of());
+        headers.values().forEach(fileHeaders -> fileHeaders.forEach(schema::slotOf));
+        compiled.slotNames().forEach(schema::slotOf);
+        List<Map<String, Object>> template = List.of(new Row(schema));
+        ShardPlan split = ShardPlan.of(headers.size(), plan); // Row local transformers per file, then the Aggregator to merge
+        ShardPlan filePlan = split.mergedTransformer() instanceof AggregatorTransformer ? split
+                : new ShardPlan(split.workers(), split.pushedDownFilters(), split.rowTransformers(), null, split.rowTransformers().size());
+        System.out.printf("Reading %d input files in parallel, %d row local transformers per file, merging %s.%n", headers.size(),
+                filePlan.rowTransformers().size(), filePlan.mergedTransformer() != null ? "partial aggregates" : "rows in file order");
+        ReportPipeline.progress.stage("reading " + headers.size() + " input files");
+
+        Map<Path, ShardOutput> outputs = new LinkedHashMap<>();
+        Map<String, Throwable> failures;
+        long[] lineCount = {0};
+        try (ReportJobExecutor executor = new ReportJobExecutor(Runtime.getRuntime().availableProcessors(), ReportJobExecutor.defaultMemoryBudget())) {
+            for (Map.Entry<Path, List<String>> input : headers.entrySet()) {
+                ShardOutput output = new ShardOutput(report, filePlan, template);
+                outputs.put(input.getKey(), output);
+                // Aggregating files keep only their groups, the others keep all rows
+                long estimatedBytes = filePlan.mergedTransformer() != null ? ReportPipeline.fileSize(input.getKey())
+                        : ReportPipeline.estimateRowMemory(input.getKey().toString());
+                executor.submit(input.getKey().toString(), estimatedBytes, () -> executor.compute(() -> {
+                    long lines = ingestFile(input.getKey(), input.getValue(), schema, filePlan.pushedDownFilters(), output);
+                    synchronized (lineCount) {
+                        lineCount[0] += lines;
+                    }
+                    return null;
+                }));
+            }
+            failures = executor.awaitAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportGenerationException("Interrupted while reading input files", e);
+        }
+        if (!failures.isEmpty() && ReportPipeline.progress.isCancelled()) {
+            throw new ReportCancelledException("reading " + headers.size() + " input files");
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach((file, error) -> System.err.println("Input " + file + " failed: " + error.getMessage()));
+            Throwable first = failures.values().iterator().next();
+            throw new ReportGenerationException(failures.size() + " of " + headers.size() + " input files failed: " + failures.keySet(), first);
+        }
+        System.out.println("Read " + lineCount[0] + " lines from " + headers.size() + " input files.");
+
+        ReportPipeline.progress.stage("merging " + outputs.size() + " input files");
+        List<Path> aggregated = new ArrayList<>();
+        List<Path> notAggregated = new ArrayList<>();
+        outputs.forEach((file, output) -> {
+            if (output.isAggregating() && output.partial().groupCount() > 0) aggregated.add(file);
+            if (!output.isAggregating() && !output.rows().isEmpty()) notAggregated.add(file);
+        });
+        if (!aggregated.isEmpty() && !notAggregated.isEmpty()) {
+            throw new ReportGenerationException("Input files " + notAggregated + " skipped aggregation (group by column missing) while "
+                    + aggregated + " were aggregated, their rows can not be merged.");
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (filePlan.mergedTransformer() instanceof AggregatorTransformer aggregator && notAggregated.isEmpty()) {
+            AggregatorTransformer.PartialAggregation merged = aggregator.new PartialAggregation(template);
+            for (ShardOutput output : outputs.values()) {
+                merged.mergeFrom(output.partial());
+            }
+            rows = merged.finish();
+            System.out.println("AggregatorTransformer: Merged partial aggregates of " + outputs.size() + " input files into " + rows.size() + " rows.");
+        } else {
+            // Files skipping aggregation (group by column missing) hold their rows, the others read no rows
+            for (ShardOutput output : outputs.values()) {
+                rows.addAll(output.rows());
+            }
+        }
+        return new IngestedInputs(rows, filePlan.resumeAt());
+    }
+
+    /**
+     * Headers of the input files, all files must have the same report input columns (in any order), like a single
+     * input a column missing in every file is not an error. Empty files are left out.
+     */
+    private static Map<Path, List<String>> readInputHeaders(List<Path> inputs, List<Column> reportInputs) throws ReportGenerationException {
+        Map<Path, List<String>> headers = new LinkedHashMap<>();
+        List<String> firstHeaders = null;
+        Path firstInput = null;
+        for (Path input : inputs) {
+            if (input.toString().endsWith(ColumnarFormat.EXTENSION)) {
+                throw new ReportGenerationException("Several inputs have to be CSV files (plain or .gz): " + input);
+            }
+            List<String> fileHeaders;
+            try {
+                fileHeaders = CsvInput.readCsvHeaders(input);
+            } catch (IOException e) {
+                throw new ReportGenerationException("Failed to read CSV header of: " + input, e);
+            }
+            if (fileHeaders.isEmpty()) {
+                System.err.println("Warning: Skipping empty input file " + input + ".");
+                continue;
+            }
+            if (firstHeaders == null) {
+                firstHeaders = fileHeaders;
+                firstInput = input;
+                System.out.println("CSV Headers: " + fileHeaders);
+            } else if (!fileHeaders.equals(firstHeaders)) {
+                List<String> first = firstHeaders;
+                List<String> inconsistent = reportInputs == null ? List.of() : reportInputs.stream().map(Column::getName)
+                        .filter(name -> fileHeaders.contains(name) != first.contains(name)).toList();
+                if (!inconsistent.isEmpty()) {
+                    throw new ReportGenerationException("Report input column(s) " + inconsistent + " are in only one of the input files " + firstInput
+                            + " and " + input + ", header of the latter: " + fileHeaders);
+                }
+                System.out.println("Header of " + input + " differs from the first input file, columns are matched by name: " + fileHeaders);
+            }
+            headers.put(input, fileHeaders);
+        }
+        if (headers.isEmpty()) {
+            throw new ReportGenerationException("All input files are empty: " + inputs);
+        }
+        return headers;
+    }
+
+    /** Parses lines of one input file (after its header) in batches into output, returns lines read. */
+    private static long ingestFile(Path input, List<String> headers, RowSchema schema, List<FilterTransformer> filters, ShardOutput output) throws Exception {
+        try (CountingInputStream counted = new CountingInputStream(CompressedFiles.newInputStream(input)); // Plain or .gz by extension
+             BufferedReader reader = CompressedFiles.newBufferedReader(counted)) {
+            if (CompressedFiles.isGzip(input)) {
+                ReportPipeline.progress.addInputOfUnknownSize();
+            } else {
+                ReportPipeline.progress.addInput(Files.size(input));
+            }
+            reader.readLine(); // Header, checked by the caller
+            CsvInput.StreamedLines streamed = CsvInput.streamCsvBatches(reader, counted, 0, headers, schema, filters, 1, output);
+            System.out.println("Read " + (streamed.lines() + 1) + " lines from " + input + (filters.isEmpty() ? "."
+                    : ", pushed down filters rejected " + streamed.rejected() + "."));
+            return streamed.lines() + 1;
+        } catch (IOException e) {
+            throw new IOException("Failed to read CSV file: " + input + " (" + e.getMessage() + ")", e);
+        }
+    }
+
+    private record IngestedInputs(List<Map<String, Object>> rows, int resumeAt) {}
+}
@@ -0,0 +1,95 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.plan.CompiledReport;
+import com.playtech.report.row.Row;
+import com.playtech.report.row.RowSchema;
+import com.playtech.report.transformer.Transformer;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.util.columnar.ColumnarFormat;
+import com.playtech.util.io.CompressedFiles;
+import com.playtech.util.io.CountingInputStream;
+import com.playtech.util.io.FileRanges;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Runner of preview mode (--preview). */
+public final class PreviewRunner {
+    private static final int DEFAULT_PREVIEW_LINES = 10_000;
+    private static final long PREVIEW_SEED = 20251016L; // Fixed, so previews of one input differ only by the config
+
+    private PreviewRunner() {
+    }
+
+    /**
+     * Preview mode: runs the report on a stratified sample of the CSV lines, read with one seek per line instead of
+     * a scan of the file. When the row local transformers are followed by an Aggregator, its SUM and COUNT are
+     * scaled to the estimated line count of the input and get 95% confidence columns; without one the output holds
+     * the sampled rows.
+     */
+    public static void run(CommandLineArgs cmdArgs) throws ReportGenerationException {
+        int sampleLines = cmdArgs.positiveOption(CommandLineArgs.OPTION_PREVIEW, DEFAULT_PREVIEW_LINES);
+        Report report = ReportPipeline.loadReportConfiguration(cmdArgs.xmlPath());
+        CompiledReport compiled = ReportPipeline.compileReport(report);
+        ReportPipeline.ExecutionPlan plan = ReportPipeline.planExecution(ReportPipeline.transformersOf(cmdArgs, report, compiled));
+        Path inputPath = ReportPipeline.validateAndGetPath(cmdArgs.csvPath());
+        if (CompressedFiles.isGzip(inputPath) || cmdArgs.csvPath().endsWith(ColumnarFormat.EXTENSION)) {
+            throw new ReportGenerationException("Preview mode samples a plain CSV file by seeking into it: " + inputPath);
+        }
+        ShardPlan samplePlan = ShardPlan.of(1, plan); // Same split: row local transformers, then the Aggregator to scale
+        List<Transformer> transformers = plan.transformers();
+
+        ReportPipeline.progress.stage("sampling " + inputPath.getFileName());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        FileRanges.LineSample sample;
+        AggregatorTransformer.SampledAggregation aggregation = null;
+        int resumeAt = 0;
+        try {
+            List<String> headers = CsvInput.readCsvHeaders(inputPath);
+            long startNanos = System.nanoTime();
+            sample = FileRanges.sampleLines(inputPath, FileRanges.afterFirstLine(inputPath), sampleLines, new Random(PREVIEW_SEED));
+            ReportPipeline.progress.addInput(sample.sampledBytes());
+            System.out.printf("Preview: sampled %d of about %.0f lines (%s) in %d ms.%n", sample.lines().size(), sample.estimatedLineCount(),
+                    sample.complete() ? "whole file, estimates are exact" : "one seek per line", (System.nanoTime() - startNanos) / 1_000_000);
+            RowSchema schema = new RowSchema(headers);
+            compiled.slotNames().forEach(schema::slotOf);
+            List<Map<String, Object>> template = List.of(new Row(schema));
+            if (samplePlan.mergedTransformer() instanceof AggregatorTransformer aggregator && !sample.lines().isEmpty()) {
+                aggregation = aggregator.new SampledAggregation(template, sample.lines().size(), sample.estimatedLineCount());
+                resumeAt = samplePlan.resumeAt();
+            }
+            AggregatorTransformer.SampledAggregation sampledAggregation = aggregation;
+            CountingInputStream input = new CountingInputStream(new ByteArrayInputStream(String.join("\n", sample.lines()).getBytes(StandardCharsets.UTF_8)));
+            CsvInput.streamCsvBatches(CompressedFiles.newBufferedReader(input), input, 0, headers, schema, plan.pushedDownFilters(), 1, batch -> {
+                if (sampledAggregation == null) {
+                    rows.addAll(batch); // Whole chain runs on the sampled rows below
+                    return;
+                }
+                ReportPipeline.applyRowTransformers(report, samplePlan.rowTransformers(), batch);
+                sampledAggregation.accept(batch);
+            });
+        } catch (IOException e) {
+            throw new ReportGenerationException("Failed to sample CSV file: " + inputPath, e);
+        }
+        if (aggregation != null) {
+            rows.addAll(aggregation.finish());
+            AggregatorTransformer aggregator = (AggregatorTransformer) samplePlan.mergedTransformer();
+            List<String> scaled = aggregator.getAggregateColumns().stream().filter(AggregatorTransformer::isScaled)
+                    .map(aggregate -> aggregate.getOutput().getName()).toList();
+            System.out.println("AggregatorTransformer: Estimated " + rows.size() + " groups, " + (scaled.isEmpty() ? "no SUM or COUNT to scale"
+                    : "scaled " + scaled + " with 95% confidence half widths in column(s) <name>" + AggregatorTransformer.CONFIDENCE_SUFFIX)
+                    + (scaled.size() < aggregator.getAggregateColumns().size() ? ", other aggregates are of the sample." : "."));
+        } else {
+            System.out.println("Preview: no Aggregator after the row local transformers, output holds the rows of the sample, nothing is scaled.");
+        }
+        ReportPipeline.applyTransformations(report, transformers.subList(resumeAt, transformers.size()), rows);
+        ReportOutput.generateOutput(report, rows, cmdArgs.outputPath());
+    }
+}
@@ -0,0 +1,10 @@
+package com.playtech.report.exec;
+
+/** Thrown at a cancellation checkpoint after the run was cancelled, unchecked so it passes through transformers. */
+public class ReportCancelledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ReportCancelledException(String stage) {
+        super("Report generation cancelled during " + stage);
+    }
+}
@@ -0,0 +1,7 @@
+package com.playtech.report.exec;
+
+/** Report generation failed, message says at which stage (cause is the underlying error, if any). */
+public class ReportGenerationException extends Exception {
+    public ReportGenerationException(String message) { super(message); }
+    public ReportGenerationException(String message, Throwable cause) { super(message, cause); }
+}
@@ -0,0 +1,118 @@
+package com.playtech.report.exec;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs independent report jobs concurrently. Every job runs on its own virtual thread, so jobs waiting on file
+ * reads and writes cost almost nothing. CPU heavy stages are passed to {@link #compute(Callable)} and run on a
+ * ForkJoin pool bounded by the number of cores, the job's virtual thread just waits for them.
+ * Jobs declare how much memory they need, a job only starts when it fits into the memory budget
+ * (a job bigger than the whole budget runs alone).
+ */
+public class ReportJobExecutor implements AutoCloseable {
+    private static final long MB = 1024 * 1024;
+
+    private final ExecutorService jobExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ForkJoinPool cpuPool;
+    private final Semaphore memoryPermits; // One permit per MB of the budget
+    private final int budgetMb;
+    private final Map<String, Future<?>> jobs = new LinkedHashMap<>();
+
+    public ReportJobExecutor(int cpuParallelism, long memoryBudgetBytes) {
+        this.cpuPool = new ForkJoinPool(Math.max(1, cpuParallelism));
+        this.budgetMb = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudgetBytes / MB));
+        this.memoryPermits = new Semaphore(budgetMb, true); // Fair, big jobs are not starved by small ones
+    }
+
+    /** Budget of 3/4 of the maximum heap, the rest is left for buffers and the JVM itself. */
+    public static long defaultMemoryBudget() {
+        return Runtime.getRuntime().maxMemory() / 4 * 3;
+    }
+
+    public int getCpuParallelism() { return cpuPool.getParallelism(); }
+    public long getMemoryBudget() { return budgetMb * MB; }
+
+    /** Starts job on a virtual thread once {@code estimatedBytes} of the memory budget are free. Names must be unique. */
+    public synchronized void submit(String name, long estimatedBytes, Callable<?> job) {
+        if (jobs.containsKey(name)) {
+            throw new IllegalArgumentException("Job '" + name + "' is already submitted.");
+        }
+        int permits = (int) Math.min(budgetMb, Math.max(1, (estimatedBytes + MB - 1) / MB));
+        jobs.put(name, jobExecutor.submit(() -> {
+            // Timed tryAcquire keeps the order of waiting jobs (untimed tryAcquire barges ahead of them)
+            if (!memoryPermits.tryAcquire(permits, 0, TimeUnit.SECONDS)) {
+                System.out.println("ReportJobExecutor: Job '" + name + "' waits for " + permits + " MB of memory budget.");
+                memoryPermits.acquire(permits);
+            }
+            try {
+                return job.call();
+            } finally {
+                memoryPermits.release(permits);
+            }
+        }));
+    }
+
+    /**
+     * Runs CPU heavy task on the bounded pool and waits for it. Tasks already running on the pool
+     * (e.g. nested calls) are run directly.
+     */
+    public <T> T compute(Callable<T> task) throws Exception {
+        if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == cpuPool) {
+            return task.call();
+        }
+        // Not ForkJoinPool.submit, it wraps checked exceptions of the task into RuntimeException
+        CompletableFuture<T> result = new CompletableFuture<>();
+        cpuPool.execute(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /** Waits for all submitted jobs, returns failed job names with their errors (in order of submission). */
+    public Map<String, Throwable> awaitAll() throws InterruptedException {
+        List<Map.Entry<String, Future<?>>> submitted;
+        synchronized (this) {
+            submitted = new ArrayList<>(jobs.entrySet());
+        }
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<?>> job : submitted) {
+            try {
+                job.getValue().get();
+            } catch (ExecutionException e) {
+                failures.put(job.getKey(), e.getCause());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Waits until submitted jobs have finished, then stops the pools. Jobs are interrupted only when the closing
+     * thread is interrupted while it waits; a cancelled report stops its jobs at their progress checkpoints.
+     */
+    @Override
+    public void close() {
+        jobExecutor.close();
+        cpuPool.close();
+    }
+}
@@ -0,0 +1,125 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.output.PartitionedOutputWriter;
+import com.playtech.report.output.RowWriter;
+import com.playtech.report.output.RowWriters;
+import com.playtech.util.io.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/** Writing rows of a report to its output file, or to one file per partition. */
+final class ReportOutput {
+
+    private ReportOutput() {
+    }
+
+    /** Calls generation of output file (or one file per partition when report has partitionBy). */
+    static void generateOutput(Report report, List<Map<String, Object>> finalDataRows, String outputFilePath) throws ReportGenerationException {
+        // Getting final list of maps
+        System.out.println("Preparing to generate output to: " + outputFilePath);
+        Path outputPath = ReportPipeline.validateAndGetPath(outputFilePath);
+        try {
+            if (report.getPartitionBy() != null) {
+                generatePartitioned(finalDataRows, outputPath, report, report.getPartitionBy().getName());
+            } else {
+                // Pushing final data straight
+                Iterator<List<Map<String, Object>>> chunk = finalDataRows == null ? Collections.emptyIterator() : List.of(finalDataRows).iterator();
+                generateFile(() -> chunk.hasNext() ? chunk.next() : null, outputPath, report);
+            }
+        } catch (IOException e) {
+            throw new ReportGenerationException("Failed to write output file: " + outputFilePath, e);
+        }
+    }
+
+    /**
+     * Calls generation of output file of rows produced chunk by chunk, every chunk is written as it comes. Rows of a
+     * report with partitionBy are collected first.
+     */
+    static void generateOutput(Report report, RowChunks chunks, String outputFilePath) throws ReportGenerationException {
+        if (report.getPartitionBy() != null) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (List<Map<String, Object>> chunk = chunks.next(); chunk != null; chunk = chunks.next()) {
+                rows.addAll(chunk);
+            }
+            generateOutput(report, rows, outputFilePath);
+            return;
+        }
+        System.out.println("Preparing to generate output to: " + outputFilePath);
+        Path outputPath = ReportPipeline.validateAndGetPath(outputFilePath);
+        try {
+            generateFile(chunks, outputPath, report);
+        } catch (IOException e) {
+            throw new ReportGenerationException("Failed to write output file: " + outputFilePath, e);
+        }
+    }
+
+    /**
+     * Generating file report in the report format (JSON Lines, CSV or columnar). File is written next to the output
+     * under a temporary name and renamed when complete, so a failed or cancelled run leaves no partial output.
+     */
+    private static void generateFile(RowChunks chunks, Path outputPath, Report report) throws IOException, ReportGenerationException {
+        Report.FileFormat format = RowWriters.formatOf(report);
+        System.out.println("Generating " + format + " report to: " + outputPath);
+        ReportPipeline.progress.stage("writing " + outputPath.getFileName());
+        ReportPipeline.progress.checkpoint();
+        Path tempPath = AtomicFiles.tempSibling(outputPath);
+        try {
+            List<Map<String, Object>> dataRows = chunks.next();
+            while (dataRows != null && dataRows.isEmpty()) {
+                dataRows = chunks.next();
+            }
+            if (dataRows == null) {
+                System.out.println("No data provided to write. Generating empty file.");
+                // Empty file (still a valid archive for compressed output)
+                RowWriters.open(format, tempPath, List.of(), Map.of(), report.getOutputCompression()).close();
+                AtomicFiles.commit(tempPath, outputPath);
+                return;
+            }
+
+            int rowCount = 0;
+            try (RowWriter writer = RowWriters.open(format, tempPath, RowWriters.columnsOf(dataRows),
+                    RowWriters.columnTypesOf(report), report.getOutputCompression())) { // Plain or .gz by extension
+                for (; dataRows != null; dataRows = chunks.next()) {
+                    for (Map<String, Object> rowMap : dataRows) {
+                        if (rowMap != null && !rowMap.isEmpty()) {
+                            writer.write(rowMap);
+                            if (++rowCount % ReportPipeline.PROGRESS_BATCH_SIZE == 0) {
+                                ReportPipeline.progress.checkpoint();
+                            }
+                        } else {
+                            System.err.printf("Warning: Skipping empty or null row map at index %d.%n", rowCount);
+                        }
+                    }
+                }
+            }
+            AtomicFiles.commit(tempPath, outputPath);
+            System.out.printf("Successfully wrote %d rows to %s report: %s%n", rowCount, format, outputPath);
+        } finally {
+            AtomicFiles.deleteQuietly(tempPath); // Gone after commit, partial file otherwise
+        }
+    }
+
+    /** Generating one file per value of partition column, files are written concurrently. */
+    private static void generatePartitioned(List<Map<String, Object>> dataRows, Path outputPath, Report report, String partitionColumn) throws IOException {
+        Report.FileFormat format = RowWriters.formatOf(report);
+        System.out.println("Generating " + format + " report partitioned by '" + partitionColumn + "' next to: " + outputPath);
+        ReportPipeline.progress.stage("writing partitions of " + outputPath.getFileName());
+        ReportPipeline.progress.checkpoint();
+        PartitionedOutputWriter writer = new PartitionedOutputWriter(format, partitionColumn, PartitionedOutputWriter.DEFAULT_MAX_OPEN_FILES,
+                RowWriters.columnTypesOf(report), report.getOutputCompression());
+        Map<Object, Path> files = writer.write(dataRows != null ? dataRows : List.of(), outputPath);
+        System.out.printf("Successfully wrote %d rows into %d partition files.%n", dataRows != null ? dataRows.size() : 0, files.size());
+    }
+
+    /** Output rows produced chunk by chunk (e.g. partition by partition of an aggregation), null after the last chunk. */
+    interface RowChunks {
+        List<Map<String, Object>> next() throws ReportGenerationException;
+    }
+}
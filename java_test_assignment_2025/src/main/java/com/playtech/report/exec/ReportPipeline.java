@@ -0,0 +1,181 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.codegen.GeneratedTransformer;
+import com.playtech.report.codegen.ReportCodegen;
+import com.playtech.report.plan.CompiledReport;
+import com.playtech.report.plan.ReportCompilationException;
+import com.playtech.report.plan.ReportCompiler;
+import com.playtech.report.transformer.Transformer;
+import com.playtech.report.transformer.impl.DateTimeFormatterTransformer;
+import com.playtech.report.transformer.impl.FilterTransformer;
+import com.playtech.report.transformer.impl.JoinTransformer;
+import com.playtech.report.transformer.impl.MathOperationTransformer;
+import com.playtech.report.transformer.impl.StringFormatterTransformer;
+import com.playtech.util.columnar.ColumnarFormat;
+import com.playtech.util.io.AtomicFiles;
+import com.playtech.util.io.CompressedFiles;
+import com.playtech.util.xml.XmlParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stages shared by the runners of the report modes: loading and compiling the report, planning the chain and
+ * applying transformers. Holds progress and cancellation of the current run.
+ */
+public final class ReportPipeline {
+    // Rough size of parsed rows in memory relative to the input file, used for admission of concurrent jobs
+    private static final int ROW_MEMORY_FACTOR = 6;
+    private static final int COMPRESSION_FACTOR = 5; // Typical ratio of gzip and columnar inputs
+    static final int PROGRESS_BATCH_SIZE = 4096; // Lines/rows between progress updates and cancellation checkpoints
+    // Transformers which only look at one row at a time, a batch of rows gives the same result as the whole input
+    static final Set<Class<? extends Transformer>> ROW_LOCAL_TRANSFORMERS = Set.of(FilterTransformer.class,
+            StringFormatterTransformer.class, MathOperationTransformer.class, DateTimeFormatterTransformer.class, JoinTransformer.class,
+            GeneratedTransformer.class);
+
+    // Progress and cancellation of the current run, replaced for every run
+    static volatile ReportProgress progress = new ReportProgress(Duration.ZERO, null);
+
+    private ReportPipeline() {
+    }
+
+    /** Progress of the run starting now, its checkpoints stop all stages once it is cancelled. */
+    public static void setProgress(ReportProgress runProgress) {
+        progress = runProgress;
+    }
+
+    /** Loading configuration report out XML file. */
+    static Report loadReportConfiguration(String xmlPath) throws ReportGenerationException {
+        try {
+            System.out.println("Loading report configuration from: " + xmlPath);
+            // Fixed: Using the right method parseReport
+            Report report = XmlParser.parseReport(xmlPath);
+            if (report == null) {
+                throw new ReportGenerationException("Failed to parse report configuration: result is null.");
+            }
+            System.out.println("Report configuration loaded successfully.");
+            return report;
+        } catch (Exception e) { // Catching JAXBException and other possible errors
+            throw new ReportGenerationException("Failed to load or parse report configuration XML: " + xmlPath, e);
+        }
+    }
+
+    /** Validates transformer chain before any data is read. */
+    static CompiledReport compileReport(Report report) throws ReportGenerationException {
+        try {
+            return ReportCompiler.compile(report);
+        } catch (ReportCompilationException e) {
+            throw new ReportGenerationException("Invalid report configuration: " + String.join("; ", e.getErrors()));
+        }
+    }
+
+    /** Transformers of the compiled report, with --codegen runs of cell wise transformers are generated code. */
+    static List<Transformer> transformersOf(CommandLineArgs cmdArgs, Report report, CompiledReport compiled) {
+        return cmdArgs.option(CommandLineArgs.OPTION_CODEGEN) != null ? ReportCodegen.fuse(report.getReportName(), compiled.transformers()) : compiled.transformers();
+    }
+
+    /** Splits transformers into filters pushed down into CSV parsing and the rest of the chain. */
+    static ExecutionPlan planExecution(List<Transformer> transformers) {
+        List<FilterTransformer> pushedDownFilters = new ArrayList<>();
+        int firstRemaining = 0;
+        // Only filters before any other transformer see raw CSV values, so only they can be pushed down
+        while (firstRemaining < transformers.size() && transformers.get(firstRemaining) instanceof FilterTransformer filter) {
+            pushedDownFilters.add(filter);
+            firstRemaining++;
+        }
+        if (!pushedDownFilters.isEmpty()) {
+            System.out.println("Pushing down " + pushedDownFilters.size() + " filter(s) into CSV parsing.");
+        }
+        return new ExecutionPlan(pushedDownFilters, transformers.subList(firstRemaining, transformers.size()));
+    }
+
+    /** Applies row local transformers to one batch. */
+    static void applyRowTransformers(Report report, List<Transformer> rowTransformers, List<Map<String, Object>> batch) throws ReportGenerationException {
+        progress.checkpoint();
+        for (Transformer transformer : rowTransformers) {
+            try {
+                transformer.transform(report, batch);
+            } catch (Exception e) {
+                throw new ReportGenerationException("Failed during transformation (" + transformer.getClass().getName() + ")", e);
+            }
+        }
+    }
+
+    /** Applying transformers to data (by map list). */
+    static void applyTransformations(Report report, List<Transformer> transformers, List<Map<String, Object>> dataRows) throws ReportGenerationException {
+        // Принимает List<Map<String, Object>>
+        if (transformers.isEmpty()) {
+            System.out.println("No transformers defined. Skipping transformation phase.");
+            return;
+        }
+        System.out.println("Applying " + transformers.size() + " transformers...");
+        int count = 0;
+        for (Transformer transformer : transformers) {
+            count++;
+            System.out.printf("Applying transformer %d: %s%n", count, transformer.getClass().getSimpleName());
+            progress.stage("transformer " + count + "/" + transformers.size() + " (" + transformer.getClass().getSimpleName() + ")");
+            progress.checkpoint(); // Transformers themselves are not interrupted
+            try {
+                transformer.transform(report, dataRows);
+            } catch (ReportCancelledException e) {
+                throw e;
+            } catch (Exception e) {
+                System.err.println("Error applying transformer #" + count + " (" + transformer.getClass().getName() + "): " + e.getMessage());
+                if(e.getCause() != null) { e.getCause().printStackTrace(); } else { e.printStackTrace(); }
+                throw new ReportGenerationException("Failed during transformation #" + count + " (" + transformer.getClass().getName() + ")", e);
+            }
+        }
+        System.out.println("All transformers applied successfully.");
+    }
+
+    /** Checking path to file and returning object Path. */
+    public static Path validateAndGetPath(String filePath) throws ReportGenerationException {
+        try {
+            Path path = Paths.get(filePath);
+            return path;
+        } catch (InvalidPathException e) {
+            throw new ReportGenerationException("Invalid file path: " + filePath, e);
+        }
+    }
+
+    /** Estimated memory of parsed rows of the input, compressed inputs expand more. */
+    static long estimateRowMemory(String inputPath) throws ReportGenerationException {
+        Path path = validateAndGetPath(inputPath);
+        try {
+            long size = Files.size(path) * ROW_MEMORY_FACTOR;
+            boolean compressed = CompressedFiles.isGzip(path) || inputPath.endsWith(ColumnarFormat.EXTENSION);
+            return compressed ? size * COMPRESSION_FACTOR : size;
+        } catch (IOException e) {
+            throw new ReportGenerationException("Failed to read input file: " + inputPath, e);
+        }
+    }
+
+    static long fileSize(Path file) throws ReportGenerationException {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new ReportGenerationException("Failed to read input file: " + file, e);
+        }
+    }
+
+    static void deleteDirectory(Path directory) {
+        try (var files = Files.list(directory)) {
+            files.forEach(AtomicFiles::deleteQuietly);
+        } catch (IOException ignored) {
+            // Best effort cleanup of temporary files
+        }
+        AtomicFiles.deleteQuietly(directory);
+    }
+
+    // Filters evaluated while parsing the input and the rest of the chain
+    record ExecutionPlan(List<FilterTransformer> pushedDownFilters, List<Transformer> transformers) {}
+}
@@ -0,0 +1,155 @@
+package com.playtech.report.exec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.playtech.util.io.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a report run: input bytes and rows read, current stage, throughput and ETA (from the input size).
+ * Stages add to the counters once per batch of lines, a daemon thread publishes a snapshot every interval to
+ * the console and, if set, to a status file (one JSON object, replaced atomically) for schedulers.
+ * Cancellation is cooperative: {@link #cancel()} only sets a flag, stages call {@link #checkpoint()} between
+ * batches and stop there.
+ */
+public final class ReportProgress {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper(); // Thread safe once configured
+
+    public enum State { RUNNING, DONE, CANCELLED, FAILED }
+
+    /** Published snapshot, totalBytes and etaSeconds are -1 when not known (e.g. gzip input). */
+    public record Snapshot(State state, String stage, long bytesRead, long totalBytes, long rowsRead,
+                           long elapsedMillis, long bytesPerSecond, long etaSeconds) {}
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private final Path statusFile;
+    private final ScheduledExecutorService publisher;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile boolean totalUnknown;
+    private volatile String stage = "starting";
+    private volatile State state = State.RUNNING;
+    private volatile boolean cancelled;
+
+    /** Publishes every interval (never when interval is zero) to console and statusFile (can be null). */
+    public ReportProgress(Duration interval, Path statusFile) {
+        this.statusFile = statusFile;
+        if (interval.isZero() && statusFile == null) {
+            this.publisher = null;
+            return;
+        }
+        this.publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "report-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.isZero() ? 1000 : interval.toMillis(); // Status file only, console stays quiet
+        boolean console = !interval.isZero();
+        publisher.scheduleAtFixedRate(() -> publish(console), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Input of known size is going to be read, ETA is computed against sum of all inputs. */
+    public void addInput(long bytes) {
+        totalBytes.addAndGet(bytes);
+    }
+
+    /** Input of unknown size (compressed), throughput is still reported but no ETA. */
+    public void addInputOfUnknownSize() {
+        totalUnknown = true;
+    }
+
+    public void addRead(long bytes, long rows) {
+        bytesRead.addAndGet(bytes);
+        rowsRead.addAndGet(rows);
+    }
+
+    public void stage(String stage) {
+        this.stage = stage;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Cancellation checkpoint, called between batches of work. */
+    public void checkpoint() {
+        if (cancelled) {
+            throw new ReportCancelledException(stage);
+        }
+    }
+
+    /** Publishes final state and stops publishing. */
+    public void finish(State finalState) {
+        state = finalState;
+        if (publisher != null) {
+            publisher.shutdownNow();
+        }
+        writeStatusFile(snapshot());
+        finished.countDown();
+    }
+
+    /** Waits until the run has finished (and cleaned up its temporary files), used on JVM shutdown. */
+    public boolean awaitFinish(Duration timeout) throws InterruptedException {
+        return finished.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public Snapshot snapshot() {
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        long bytes = bytesRead.get();
+        long total = totalUnknown ? -1 : totalBytes.get();
+        long bytesPerSecond = bytes * 1000 / elapsedMillis;
+        long eta = -1;
+        if (total > 0 && bytesPerSecond > 0) {
+            eta = Math.max(0, total - bytes) / bytesPerSecond;
+        }
+        return new Snapshot(state, stage, bytes, total, rowsRead.get(), elapsedMillis, bytesPerSecond, eta);
+    }
+
+    public static String describe(Snapshot snapshot) {
+        StringBuilder text = new StringBuilder("Progress: ").append(snapshot.stage());
+        text.append(", read ").append(snapshot.bytesRead() >> 20).append(" MB");
+        if (snapshot.totalBytes() > 0) {
+            text.append(" of ").append(snapshot.totalBytes() >> 20).append(" MB (")
+                    .append(Math.min(100, snapshot.bytesRead() * 100 / snapshot.totalBytes())).append("%)");
+        }
+        text.append(", ").append(snapshot.rowsRead()).append(" rows, ")
+                .append(snapshot.bytesPerSecond() >> 20).append(" MB/s");
+        if (snapshot.etaSeconds() >= 0 && snapshot.bytesRead() < snapshot.totalBytes()) {
+            text.append(", ETA ").append(snapshot.etaSeconds()).append(" s");
+        }
+        return text.toString();
+    }
+
+    private void publish(boolean console) {
+        Snapshot snapshot = snapshot();
+        if (console) {
+            System.out.println(describe(snapshot));
+        }
+        writeStatusFile(snapshot);
+    }
+
+    private void writeStatusFile(Snapshot snapshot) {
+        if (statusFile == null) return;
+        Path temp = AtomicFiles.tempSibling(statusFile);
+        try {
+            OBJECT_MAPPER.writeValue(temp.toFile(), snapshot);
+            AtomicFiles.commit(temp, statusFile);
+        } catch (IOException e) {
+            AtomicFiles.deleteQuietly(temp);
+            System.err.println("Warning: Could not write status file " + statusFile + ": " + e.getMessage());
+        }
+    }
+}
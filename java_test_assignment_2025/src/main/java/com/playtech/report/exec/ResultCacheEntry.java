@@ -0,0 +1,72 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.dimension.Dimension;
+import com.playtech.report.plan.TransformerSignature;
+import com.playtech.util.cache.ReportResultCache;
+import com.playtech.util.io.CompressedFiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Entry of a report output in the result cache (--result-cache), keyed by the input files and the report configuration. */
+record ResultCacheEntry(ReportResultCache cache, String key) {
+
+    /** Result cache entry of the report, null when result cache is disabled or report output can not be cached. */
+    static ResultCacheEntry of(CommandLineArgs cmdArgs, Report report) throws ReportGenerationException {
+        if (cmdArgs.option(CommandLineArgs.OPTION_RESULT_CACHE) == null) {
+            return null;
+        }
+        if (report.getPartitionBy() != null) {
+            System.out.println("Result cache: partitioned reports are not cached.");
+            return null;
+        }
+        long maxBytes = cmdArgs.option(CommandLineArgs.OPTION_RESULT_CACHE_SIZE) != null
+                ? cmdArgs.positiveOption(CommandLineArgs.OPTION_RESULT_CACHE_SIZE, 0) * 1024L * 1024L
+                : ReportResultCache.DEFAULT_MAX_BYTES;
+        ReportResultCache cache = new ReportResultCache(ReportPipeline.validateAndGetPath(cmdArgs.option(CommandLineArgs.OPTION_RESULT_CACHE)), maxBytes);
+        // Output compression depends on output file name, dimension files are read by Join
+        List<Path> files = new ArrayList<>();
+        files.add(ReportPipeline.validateAndGetPath(cmdArgs.csvPath()));
+        if (report.getDimensions() != null) {
+            for (Dimension dimension : report.getDimensions()) {
+                files.add(ReportPipeline.validateAndGetPath(dimension.getPath()));
+            }
+        }
+        String configuration = TransformerSignature.ofReport(report) + ";gzip=" + CompressedFiles.isGzip(ReportPipeline.validateAndGetPath(cmdArgs.outputPath()));
+        try {
+            return new ResultCacheEntry(cache, cache.keyFor(files, configuration));
+        } catch (IOException e) {
+            // Unreadable input fails later with a proper message, cache is only an optimisation
+            System.err.println("Warning: Result cache is not usable (" + e.getMessage() + "), generating report.");
+            return null;
+        }
+    }
+
+    /** Copies the cached report to the output, false on a cache miss. */
+    boolean serve(String outputFilePath) throws ReportGenerationException {
+        try {
+            if (cache.serve(key, ReportPipeline.validateAndGetPath(outputFilePath))) {
+                System.out.println("Result cache hit (" + key + "), report copied to: " + outputFilePath);
+                return true;
+            }
+            System.out.println("Result cache miss (" + key + "), generating report.");
+            return false;
+        } catch (IOException e) {
+            System.err.println("Warning: Result cache is not usable (" + e.getMessage() + "), generating report.");
+            return false;
+        }
+    }
+
+    /** Stores the written output, failures are only warnings. */
+    void store(String outputFilePath) {
+        try {
+            cache.store(key, ReportPipeline.validateAndGetPath(outputFilePath));
+            System.out.println("Report stored in result cache (" + key + ").");
+        } catch (IOException | ReportGenerationException e) {
+            System.err.println("Warning: Report could not be stored in result cache (" + e.getMessage() + ").");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.plan.CompiledReport;
+import com.playtech.report.row.Row;
+import com.playtech.report.row.RowSchema;
+import com.playtech.report.shard.RowRunFile;
+import com.playtech.report.shard.ShardWorkers;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.report.transformer.impl.OrderingTransformer;
+import com.playtech.util.io.FileRanges;
+import com.playtech.ReportGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/** Coordinator of sharded execution (--workers), the workers are {@link ShardWorker} processes. */
+final class ShardCoordinator {
+
+    private ShardCoordinator() {
+    }
+
+    /**
+     * Coordinator of a sharded run: splits the CSV into newline aligned byte ranges, one per worker, starts the
+     * workers (local processes or on --worker-hosts sharing the file system) and merges their outputs in shard
+     * order, so the result is the same as of a single process run.
+     */
+    static List<Map<String, Object>> run(CommandLineArgs cmdArgs, Report report, CompiledReport compiled, ShardPlan shardPlan) throws ReportGenerationException {
+        Path inputPath = ReportPipeline.validateAndGetPath(cmdArgs.csvPath()).toAbsolutePath();
+        Path outputPath = ReportPipeline.validateAndGetPath(cmdArgs.outputPath()).toAbsolutePath();
+        List<String> hosts = cmdArgs.option(CommandLineArgs.OPTION_WORKER_HOSTS) != null
+                ? Arrays.stream(cmdArgs.option(CommandLineArgs.OPTION_WORKER_HOSTS).split(",")).map(String::trim).filter(host -> !host.isEmpty()).toList()
+                : List.of();
+        Path workDirectory = null;
+        try {
+            List<String> headers = CsvInput.readCsvHeaders(inputPath);
+            List<FileRanges.Range> ranges = FileRanges.split(inputPath, FileRanges.afterFirstLine(inputPath), shardPlan.workers());
+            long inputSize = Files.size(inputPath);
+            ReportPipeline.progress.addInput(inputSize);
+            // Next to the output, so workers on other hosts sharing the file system can write there
+            workDirectory = Files.createTempDirectory(outputPath.getParent(), ".shards-");
+            String mergeKind = shardPlan.mergedTransformer() instanceof AggregatorTransformer ? "partial aggregates"
+                    : shardPlan.mergedTransformer() != null ? "sorted runs" : "row runs";
+            System.out.printf("Sharded execution: %d workers on %s, %d row local transformers per shard, merging %s.%n", ranges.size(),
+                    hosts.isEmpty() ? "this machine" : String.join(", ", hosts), shardPlan.rowTransformers().size(), mergeKind);
+            ReportPipeline.progress.stage("running " + ranges.size() + " shard workers");
+
+            List<Path> shardFiles = new ArrayList<>();
+            Map<String, String> failures;
+            try (ShardWorkers workers = new ShardWorkers(ReportGenerator.class, hosts, workDirectory)) {
+                for (int i = 0; i < ranges.size(); i++) {
+                    Path shardFile = workDirectory.resolve("shard-" + i + ".bin");
+                    shardFiles.add(shardFile);
+                    List<String> arguments = new ArrayList<>(List.of(inputPath.toString(), ReportPipeline.validateAndGetPath(cmdArgs.xmlPath()).toAbsolutePath().toString(),
+                            shardFile.toString(), "--" + CommandLineArgs.OPTION_SHARD + "=" + ranges.get(i), "--" + CommandLineArgs.OPTION_PROGRESS_INTERVAL + "=0"));
+                    if (cmdArgs.option(CommandLineArgs.OPTION_CODEGEN) != null) {
+                        arguments.add("--" + CommandLineArgs.OPTION_CODEGEN);
+                    }
+                    workers.start("shard-" + i, arguments);
+                }
+                failures = workers.awaitAll(ReportPipeline.progress);
+            }
+            if (!failures.isEmpty()) {
+                failures.forEach((worker, failure) -> System.err.println("Worker " + worker + " failed: " + failure));
+                throw new ReportGenerationException(failures.size() + " of " + ranges.size() + " shard workers failed: " + failures.keySet());
+            }
+            ReportPipeline.progress.addRead(inputSize, 0);
+
+            ReportPipeline.progress.stage("merging " + shardFiles.size() + " shards");
+            ReportPipeline.progress.checkpoint();
+            RowSchema schema = new RowSchema(headers);
+            compiled.slotNames().forEach(schema::slotOf);
+            List<Map<String, Object>> template = List.of(new Row(schema));
+            List<Map<String, Object>> rows;
+            List<Path> rowRuns = new ArrayList<>();
+            for (Path shardFile : shardFiles) {
+                if (RowRunFile.isRowRun(shardFile)) rowRuns.add(shardFile);
+            }
+            if (shardPlan.mergedTransformer() instanceof AggregatorTransformer && !rowRuns.isEmpty()) {
+                // Workers skipped aggregation (group by column missing), shards without rows wrote empty partials
+                rows = RowRunFile.concat(rowRuns, schema);
+                System.out.println("Concatenated " + rows.size() + " not aggregated rows of " + rowRuns.size() + " shards.");
+            } else if (shardPlan.mergedTransformer() instanceof AggregatorTransformer aggregator) {
+                AggregatorTransformer.PartialAggregation merged = aggregator.new PartialAggregation(template);
+                for (Path shardFile : shardFiles) {
+                    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(shardFile)))) {
+                        merged.mergeFrom(input);
+                    }
+                }
+                rows = merged.finish();
+                System.out.println("AggregatorTransformer: Merged partial aggregates of " + shardFiles.size() + " shards into " + rows.size() + " rows.");
+            } else if (shardPlan.mergedTransformer() instanceof OrderingTransformer ordering) {
+                rows = RowRunFile.merge(shardFiles, schema, ordering.comparator(template));
+                System.out.println("OrderingTransformer: Merged sorted runs of " + shardFiles.size() + " shards, " + rows.size() + " rows ordered by column '"
+                        + ordering.getOrderByColumn().getName() + "' (" + ordering.getOrderDirection() + ").");
+            } else {
+                rows = RowRunFile.concat(shardFiles, schema);
+                System.out.println("Concatenated " + rows.size() + " rows of " + shardFiles.size() + " shards.");
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new ReportGenerationException("Sharded execution failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportGenerationException("Interrupted while waiting for shard workers", e);
+        } finally {
+            if (workDirectory != null) {
+                ReportPipeline.deleteDirectory(workDirectory);
+            }
+        }
+    }
+}
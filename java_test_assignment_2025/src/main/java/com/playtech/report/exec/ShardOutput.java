@@ -0,0 +1,83 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.shard.RowRunFile;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.report.transformer.impl.OrderingTransformer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Output of a shard worker (or of one of several input files): batches pass the row local transformers and go into partial aggregates of the
+ * Aggregator, or are collected as rows (sorted by the Ordering, if it follows). Like the Aggregator itself, the
+ * aggregation is skipped when the first row lacks a group by column, the shard then writes its rows.
+ */
+final class ShardOutput implements CsvInput.BatchConsumer {
+    private final Report report;
+    private final ShardPlan shardPlan;
+    private final List<Map<String, Object>> rows = new ArrayList<>();
+    private AggregatorTransformer.PartialAggregation partial;
+    private boolean aggregating;
+
+    ShardOutput(Report report, ShardPlan shardPlan, List<Map<String, Object>> template) {
+        this.report = report;
+        this.shardPlan = shardPlan;
+        if (shardPlan.mergedTransformer() instanceof AggregatorTransformer aggregator) {
+            partial = aggregator.new PartialAggregation(template);
+            aggregating = true;
+        }
+    }
+
+    @Override
+    public void accept(List<Map<String, Object>> batch) throws ReportGenerationException {
+        ReportPipeline.applyRowTransformers(report, shardPlan.rowTransformers(), batch);
+        if (batch.isEmpty()) return;
+        if (aggregating && partial.groupCount() == 0 && rows.isEmpty()) {
+            String missingKey = ((AggregatorTransformer) shardPlan.mergedTransformer()).missingGroupByColumn(batch.get(0));
+            if (missingKey != null) {
+                System.err.println("AggregatorTransformer: Group By column '" + missingKey + "' not found in data map keys. Skipping aggregation.");
+                aggregating = false;
+            }
+        }
+        if (aggregating) {
+            partial.accept(batch);
+        } else {
+            rows.addAll(batch);
+        }
+    }
+
+    boolean isAggregating() {
+        return aggregating;
+    }
+
+    /** Partial aggregates, null without a following Aggregator. */
+    AggregatorTransformer.PartialAggregation partial() {
+        return partial;
+    }
+
+    /** Rows when not aggregating. */
+    List<Map<String, Object>> rows() {
+        return rows;
+    }
+
+    void writeTo(Path file) throws IOException, ReportGenerationException {
+        if (aggregating) {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                partial.writeTo(output);
+            }
+            System.out.println("Shard worker: wrote " + partial.groupCount() + " partial groups.");
+            return;
+        }
+        if (shardPlan.mergedTransformer() instanceof OrderingTransformer ordering) {
+            ReportPipeline.applyTransformations(report, List.of(ordering), rows); // Sorted run of this shard
+        }
+        System.out.println("Shard worker: wrote " + RowRunFile.write(file, rows) + " rows.");
+    }
+}
@@ -0,0 +1,42 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.transformer.Transformer;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.report.transformer.impl.FilterTransformer;
+import com.playtech.report.transformer.impl.OrderingTransformer;
+import com.playtech.util.columnar.ColumnarFormat;
+import com.playtech.util.io.CompressedFiles;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// Transformers run by every worker, the one merging their outputs (Aggregator, Ordering or null) and the rest of the chain
+record ShardPlan(int workers, List<FilterTransformer> pushedDownFilters, List<Transformer> rowTransformers,
+                 Transformer mergedTransformer, int resumeAt) {
+
+    /**
+     * Splits the chain for sharded execution: filters and row local transformers run in every worker, followed by
+     * an Aggregator (workers write partial aggregates) or an Ordering (workers write sorted runs) if that comes next.
+     * Null when the input can not be split into byte ranges (compressed, columnar or cached input).
+     */
+    static ShardPlan plan(CommandLineArgs cmdArgs, List<Transformer> transformers) throws ReportGenerationException {
+        int workers = cmdArgs.positiveOption(CommandLineArgs.OPTION_WORKERS, Runtime.getRuntime().availableProcessors());
+        Path inputPath = ReportPipeline.validateAndGetPath(cmdArgs.csvPath());
+        if (CompressedFiles.isGzip(inputPath) || cmdArgs.csvPath().endsWith(ColumnarFormat.EXTENSION) || cmdArgs.option(CommandLineArgs.OPTION_CACHE_DIR) != null) {
+            System.out.println("Sharded execution needs plain CSV input read without cache, running in one process.");
+            return null;
+        }
+        return of(workers, ReportPipeline.planExecution(transformers));
+    }
+
+    static ShardPlan of(int workers, ReportPipeline.ExecutionPlan plan) {
+        List<Transformer> transformers = plan.transformers();
+        int boundary = 0;
+        while (boundary < transformers.size() && ReportPipeline.ROW_LOCAL_TRANSFORMERS.contains(transformers.get(boundary).getClass())) {
+            boundary++;
+        }
+        Transformer merged = boundary < transformers.size() && (transformers.get(boundary) instanceof AggregatorTransformer
+                || transformers.get(boundary) instanceof OrderingTransformer) ? transformers.get(boundary) : null;
+        return new ShardPlan(workers, plan.pushedDownFilters(), transformers.subList(0, boundary), merged, merged != null ? boundary + 1 : boundary);
+    }
+}
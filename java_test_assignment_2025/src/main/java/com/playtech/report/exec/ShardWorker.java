@@ -0,0 +1,67 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.plan.CompiledReport;
+import com.playtech.report.row.Row;
+import com.playtech.report.row.RowSchema;
+import com.playtech.util.io.AtomicFiles;
+import com.playtech.util.io.CompressedFiles;
+import com.playtech.util.io.CountingInputStream;
+import com.playtech.util.io.FileRanges;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/** Worker process of sharded execution, see {@link ShardCoordinator}. */
+public final class ShardWorker {
+
+    private ShardWorker() {
+    }
+
+    /**
+     * Worker of a sharded run (started by the coordinator with --shard=<start>-<end>): applies the row local part of
+     * the chain to the lines of its byte range and writes partial aggregates or a (sorted) row run to the output path.
+     */
+    public static void run(CommandLineArgs cmdArgs) throws ReportGenerationException {
+        FileRanges.Range range;
+        try {
+            range = FileRanges.Range.parse(cmdArgs.option(CommandLineArgs.OPTION_SHARD));
+        } catch (IllegalArgumentException e) {
+            throw new ReportGenerationException("Option --" + CommandLineArgs.OPTION_SHARD + ": " + e.getMessage());
+        }
+        Report report = ReportPipeline.loadReportConfiguration(cmdArgs.xmlPath());
+        CompiledReport compiled = ReportPipeline.compileReport(report);
+        ShardPlan shardPlan = ShardPlan.of(1, ReportPipeline.planExecution(ReportPipeline.transformersOf(cmdArgs, report, compiled)));
+        Path inputPath = ReportPipeline.validateAndGetPath(cmdArgs.csvPath());
+        Path outputPath = ReportPipeline.validateAndGetPath(cmdArgs.outputPath());
+        System.out.println("Shard worker: bytes " + range + " of " + inputPath + " (line numbers are counted from the start of the shard).");
+        ReportPipeline.progress.stage("shard " + range);
+        ReportPipeline.progress.addInput(range.length());
+
+        Path tempPath = AtomicFiles.tempSibling(outputPath);
+        try {
+            List<String> headers = CsvInput.readCsvHeaders(inputPath);
+            RowSchema schema = new RowSchema(headers);
+            compiled.slotNames().forEach(schema::slotOf);
+            List<Map<String, Object>> template = List.of(new Row(schema));
+            ShardOutput shardOutput = new ShardOutput(report, shardPlan, template);
+            CsvInput.StreamedLines streamed;
+            try (CountingInputStream input = new CountingInputStream(FileRanges.open(inputPath, range));
+                 BufferedReader reader = CompressedFiles.newBufferedReader(input)) {
+                streamed = CsvInput.streamCsvBatches(reader, input, 0, headers, schema, shardPlan.pushedDownFilters(), 0, shardOutput);
+            }
+            ReportPipeline.progress.checkpoint();
+            shardOutput.writeTo(tempPath);
+            AtomicFiles.commit(tempPath, outputPath);
+            System.out.println("Shard worker: read " + streamed.lines() + " lines" + (shardPlan.pushedDownFilters().isEmpty() ? ""
+                    : ", pushed down filters rejected " + streamed.rejected()) + ".");
+        } catch (IOException e) {
+            throw new ReportGenerationException("Shard worker failed on bytes " + range + " of " + inputPath + ": " + e.getMessage(), e);
+        } finally {
+            AtomicFiles.deleteQuietly(tempPath);
+        }
+    }
+}
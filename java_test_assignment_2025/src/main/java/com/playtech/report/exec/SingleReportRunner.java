@@ -0,0 +1,240 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.plan.CompiledReport;
+import com.playtech.report.row.RowSchema;
+import com.playtech.report.transformer.Transformer;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.report.transformer.impl.FilterTransformer;
+import com.playtech.util.columnar.ColumnarFormat;
+import com.playtech.util.io.CompressedFiles;
+import com.playtech.util.io.CountingInputStream;
+import com.playtech.util.io.InputFiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runner of a single report: several input files, the result cache, sharded execution and streaming aggregation
+ * (presorted or spilled) are chosen here, otherwise the whole input is loaded and passes the chain.
+ */
+public final class SingleReportRunner {
+
+    private SingleReportRunner() {
+    }
+
+    /** Generates one report out of one input. */
+    public static void run(CommandLineArgs cmdArgs) throws ReportGenerationException {
+        // Loading configuration from XML
+        Report report = ReportPipeline.loadReportConfiguration(cmdArgs.xmlPath());
+
+        // Checking columns and types of the transformer chain, dead transformers are removed
+        CompiledReport compiled = ReportPipeline.compileReport(report);
+
+        // Several input files (directory, glob or list) are parsed in parallel, each with the row local transformers
+        if (InputFiles.isMultiple(cmdArgs.csvPath())) {
+            MultiInputRunner.run(cmdArgs, report, compiled);
+            return;
+        }
+
+        // Unchanged report of unchanged input is copied out of result cache
+        ResultCacheEntry cachedResult = ResultCacheEntry.of(cmdArgs, report);
+        if (cachedResult != null && cachedResult.serve(cmdArgs.outputPath())) {
+            return;
+        }
+
+        // Planning: leading filters are evaluated while parsing CSV (predicate pushdown)
+        ReportPipeline.ExecutionPlan plan = ReportPipeline.planExecution(ReportPipeline.transformersOf(cmdArgs, report, compiled));
+
+        // Worker JVMs run the row local part of the chain on byte ranges of the CSV, partial results are merged here
+        ShardPlan shardPlan = cmdArgs.option(CommandLineArgs.OPTION_WORKERS) != null ? ShardPlan.plan(cmdArgs, plan.transformers()) : null;
+        if (shardPlan != null) {
+            List<Map<String, Object>> mergedRows = ShardCoordinator.run(cmdArgs, report, compiled, shardPlan);
+            ReportPipeline.applyTransformations(report, plan.transformers().subList(shardPlan.resumeAt(), plan.transformers().size()), mergedRows);
+            ReportOutput.generateOutput(report, mergedRows, cmdArgs.outputPath());
+            if (cachedResult != null) {
+                cachedResult.store(cmdArgs.outputPath());
+            }
+            return;
+        }
+
+        // Presorted and spilled aggregation read CSV in batches, only aggregated groups are kept
+        int streamedAggregator = streamedAggregatorIndex(cmdArgs, plan.transformers());
+        if (streamedAggregator >= 0) {
+            List<Transformer> rowTransformers = plan.transformers().subList(0, streamedAggregator);
+            AggregatorTransformer aggregator = (AggregatorTransformer) plan.transformers().get(streamedAggregator);
+            List<Transformer> followingTransformers = plan.transformers().subList(streamedAggregator + 1, plan.transformers().size());
+            if (aggregator.isPresorted()) {
+                AggregatorTransformer.SortedAggregation aggregation = aggregator.new SortedAggregation();
+                long rowCount = streamAggregation(cmdArgs.csvPath(), report, compiled.slotNames(), plan.pushedDownFilters(), rowTransformers, aggregation::accept);
+                List<Map<String, Object>> aggregatedRows = finishAggregation(aggregation::finish);
+                System.out.println("AggregatorTransformer: Aggregated " + rowCount + " streamed rows into " + aggregatedRows.size() + " rows.");
+                ReportPipeline.applyTransformations(report, followingTransformers, aggregatedRows);
+                ReportOutput.generateOutput(report, aggregatedRows, cmdArgs.outputPath());
+            } else {
+                try (AggregatorTransformer.SpilledAggregation aggregation = aggregator.new SpilledAggregation()) {
+                    long rowCount = streamAggregation(cmdArgs.csvPath(), report, compiled.slotNames(), plan.pushedDownFilters(), rowTransformers, aggregation::accept);
+                    System.out.println("AggregatorTransformer: Aggregated " + rowCount + " streamed rows, merging spilled partitions.");
+                    writeSpilledAggregation(report, followingTransformers, aggregation, cmdArgs.outputPath());
+                }
+            }
+            if (cachedResult != null) {
+                cachedResult.store(cmdArgs.outputPath());
+            }
+            return;
+        }
+
+        // Loading and primary parsing CSV (through columnar cache if enabled)
+        CsvInput.InitialData initialCsvData = InputLoader.load(cmdArgs, report.getInputs(), plan.pushedDownFilters());
+
+        // Transformation data in format List<Map<String, Object>>
+        List<Map<String, Object>> dataRowsAsMapList = CsvInput.convertToMapList(
+                initialCsvData.rows(), initialCsvData.headers(), compiled.slotNames()
+        );
+
+        // Applying transformers (now the can modify dataRowsAsMapList)
+        ReportPipeline.applyTransformations(report, plan.transformers(), dataRowsAsMapList);
+
+        // Generating output file (using dataRowsAsMapList after transformation)
+        ReportOutput.generateOutput(report, dataRowsAsMapList, cmdArgs.outputPath());
+        if (cachedResult != null) {
+            cachedResult.store(cmdArgs.outputPath());
+        }
+    }
+
+    /**
+     * Position of a presorted or spilling (maxGroupsInMemory) Aggregator which can consume CSV batch by batch (plain
+     * CSV input, only row local transformers before it), -1 when the whole input has to be loaded.
+     */
+    private static int streamedAggregatorIndex(CommandLineArgs cmdArgs, List<Transformer> transformers) {
+        if (cmdArgs.csvPath().endsWith(ColumnarFormat.EXTENSION) || cmdArgs.option(CommandLineArgs.OPTION_CACHE_DIR) != null) {
+            return -1;
+        }
+        for (int i = 0; i < transformers.size(); i++) {
+            Transformer transformer = transformers.get(i);
+            if (transformer instanceof AggregatorTransformer aggregator) {
+                return aggregator.isPresorted() || aggregator.getMaxGroupsInMemory() > 0 ? i : -1;
+            }
+            if (!ReportPipeline.ROW_LOCAL_TRANSFORMERS.contains(transformer.getClass())) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads CSV in batches of {@value CsvInput#STREAMING_BATCH_SIZE} rows, applies the row local transformers to every batch
+     * and feeds it to the aggregation, returns number of aggregated rows. Memory is bounded by one batch and the
+     * groups the aggregation keeps instead of the whole input.
+     */
+    private static long streamAggregation(String csvFilePath, Report report, Collection<String> reportColumns, List<FilterTransformer> filters,
+                                          List<Transformer> rowTransformers, Consumer<List<Map<String, Object>>> aggregation) throws ReportGenerationException {
+        System.out.println("Streaming CSV into aggregation: " + csvFilePath);
+        Path inputPath = ReportPipeline.validateAndGetPath(csvFilePath);
+        long lineCount = 0;
+        long rejectedCount = 0;
+        long[] rowCount = {0};
+        ReportPipeline.progress.stage("streaming " + inputPath.getFileName() + " into aggregation");
+        try (CountingInputStream input = new CountingInputStream(CompressedFiles.newInputStream(inputPath));
+             BufferedReader reader = CompressedFiles.newBufferedReader(input)) {
+            if (CompressedFiles.isGzip(inputPath)) {
+                ReportPipeline.progress.addInputOfUnknownSize();
+            } else {
+                ReportPipeline.progress.addInput(Files.size(inputPath));
+            }
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                System.out.println("CSV file is empty. Returning empty data.");
+                return 0;
+            }
+            lineCount++;
+            List<String> headers = Arrays.asList(headerLine.split(","));
+            System.out.println("CSV Headers: " + headers);
+            // All batches share one schema, so slots bound by the aggregation on the first batch stay valid
+            RowSchema schema = new RowSchema(headers);
+            reportColumns.forEach(schema::slotOf);
+            CsvInput.StreamedLines streamed = CsvInput.streamCsvBatches(reader, input, 0, headers, schema, filters, 1,
+                    batch -> rowCount[0] += aggregateBatch(report, rowTransformers, aggregation, batch));
+            lineCount += streamed.lines();
+            rejectedCount = streamed.rejected();
+        } catch (IOException e) {
+            throw new ReportGenerationException("Failed to read CSV file: " + csvFilePath, e);
+        } catch (IllegalStateException | UncheckedIOException e) {
+            throw new ReportGenerationException("Failed during streamed aggregation: " + e.getMessage(), e);
+        }
+        System.out.println("Read " + lineCount + " lines from CSV.");
+        if (!filters.isEmpty()) {
+            System.out.println("Pushed down filters rejected " + rejectedCount + " lines.");
+        }
+        return rowCount[0];
+    }
+
+    /** Applies row local transformers to one batch and feeds it to the aggregation, returns number of aggregated rows. */
+    private static int aggregateBatch(Report report, List<Transformer> rowTransformers, Consumer<List<Map<String, Object>>> aggregation,
+                                      List<Map<String, Object>> batch) throws ReportGenerationException {
+        if (batch.isEmpty()) {
+            ReportPipeline.progress.checkpoint();
+            return 0;
+        }
+        ReportPipeline.applyRowTransformers(report, rowTransformers, batch);
+        int size = batch.size();
+        aggregation.accept(batch);
+        batch.clear();
+        return size;
+    }
+
+    /** Output rows of the aggregation, its failures (spilling, unordered input) are failures of the report. */
+    private static List<Map<String, Object>> finishAggregation(Supplier<List<Map<String, Object>>> rows) throws ReportGenerationException {
+        try {
+            return rows.get();
+        } catch (IllegalStateException | UncheckedIOException e) {
+            throw new ReportGenerationException("Failed during streamed aggregation: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the spilled aggregation partition by partition: when only row local transformers follow the Aggregator,
+     * they run on a batch of merged partitions and its rows are written before the next partitions are merged, so
+     * memory stays bounded by a batch and one partition. Other transformers (ordering, windows) need all rows, those
+     * are collected first.
+     */
+    private static void writeSpilledAggregation(Report report, List<Transformer> followingTransformers, AggregatorTransformer.SpilledAggregation aggregation,
+                                                String outputPath) throws ReportGenerationException {
+        if (followingTransformers.stream().allMatch(transformer -> ReportPipeline.ROW_LOCAL_TRANSFORMERS.contains(transformer.getClass()))) {
+            long[] rowCount = {0};
+            ReportOutput.generateOutput(report, () -> {
+                // Small partitions are joined up to a batch, so the transformers run on batches like on streamed CSV
+                List<Map<String, Object>> rows = new ArrayList<>();
+                List<Map<String, Object>> partitionRows = List.of();
+                while (rows.size() < CsvInput.STREAMING_BATCH_SIZE && !(partitionRows = finishAggregation(aggregation::nextRows)).isEmpty()) {
+                    rows.addAll(partitionRows);
+                }
+                if (rows.isEmpty()) {
+                    System.out.println("AggregatorTransformer: Merged spilled partitions into " + rowCount[0] + " rows.");
+                    return null;
+                }
+                rowCount[0] += rows.size();
+                ReportPipeline.applyRowTransformers(report, followingTransformers, rows);
+                return rows;
+            }, outputPath);
+            return;
+        }
+        List<Map<String, Object>> aggregatedRows = new ArrayList<>();
+        for (List<Map<String, Object>> rows = finishAggregation(aggregation::nextRows); !rows.isEmpty(); rows = finishAggregation(aggregation::nextRows)) {
+            aggregatedRows.addAll(rows);
+        }
+        System.out.println("AggregatorTransformer: Merged spilled partitions into " + aggregatedRows.size() + " rows.");
+        ReportPipeline.applyTransformations(report, followingTransformers, aggregatedRows);
+        ReportOutput.generateOutput(report, aggregatedRows, outputPath);
+    }
+}
@@ -0,0 +1,166 @@
+package com.playtech.report.exec;
+
+import com.playtech.report.Report;
+import com.playtech.report.output.JsonlRowWriter;
+import com.playtech.report.output.RowWriter;
+import com.playtech.report.output.RowWriters;
+import com.playtech.report.plan.CompiledReport;
+import com.playtech.report.row.RowSchema;
+import com.playtech.report.transformer.Transformer;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.util.columnar.ColumnarFormat;
+import com.playtech.util.io.CompressedFiles;
+import com.playtech.util.io.CountingInputStream;
+import com.playtech.util.io.FileTail;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/** Runner of tail mode (--tail). */
+public final class TailRunner {
+    private static final long TAIL_POLL_MILLIS = 500; // Pause of tail mode when the input did not grow
+    private static final int TAIL_READ_SIZE = 4 * 1024 * 1024; // Bytes of new input parsed at once in tail mode
+
+    private TailRunner() {
+    }
+
+    /**
+     * Tail mode: follows the CSV while it is being appended. Rows pass the transformers before the Aggregator as
+     * they arrive and are aggregated per event time window (the time bucket of the Aggregator). Once the watermark
+     * passes a window, its rows go through the rest of the chain and are appended to the JSON Lines output. Runs
+     * until cancelled (open windows are not written) or until the input did not grow for --tail-idle seconds (all
+     * windows are written).
+     */
+    public static void run(CommandLineArgs cmdArgs) throws ReportGenerationException {
+        Report report = ReportPipeline.loadReportConfiguration(cmdArgs.xmlPath());
+        CompiledReport compiled = ReportPipeline.compileReport(report);
+        ReportPipeline.ExecutionPlan plan = ReportPipeline.planExecution(ReportPipeline.transformersOf(cmdArgs, report, compiled));
+        List<Transformer> transformers = plan.transformers();
+        int aggregatorIndex = 0;
+        while (aggregatorIndex < transformers.size() && ReportPipeline.ROW_LOCAL_TRANSFORMERS.contains(transformers.get(aggregatorIndex).getClass())) {
+            aggregatorIndex++;
+        }
+        if (aggregatorIndex == transformers.size() || !(transformers.get(aggregatorIndex) instanceof AggregatorTransformer aggregator)
+                || aggregator.getTimeBucket() == null) {
+            throw new ReportGenerationException("Tail mode needs an Aggregator with a timeBucket (the event time window), preceded only by"
+                    + " Filter, StringFormatter, MathOperation, DateTimeFormatter and Join.");
+        }
+        Path inputPath = ReportPipeline.validateAndGetPath(cmdArgs.csvPath());
+        Path outputPath = ReportPipeline.validateAndGetPath(cmdArgs.outputPath());
+        if (CompressedFiles.isGzip(inputPath) || cmdArgs.csvPath().endsWith(ColumnarFormat.EXTENSION)) {
+            throw new ReportGenerationException("Tail mode follows a plain CSV file: " + inputPath);
+        }
+        if (report.getPartitionBy() != null || RowWriters.formatOf(report) != Report.FileFormat.JSONL || CompressedFiles.isGzip(outputPath)) {
+            throw new ReportGenerationException("Tail mode appends to a plain JSON Lines output (no partitionBy, no compression).");
+        }
+        long allowedLateness = cmdArgs.option(CommandLineArgs.OPTION_ALLOWED_LATENESS) == null || cmdArgs.option(CommandLineArgs.OPTION_ALLOWED_LATENESS).trim().equals("0")
+                ? 0 : cmdArgs.positiveOption(CommandLineArgs.OPTION_ALLOWED_LATENESS, 0);
+        long idleNanos = cmdArgs.option(CommandLineArgs.OPTION_TAIL_IDLE) != null
+                ? Duration.ofSeconds(cmdArgs.positiveOption(CommandLineArgs.OPTION_TAIL_IDLE, 0)).toNanos() : Long.MAX_VALUE;
+        List<Transformer> rowTransformers = transformers.subList(0, aggregatorIndex);
+        List<Transformer> windowTransformers = transformers.subList(aggregatorIndex + 1, transformers.size());
+        AggregatorTransformer.WindowedAggregation windows = aggregator.new WindowedAggregation(allowedLateness);
+
+        System.out.println("Tailing CSV: " + inputPath + ", windows of " + aggregator.getTimeBucket().getUnit() + " on '"
+                + aggregator.getTimeBucket().getInput().getName() + "' with allowed lateness of " + allowedLateness + " s, appending to: " + outputPath);
+        ReportPipeline.progress.stage("tailing " + inputPath.getFileName());
+        ReportPipeline.progress.addInputOfUnknownSize();
+        long lineCount = 0;
+        long windowCount = 0;
+        long rowCount = 0;
+        boolean idle = false;
+        try (FileTail tail = new FileTail(inputPath);
+             CountingInputStream input = new CountingInputStream(tail.lineStream());
+             BufferedReader reader = CompressedFiles.newBufferedReader(input); // One reader follows the whole file
+             BufferedWriter output = newTailOutput(outputPath);
+             RowWriter writer = new JsonlRowWriter(output)) {
+            List<String> headers = null;
+            RowSchema schema = null;
+            long lastGrowth = System.nanoTime();
+            while (!ReportPipeline.progress.isCancelled()) {
+                if (tail.nextLines(TAIL_READ_SIZE) == 0) {
+                    if (System.nanoTime() - lastGrowth >= idleNanos) {
+                        idle = true;
+                        break;
+                    }
+                    Thread.sleep(TAIL_POLL_MILLIS);
+                    continue;
+                }
+                lastGrowth = System.nanoTime();
+                long countedBytes = input.count(); // Reader consumed all lines of the previous call
+                if (headers == null) {
+                    String headerLine = reader.readLine();
+                    headers = Arrays.asList(headerLine.split(","));
+                    System.out.println("CSV Headers: " + headers);
+                    // All batches share one schema, so slots bound by the aggregation on the first batch stay valid
+                    schema = new RowSchema(headers);
+                    compiled.slotNames().forEach(schema::slotOf);
+                    lineCount++;
+                }
+                CsvInput.StreamedLines streamed = CsvInput.streamCsvBatches(reader, input, countedBytes, headers, schema, plan.pushedDownFilters(), lineCount,
+                        batch -> {
+                            ReportPipeline.applyRowTransformers(report, rowTransformers, batch);
+                            windows.accept(batch);
+                        });
+                lineCount += streamed.lines();
+                int openBefore = windows.openWindowCount();
+                List<Map<String, Object>> finished = windows.finishedWindows();
+                if (!finished.isEmpty()) {
+                    windowCount += openBefore - windows.openWindowCount();
+                    rowCount += writeWindowRows(report, windowTransformers, finished, writer, output);
+                    System.out.println("Tail: " + windowCount + " windows (" + rowCount + " rows) written, " + windows.openWindowCount()
+                            + " open, " + windows.lateRowCount() + " late rows dropped, " + lineCount + " lines read.");
+                }
+            }
+            if (idle) {
+                int open = windows.openWindowCount();
+                rowCount += writeWindowRows(report, windowTransformers, windows.finishAll(), writer, output);
+                windowCount += open;
+                System.out.println("Tail: input did not grow for " + cmdArgs.option(CommandLineArgs.OPTION_TAIL_IDLE) + " s, open windows written.");
+            } else {
+                System.out.println("Tail: stopped, " + windows.openWindowCount() + " open windows were not written.");
+            }
+        } catch (ReportCancelledException e) {
+            System.out.println("Tail: stopped, " + windows.openWindowCount() + " open windows were not written.");
+        } catch (IOException e) {
+            throw new ReportGenerationException("Tail mode failed on " + inputPath + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportGenerationException("Tail mode was interrupted.", e);
+        }
+        System.out.printf("Tail: read %d lines, wrote %d rows of %d windows to: %s (%d late rows dropped).%n",
+                lineCount, rowCount, windowCount, outputPath, windows.lateRowCount());
+    }
+
+    /** Output of tail mode, a previous output is replaced (the whole input is read again). */
+    private static BufferedWriter newTailOutput(Path outputPath) throws IOException {
+        if (outputPath.getParent() != null) {
+            Files.createDirectories(outputPath.getParent());
+        }
+        return Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8);
+    }
+
+    /** Runs the transformers after the Aggregator on rows of finished windows and appends them, visible to readers at once. */
+    private static int writeWindowRows(Report report, List<Transformer> windowTransformers, List<Map<String, Object>> rows,
+                                       RowWriter writer, BufferedWriter output) throws ReportGenerationException, IOException {
+        if (rows.isEmpty()) return 0;
+        ReportPipeline.applyRowTransformers(report, windowTransformers, rows);
+        int count = 0;
+        for (Map<String, Object> row : rows) {
+            if (row != null && !row.isEmpty()) {
+                writer.write(row);
+                count++;
+            }
+        }
+        output.flush();
+        return count;
+    }
+}
@@ -0,0 +1,41 @@
+package com.playtech.report.output;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.row.ColumnSlot;
+import com.playtech.util.columnar.ColumnarFileWriter;
+import com.playtech.util.columnar.ColumnarFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/** Columnar binary file, readable back with ColumnarFileReader. */
+public class ColumnarRowWriter implements RowWriter {
+    private final ColumnarFileWriter writer;
+    private final List<String> columns;
+    private final Object[] values;
+    private ColumnSlot[] slots; // Resolved on first row
+
+    public ColumnarRowWriter(OutputStream out, List<String> columns, List<Column.DataType> types, ColumnarFormat.Codec codec) throws IOException {
+        this.writer = new ColumnarFileWriter(out, columns, types, codec, ColumnarFormat.DEFAULT_ROW_GROUP_SIZE);
+        this.columns = columns;
+        this.values = new Object[columns.size()];
+    }
+
+    @Override
+    public void write(Map<String, Object> row) throws IOException {
+        if (slots == null) {
+            slots = columns.stream().map(column -> ColumnSlot.of(row, column)).toArray(ColumnSlot[]::new);
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = slots[i].get(row);
+        }
+        writer.write(values);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,45 @@
+package com.playtech.report.output;
+
+import com.opencsv.CSVWriter;
+import com.playtech.report.row.ColumnSlot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/** CSV with header line, values quoted only when needed. */
+public class CsvRowWriter implements RowWriter {
+    private final CSVWriter writer;
+    private final List<String> columns;
+    private final String[] values;
+    private ColumnSlot[] slots; // Resolved on first row
+
+    public CsvRowWriter(BufferedWriter writer, List<String> columns) {
+        this.writer = new CSVWriter(writer, CSVWriter.DEFAULT_SEPARATOR, CSVWriter.DEFAULT_QUOTE_CHARACTER,
+                CSVWriter.DEFAULT_ESCAPE_CHARACTER, System.lineSeparator());
+        this.columns = columns;
+        this.values = new String[columns.size()];
+        this.writer.writeNext(columns.toArray(new String[0]), false);
+    }
+
+    @Override
+    public void write(Map<String, Object> row) throws IOException {
+        if (slots == null) {
+            slots = columns.stream().map(column -> ColumnSlot.of(row, column)).toArray(ColumnSlot[]::new);
+        }
+        for (int i = 0; i < values.length; i++) {
+            Object value = slots[i].get(row);
+            values[i] = value != null ? value.toString() : "";
+        }
+        writer.writeNext(values, false);
+        if (writer.checkError()) {
+            throw new IOException("Failed to write CSV row");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,29 @@
+package com.playtech.report.output;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.Map;
+
+/** One JSON object per line (JSON Lines). */
+public class JsonlRowWriter implements RowWriter {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper(); // Thread safe once configured
+
+    private final BufferedWriter writer;
+
+    public JsonlRowWriter(BufferedWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(Map<String, Object> row) throws IOException {
+        writer.write(OBJECT_MAPPER.writeValueAsString(row));
+        writer.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
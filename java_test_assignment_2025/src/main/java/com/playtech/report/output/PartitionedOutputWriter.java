@@ -0,0 +1,120 @@
+package com.playtech.report.output;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.report.row.ColumnSlot;
+import com.playtech.util.columnar.ColumnarFormat;
+import com.playtech.util.io.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Splits report rows by value of a partition column, one output file per value.
+ * For output {@code dir/report.jsonl} partition "Las Vegas" goes to {@code dir/report-Las_Vegas.jsonl}.
+ * Partitions are written concurrently by a pool whose size bounds the number of open files. Every partition is
+ * written under a temporary name, files are renamed only after all partitions were written.
+ */
+public class PartitionedOutputWriter {
+    public static final int DEFAULT_MAX_OPEN_FILES = 16;
+    private static final String NULL_PARTITION = "null";
+
+    private final Report.FileFormat format;
+    private final String partitionColumn;
+    private final int maxOpenFiles;
+    private final Map<String, Column.DataType> columnTypes;
+    private final ColumnarFormat.Codec codec;
+
+    public PartitionedOutputWriter(Report.FileFormat format, String partitionColumn, int maxOpenFiles) {
+        this(format, partitionColumn, maxOpenFiles, Map.of(), null);
+    }
+
+    /** Column types and codec are passed to columnar writers, see RowWriters. */
+    public PartitionedOutputWriter(Report.FileFormat format, String partitionColumn, int maxOpenFiles,
+                                   Map<String, Column.DataType> columnTypes, ColumnarFormat.Codec codec) {
+        this.format = format;
+        this.partitionColumn = partitionColumn;
+        this.maxOpenFiles = Math.max(1, maxOpenFiles);
+        this.columnTypes = columnTypes;
+        this.codec = codec;
+    }
+
+    /** Writes partitions, returns written file per partition value (in order of first appearance). */
+    public Map<Object, Path> write(List<Map<String, Object>> rows, Path outputPath) throws IOException {
+        // Grouping references only, rows keep their order inside a partition
+        Map<Object, List<Map<String, Object>>> partitions = new LinkedHashMap<>();
+        ColumnSlot partitionSlot = ColumnSlot.of(rows, partitionColumn);
+        for (Map<String, Object> row : rows) {
+            if (row == null || row.isEmpty()) continue;
+            partitions.computeIfAbsent(partitionSlot.get(row), key -> new ArrayList<>()).add(row);
+        }
+        List<String> columns = RowWriters.columnsOf(rows);
+
+        Map<Object, Path> files = new LinkedHashMap<>();
+        Map<Object, Path> tempFiles = new LinkedHashMap<>(); // Renamed to files once all partitions are written
+        Set<String> usedNames = new HashSet<>();
+        for (Object key : partitions.keySet()) {
+            Path file = partitionPath(outputPath, key, usedNames);
+            files.put(key, file);
+            tempFiles.put(key, AtomicFiles.tempSibling(file));
+        }
+
+        int threads = Math.min(maxOpenFiles, Math.max(1, Math.min(partitions.size(), Runtime.getRuntime().availableProcessors())));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Map.Entry<Object, List<Map<String, Object>>> partition : partitions.entrySet()) {
+                Path file = tempFiles.get(partition.getKey());
+                results.add(executor.submit(() -> {
+                    try (RowWriter writer = RowWriters.open(format, file, columns, columnTypes, codec)) {
+                        for (Map<String, Object> row : partition.getValue()) {
+                            writer.write(row);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            for (Object key : files.keySet()) {
+                AtomicFiles.commit(tempFiles.get(key), files.get(key));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing partitions", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException("Failed to write partition", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            tempFiles.values().forEach(AtomicFiles::deleteQuietly); // Gone after commit, partial files otherwise
+        }
+        return files;
+    }
+
+    /** Output file name with sanitized partition value inserted before the extension(s), unique per value. */
+    static Path partitionPath(Path outputPath, Object key, Set<String> usedNames) {
+        String fileName = outputPath.getFileName().toString();
+        int dot = fileName.indexOf('.');
+        String baseName = dot < 0 ? fileName : fileName.substring(0, dot);
+        String extension = dot < 0 ? "" : fileName.substring(dot);
+        String value = key == null ? NULL_PARTITION : key.toString().replaceAll("[^A-Za-z0-9._-]", "_");
+        String name = baseName + "-" + value;
+        // Different values can become equal after sanitizing, those get a counter
+        String unique = name;
+        for (int i = 2; !usedNames.add(unique.toLowerCase()); i++) {
+            unique = name + "-" + i;
+        }
+        return outputPath.resolveSibling(unique + extension);
+    }
+}
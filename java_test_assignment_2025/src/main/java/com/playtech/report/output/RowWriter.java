@@ -0,0 +1,10 @@
+package com.playtech.report.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/** Writes report rows into one output file in a concrete format. */
+public interface RowWriter extends Closeable {
+    void write(Map<String, Object> row) throws IOException;
+}
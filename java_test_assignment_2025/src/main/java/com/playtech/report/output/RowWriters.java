@@ -0,0 +1,77 @@
+package com.playtech.report.output;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.util.columnar.ColumnarFormat;
+import com.playtech.util.io.CompressedFiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Creates row writers by report output format. */
+public final class RowWriters {
+
+    private RowWriters() {
+    }
+
+    /** JSONL when format is not set (the original behaviour). */
+    public static Report.FileFormat formatOf(Report report) {
+        return report.getOutputFormat() != null ? report.getOutputFormat() : Report.FileFormat.JSONL;
+    }
+
+    public static String extensionOf(Report.FileFormat format) {
+        return switch (format) {
+            case CSV -> ".csv";
+            case JSONL -> ".jsonl";
+            case COLUMNAR -> ColumnarFormat.EXTENSION;
+        };
+    }
+
+    public static RowWriter open(Report.FileFormat format, Path path, List<String> columns) throws IOException {
+        return open(format, path, columns, Map.of(), null);
+    }
+
+    /**
+     * Opens writer for the file, parent directories are created (file may be compressed, see CompressedFiles).
+     * Column types and codec are used by the columnar format only, it compresses chunks itself instead of the whole file.
+     */
+    public static RowWriter open(Report.FileFormat format, Path path, List<String> columns,
+                                 Map<String, Column.DataType> columnTypes, ColumnarFormat.Codec codec) throws IOException {
+        Path parentDir = path.getParent();
+        if (parentDir != null) {
+            Files.createDirectories(parentDir);
+        }
+        return switch (format) {
+            case CSV -> new CsvRowWriter(CompressedFiles.newBufferedWriter(path), columns);
+            case JSONL -> new JsonlRowWriter(CompressedFiles.newBufferedWriter(path));
+            case COLUMNAR -> new ColumnarRowWriter(Files.newOutputStream(path), columns,
+                    columns.stream().map(columnTypes::get).toList(), codec);
+        };
+    }
+
+    /** Declared types of report outputs by name. */
+    public static Map<String, Column.DataType> columnTypesOf(Report report) {
+        Map<String, Column.DataType> types = new HashMap<>();
+        if (report.getOutputs() != null) {
+            for (Column output : report.getOutputs()) {
+                types.put(output.getName(), output.getType());
+            }
+        }
+        return types;
+    }
+
+    /** Column names for formats with a fixed header: keys of the first row (rows share their keys). */
+    public static List<String> columnsOf(List<Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            if (row != null && !row.isEmpty()) {
+                return new ArrayList<>(row.keySet());
+            }
+        }
+        return List.of();
+    }
+}
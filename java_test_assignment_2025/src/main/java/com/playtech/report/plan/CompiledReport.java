@@ -0,0 +1,15 @@
+package com.playtech.report.plan;
+
+import com.playtech.report.transformer.Transformer;
+
+import java.util.List;
+
+/**
+ * Result of ReportCompiler: the transformers to run and every column name the report uses, in the order rows
+ * allocate their slots.
+ *
+ * @param slotNames    column name of every slot (inputs first, then columns in order they are produced)
+ * @param transformers transformers to run, dead ones are already removed
+ */
+public record CompiledReport(List<String> slotNames, List<Transformer> transformers, List<String> warnings) {
+}
@@ -0,0 +1,19 @@
+package com.playtech.report.plan;
+
+import java.util.List;
+
+/** Configuration errors found by ReportCompiler, all of them are reported at once. */
+public class ReportCompilationException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] errors; // Array, a List field would not be serializable
+
+    public ReportCompilationException(List<String> errors) {
+        super("Report configuration has " + errors.size() + " error(s): " + String.join("; ", errors));
+        this.errors = errors.toArray(String[]::new);
+    }
+
+    public List<String> getErrors() {
+        return List.of(errors);
+    }
+}
@@ -0,0 +1,331 @@
+package com.playtech.report.plan;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.report.transformer.Transformer;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.report.transformer.impl.DateTimeFormatterTransformer;
+import com.playtech.report.transformer.impl.FilterTransformer;
+import com.playtech.report.transformer.impl.JoinTransformer;
+import com.playtech.report.transformer.impl.MathOperationTransformer;
+import com.playtech.report.transformer.impl.OrderingTransformer;
+import com.playtech.report.transformer.impl.StringFormatterTransformer;
+import com.playtech.report.transformer.impl.TimeBucket;
+import com.playtech.report.transformer.impl.WindowTransformer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks the transformer chain of a report before any data is read:
+ * <ul>
+ *     <li>every column a transformer reads is an input or produced by an earlier transformer;</li>
+ *     <li>column types fit the operation (e.g. MathOperation needs INTEGER/DOUBLE/DECIMAL), types are tracked through the chain;</li>
+ *     <li>transformers that only write columns which are overwritten or dropped (by Aggregator) before
+ *     anything reads them are removed;</li>
+ *     <li>every column name the report uses is listed in the order rows allocate its slot.</li>
+ * </ul>
+ * Errors are collected and reported together, type mismatches against declared outputs are only warnings
+ * (e.g. StringFormatter writing "12.50 EUR" into a DOUBLE output is the usual way to format a report).
+ */
+public final class ReportCompiler {
+
+    private ReportCompiler() {
+    }
+
+    /** What one transformer does with columns. */
+    private record Usage(List<String> reads, Map<String, Column.DataType> writes,
+                         boolean removable, // Only writes columns, rows and their order are untouched
+                         boolean replacesColumns, // Rows after it have only written columns (Aggregator)
+                         boolean opaque) {} // Unknown transformer, can read or write anything
+
+    public static CompiledReport compile(Report report) throws ReportCompilationException {
+        List<Transformer> transformers = report.getTransformers() != null ? report.getTransformers() : List.of();
+        List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+
+        // Forward pass: available columns and their types after every transformer
+        Map<String, Column.DataType> schema = new LinkedHashMap<>();
+        if (report.getInputs() != null) {
+            for (Column input : report.getInputs()) {
+                schema.put(input.getName(), input.getType());
+            }
+        }
+        boolean schemaKnown = !schema.isEmpty(); // Without declared inputs CSV headers are not known up front
+        List<Usage> usages = new ArrayList<>();
+        for (int i = 0; i < transformers.size(); i++) {
+            Transformer transformer = transformers.get(i);
+            String context = "Transformer #" + (i + 1) + " (" + nameOf(transformer) + ")";
+            Usage usage = describe(transformer, schema, context, errors);
+            if (schemaKnown) {
+                for (String read : usage.reads()) {
+                    if (!schema.containsKey(read)) {
+                        errors.add(context + " reads column '" + read + "' which is not available at this point");
+                    }
+                }
+            }
+            if (usage.opaque()) {
+                schemaKnown = false;
+            }
+            if (usage.replacesColumns()) {
+                schema = new LinkedHashMap<>();
+                schemaKnown = true;
+            }
+            schema.putAll(usage.writes());
+            usages.add(usage);
+        }
+        if (!errors.isEmpty()) {
+            throw new ReportCompilationException(errors);
+        }
+        checkOutputs(report, schema, schemaKnown, warnings);
+
+        boolean[] dead = findDeadTransformers(usages);
+
+        // Slots: inputs first, then columns in order they are produced by remaining transformers
+        Set<String> slotNames = new LinkedHashSet<>();
+        if (report.getInputs() != null) {
+            for (Column input : report.getInputs()) {
+                slotNames.add(input.getName());
+            }
+        }
+        List<Transformer> kept = new ArrayList<>();
+        for (int i = 0; i < transformers.size(); i++) {
+            if (dead[i]) {
+                System.out.println("ReportCompiler: Removing transformer #" + (i + 1) + " (" + nameOf(transformers.get(i))
+                        + "), its output " + usages.get(i).writes().keySet() + " is never used.");
+                continue;
+            }
+            slotNames.addAll(usages.get(i).reads());
+            slotNames.addAll(usages.get(i).writes().keySet());
+            kept.add(transformers.get(i));
+        }
+        slotNames.addAll(schema.keySet());
+
+        for (String warning : warnings) {
+            System.err.println("ReportCompiler: Warning: " + warning);
+        }
+        System.out.println("ReportCompiler: " + kept.size() + " of " + transformers.size() + " transformers kept, "
+                + slotNames.size() + " column slots.");
+        return new CompiledReport(List.copyOf(slotNames), List.copyOf(kept), warnings);
+    }
+
+    /**
+     * Backward liveness: at the end every column is used (writers output all of them),
+     * Aggregator uses only its grouping and aggregated columns. A removable transformer is dead
+     * when none of the columns it writes is used later.
+     */
+    private static boolean[] findDeadTransformers(List<Usage> usages) {
+        boolean[] dead = new boolean[usages.size()];
+        boolean allLive = true;
+        Set<String> killed = new HashSet<>(); // While allLive: columns that are not used
+        Set<String> live = new HashSet<>(); // Otherwise: columns that are used
+        for (int i = usages.size() - 1; i >= 0; i--) {
+            Usage usage = usages.get(i);
+            if (usage.opaque()) {
+                allLive = true;
+                killed.clear();
+                continue;
+            }
+            boolean writesLiveColumn = false;
+            for (String write : usage.writes().keySet()) {
+                writesLiveColumn |= allLive ? !killed.contains(write) : live.contains(write);
+            }
+            if (usage.removable() && !writesLiveColumn) {
+                dead[i] = true;
+                continue;
+            }
+            if (usage.replacesColumns()) {
+                allLive = false;
+                killed.clear();
+                live = new HashSet<>(usage.reads());
+                continue;
+            }
+            for (String write : usage.writes().keySet()) {
+                if (allLive) killed.add(write); else live.remove(write);
+            }
+            for (String read : usage.reads()) {
+                if (allLive) killed.remove(read); else live.add(read);
+            }
+        }
+        return dead;
+    }
+
+    private static Usage describe(Transformer transformer, Map<String, Column.DataType> schema, String context, List<String> errors) {
+        Set<String> reads = new LinkedHashSet<>();
+        Map<String, Column.DataType> writes = new LinkedHashMap<>();
+        switch (transformer) {
+            case StringFormatterTransformer formatter -> {
+                formatter.getInputs().forEach(input -> reads.add(input.getName()));
+                writes.put(formatter.getOutput().getName(), Column.DataType.STRING);
+                return usage(reads, writes, true, false);
+            }
+            case MathOperationTransformer math -> {
+                boolean allDecimal = math.getInputs().size() > 1;
+                for (Column input : math.getInputs()) {
+                    reads.add(input.getName());
+                    requireNumeric(schema, input, context, errors);
+                    allDecimal &= schema.get(input.getName()) == Column.DataType.DECIMAL;
+                }
+                // DECIMAL operands are calculated exactly and stay DECIMAL
+                writes.put(math.getOutput().getName(), allDecimal ? Column.DataType.DECIMAL : Column.DataType.DOUBLE);
+                return usage(reads, writes, true, false);
+            }
+            case DateTimeFormatterTransformer formatter -> {
+                reads.add(formatter.getInput().getName());
+                Column.DataType inputType = schema.get(formatter.getInput().getName());
+                if (isNumeric(inputType)) {
+                    errors.add(context + ": column '" + formatter.getInput().getName() + "' is " + inputType + ", DATE or DATETIME expected");
+                }
+                Column.DataType outputType = formatter.getOutput().getType();
+                writes.put(formatter.getOutput().getName(), isTemporal(outputType) ? outputType : Column.DataType.STRING);
+                return usage(reads, writes, true, false);
+            }
+            case OrderingTransformer ordering -> {
+                reads.add(ordering.getOrderByColumn().getName());
+                return usage(reads, writes, false, false);
+            }
+            case FilterTransformer filter -> {
+                checkConditions(filter.getConditions(), schema, context, errors);
+                reads.addAll(filter.getReferencedColumnNames());
+                return usage(reads, writes, false, false);
+            }
+            case JoinTransformer join -> {
+                reads.add(join.getInput().getName());
+                for (Column column : join.getDimension().getColumns()) {
+                    writes.put(column.getName(), column.getType() != null ? column.getType() : Column.DataType.STRING);
+                }
+                // LEFT join keeps every row, INNER drops rows without a match
+                return usage(reads, writes, join.getJoinType() == JoinTransformer.JoinType.LEFT, false);
+            }
+            case AggregatorTransformer aggregator -> {
+                // Time bucket output is computed from its input, groups get a formatted label of the period
+                TimeBucket timeBucket = aggregator.getTimeBucket();
+                String bucketName = null;
+                if (timeBucket != null) {
+                    bucketName = timeBucket.getOutput().getName();
+                    reads.add(timeBucket.getInput().getName());
+                    Column.DataType inputType = schema.get(timeBucket.getInput().getName());
+                    if (isNumeric(inputType)) {
+                        errors.add(context + ": column '" + timeBucket.getInput().getName() + "' is " + inputType + ", DATE or DATETIME expected");
+                    }
+                }
+                for (List<Column> groupingSet : aggregator.getGroupingSets()) {
+                    for (Column column : groupingSet) {
+                        if (column.getName().equals(bucketName)) {
+                            Column.DataType labelType = column.getType();
+                            writes.put(bucketName, isTemporal(labelType) ? labelType : Column.DataType.STRING);
+                            continue;
+                        }
+                        reads.add(column.getName());
+                        writes.put(column.getName(), schema.get(column.getName()));
+                    }
+                }
+                for (AggregatorTransformer.AggregateBy aggregate : aggregator.getAggregateColumns()) {
+                    if (aggregate.getInput() == null || aggregate.getOutput() == null) {
+                        errors.add(context + ": aggregate " + aggregate.getMethod() + " requires input and output columns");
+                        continue;
+                    }
+                    reads.add(aggregate.getInput().getName());
+                    boolean counting = aggregate.getMethod() == AggregatorTransformer.Method.COUNT
+                            || aggregate.getMethod() == AggregatorTransformer.Method.COUNT_DISTINCT;
+                    if (!counting) {
+                        requireNumeric(schema, aggregate.getInput(), context, errors);
+                    }
+                    boolean decimal = !counting && aggregate.getInput().getType() == Column.DataType.DECIMAL;
+                    writes.put(aggregate.getOutput().getName(), decimal ? Column.DataType.DECIMAL : Column.DataType.DOUBLE);
+                }
+                return usage(reads, writes, false, true);
+            }
+            case WindowTransformer window -> {
+                window.getPartitionBy().forEach(column -> reads.add(column.getName()));
+                if (window.getOrderBy() != null) {
+                    reads.add(window.getOrderBy().getName());
+                }
+                for (WindowTransformer.WindowFunction function : window.getFunctions()) {
+                    Column.DataType outputType = switch (function.getFunction()) {
+                        case ROW_NUMBER -> Column.DataType.INTEGER;
+                        case SUM, AVG -> {
+                            requireNumeric(schema, function.getInput(), context, errors);
+                            yield function.getInput().getType() == Column.DataType.DECIMAL ? Column.DataType.DECIMAL : Column.DataType.DOUBLE;
+                        }
+                        case LAG, LEAD -> schema.get(function.getInput().getName());
+                    };
+                    if (function.getInput() != null) {
+                        reads.add(function.getInput().getName());
+                    }
+                    writes.put(function.getOutput().getName(), outputType);
+                }
+                // Sorts rows unless they are presorted
+                return usage(reads, writes, window.isPresorted(), false);
+            }
+            default -> {
+                return new Usage(List.of(), Map.of(), false, false, true);
+            }
+        }
+    }
+
+    private static Usage usage(Set<String> reads, Map<String, Column.DataType> writes, boolean removable, boolean replacesColumns) {
+        return new Usage(List.copyOf(reads), writes, removable, replacesColumns, false);
+    }
+
+    /** Filter parses its values by the declared column type, the column has to hold values of that kind at this point. */
+    private static void checkConditions(List<FilterTransformer.Condition> conditions, Map<String, Column.DataType> schema,
+                                        String context, List<String> errors) {
+        for (FilterTransformer.Condition condition : conditions) {
+            if (!condition.getConditions().isEmpty()) {
+                checkConditions(condition.getConditions(), schema, context, errors);
+                continue;
+            }
+            Column input = condition.getInput();
+            Column.DataType actual = schema.get(input.getName());
+            if (condition.getOperator() != FilterTransformer.Operator.IS_EMPTY && !compatible(input.getType(), actual)) {
+                errors.add(context + ": condition compares '" + input.getName() + "' as " + input.getType()
+                        + " but the column holds " + actual + " values at this point");
+            }
+        }
+    }
+
+    private static void requireNumeric(Map<String, Column.DataType> schema, Column column, String context, List<String> errors) {
+        Column.DataType type = schema.get(column.getName());
+        if (type != null && !isNumeric(type)) {
+            errors.add(context + ": column '" + column.getName() + "' is " + type + ", INTEGER, DOUBLE or DECIMAL expected");
+        }
+    }
+
+    /** Declared outputs should be produced and have their declared kind of values. */
+    private static void checkOutputs(Report report, Map<String, Column.DataType> schema, boolean schemaKnown, List<String> warnings) {
+        if (report.getOutputs() == null || !schemaKnown) return;
+        for (Column output : report.getOutputs()) {
+            if (!schema.containsKey(output.getName())) {
+                warnings.add("output column '" + output.getName() + "' is not produced by the report");
+            } else if (!compatible(output.getType(), schema.get(output.getName()))) {
+                warnings.add("output column '" + output.getName() + "' is declared " + output.getType()
+                        + " but holds " + schema.get(output.getName()) + " values");
+            }
+        }
+    }
+
+    /** Same kind of values: numbers, dates or text. Unknown types are compatible with anything. */
+    private static boolean compatible(Column.DataType declared, Column.DataType actual) {
+        if (declared == null || actual == null) return true;
+        return isNumeric(declared) == isNumeric(actual) && isTemporal(declared) == isTemporal(actual);
+    }
+
+    private static boolean isNumeric(Column.DataType type) {
+        return type == Column.DataType.INTEGER || type == Column.DataType.DOUBLE || type == Column.DataType.DECIMAL;
+    }
+
+    private static boolean isTemporal(Column.DataType type) {
+        return type == Column.DataType.DATE || type == Column.DataType.DATETIME;
+    }
+
+    private static String nameOf(Transformer transformer) {
+        return transformer.getClass().getSimpleName().replaceFirst("Transformer$", "");
+    }
+}
@@ -0,0 +1,106 @@
+package com.playtech.report.plan;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.report.transformer.Transformer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Canonical text form of a configured transformer: its class and all parameter values.
+ * Two transformers with equal signatures do the same work on the same rows, so their result can be shared
+ * between reports. Columns are described by name and type, transient and static fields are ignored
+ * (caches built at runtime).
+ */
+public final class TransformerSignature {
+
+    private TransformerSignature() {
+    }
+
+    public static String of(Transformer transformer) {
+        StringBuilder signature = new StringBuilder();
+        append(signature, transformer, new IdentityHashMap<>());
+        return signature.toString();
+    }
+
+    /** Canonical form of whole report configuration: everything that changes its output (report name does not). */
+    public static String ofReport(Report report) {
+        StringBuilder signature = new StringBuilder();
+        Map<Object, Boolean> visiting = new IdentityHashMap<>();
+        signature.append("outputFormat=");
+        append(signature, report.getOutputFormat(), visiting);
+        signature.append(";outputCompression=");
+        append(signature, report.getOutputCompression(), visiting);
+        signature.append(";inputs=");
+        append(signature, report.getInputs(), visiting);
+        signature.append(";dimensions=");
+        append(signature, report.getDimensions(), visiting);
+        signature.append(";outputs=");
+        append(signature, report.getOutputs(), visiting);
+        signature.append(";partitionBy=");
+        append(signature, report.getPartitionBy(), visiting);
+        signature.append(";transformers=");
+        append(signature, report.getTransformers(), visiting);
+        return signature.toString();
+    }
+
+    private static void append(StringBuilder signature, Object value, Map<Object, Boolean> visiting) {
+        if (value == null) {
+            signature.append("null");
+        } else if (value instanceof Column column) {
+            signature.append("Column(").append(column.getName()).append(':').append(column.getType()).append(')');
+        } else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum<?>) {
+            signature.append(value.getClass().getSimpleName()).append('"').append(value).append('"');
+        } else if (value instanceof Collection<?> collection) {
+            signature.append('[');
+            for (Object element : collection) {
+                append(signature, element, visiting);
+                signature.append(',');
+            }
+            signature.append(']');
+        } else if (value instanceof Map<?, ?> map) {
+            signature.append('{');
+            map.forEach((key, element) -> {
+                append(signature, key, visiting);
+                signature.append('=');
+                append(signature, element, visiting);
+                signature.append(',');
+            });
+            signature.append('}');
+        } else {
+            appendFields(signature, value, visiting);
+        }
+    }
+
+    // Parameter objects (transformers, AggregateBy, Condition...) are described field by field
+    private static void appendFields(StringBuilder signature, Object value, Map<Object, Boolean> visiting) {
+        if (visiting.put(value, Boolean.TRUE) != null) {
+            signature.append("<cycle>");
+            return;
+        }
+        signature.append(value.getClass().getName()).append('(');
+        for (Class<?> type = value.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                signature.append(field.getName()).append('=');
+                try {
+                    append(signature, field.get(value), visiting);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot read " + field + " for transformer signature", e);
+                }
+                signature.append(';');
+            }
+        }
+        signature.append(')');
+        visiting.remove(value);
+    }
+}
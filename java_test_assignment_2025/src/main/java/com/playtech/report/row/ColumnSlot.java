@@ -0,0 +1,47 @@
+package com.playtech.report.row;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column resolved to its slot once per transformer run. Rows of the resolved schema are accessed by index,
+ * other maps (e.g. built by hand in tests) by name.
+ */
+public final class ColumnSlot {
+    private final String name;
+    private final RowSchema schema;
+    private final int slot;
+
+    private ColumnSlot(String name, RowSchema schema) {
+        this.name = name;
+        this.schema = schema;
+        this.slot = schema != null ? schema.slotOf(name) : -1;
+    }
+
+    public static ColumnSlot of(List<? extends Map<String, Object>> rows, String name) {
+        return new ColumnSlot(name, Row.schemaOf(rows));
+    }
+
+    public static ColumnSlot of(Map<String, Object> row, String name) {
+        return new ColumnSlot(name, row instanceof Row r ? r.getSchema() : null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object get(Map<String, Object> row) {
+        if (row instanceof Row r && r.getSchema() == schema) {
+            return r.get(slot);
+        }
+        return row.get(name);
+    }
+
+    public void set(Map<String, Object> row, Object value) {
+        if (row instanceof Row r && r.getSchema() == schema) {
+            r.set(slot, value);
+        } else {
+            row.put(name, value);
+        }
+    }
+}
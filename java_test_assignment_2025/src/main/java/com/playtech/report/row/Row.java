@@ -0,0 +1,261 @@
+package com.playtech.report.row;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Report row as an array of values addressed by slots of a shared RowSchema.
+ * Transformers resolve slots once (see ColumnSlot) and read or write the array directly; the Map view
+ * keeps code working with column names (JSON writer, tests) and iterates columns in slot order.
+ * Column that was never written is absent, a written null is kept as present.
+ * Row can be backed by an undecoded source (e.g. CSV line): its fields are extracted on first read and kept.
+ */
+public final class Row extends AbstractMap<String, Object> {
+    private static final Object NULL_VALUE = new Object(); // Marks present column with null value
+    private static final Object UNDECODED = new Object(); // Marks present column not yet read from source
+
+    private final RowSchema schema;
+    private Object[] values;
+    private final List<?> source; // Undecoded fields, null for rows holding only values
+    private final int[] sourceFields; // Source field of every slot, -1 for slots not in source
+
+    public Row(RowSchema schema) {
+        this.schema = schema;
+        this.values = new Object[schema.size()];
+        this.source = null;
+        this.sourceFields = null;
+    }
+
+    /**
+     * Row decoding field sourceFields[slot] of source on first read of slot (see {@link #sourceFieldsOf}),
+     * sourceFields is shared by all rows of one input.
+     */
+    public Row(RowSchema schema, List<?> source, int[] sourceFields) {
+        this.schema = schema;
+        this.values = new Object[schema.size()];
+        this.source = source;
+        this.sourceFields = sourceFields;
+        for (int slot = 0; slot < sourceFields.length; slot++) {
+            if (sourceFields[slot] >= 0) {
+                values[slot] = UNDECODED;
+            }
+        }
+    }
+
+    /** Copy sharing the schema (and source, undecoded fields stay undecoded). */
+    public Row(Row other) {
+        this.schema = other.schema;
+        this.values = other.values.clone();
+        this.source = other.source;
+        this.sourceFields = other.sourceFields;
+    }
+
+    /** Source field of every slot of schema for records with the given fields (a repeated name reads its last field). */
+    public static int[] sourceFieldsOf(RowSchema schema, List<String> fieldNames) {
+        int[] sourceFields = new int[schema.size()];
+        Arrays.fill(sourceFields, -1);
+        for (int i = 0; i < fieldNames.size(); i++) {
+            int slot = schema.slotOf(fieldNames.get(i));
+            if (slot >= sourceFields.length) {
+                int known = sourceFields.length;
+                sourceFields = Arrays.copyOf(sourceFields, slot + 1);
+                Arrays.fill(sourceFields, known, slot + 1, -1);
+            }
+            sourceFields[slot] = i;
+        }
+        return sourceFields;
+    }
+
+    /** Schema of the first Row in the list, null when rows are plain maps. */
+    public static RowSchema schemaOf(List<? extends Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            if (row != null) {
+                return row instanceof Row r ? r.schema : null;
+            }
+        }
+        return null;
+    }
+
+    /** New empty row of the same kind as rows in the list (Row on the same schema or LinkedHashMap). */
+    public static Map<String, Object> newRowLike(List<? extends Map<String, Object>> rows) {
+        RowSchema schema = schemaOf(rows);
+        return schema != null ? new Row(schema) : new LinkedHashMap<>();
+    }
+
+    /** Copy of a row keeping its kind. */
+    public static Map<String, Object> copyOf(Map<String, Object> row) {
+        return row instanceof Row r ? new Row(r) : new LinkedHashMap<>(row);
+    }
+
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    public Object get(int slot) {
+        if (slot >= values.length) return null;
+        Object value = values[slot];
+        if (value == UNDECODED) return decode(slot);
+        return value == NULL_VALUE ? null : value;
+    }
+
+    // Concurrent first reads decode the same immutable value, the race is benign
+    private Object decode(int slot) {
+        Object value = source.get(sourceFields[slot]);
+        values[slot] = value != null ? value : NULL_VALUE;
+        return value;
+    }
+
+    public boolean has(int slot) {
+        return slot < values.length && values[slot] != null;
+    }
+
+    public void set(int slot, Object value) {
+        if (slot >= values.length) {
+            // Schema got columns after this row was created, growing to the whole schema at once
+            values = Arrays.copyOf(values, Math.max(slot + 1, schema.size()));
+        }
+        values[slot] = value != null ? value : NULL_VALUE;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int slot = schema.indexOf(key);
+        return slot >= 0 ? get(slot) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int slot = schema.indexOf(key);
+        return slot >= 0 && has(slot);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int slot = schema.slotOf(key);
+        Object previous = get(slot);
+        set(slot, value);
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int slot = schema.indexOf(key);
+        if (slot < 0 || !has(slot)) return null;
+        Object previous = get(slot);
+        values[slot] = null;
+        return previous;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Object value : values) {
+            if (value != null) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Object value : values) {
+            if (value != null) size++;
+        }
+        return size;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                action.accept(schema.nameOf(slot), get(slot));
+            }
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+                    private int last = -1;
+
+                    private int advance(int from) {
+                        while (from < values.length && values[from] == null) from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        last = next;
+                        next = advance(next + 1);
+                        return new SlotEntry(last);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last < 0) throw new IllegalStateException();
+                        values[last] = null;
+                        last = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return Row.this.size();
+            }
+        };
+    }
+
+    private final class SlotEntry implements Entry<String, Object> {
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return schema.nameOf(slot);
+        }
+
+        @Override
+        public Object getValue() {
+            return get(slot);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object previous = get(slot);
+            set(slot, value);
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry<?, ?> e && getKey().equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.playtech.report.row;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Column name to slot index mapping shared by all rows of a report.
+ * Slots are only appended (a transformer writing a new column adds one), so resolved indexes stay valid.
+ */
+public final class RowSchema {
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+
+    public RowSchema(Collection<String> columnNames) {
+        for (String name : columnNames) {
+            slotOf(name);
+        }
+    }
+
+    /** Slot of the column, new slot is appended for unknown column. */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : addSlot(name);
+    }
+
+    private synchronized int addSlot(String name) {
+        Integer slot = slots.get(name);
+        if (slot != null) return slot;
+        String[] extended = Arrays.copyOf(names, names.length + 1);
+        extended[names.length] = name;
+        names = extended;
+        slots.put(name, names.length - 1);
+        return names.length - 1;
+    }
+
+    /** Slot of the column or -1, schema is not changed. */
+    public int indexOf(Object name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    public String nameOf(int slot) {
+        return names[slot];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public List<String> names() {
+        return List.of(names);
+    }
+}
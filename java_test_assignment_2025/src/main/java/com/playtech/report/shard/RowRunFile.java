@@ -0,0 +1,177 @@
+package com.playtech.report.shard;
+
+import com.playtech.report.row.Row;
+import com.playtech.report.row.RowSchema;
+import com.playtech.util.io.SpillCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Rows of one shard in binary form (typed values of {@link SpillCodec}): column names once, then per row the
+ * present columns as (column index, value). Runs of all shards are concatenated or, when each run is sorted,
+ * merged in one pass keeping only the head row of every run in memory.
+ */
+public final class RowRunFile {
+    private static final int MAGIC = 0x52524631; // "RRF1"
+    private static final int END_OF_RUN = -1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private RowRunFile() {
+    }
+
+    /** Writes rows to file, returns number of rows written. */
+    public static long write(Path file, List<Map<String, Object>> rows) throws IOException {
+        List<String> columns = columnsOf(rows);
+        long count = 0;
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+            output.writeInt(MAGIC);
+            output.writeInt(columns.size());
+            for (String column : columns) {
+                SpillCodec.writeValue(output, column);
+            }
+            for (Map<String, Object> row : rows) {
+                if (row == null) continue;
+                output.writeInt(row.size());
+                if (row instanceof Row slotRow) {
+                    for (int slot = 0; slot < slotRow.getSchema().size(); slot++) {
+                        if (slotRow.has(slot)) {
+                            output.writeInt(slot);
+                            SpillCodec.writeValue(output, slotRow.get(slot));
+                        }
+                    }
+                } else {
+                    for (Map.Entry<String, Object> entry : row.entrySet()) {
+                        output.writeInt(columns.indexOf(entry.getKey()));
+                        SpillCodec.writeValue(output, entry.getValue());
+                    }
+                }
+                count++;
+            }
+            output.writeInt(END_OF_RUN);
+        }
+        return count;
+    }
+
+    /** Whether file is a row run (and not another kind of shard output, e.g. partial aggregates). */
+    public static boolean isRowRun(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+            return Files.size(file) >= Integer.BYTES && input.readInt() == MAGIC;
+        }
+    }
+
+    /** Rows of all runs, run after run. */
+    public static List<Map<String, Object>> concat(List<Path> runs, RowSchema schema) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Path run : runs) {
+            try (Reader reader = new Reader(run, schema)) {
+                for (Row row = reader.next(); row != null; row = reader.next()) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Merges runs each sorted by comparator. Equal rows keep the order of runs, so the result is the same as a
+     * stable sort of all rows of the runs concatenated.
+     */
+    public static List<Map<String, Object>> merge(List<Path> runs, RowSchema schema, Comparator<Map<String, Object>> comparator) throws IOException {
+        List<Reader> readers = new ArrayList<>();
+        record Head(Row row, int run) {}
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+                Comparator.<Head, Map<String, Object>>comparing(Head::row, comparator).thenComparingInt(Head::run));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                Reader reader = new Reader(runs.get(i), schema);
+                readers.add(reader);
+                Row first = reader.next();
+                if (first != null) heads.add(new Head(first, i));
+            }
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                rows.add(head.row());
+                Row next = readers.get(head.run()).next();
+                if (next != null) heads.add(new Head(next, head.run()));
+            }
+        } finally {
+            for (Reader reader : readers) {
+                reader.close();
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> columnsOf(List<Map<String, Object>> rows) {
+        RowSchema schema = Row.schemaOf(rows);
+        if (schema != null) {
+            return schema.names();
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        for (Map<String, Object> row : rows) {
+            if (row != null) columns.addAll(row.keySet());
+        }
+        return new ArrayList<>(columns);
+    }
+
+    /** Sequential reader of one run, rows are created on the given schema. */
+    public static class Reader implements Closeable {
+        private final DataInputStream input;
+        private final RowSchema schema;
+        private final int[] slots; // Slot in schema of every column of the run
+        private boolean finished;
+
+        public Reader(Path file, RowSchema schema) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+            this.schema = schema;
+            try {
+                if (input.readInt() != MAGIC) {
+                    throw new IOException("Not a row run file: " + file);
+                }
+                slots = new int[input.readInt()];
+                for (int i = 0; i < slots.length; i++) {
+                    slots[i] = schema.slotOf((String) SpillCodec.readValue(input));
+                }
+            } catch (IOException e) {
+                input.close();
+                throw e;
+            }
+        }
+
+        /** Next row, null at end of run. */
+        public Row next() throws IOException {
+            if (finished) return null;
+            int present = input.readInt();
+            if (present == END_OF_RUN) {
+                finished = true;
+                return null;
+            }
+            Row row = new Row(schema);
+            for (int i = 0; i < present; i++) {
+                int column = input.readInt();
+                row.set(slots[column], SpillCodec.readValue(input));
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.playtech.report.shard;
+
+import com.playtech.report.exec.ReportProgress;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker JVMs of a sharded report run. A worker runs the main class with its own arguments, either as a local
+ * process or through {@code ssh <host>} on a host sharing the file system (same Java installation path,
+ * working directory and class path, absolute file paths). Output of every worker goes to its log file in the log
+ * directory.
+ */
+public class ShardWorkers implements AutoCloseable {
+    public static final String LOCAL_HOST = "local";
+    private static final long POLL_MILLIS = 200; // Cancellation is checked this often while waiting
+    private static final int LOG_TAIL_LINES = 5;
+
+    private final Class<?> mainClass;
+    private final List<String> hosts;
+    private final Path logDirectory;
+    private final List<Worker> workers = new ArrayList<>();
+
+    private record Worker(String name, String host, Process process, Path log) {}
+
+    /** Workers are spread round robin over hosts, {@value #LOCAL_HOST} (or an empty list) starts local processes. */
+    public ShardWorkers(Class<?> mainClass, List<String> hosts, Path logDirectory) {
+        this.mainClass = mainClass;
+        this.hosts = hosts.isEmpty() ? List.of(LOCAL_HOST) : List.copyOf(hosts);
+        this.logDirectory = logDirectory;
+    }
+
+    /** Starts next worker with arguments of the main class. */
+    public void start(String name, List<String> arguments) throws IOException {
+        String host = hosts.get(workers.size() % hosts.size());
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(arguments);
+        if (!host.equals(LOCAL_HOST)) {
+            // Class path may be relative, remote shell starts in the working directory of this process
+            command = List.of("ssh", "-o", "BatchMode=yes", host,
+                    "cd " + shellCommand(List.of(System.getProperty("user.dir"))) + " && " + shellCommand(command));
+        }
+        Path log = logDirectory.resolve(name + ".log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        workers.add(new Worker(name, host, process, log));
+    }
+
+    /**
+     * Waits for all workers, checking cancellation of progress in between (cancelled run stops the workers).
+     * Returns failed workers with a description of their failure, in order of start.
+     */
+    public Map<String, String> awaitAll(ReportProgress progress) throws InterruptedException {
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (Worker worker : workers) {
+            while (!worker.process().waitFor(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                progress.checkpoint();
+            }
+            int exitCode = worker.process().exitValue();
+            if (exitCode != 0) {
+                failures.put(worker.name(), "exit code " + exitCode + " on " + worker.host() + logTail(worker.log()));
+            }
+        }
+        return failures;
+    }
+
+    /** Stops workers still running (cancelled or failed run), they remove their temporary files on SIGTERM. */
+    @Override
+    public void close() {
+        for (Worker worker : workers) {
+            worker.process().destroy();
+        }
+        for (Worker worker : workers) {
+            try {
+                if (!worker.process().waitFor(30, TimeUnit.SECONDS)) {
+                    worker.process().destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                worker.process().destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String logTail(Path log) {
+        try {
+            List<String> lines = Files.readAllLines(log);
+            List<String> tail = lines.subList(Math.max(0, lines.size() - LOG_TAIL_LINES), lines.size());
+            return tail.isEmpty() ? "" : ":\n    " + String.join("\n    ", tail);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /** Command line for the remote shell, every argument single quoted. */
+    private static String shellCommand(List<String> command) {
+        StringBuilder builder = new StringBuilder();
+        for (String argument : command) {
+            if (builder.length() > 0) builder.append(' ');
+            builder.append('\'').append(argument.replace("'", "'\\''")).append('\'');
+        }
+        return builder.toString();
+    }
+}
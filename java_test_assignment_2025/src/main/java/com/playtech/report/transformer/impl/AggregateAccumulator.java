@@ -0,0 +1,266 @@
+package com.playtech.report.transformer.impl;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.column.Decimal;
+import com.playtech.report.transformer.impl.AggregatorTransformer.Method;
+import com.playtech.util.collections.LongHashSet;
+import com.playtech.util.io.SpillCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/** Running state of one aggregate of {@link AggregatorTransformer} in one group, rows are not kept in memory. */
+final class AggregateAccumulator {
+    private final Method method;
+    private final Column.DataType inputType; // Declared type of the input column, decides which values are distinct
+    private final boolean decimal; // DECIMAL input: exact sums of scaled longs instead of doubles
+    private long valueCount; // Parsed numeric values
+    private long nonNullCount; // Any not null value (for COUNT)
+    private double sum;
+    private double compensation; // Kahan summation, same precision as DoubleStream.sum()
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long unscaledSum;
+    private long unscaledMin = Long.MAX_VALUE;
+    private long unscaledMax = Long.MIN_VALUE;
+    private LongHashSet distinctLongs;
+    private Set<Object> distinctOthers;
+
+    AggregateAccumulator(Method method, Column.DataType inputType) {
+        this.method = method;
+        this.inputType = inputType;
+        this.decimal = inputType == Column.DataType.DECIMAL;
+    }
+
+    void add(Object rawValue) {
+        if (rawValue == null) return;
+        nonNullCount++;
+        if (method == Method.COUNT) return;
+        if (method == Method.COUNT_DISTINCT) {
+            addDistinct(rawValue);
+            return;
+        }
+        if (decimal) {
+            addDecimal(rawValue);
+            return;
+        }
+        Double value = tryParseDouble(rawValue);
+        if (value == null) return;
+        valueCount++;
+        addToSum(value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    private void addToSum(double value) {
+        double y = value - compensation;
+        double t = sum + y;
+        compensation = (t - sum) - y;
+        sum = t;
+    }
+
+    private void addDecimal(Object rawValue) {
+        long value;
+        try {
+            value = Decimal.unscaledOf(rawValue);
+        } catch (NumberFormatException e) {
+            System.err.println("Warning (Aggregator): " + e.getMessage() + ", ignored in aggregation.");
+            return;
+        }
+        valueCount++;
+        addToUnscaledSum(value);
+        unscaledMin = Math.min(unscaledMin, value);
+        unscaledMax = Math.max(unscaledMax, value);
+    }
+
+    private void addToUnscaledSum(long value) {
+        try {
+            unscaledSum = Math.addExact(unscaledSum, value);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("DECIMAL sum is out of range (" + Decimal.ofUnscaled(unscaledSum) + " + " + Decimal.ofUnscaled(value) + ")");
+        }
+    }
+
+    /** Writes running state, read back by {@link #mergeFrom}. */
+    void writeTo(DataOutput output) throws IOException {
+        output.writeLong(valueCount);
+        output.writeLong(nonNullCount);
+        output.writeDouble(sum);
+        output.writeDouble(compensation);
+        output.writeDouble(min);
+        output.writeDouble(max);
+        output.writeLong(unscaledSum);
+        output.writeLong(unscaledMin);
+        output.writeLong(unscaledMax);
+        long[] longs = distinctLongs == null ? new long[0] : distinctLongs.toArray();
+        output.writeInt(longs.length);
+        for (long value : longs) {
+            output.writeLong(value);
+        }
+        output.writeInt(distinctOthers == null ? 0 : distinctOthers.size());
+        if (distinctOthers != null) {
+            for (Object value : distinctOthers) {
+                SpillCodec.writeValue(output, value);
+            }
+        }
+    }
+
+    /** Adds running state written by {@link #writeTo} of a partial aggregate of the same group. */
+    void mergeFrom(DataInput input) throws IOException {
+        valueCount += input.readLong();
+        nonNullCount += input.readLong();
+        addToSum(input.readDouble());
+        addToSum(-input.readDouble()); // Compensation is the error still to be subtracted
+        min = Math.min(min, input.readDouble());
+        max = Math.max(max, input.readDouble());
+        addToUnscaledSum(input.readLong());
+        unscaledMin = Math.min(unscaledMin, input.readLong());
+        unscaledMax = Math.max(unscaledMax, input.readLong());
+        for (int i = input.readInt(); i > 0; i--) {
+            addDistinctLong(input.readLong());
+        }
+        for (int i = input.readInt(); i > 0; i--) {
+            addDistinctOther(SpillCodec.readValue(input));
+        }
+    }
+
+    /** Adds running state of another accumulator of the same group, in process counterpart of {@link #mergeFrom(DataInput)}. */
+    void mergeFrom(AggregateAccumulator other) {
+        valueCount += other.valueCount;
+        nonNullCount += other.nonNullCount;
+        addToSum(other.sum);
+        addToSum(-other.compensation);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        addToUnscaledSum(other.unscaledSum);
+        unscaledMin = Math.min(unscaledMin, other.unscaledMin);
+        unscaledMax = Math.max(unscaledMax, other.unscaledMax);
+        if (other.distinctLongs != null) {
+            for (long value : other.distinctLongs.toArray()) {
+                addDistinctLong(value);
+            }
+        }
+        if (other.distinctOthers != null) {
+            if (distinctOthers == null) distinctOthers = new HashSet<>();
+            distinctOthers.addAll(other.distinctOthers);
+        }
+    }
+
+    /**
+     * Distinct values are compared as values of the declared input type: INTEGER and DECIMAL by number (ids in the
+     * primitive set, "007" and "7" are one value), DOUBLE by number, anything else by its text as is. A value not
+     * of the declared type is compared by its text.
+     */
+    private void addDistinct(Object rawValue) {
+        switch (inputType) {
+            case INTEGER -> {
+                Long value = integerOf(rawValue);
+                if (value != null) {
+                    addDistinctLong(value);
+                    return;
+                }
+            }
+            case DECIMAL -> {
+                try {
+                    addDistinctLong(Decimal.unscaledOf(rawValue));
+                    return;
+                } catch (NumberFormatException e) {
+                    // Compared by text below
+                }
+            }
+            case DOUBLE -> {
+                Double value = tryParseDouble(rawValue);
+                if (value != null) {
+                    addDistinctOther(value + 0.0); // -0.0 + 0.0 is 0.0, the same value as 0.0
+                    return;
+                }
+            }
+            default -> {
+            }
+        }
+        addDistinctOther(rawValue.toString());
+    }
+
+    private void addDistinctLong(long value) {
+        if (distinctLongs == null) distinctLongs = new LongHashSet();
+        distinctLongs.add(value);
+    }
+
+    private void addDistinctOther(Object value) {
+        if (distinctOthers == null) distinctOthers = new HashSet<>();
+        distinctOthers.add(value);
+    }
+
+    /** Integral value of an INTEGER input (one leading sign and leading zeros allowed), null if it is not one. */
+    private static Long integerOf(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Number number) {
+            double doubleValue = number.doubleValue();
+            long longValue = (long) doubleValue;
+            return longValue == doubleValue && Math.abs(doubleValue) < 0x1p63 ? longValue : null;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    long nonNullCount() {
+        return nonNullCount;
+    }
+
+    /** Double, or Decimal for SUM/AVG/MIN/MAX of DECIMAL input. */
+    Object result() {
+        if (method == Method.COUNT) {
+            return (double) nonNullCount; // Counting all not "null" values in origin column
+        }
+        if (method == Method.COUNT_DISTINCT) {
+            return (double) ((distinctLongs == null ? 0 : distinctLongs.size()) + (distinctOthers == null ? 0 : distinctOthers.size()));
+        }
+        if (decimal) {
+            if (valueCount == 0) return Decimal.ofUnscaled(0);
+            return Decimal.ofUnscaled(switch (method) {
+                case SUM -> unscaledSum;
+                case AVG -> Decimal.divideRounded(unscaledSum, valueCount);
+                case MIN -> unscaledMin;
+                default -> unscaledMax;
+            });
+        }
+        if (valueCount == 0) {
+            return 0.0; // Or null depends of requirements
+        }
+        return switch (method) {
+            case SUM -> sum;
+            case AVG -> sum / valueCount;
+            case MIN -> min;
+            case MAX -> max;
+            default -> {
+                System.err.println("Unsupported aggregation method: " + method);
+                yield 0.0; // Or null or throw exception
+            }
+        };
+    }
+
+    /** Try parsing Object in Double, returns null if not possible. */
+    private static Double tryParseDouble(Object value) {
+        if (value == null) return null;
+        try {
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            } else {
+                String strValue = value.toString().trim().replace(',', '.');
+                if (strValue.isEmpty()) return null;
+                return Double.parseDouble(strValue);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Warning (Aggregator): Could not parse value '" + value + "' as Double for aggregation.");
+            return null;
+        }
+    }
+}
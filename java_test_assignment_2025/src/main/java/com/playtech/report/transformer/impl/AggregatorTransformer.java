@@ -2,147 +2,1035 @@ package com.playtech.report.transformer.impl;
 
 import com.playtech.report.Report;
 import com.playtech.report.column.Column;
+import com.playtech.report.column.Decimal;
+import com.playtech.report.row.ColumnSlot;
+import com.playtech.report.row.Row;
 import com.playtech.report.transformer.Transformer;
+import com.playtech.util.io.AtomicFiles;
+import com.playtech.util.io.SpillCodec;
+import com.playtech.util.xml.adapters.ColumnAdapter;
 import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
 import jakarta.xml.bind.annotation.XmlIDREF;
+import jakarta.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class AggregatorTransformer implements Transformer {
     public static final String NAME = "Aggregator";
+    public static final String CONFIDENCE_SUFFIX = "_ci95"; // Column of the confidence half width of an estimated aggregate
+    private static final int SPILL_PARTITIONS = 64; // Files one spill writes, every partition again when it does not fit
+    private static final int MAX_SPILL_DEPTH = 4; // Partitioning again, 64^4 partitions of maxGroupsInMemory groups
+    private static final int SPILL_BUFFER_SIZE = 64 * 1024;
 
     // Parameters of constructor
-    private final Column groupByColumn; // Column for grouping
+    private final List<List<Column>> groupingSets; // Every set is one group-by level, all computed in one scan
     private final List<AggregateBy> aggregateColumns; // List of operations of aggregation
+    private final Options options;
+
+    /**
+     * Optional behaviour of the aggregation, {@link #DEFAULT} aggregates all groups in hash tables in memory.
+     * <ul>
+     *     <li>presorted: rows are ordered by the group by columns (e.g. export ordered by StartDateTime grouped by
+     *     day), every column ascending or descending, by value or as text. Only the current group of each grouping
+     *     set is kept and it is finished as soon as its key changes. Input out of order is an error.</li>
+     *     <li>maxGroupsInMemory: hash aggregation keeps at most that many groups (over all grouping sets) in memory,
+     *     when the tables are full partial aggregates are written to temporary files partitioned by key hash and
+     *     afterwards every partition is re-aggregated on its own, a partition holding more groups is partitioned
+     *     again by another hash seed. 0 is unlimited.</li>
+     *     <li>timeBucket: its output column is a group by column computed by the aggregator, rows are grouped by the
+     *     period of the input date-time as long keys, only the label of every output group is formatted.</li>
+     * </ul>
+     */
+    public record Options(boolean presorted, int maxGroupsInMemory, TimeBucket timeBucket) {
+        public static final Options DEFAULT = new Options(false, 0, null);
+
+        public Options {
+            if (maxGroupsInMemory < 0) {
+                throw new IllegalArgumentException("maxGroupsInMemory cannot be negative: " + maxGroupsInMemory);
+            }
+        }
+
+        public Options withPresorted(boolean presorted) {
+            return new Options(presorted, maxGroupsInMemory, timeBucket);
+        }
+
+        public Options withMaxGroupsInMemory(int maxGroupsInMemory) {
+            return new Options(presorted, maxGroupsInMemory, timeBucket);
+        }
+
+        public Options withTimeBucket(TimeBucket timeBucket) {
+            return new Options(presorted, maxGroupsInMemory, timeBucket);
+        }
+    }
 
     // Constructor
     public AggregatorTransformer(Column groupByColumn, List<AggregateBy> aggregateColumns) {
-        this.groupByColumn = Objects.requireNonNull(groupByColumn, "Group By column cannot be null");
+        this(List.of(List.of(Objects.requireNonNull(groupByColumn, "Group By column cannot be null"))), aggregateColumns, Options.DEFAULT);
+    }
+
+    /** Constructor for GROUPING SETS, one output level per set (empty set is the grand total). */
+    public AggregatorTransformer(List<List<Column>> groupingSets, List<AggregateBy> aggregateColumns) {
+        this(groupingSets, aggregateColumns, Options.DEFAULT);
+    }
+
+    public AggregatorTransformer(List<List<Column>> groupingSets, List<AggregateBy> aggregateColumns, Options options) {
+        this.groupingSets = Objects.requireNonNull(groupingSets, "Grouping sets cannot be null");
         this.aggregateColumns = Objects.requireNonNull(aggregateColumns, "Aggregate By list cannot be null");
+        this.options = Objects.requireNonNull(options, "Options cannot be null");
+        if (options.timeBucket() != null) {
+            options.timeBucket().validate();
+        }
+        if (this.groupingSets.isEmpty()) {
+            throw new IllegalArgumentException("At least one grouping set is required.");
+        }
         if (this.aggregateColumns.isEmpty()) {
             throw new IllegalArgumentException("At least one AggregateBy definition is required.");
         }
     }
 
+    /** Expands ROLLUP(a, b, c) into grouping sets (a, b, c), (a, b), (a), (). */
+    public static List<List<Column>> rollup(List<Column> columns) {
+        if (columns == null || columns.isEmpty()) {
+            throw new IllegalArgumentException("ROLLUP requires at least one group by column.");
+        }
+        List<List<Column>> sets = new ArrayList<>();
+        for (int size = columns.size(); size >= 0; size--) {
+            sets.add(List.copyOf(columns.subList(0, size)));
+        }
+        return sets;
+    }
+
+    public List<List<Column>> getGroupingSets() { return groupingSets; }
+    public List<AggregateBy> getAggregateColumns() { return aggregateColumns; }
+    public Options getOptions() { return options; }
+    public boolean isPresorted() { return options.presorted(); }
+    public int getMaxGroupsInMemory() { return options.maxGroupsInMemory(); }
+    public TimeBucket getTimeBucket() { return options.timeBucket(); }
+
     @Override
-    // FIXED
     public void transform(Report report, List<Map<String, Object>> rows) {
         if (rows == null || rows.isEmpty()) {
             System.out.println("AggregatorTransformer: No data rows to aggregate.");
             return;
         }
 
-        final String groupByKey = this.groupByColumn.getName();
-
         // Check for the presence of a column for grouping
-        if (!rows.get(0).containsKey(groupByKey)) {
-            System.err.println("AggregatorTransformer: Group By column '" + groupByKey + "' not found in data map keys. Skipping aggregation.");
+        String missingKey = missingGroupByColumn(rows.get(0));
+        if (missingKey != null) {
+            System.err.println("AggregatorTransformer: Group By column '" + missingKey + "' not found in data map keys. Skipping aggregation.");
             return;
         }
 
-        System.out.println("AggregatorTransformer: Aggregating data grouped by '" + groupByKey + "'.");
-
-        // Preform grouping and aggregation
-        Map<Object, Map<String, Object>> aggregatedResults = rows.stream()
-                .filter(row -> row != null && row.get(groupByKey) != null) // Ignoring rows with null key of grouping
-                .collect(Collectors.groupingBy(
-                        row -> row.get(groupByKey), // Key for group
-                        Collectors.collectingAndThen(Collectors.toList(), // Collecting rows in group
-                                group -> calculateAggregates(group, this.aggregateColumns) // Calculate aggregate for groups
-                        )
-                ));
+        if (isPresorted()) {
+            System.out.println("AggregatorTransformer: Aggregating presorted data grouped by " + describeGroupingSets() + ".");
+            SortedAggregation aggregation = new SortedAggregation();
+            aggregation.accept(rows);
+            List<Map<String, Object>> aggregatedRows = aggregation.finish();
+            System.out.println("AggregatorTransformer: Aggregation complete. Replacing original " + rows.size() + " rows with " + aggregatedRows.size() + " aggregated rows.");
+            rows.clear();
+            rows.addAll(aggregatedRows);
+            return;
+        }
 
-        // Forming new list rows out of result of aggregation
+        System.out.println("AggregatorTransformer: Aggregating data grouped by " + describeGroupingSets() + ".");
+        int inputRowCount = rows.size();
         List<Map<String, Object>> aggregatedRows = new ArrayList<>();
-        aggregatedResults.forEach((groupKeyValue, aggregateValues) -> {
-            // Creating new row for group
-            Map<String, Object> newRow = new LinkedHashMap<>(); // LinkedHashMap for order
-            // Adding key of grouping
-            newRow.put(groupByKey, groupKeyValue);
-            // Adding calculated aggregations
-            newRow.putAll(aggregateValues);
-            aggregatedRows.add(newRow);
-        });
+        if (getMaxGroupsInMemory() > 0) {
+            try (SpilledAggregation aggregation = new SpilledAggregation()) {
+                aggregation.accept(rows);
+                rows.clear(); // Input rows are not needed any more, partitions are merged in their place
+                for (List<Map<String, Object>> partitionRows = aggregation.nextRows(); !partitionRows.isEmpty(); partitionRows = aggregation.nextRows()) {
+                    aggregatedRows.addAll(partitionRows);
+                }
+            }
+        } else {
+            if (getTimeBucket() != null) {
+                TimeBucket.Keys bucketKeys = new TimeBucket.Keys(getTimeBucket());
+                bucketKeys.assign(rows);
+                bucketKeys.reportInvalid();
+            }
+
+            // Single pass over rows, every grouping set updates its own running state
+            List<Map<Object, AggregateAccumulator[]>> levels = newLevels();
+            Slots slots = new Slots(rows);
+            for (Map<String, Object> row : rows) {
+                if (row == null) continue;
+                slots.accumulate(row, levels);
+            }
+
+            // Forming new list rows out of result of aggregation
+            for (int i = 0; i < levels.size(); i++) {
+                slots.addGroupRows(i, levels.get(i), aggregatedRows);
+            }
+        }
 
         // Changing content of original list `rows` with aggregated data
-        System.out.println("AggregatorTransformer: Aggregation complete. Replacing original " + rows.size() + " rows with " + aggregatedRows.size() + " aggregated rows.");
+        System.out.println("AggregatorTransformer: Aggregation complete. Replacing original " + inputRowCount + " rows with " + aggregatedRows.size() + " aggregated rows.");
         rows.clear();
         rows.addAll(aggregatedRows);
+    }
+
+    /**
+     * First group by column missing in row (time bucket output is computed from its input, so the input is checked
+     * instead), null when all are present. Rows without such a column are not aggregated at all.
+     */
+    public String missingGroupByColumn(Map<String, Object> row) {
+        List<String> requiredKeys = allGroupByKeys();
+        if (getTimeBucket() != null) {
+            requiredKeys.remove(getTimeBucket().getOutput().getName());
+            requiredKeys.add(getTimeBucket().getInput().getName());
+        }
+        for (String groupByKey : requiredKeys) {
+            if (!row.containsKey(groupByKey)) {
+                return groupByKey;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Columns of the aggregation resolved to slots of one row schema (all batches of an aggregation are on the schema
+     * of the first one), rows are read and output rows written by index. Output rows are created like template.
+     */
+    private final class Slots {
+        final List<Map<String, Object>> template;
+        final ColumnSlot[][] sets; // Group by columns of every grouping set
+        final ColumnSlot[] inputs; // Input of every aggregate
+        final ColumnSlot[] outputs; // Output of every aggregate
+        private final List<String> groupByKeys = allGroupByKeys();
+        private final ColumnSlot[] groupBys; // Of groupByKeys
+
+        Slots(List<Map<String, Object>> rows) {
+            template = List.of(rows.get(0));
+            sets = new ColumnSlot[groupingSets.size()][];
+            for (int i = 0; i < sets.length; i++) {
+                sets[i] = groupingSets.get(i).stream().map(column -> ColumnSlot.of(rows, column.getName())).toArray(ColumnSlot[]::new);
+            }
+            inputs = aggregateColumns.stream().map(aggregate -> ColumnSlot.of(rows, aggregate.getInput().getName())).toArray(ColumnSlot[]::new);
+            outputs = aggregateColumns.stream().map(aggregate -> ColumnSlot.of(rows, aggregate.getOutput().getName())).toArray(ColumnSlot[]::new);
+            groupBys = groupByKeys.stream().map(name -> ColumnSlot.of(rows, name)).toArray(ColumnSlot[]::new);
+        }
 
+        /** Key of group: plain value for one column, list of values for several, empty list for grand total. */
+        Object groupKey(Map<String, Object> row, int level) {
+            ColumnSlot[] set = sets[level];
+            if (set.length == 1) {
+                return set[0].get(row);
+            }
+            Object[] values = new Object[set.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = set[i].get(row);
+                if (values[i] == null) return null;
+            }
+            return Arrays.asList(values);
+        }
 
+        /** Adds row to its group of every grouping set, returns the number of groups created. */
+        int accumulate(Map<String, Object> row, List<Map<Object, AggregateAccumulator[]>> levels) {
+            int created = 0;
+            for (int i = 0; i < sets.length; i++) {
+                Object groupKey = groupKey(row, i);
+                if (groupKey == null) continue; // Ignoring rows with null key of grouping
+                AggregateAccumulator[] accumulators = levels.get(i).get(groupKey);
+                if (accumulators == null) {
+                    accumulators = newAccumulators();
+                    levels.get(i).put(groupKey, accumulators);
+                    created++;
+                }
+                add(row, accumulators);
+            }
+            return created;
+        }
+
+        void add(Map<String, Object> row, AggregateAccumulator[] accumulators) {
+            for (int a = 0; a < accumulators.length; a++) {
+                accumulators[a].add(inputs[a].get(row));
+            }
+        }
+
+        /** Output row of one group: keys of grouping (null for rolled up columns) and calculated aggregations. */
+        Map<String, Object> groupRow(int level, Object groupKey, AggregateAccumulator[] accumulators) {
+            // Same kind as input rows (Row on the same schema keeps slots valid)
+            Map<String, Object> newRow = Row.newRowLike(template);
+            List<Column> set = groupingSets.get(level);
+            TimeBucket timeBucket = getTimeBucket();
+            for (int k = 0; k < groupBys.length; k++) {
+                Object value = groupValueOf(groupKey, set, groupByKeys.get(k));
+                if (value != null && timeBucket != null && groupByKeys.get(k).equals(timeBucket.getOutput().getName())) {
+                    value = timeBucket.label((Long) value);
+                }
+                groupBys[k].set(newRow, value);
+            }
+            for (int a = 0; a < accumulators.length; a++) {
+                outputs[a].set(newRow, accumulators[a].result());
+            }
+            return newRow;
+        }
+
+        /** Appends output rows of groups of one grouping set (in order of the table) to rows. */
+        void addGroupRows(int level, Map<Object, AggregateAccumulator[]> groups, List<Map<String, Object>> rows) {
+            groups.forEach((groupKey, accumulators) -> rows.add(groupRow(level, groupKey, accumulators)));
+        }
     }
 
-    /** Calculate aggregations for group of rows. */
-    private Map<String, Object> calculateAggregates(List<Map<String, Object>> group, List<AggregateBy> definitions) {
-        Map<String, Object> results = new HashMap<>();
-        for (AggregateBy def : definitions) {
-            String inputColName = def.getInput().getName();
-            String outputColName = def.getOutput().getName();
-            Method method = def.getMethod();
+    /**
+     * Hash aggregation fed in batches (all batches on the schema of the first one) holding at most maxGroupsInMemory
+     * groups. When the tables are full, partial aggregates are written to {@value #SPILL_PARTITIONS} temporary files
+     * by key hash. A group spilled several times lands in the same partition, so {@link #nextRows} merges one
+     * partition at a time with a table of only its groups; a partition with more groups than fit is partitioned again
+     * by another hash seed, up to {@value #MAX_SPILL_DEPTH} times. Memory is bounded by the groups of one table
+     * instead of all groups. Groups come out partition by partition instead of level by level in first seen order.
+     */
+    public class SpilledAggregation implements Closeable {
+        private final List<Map<Object, AggregateAccumulator[]>> levels = newLevels();
+        private final TimeBucket.Keys bucketKeys = getTimeBucket() != null ? new TimeBucket.Keys(getTimeBucket()) : null;
+        private final Deque<SpillFile> pending = new ArrayDeque<>(); // Partitions not merged yet, in output order
+        private Slots slots; // Of the first batch
+        private Path directory; // Created by the first spill
+        private Spill spill; // Being written: partitions of the input, then of a partition that did not fit
+        private int groupsInMemory;
+        private int fileCount;
+        private boolean inputFinished;
 
-            // Getting thread of values for aggregation trying to cast into Double
-            // Ignoring null and errors of parsing
-            List<Double> values = group.stream()
-                    .map(row -> row.get(inputColName))
-                    .filter(Objects::nonNull)
-                    .map(this::tryParseDouble)
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .collect(Collectors.toList());
+        public SpilledAggregation() {
+            if (getMaxGroupsInMemory() <= 0) {
+                throw new IllegalStateException("Spilled aggregation requires maxGroupsInMemory.");
+            }
+        }
 
-            if (values.isEmpty() && method != Method.COUNT) { // Count can be ZERO
-                results.put(outputColName, 0.0); // Or null depends of requirements
-                continue;
+        public void accept(List<Map<String, Object>> rows) {
+            if (rows.isEmpty()) return;
+            if (inputFinished) {
+                throw new IllegalStateException("Rows can not be aggregated after output rows were taken.");
             }
+            if (slots == null) {
+                slots = new Slots(rows);
+            }
+            if (bucketKeys != null) {
+                bucketKeys.assign(rows);
+            }
+            try {
+                for (Map<String, Object> row : rows) {
+                    if (row == null) continue;
+                    groupsInMemory += slots.accumulate(row, levels);
+                    if (groupsInMemory >= getMaxGroupsInMemory()) {
+                        if (spill == null) {
+                            spill = new Spill(0);
+                        }
+                        spill.write(levels);
+                        groupsInMemory = 0;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("AggregatorTransformer: Spilling partial aggregates failed: " + e.getMessage(), e);
+            }
+        }
+
+        /** Output rows of the next partition (all groups when nothing was spilled), empty once all rows were returned. */
+        public List<Map<String, Object>> nextRows() {
+            try {
+                if (!inputFinished) {
+                    inputFinished = true;
+                    if (bucketKeys != null) {
+                        bucketKeys.reportInvalid();
+                    }
+                    if (spill == null) {
+                        return rowsOf(levels);
+                    }
+                    spill.write(levels);
+                    pending.addAll(spill.finish());
+                    spill = null;
+                }
+                while (!pending.isEmpty()) {
+                    List<Map<String, Object>> rows = merge(pending.pollFirst());
+                    if (!rows.isEmpty()) return rows;
+                }
+                return new ArrayList<>();
+            } catch (IOException e) {
+                throw new UncheckedIOException("AggregatorTransformer: Merging spilled partial aggregates failed: " + e.getMessage(), e);
+            }
+        }
 
-            double resultValue = switch (method) {
-                case SUM -> values.stream().mapToDouble(Double::doubleValue).sum();
-                case AVG -> values.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-                case MIN -> values.stream().mapToDouble(Double::doubleValue).min().orElse(0.0);
-                case MAX -> values.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
-                case COUNT -> (double) group.stream() // Counting all not "null" values in origin column
-                        .map(row -> row.get(inputColName))
-                        .filter(Objects::nonNull)
-                        .count();
-                default -> {
-                    System.err.println("Unsupported aggregation method: " + method);
-                    yield 0.0; // Or null or throw exception
+        /** Re-aggregates one partition, returns its rows, or no rows when it was partitioned again. */
+        private List<Map<String, Object>> merge(SpillFile partition) throws IOException {
+            List<Map<Object, AggregateAccumulator[]>> table = newLevels();
+            int groupCount = 0;
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(partition.file()), SPILL_BUFFER_SIZE))) {
+                while (true) {
+                    int level;
+                    try {
+                        level = input.readInt();
+                    } catch (EOFException e) {
+                        break; // End of partition
+                    }
+                    Object groupKey = SpillCodec.readValue(input);
+                    AggregateAccumulator[] accumulators = table.get(level).get(groupKey);
+                    if (accumulators == null) {
+                        if (groupCount == getMaxGroupsInMemory()) { // Partition does not fit
+                            if (spill == null) {
+                                spill = new Spill(partition.depth() + 1);
+                            }
+                            spill.write(table);
+                            groupCount = 0;
+                        }
+                        accumulators = newAccumulators();
+                        table.get(level).put(groupKey, accumulators);
+                        groupCount++;
+                    }
+                    for (AggregateAccumulator accumulator : accumulators) {
+                        accumulator.mergeFrom(input);
+                    }
                 }
-            };
-            results.put(outputColName, resultValue);
+            }
+            Files.delete(partition.file());
+            if (spill == null) {
+                return rowsOf(table);
+            }
+            spill.write(table);
+            List<SpillFile> parts = spill.finish();
+            spill = null;
+            for (int p = parts.size() - 1; p >= 0; p--) {
+                pending.addFirst(parts.get(p)); // In place of the partition
+            }
+            return new ArrayList<>();
+        }
+
+        /** Rows of the groups of all levels, tables are emptied. */
+        private List<Map<String, Object>> rowsOf(List<Map<Object, AggregateAccumulator[]>> table) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int i = 0; i < table.size(); i++) {
+                if (slots != null) {
+                    slots.addGroupRows(i, table.get(i), rows);
+                }
+                table.get(i).clear();
+            }
+            return rows;
+        }
+
+        @Override
+        public void close() {
+            if (spill != null) {
+                spill.closeOutputs();
+            }
+            if (directory != null) {
+                try (var files = Files.list(directory)) {
+                    files.forEach(AtomicFiles::deleteQuietly);
+                } catch (IOException ignored) {
+                    // Directory is deleted below when empty
+                }
+                AtomicFiles.deleteQuietly(directory);
+            }
+        }
+
+        /** Partial aggregates of one spill, one file per partition of key hash (the seed is the depth). */
+        private class Spill {
+            private final int depth;
+            private final Path[] files = new Path[SPILL_PARTITIONS];
+            private final DataOutputStream[] outputs = new DataOutputStream[SPILL_PARTITIONS];
+            private final long[] groupCounts = new long[SPILL_PARTITIONS];
+            private int spillCount;
+
+            Spill(int depth) throws IOException {
+                if (depth > MAX_SPILL_DEPTH) {
+                    throw new IllegalStateException("AggregatorTransformer: A spill partition holds more than maxGroupsInMemory " + getMaxGroupsInMemory()
+                            + " groups after partitioning it " + MAX_SPILL_DEPTH + " times (keys of equal hash code), raise maxGroupsInMemory.");
+                }
+                this.depth = depth;
+                if (directory == null) {
+                    directory = Files.createTempDirectory("aggregator-spill");
+                }
+                try {
+                    for (int p = 0; p < SPILL_PARTITIONS; p++) {
+                        files[p] = directory.resolve("partition-" + fileCount++ + ".bin");
+                        outputs[p] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(files[p]), SPILL_BUFFER_SIZE));
+                    }
+                } catch (IOException e) {
+                    closeOutputs();
+                    throw e;
+                }
+            }
+
+            /** Appends all groups of table to their partitions and empties the table. */
+            void write(List<Map<Object, AggregateAccumulator[]>> table) throws IOException {
+                long groupCount = 0;
+                for (int i = 0; i < table.size(); i++) {
+                    for (Map.Entry<Object, AggregateAccumulator[]> group : table.get(i).entrySet()) {
+                        int partition = partitionOf(i, group.getKey());
+                        DataOutputStream output = outputs[partition];
+                        output.writeInt(i);
+                        SpillCodec.writeValue(output, group.getKey());
+                        for (AggregateAccumulator accumulator : group.getValue()) {
+                            accumulator.writeTo(output);
+                        }
+                        groupCounts[partition]++;
+                        groupCount++;
+                    }
+                    table.get(i).clear();
+                }
+                spillCount++;
+                System.out.println("AggregatorTransformer: Spilled " + groupCount + " partial groups into " + SPILL_PARTITIONS + " partitions (spill "
+                        + spillCount + (depth > 0 ? " of a partition partitioned again, depth " + depth : "") + ").");
+            }
+
+            /** Closes the files, returns the partitions holding groups (empty ones are deleted). */
+            List<SpillFile> finish() throws IOException {
+                for (DataOutputStream output : outputs) {
+                    output.close();
+                }
+                List<SpillFile> partitions = new ArrayList<>();
+                for (int p = 0; p < SPILL_PARTITIONS; p++) {
+                    if (groupCounts[p] > 0) {
+                        partitions.add(new SpillFile(files[p], depth));
+                    } else {
+                        Files.delete(files[p]);
+                    }
+                }
+                return partitions;
+            }
+
+            void closeOutputs() {
+                for (DataOutputStream output : outputs) {
+                    if (output == null) continue;
+                    try {
+                        output.close();
+                    } catch (IOException ignored) {
+                        // Temporary file is deleted with the directory
+                    }
+                }
+            }
+
+            // Level and seed go into the hash before mixing, so keys of one partition spread over all partitions of the next depth
+            private int partitionOf(int level, Object groupKey) {
+                int hash = (groupKey.hashCode() * 31 + level) ^ (depth * 0x9E3779B9);
+                hash = (hash ^ (hash >>> 16)) * 0x85EBCA6B;
+                hash = (hash ^ (hash >>> 13)) * 0xC2B2AE35;
+                return Math.floorMod(hash ^ (hash >>> 16), SPILL_PARTITIONS);
+            }
         }
-        return results;
     }
 
-    /** Try parsing Object in Double, returns Optional. */
-    private Optional<Double> tryParseDouble(Object value) {
-        if (value == null) return Optional.empty();
-        try {
-            if (value instanceof Number) {
-                return Optional.of(((Number) value).doubleValue());
-            } else {
-                String strValue = value.toString().trim().replace(',', '.');
-                if (strValue.isEmpty()) return Optional.empty();
-                return Optional.of(Double.parseDouble(strValue));
+    private record SpillFile(Path file, int depth) {}
+
+    /** All group by columns over all sets (in order), rolled up columns are null in output. */
+    private List<String> allGroupByKeys() {
+        List<String> allGroupByKeys = new ArrayList<>();
+        for (List<Column> set : groupingSets) {
+            for (Column column : set) {
+                if (!allGroupByKeys.contains(column.getName())) {
+                    allGroupByKeys.add(column.getName());
+                }
+            }
+        }
+        return allGroupByKeys;
+    }
+
+    /**
+     * Aggregation of presorted rows fed in batches (all batches on the same row schema), holds one group per
+     * grouping set. Output rows are the same and in the same order as of the hash aggregation: level by level,
+     * groups in order of appearance.
+     */
+    public class SortedAggregation {
+        private final Object[] currentKeys = new Object[groupingSets.size()];
+        private final AggregateAccumulator[][] current = new AggregateAccumulator[groupingSets.size()][];
+        private final KeyOrder[] keyOrders = new KeyOrder[groupingSets.size()]; // To detect unordered input
+        private final List<List<Map<String, Object>>> levelRows = new ArrayList<>();
+        private final TimeBucket.Keys bucketKeys = getTimeBucket() != null ? new TimeBucket.Keys(getTimeBucket()) : null;
+        private Slots slots; // Of the first batch
+
+        public SortedAggregation() {
+            for (int i = 0; i < groupingSets.size(); i++) {
+                keyOrders[i] = new KeyOrder(groupingSets.get(i).size());
+                levelRows.add(new ArrayList<>());
+            }
+        }
+
+        public void accept(List<Map<String, Object>> rows) {
+            if (rows.isEmpty()) return;
+            if (slots == null) {
+                slots = new Slots(rows);
+            }
+            if (bucketKeys != null) {
+                bucketKeys.assign(rows);
+            }
+            for (Map<String, Object> row : rows) {
+                if (row == null) continue;
+                for (int i = 0; i < current.length; i++) {
+                    Object groupKey = slots.groupKey(row, i);
+                    if (groupKey == null) continue; // Ignoring rows with null key of grouping
+                    if (current[i] == null || !groupKey.equals(currentKeys[i])) {
+                        if (current[i] != null && !keyOrders[i].follows(currentKeys[i], groupKey)) {
+                            throw new IllegalStateException("Aggregator input is not ordered by " + describeGroupingSets()
+                                    + ": group " + groupKey + " comes after " + currentKeys[i] + " (presorted is set).");
+                        }
+                        finishGroup(i);
+                        currentKeys[i] = groupKey;
+                        current[i] = newAccumulators();
+                    }
+                    slots.add(row, current[i]);
+                }
+            }
+        }
+
+        /** Finishes open groups, returns aggregated rows. */
+        public List<Map<String, Object>> finish() {
+            if (bucketKeys != null) {
+                bucketKeys.reportInvalid();
+            }
+            List<Map<String, Object>> aggregatedRows = new ArrayList<>();
+            for (int i = 0; i < current.length; i++) {
+                finishGroup(i);
+                aggregatedRows.addAll(levelRows.get(i));
+            }
+            return aggregatedRows;
+        }
+
+        private void finishGroup(int level) {
+            if (current[level] == null) return;
+            levelRows.get(level).add(slots.groupRow(level, currentKeys[level], current[level]));
+            current[level] = null;
+            currentKeys[level] = null;
+        }
+    }
+
+    /**
+     * Order check of the group keys of one grouping set in O(1) state: every column may be ordered ascending or
+     * descending, by value (numbers by number) or as text. A key change rules out the orders of its first changed
+     * column it does not follow, input is out of order once no order of a column is left. A group appearing again
+     * after other groups always is.
+     */
+    private static final class KeyOrder {
+        private static final int BY_VALUE_ASC = 1;
+        private static final int BY_VALUE_DESC = 2;
+        private static final int AS_TEXT_ASC = 4;
+        private static final int AS_TEXT_DESC = 8;
+
+        private final int[] possibleOrders; // Per column, bits of the orders all key changes so far follow
+
+        KeyOrder(int columns) {
+            possibleOrders = new int[Math.max(columns, 1)];
+            Arrays.fill(possibleOrders, BY_VALUE_ASC | BY_VALUE_DESC | AS_TEXT_ASC | AS_TEXT_DESC);
+        }
+
+        /** Whether key can follow the different previous key in some order left. */
+        boolean follows(Object previous, Object key) {
+            int column = 0;
+            if (previous instanceof List<?> previousValues && key instanceof List<?> values) { // Several columns
+                while (Objects.equals(previousValues.get(column), values.get(column))) {
+                    column++;
+                }
+                previous = previousValues.get(column);
+                key = values.get(column);
+            }
+            int byValue = compareByValue(previous, key);
+            int asText = previous.toString().compareTo(key.toString());
+            int orders = (byValue < 0 ? BY_VALUE_ASC : byValue > 0 ? BY_VALUE_DESC : 0)
+                    | (asText < 0 ? AS_TEXT_ASC : asText > 0 ? AS_TEXT_DESC : 0);
+            possibleOrders[column] &= orders;
+            return possibleOrders[column] != 0;
+        }
+
+        private static int compareByValue(Object value1, Object value2) {
+            Double number1 = numberOf(value1);
+            Double number2 = numberOf(value2);
+            if (number1 != null && number2 != null) {
+                return Double.compare(number1, number2);
+            }
+            return value1.toString().compareTo(value2.toString());
+        }
+
+        private static Double numberOf(Object value) {
+            if (value instanceof Number number) return number.doubleValue();
+            try {
+                return Double.parseDouble(value.toString().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Hash aggregation split over shards of the input: every shard aggregates its rows and writes the groups as
+     * partial aggregates, the partials are merged in shard order. Output rows are the same and in the same order as
+     * of one aggregation of the whole input (groups in order of first appearance), double sums can differ in the
+     * last digit. All rows, also of the merging side, are on the schema of template.
+     */
+    public class PartialAggregation {
+        private static final int PARTIAL_FORMAT_VERSION = 1;
+
+        private final List<Map<Object, AggregateAccumulator[]>> levels = newLevels();
+        private final TimeBucket.Keys bucketKeys = getTimeBucket() != null ? new TimeBucket.Keys(getTimeBucket()) : null;
+        private final Slots slots;
+
+        public PartialAggregation(List<Map<String, Object>> template) {
+            this.slots = new Slots(template);
+        }
+
+        public void accept(List<Map<String, Object>> rows) {
+            if (rows.isEmpty()) return;
+            if (bucketKeys != null) {
+                bucketKeys.assign(rows);
+            }
+            for (Map<String, Object> row : rows) {
+                if (row == null) continue;
+                slots.accumulate(row, levels);
+            }
+        }
+
+        public long groupCount() {
+            return levels.stream().mapToLong(Map::size).sum();
+        }
+
+        /** Writes groups of every level with their running state, read by {@link #mergeFrom}. */
+        public void writeTo(DataOutputStream output) throws IOException {
+            if (bucketKeys != null) {
+                bucketKeys.reportInvalid();
+            }
+            output.writeInt(PARTIAL_FORMAT_VERSION);
+            output.writeInt(levels.size());
+            output.writeInt(aggregateColumns.size());
+            for (Map<Object, AggregateAccumulator[]> level : levels) {
+                output.writeInt(level.size());
+                for (Map.Entry<Object, AggregateAccumulator[]> group : level.entrySet()) {
+                    SpillCodec.writeValue(output, group.getKey());
+                    for (AggregateAccumulator accumulator : group.getValue()) {
+                        accumulator.writeTo(output);
+                    }
+                }
+            }
+        }
+
+        /** Adds groups written by {@link #writeTo} of an aggregator with the same grouping sets and aggregates. */
+        public void mergeFrom(DataInputStream input) throws IOException {
+            int version = input.readInt();
+            int levelCount = input.readInt();
+            int aggregateCount = input.readInt();
+            if (version != PARTIAL_FORMAT_VERSION || levelCount != levels.size() || aggregateCount != aggregateColumns.size()) {
+                throw new IOException("Partial aggregate does not match aggregator (format " + version + ", " + levelCount
+                        + " grouping sets, " + aggregateCount + " aggregates)");
+            }
+            for (Map<Object, AggregateAccumulator[]> level : levels) {
+                for (int g = input.readInt(); g > 0; g--) {
+                    AggregateAccumulator[] accumulators = level.computeIfAbsent(SpillCodec.readValue(input), key -> newAccumulators());
+                    for (AggregateAccumulator accumulator : accumulators) {
+                        accumulator.mergeFrom(input);
+                    }
+                }
+            }
+        }
+
+        /** Adds groups of another partial aggregation of this aggregator, same result as {@link #mergeFrom(DataInputStream)} of its {@link #writeTo}. */
+        public void mergeFrom(PartialAggregation other) {
+            if (other.outer() != AggregatorTransformer.this) {
+                throw new IllegalArgumentException("Partial aggregate of another aggregator can not be merged.");
+            }
+            for (int i = 0; i < levels.size(); i++) {
+                Map<Object, AggregateAccumulator[]> level = levels.get(i);
+                for (Map.Entry<Object, AggregateAccumulator[]> group : other.levels.get(i).entrySet()) {
+                    AggregateAccumulator[] accumulators = level.computeIfAbsent(group.getKey(), key -> newAccumulators());
+                    for (int a = 0; a < accumulators.length; a++) {
+                        accumulators[a].mergeFrom(group.getValue()[a]);
+                    }
+                }
+            }
+        }
+
+        private AggregatorTransformer outer() {
+            return AggregatorTransformer.this;
+        }
+
+        /** Aggregated rows of all levels. */
+        public List<Map<String, Object>> finish() {
+            List<Map<String, Object>> aggregatedRows = new ArrayList<>();
+            for (int i = 0; i < levels.size(); i++) {
+                slots.addGroupRows(i, levels.get(i), aggregatedRows);
+            }
+            return aggregatedRows;
+        }
+    }
+
+    /**
+     * Aggregation of a random sample of the input lines, estimating the aggregates of the whole input: SUM and COUNT
+     * are scaled from sampleSize sampled lines (also lines filtered out or not parsed) to populationSize lines, a
+     * column {@code <output>}{@value #CONFIDENCE_SUFFIX} holds the half width of their 95% confidence interval. AVG,
+     * MIN and MAX are of the sample, COUNT_DISTINCT is a lower bound; groups missing in the sample are missing.
+     */
+    public class SampledAggregation {
+        private static final double Z_95 = 1.959964; // Two sided 95% quantile of the normal distribution
+
+        private final List<Map<Object, SampledGroup>> levels = new ArrayList<>();
+        private final TimeBucket.Keys bucketKeys = getTimeBucket() != null ? new TimeBucket.Keys(getTimeBucket()) : null;
+        private final Slots slots;
+        private final long sampleSize;
+        private final double weight; // Input lines one sampled line stands for
+
+        public SampledAggregation(List<Map<String, Object>> template, long sampleSize, double populationSize) {
+            if (sampleSize <= 0 || populationSize < sampleSize) {
+                throw new IllegalArgumentException("Sample of " + sampleSize + " lines can not stand for " + populationSize + " lines.");
+            }
+            this.slots = new Slots(template);
+            this.sampleSize = sampleSize;
+            this.weight = populationSize / sampleSize;
+            for (int i = 0; i < groupingSets.size(); i++) {
+                levels.add(new LinkedHashMap<>());
+            }
+        }
+
+        public void accept(List<Map<String, Object>> rows) {
+            if (rows.isEmpty()) return;
+            if (bucketKeys != null) {
+                bucketKeys.assign(rows);
+            }
+            for (Map<String, Object> row : rows) {
+                if (row == null) continue;
+                for (int i = 0; i < groupingSets.size(); i++) {
+                    Object groupKey = slots.groupKey(row, i);
+                    if (groupKey == null) continue; // Ignoring rows with null key of grouping
+                    SampledGroup group = levels.get(i).computeIfAbsent(groupKey, key -> new SampledGroup());
+                    for (int a = 0; a < group.accumulators.length; a++) {
+                        Object value = slots.inputs[a].get(row);
+                        group.accumulators[a].add(value);
+                        double sampled = sampledValue(aggregateColumns.get(a), value);
+                        group.squareSums[a] += sampled * sampled;
+                    }
+                }
+            }
+            if (bucketKeys != null) {
+                bucketKeys.reportInvalid();
+            }
+        }
+
+        /** Estimated rows of all levels, with confidence columns next to the scaled aggregates. */
+        public List<Map<String, Object>> finish() {
+            ColumnSlot[] outputSlots = slots.outputs;
+            ColumnSlot[] confidenceSlots = aggregateColumns.stream().map(aggregate -> isScaled(aggregate)
+                    ? ColumnSlot.of(slots.template, aggregate.getOutput().getName() + CONFIDENCE_SUFFIX) : null).toArray(ColumnSlot[]::new);
+            List<Map<String, Object>> estimatedRows = new ArrayList<>();
+            for (int i = 0; i < groupingSets.size(); i++) {
+                int level = i;
+                levels.get(i).forEach((groupKey, group) -> {
+                    Map<String, Object> row = slots.groupRow(level, groupKey, group.accumulators);
+                    for (int a = 0; a < aggregateColumns.size(); a++) {
+                        if (confidenceSlots[a] == null) continue;
+                        boolean count = aggregateColumns.get(a).getMethod() == Method.COUNT;
+                        double sum = count ? group.accumulators[a].nonNullCount() : ((Number) outputSlots[a].get(row)).doubleValue();
+                        outputSlots[a].set(row, scaled(outputSlots[a].get(row), count));
+                        confidenceSlots[a].set(row, halfWidth(sum, group.squareSums[a], outputSlots[a].get(row) instanceof Decimal));
+                    }
+                    estimatedRows.add(row);
+                });
             }
+            return estimatedRows;
+        }
+
+        private Object scaled(Object sampleResult, boolean count) {
+            if (sampleResult instanceof Decimal decimal) {
+                return Decimal.ofUnscaled(Math.round(decimal.unscaledValue() * weight));
+            }
+            double estimate = ((Number) sampleResult).doubleValue() * weight;
+            return count ? (double) Math.round(estimate) : estimate;
+        }
+
+        /**
+         * Half width of the confidence interval of a scaled sum: every sampled line contributes its value (0 when it
+         * is not in the group), variance of the sum of sampleSize such values with finite population correction.
+         */
+        private Object halfWidth(double sum, double squareSum, boolean decimal) {
+            double variance = sampleSize > 1 ? Math.max(0, (squareSum - sum * sum / sampleSize) / (sampleSize - 1)) : 0;
+            double correction = Math.max(0, 1 - 1 / weight); // 0 when every line was sampled
+            double halfWidth = Z_95 * weight * Math.sqrt(sampleSize * variance * correction);
+            return decimal ? Decimal.ofUnscaled(Math.round(halfWidth * Math.pow(10, Decimal.SCALE))) : halfWidth;
+        }
+
+        private class SampledGroup {
+            final AggregateAccumulator[] accumulators = newAccumulators();
+            final double[] squareSums = new double[aggregateColumns.size()]; // Of the values summed (1 per counted value)
+        }
+    }
+
+    /** SUM and COUNT of a sample can be scaled to the whole input, other aggregates can not. */
+    public static boolean isScaled(AggregateBy aggregate) {
+        return aggregate.getMethod() == Method.SUM || aggregate.getMethod() == Method.COUNT;
+    }
+
+    /** Value a sampled row adds to a scaled aggregate, 0 for values the aggregate skips. */
+    private static double sampledValue(AggregateBy aggregate, Object value) {
+        if (value == null || !isScaled(aggregate)) return 0;
+        if (aggregate.getMethod() == Method.COUNT) return 1;
+        try {
+            if (value instanceof Number number) return number.doubleValue();
+            if (aggregate.getInput().getType() == Column.DataType.DECIMAL) return Decimal.unscaledOf(value) / Math.pow(10, Decimal.SCALE);
+            String strValue = value.toString().trim().replace(',', '.');
+            return strValue.isEmpty() ? 0 : Double.parseDouble(strValue);
         } catch (NumberFormatException e) {
-            System.err.println("Warning (Aggregator): Could not parse value '" + value + "' as Double for aggregation.");
-            return Optional.empty();
+            return 0; // Accumulator warned already
         }
     }
 
+    /**
+     * Aggregation of an unbounded input (a file being appended) by event time windows: the time bucket is the window,
+     * every window has its own groups of all grouping sets. A window is finished once the watermark, the latest event
+     * time seen minus allowed lateness, reaches its end; rows arriving later for a finished window are dropped and
+     * counted. Memory is bounded by the open windows. All batches are on the schema of the first one.
+     */
+    public class WindowedAggregation {
+        private final TimeBucket.Keys bucketKeys;
+        private final long allowedLateness; // Seconds
+        private final TreeMap<Long, List<Map<Object, AggregateAccumulator[]>>> openWindows = new TreeMap<>(); // By window start
+        private Slots slots; // Of the first batch
+        private ColumnSlot windowSlot;
+        private long lateRowCount;
+
+        public WindowedAggregation(long allowedLatenessSeconds) {
+            if (getTimeBucket() == null) {
+                throw new IllegalStateException("Windowed aggregation requires a time bucket (the event time window).");
+            }
+            bucketKeys = new TimeBucket.Keys(getTimeBucket());
+            allowedLateness = allowedLatenessSeconds;
+        }
+
+        public void accept(List<Map<String, Object>> rows) {
+            if (rows.isEmpty()) return;
+            if (slots == null) {
+                slots = new Slots(rows);
+                windowSlot = ColumnSlot.of(rows, getTimeBucket().getOutput().getName());
+            }
+            long watermark = watermark(); // Of rows before this batch
+            bucketKeys.assign(rows);
+            for (Map<String, Object> row : rows) {
+                if (row == null || !(windowSlot.get(row) instanceof Long windowStart)) continue;
+                if (bucketKeys.endOf(windowStart) <= watermark) {
+                    lateRowCount++;
+                    continue;
+                }
+                slots.accumulate(row, openWindows.computeIfAbsent(windowStart, key -> newLevels()));
+            }
+            bucketKeys.reportInvalid();
+        }
+
+        /** Latest event time seen minus allowed lateness (local seconds), windows ending at or before it are finished. */
+        public long watermark() {
+            long latest = bucketKeys.latestLocalSecond();
+            return latest == Long.MIN_VALUE ? Long.MIN_VALUE : latest - allowedLateness;
+        }
+
+        public int openWindowCount() {
+            return openWindows.size();
+        }
+
+        public long lateRowCount() {
+            return lateRowCount;
+        }
+
+        /** Rows of windows finished by the watermark, window after window in event time order. */
+        public List<Map<String, Object>> finishedWindows() {
+            return finishWindows(watermark());
+        }
+
+        /** Rows of all open windows (end of input). */
+        public List<Map<String, Object>> finishAll() {
+            return finishWindows(Long.MAX_VALUE);
+        }
+
+        private List<Map<String, Object>> finishWindows(long watermark) {
+            List<Map<String, Object>> aggregatedRows = new ArrayList<>();
+            while (!openWindows.isEmpty() && bucketKeys.endOf(openWindows.firstKey()) <= watermark) {
+                Map.Entry<Long, List<Map<Object, AggregateAccumulator[]>>> window = openWindows.pollFirstEntry();
+                int windowStart = aggregatedRows.size();
+                for (int i = 0; i < groupingSets.size(); i++) {
+                    slots.addGroupRows(i, window.getValue().get(i), aggregatedRows);
+                }
+                String label = getTimeBucket().label(window.getKey());
+                for (Map<String, Object> row : aggregatedRows.subList(windowStart, aggregatedRows.size())) {
+                    windowSlot.set(row, label); // Also on levels rolling the window column up
+                }
+            }
+            return aggregatedRows;
+        }
+    }
+
+    /** One empty group table per grouping set, LinkedHashMap keeps first seen order of groups. */
+    private List<Map<Object, AggregateAccumulator[]>> newLevels() {
+        List<Map<Object, AggregateAccumulator[]>> levels = new ArrayList<>();
+        for (int i = 0; i < groupingSets.size(); i++) {
+            levels.add(new LinkedHashMap<>());
+        }
+        return levels;
+    }
+
+    private Object groupValueOf(Object groupKey, List<Column> set, String columnName) {
+        for (int i = 0; i < set.size(); i++) {
+            if (set.get(i).getName().equals(columnName)) {
+                return set.size() == 1 ? groupKey : ((List<?>) groupKey).get(i);
+            }
+        }
+        return null;
+    }
+
+    private AggregateAccumulator[] newAccumulators() {
+        AggregateAccumulator[] accumulators = new AggregateAccumulator[aggregateColumns.size()];
+        for (int i = 0; i < accumulators.length; i++) {
+            AggregateBy aggregate = aggregateColumns.get(i);
+            accumulators[i] = new AggregateAccumulator(aggregate.getMethod(), aggregate.getInput().getType());
+        }
+        return accumulators;
+    }
+
+    private String describeGroupingSets() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (List<Column> set : groupingSets) {
+            StringJoiner names = new StringJoiner(", ", "(", ")");
+            set.forEach(column -> names.add("'" + column.getName() + "'"));
+            joiner.add(names.toString());
+        }
+        return joiner.toString();
+    }
+
     @XmlAccessorType(XmlAccessType.FIELD)
     public static class AggregateBy {
         @XmlIDREF private Column input;
         private Method method;
         @XmlIDREF private Column output;
 
+        private AggregateBy() {} // For JAXB
+
+        public AggregateBy(Column input, Method method, Column output) {
+            this.input = input;
+            this.method = method;
+            this.output = output;
+        }
+
         public Column getInput() { return input; }
         public Column getOutput() { return output; }
         public Method getMethod() { return method; }
     }
 
-    public enum Method { SUM, AVG, MIN, MAX, COUNT } // Added  MIN, MAX, COUNT
-}
\ No newline at end of file
+    /** One level of GROUPING SETS, list of group by columns. */
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class GroupingSet {
+        @XmlElement(name = "groupBy")
+        @XmlJavaTypeAdapter(ColumnAdapter.class)
+        private List<Column> columns;
+
+        private GroupingSet() {} // For JAXB
+
+        public GroupingSet(List<Column> columns) {
+            this.columns = columns;
+        }
+
+        public List<Column> getColumns() { return columns != null ? columns : List.of(); }
+    }
+
+    public enum Method { SUM, AVG, MIN, MAX, COUNT, COUNT_DISTINCT } // Added  MIN, MAX, COUNT, COUNT_DISTINCT
+}
@@ -2,6 +2,7 @@ package com.playtech.report.transformer.impl;
 
 import com.playtech.report.Report;
 import com.playtech.report.column.Column;
+import com.playtech.report.row.ColumnSlot;
 import com.playtech.report.transformer.Transformer;
 
 import java.time.LocalDate;
@@ -42,6 +43,10 @@ public class DateTimeFormatterTransformer implements Transformer {
         }
     }
 
+    public Column getInput() { return input; }
+    public String getFormat() { return format; }
+    public Column getOutput() { return output; }
+    public String getInputFormat() { return inputFormat; }
 
     @Override
     public void transform(Report report, List<Map<String, Object>> rows) {
@@ -52,6 +57,8 @@ public class DateTimeFormatterTransformer implements Transformer {
 
         final String inputColumnName = this.input.getName();
         final String outputColumnName = this.output.getName();
+        final ColumnSlot inputSlot = ColumnSlot.of(rows, inputColumnName);
+        final ColumnSlot outputSlot = ColumnSlot.of(rows, outputColumnName);
 
         // Creating formatter for output
         DateTimeFormatter outputFormatter;
@@ -72,51 +79,55 @@ public class DateTimeFormatterTransformer implements Transformer {
 
         // Iteration and modification rows by place
         for (Map<String, Object> rowMap : rows) {
-            Object rawValue = rowMap.get(inputColumnName);
+            Object rawValue = inputSlot.get(rowMap);
 
             if (rawValue == null) {
                 // IF row null writing null
-                rowMap.put(outputColumnName, null); // or "N/A"
+                outputSlot.set(rowMap, null); // or "N/A"
                 continue;
             }
 
             String valueStr = rawValue.toString();
             if (valueStr.isEmpty()) {
-                rowMap.put(outputColumnName, "");
+                outputSlot.set(rowMap, "");
                 continue;
             }
 
             try {
-                TemporalAccessor temporalAccessor;
-
-                // Trying to parse input
-                if (inputParser != null) {
-                    // If the inputed format has been set using him
-                    temporalAccessor = parseWithInputFormat(valueStr, inputParser);
-                } else {
-                    // Or trying standarted formats
-                    temporalAccessor = parseFlexible(valueStr);
-                }
-
                 // If parsing is succeeded , formatting for output
-                String formattedValue = outputFormatter.format(temporalAccessor);
-                rowMap.put(outputColumnName, formattedValue);
-
-            } catch (DateTimeParseException e) {
-                System.err.println("Warning (DateTimeFormatter): Could not parse date/time string '" + valueStr + "' in row " + rowMap + ". Error: " + e.getMessage());
-                rowMap.put(outputColumnName, "Invalid Date!"); // Marks of errors
+                String formattedValue = outputFormatter.format(parse(valueStr, inputParser));
+                outputSlot.set(rowMap, formattedValue);
             } catch (Exception e) {
-                // Catching errors
-                System.err.println("Error formatting date/time for value '" + valueStr + "' in row " + rowMap + ". Error: " + e.getMessage());
-                rowMap.put(outputColumnName, "Format Error!");
+                outputSlot.set(rowMap, failedValue(valueStr, rowMap, e));
             }
         }
         System.out.println("DateTimeFormatterTransformer: Formatting complete.");
     }
 
+    /** Parses value by inputParser, by standard ISO formats when it is null (also used by generated code). */
+    public static TemporalAccessor parse(String value, DateTimeFormatter inputParser) {
+        if (inputParser != null) {
+            // If the inputed format has been set using him
+            return parseWithInputFormat(value, inputParser);
+        }
+        // Or trying standarted formats
+        return parseFlexible(value);
+    }
+
+    /** Reports value that could not be formatted, returns the value written into output instead (also used by generated code). */
+    public static String failedValue(String valueStr, Map<String, Object> rowMap, Exception e) {
+        if (e instanceof DateTimeParseException) {
+            System.err.println("Warning (DateTimeFormatter): Could not parse date/time string '" + valueStr + "' in row " + rowMap + ". Error: " + e.getMessage());
+            return "Invalid Date!"; // Marks of errors
+        }
+        // Catching errors
+        System.err.println("Error formatting date/time for value '" + valueStr + "' in row " + rowMap + ". Error: " + e.getMessage());
+        return "Format Error!";
+    }
+
     // Additional method for parsing with formattor
     // (can throw DateTimeParseException)
-    private TemporalAccessor parseWithInputFormat(String value, DateTimeFormatter parser) {
+    private static TemporalAccessor parseWithInputFormat(String value, DateTimeFormatter parser) {
         // Trying diffrent types if formatter is not specified
         try {
             return ZonedDateTime.parse(value, parser);
@@ -140,7 +151,7 @@ public class DateTimeFormatterTransformer implements Transformer {
 
     // Additional method for flexibile parsing
     // (can thorw DateTimeParseException)
-    private TemporalAccessor parseFlexible(String value) {
+    private static TemporalAccessor parseFlexible(String value) {
         // Trying ISO formats
         try {
             return ZonedDateTime.parse(value);
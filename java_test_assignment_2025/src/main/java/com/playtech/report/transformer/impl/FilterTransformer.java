@@ -0,0 +1,309 @@
+package com.playtech.report.transformer.impl;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.report.column.Decimal;
+import com.playtech.report.row.ColumnSlot;
+import com.playtech.report.transformer.Transformer;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementWrapper;
+import jakarta.xml.bind.annotation.XmlIDREF;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Keeps only rows matching the configured conditions.
+ * Values are compared by declared column type: numbers as numbers, DATE/DATETIME as points in time, STRING as text.
+ * When Filter is the first transformer, ReportGenerator evaluates it while parsing CSV lines (predicate pushdown).
+ */
+public class FilterTransformer implements Transformer {
+    public static final String NAME = "Filter";
+
+    private final Match match;
+    private final List<Condition> conditions;
+    // Conditions with typed constants, built once and never changed, so concurrent calls can share them
+    private final List<PreparedCondition> prepared;
+    private final int leafCount;
+
+    public FilterTransformer(Match match, List<Condition> conditions) {
+        this.match = match != null ? match : Match.ALL;
+        this.conditions = Objects.requireNonNull(conditions, "Filter conditions cannot be null");
+        if (this.conditions.isEmpty()) {
+            throw new IllegalArgumentException("FilterTransformer requires at least one condition.");
+        }
+        List<PreparedCondition> leaves = new ArrayList<>();
+        this.prepared = prepare(this.conditions, leaves);
+        this.leafCount = leaves.size();
+    }
+
+    public List<Condition> getConditions() { return conditions; }
+    public Match getMatch() { return match; }
+
+    @Override
+    public void transform(Report report, List<Map<String, Object>> rows) {
+        if (rows == null || rows.isEmpty()) {
+            System.out.println("FilterTransformer: No data rows to filter.");
+            return;
+        }
+        int before = rows.size();
+        // Column slots are resolved once per call (rows are read by index), kept local as rows of other calls
+        // can have another schema
+        ColumnSlot[] slots = new ColumnSlot[leafCount];
+        bind(prepared, rows, slots);
+        rows.removeIf(row -> row == null || !evaluate(match, prepared, leaf -> slots[leaf.leafIndex()].get(row)));
+        System.out.println("FilterTransformer: Kept " + rows.size() + " of " + before + " rows.");
+    }
+
+    /** Evaluates filter against values provided by lookup (by column name), used by pushdown as well. */
+    public boolean test(Function<String, Object> valueLookup) {
+        return evaluate(match, prepared, leaf -> valueLookup.apply(leaf.condition().input.getName()));
+    }
+
+    /** All columns the conditions read, needed to know which CSV fields have to be parsed for pushdown. */
+    public Set<String> getReferencedColumnNames() {
+        Set<String> names = new LinkedHashSet<>();
+        collectColumnNames(conditions, names);
+        return names;
+    }
+
+    private static void collectColumnNames(List<Condition> conditions, Set<String> names) {
+        for (Condition condition : conditions) {
+            if (condition.isGroup()) {
+                collectColumnNames(condition.conditions, names);
+            } else {
+                names.add(condition.input.getName());
+            }
+        }
+    }
+
+    private static List<PreparedCondition> prepare(List<Condition> conditions, List<PreparedCondition> leaves) {
+        List<PreparedCondition> prepared = new ArrayList<>(conditions.size());
+        for (Condition condition : conditions) {
+            if (condition.isGroup()) {
+                prepared.add(new PreparedCondition(condition, List.of(), -1, prepare(condition.conditions, leaves)));
+            } else {
+                PreparedCondition leaf = new PreparedCondition(condition, condition.typedValues(), leaves.size(), List.of());
+                leaves.add(leaf);
+                prepared.add(leaf);
+            }
+        }
+        return List.copyOf(prepared);
+    }
+
+    private static void bind(List<PreparedCondition> conditions, List<Map<String, Object>> rows, ColumnSlot[] slots) {
+        for (PreparedCondition condition : conditions) {
+            if (condition.isGroup()) {
+                bind(condition.children(), rows, slots);
+            } else {
+                slots[condition.leafIndex()] = ColumnSlot.of(rows, condition.condition().input.getName());
+            }
+        }
+    }
+
+    /** Evaluates conditions, leafValue gives the value a leaf condition compares. */
+    private static boolean evaluate(Match match, List<PreparedCondition> conditions, Function<PreparedCondition, Object> leafValue) {
+        for (PreparedCondition condition : conditions) {
+            boolean result = condition.test(leafValue);
+            if (match == Match.ANY && result) return true; // Short circuit
+            if (match == Match.ALL && !result) return false;
+        }
+        return match == Match.ALL;
+    }
+
+    /** Parses value by column type into comparable form, null if value is missing or not parsable. */
+    @SuppressWarnings("rawtypes")
+    private static Comparable toComparable(Object value, Column.DataType type) {
+        if (value == null) return null;
+        if (type == null || type == Column.DataType.STRING) {
+            return value.toString();
+        }
+        try {
+            return switch (type) {
+                case INTEGER -> IntegerValue.of(value);
+                case DOUBLE -> value instanceof Number
+                        ? ((Number) value).doubleValue()
+                        : Double.parseDouble(value.toString().trim().replace(',', '.'));
+                case DECIMAL -> Decimal.unscaledOf(value); // Exact, compared as cents
+                case DATE, DATETIME -> toEpochMillis(value.toString().trim());
+                default -> value.toString();
+            };
+        } catch (NumberFormatException | ArithmeticException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Value of an INTEGER column, compared as long so ids above 2^53 stay exact. A value that is not integral (or
+     * out of long range) is kept as double and compared exactly with the long ones.
+     */
+    private record IntegerValue(boolean integral, long longValue, double doubleValue) implements Comparable<IntegerValue> {
+        static IntegerValue of(Object value) {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return new IntegerValue(true, ((Number) value).longValue(), 0);
+            }
+            if (value instanceof Number number) {
+                return ofDouble(number.doubleValue());
+            }
+            String text = value.toString().trim();
+            try {
+                return new IntegerValue(true, Long.parseLong(text), 0);
+            } catch (NumberFormatException e) {
+                return ofDouble(Double.parseDouble(text.replace(',', '.')));
+            }
+        }
+
+        private static IntegerValue ofDouble(double value) {
+            long longValue = (long) value;
+            return longValue == value && Math.abs(value) < 0x1p63 ? new IntegerValue(true, longValue, 0) : new IntegerValue(false, 0, value);
+        }
+
+        @Override
+        public int compareTo(IntegerValue other) {
+            if (integral && other.integral) return Long.compare(longValue, other.longValue);
+            if (!integral && !other.integral) return Double.compare(doubleValue, other.doubleValue);
+            return integral ? compare(longValue, other.doubleValue) : -compare(other.longValue, doubleValue);
+        }
+
+        private static int compare(long value, double other) {
+            if (Double.isNaN(other) || other >= 0x1p63) return -1;
+            if (other < -0x1p63) return 1;
+            long truncated = (long) other; // Towards zero, the fraction decides when it equals value
+            if (value != truncated) return Long.compare(value, truncated);
+            return other > truncated ? -1 : other < truncated ? 1 : 0;
+        }
+    }
+
+    // Same accepted formats as DateTimeFormatter (ISO with zone, without zone, date only); without zone means UTC
+    private static Long toEpochMillis(String value) {
+        try {
+            return ZonedDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e1) {
+            try {
+                return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC).toEpochMilli();
+            } catch (DateTimeParseException e2) {
+                return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+        }
+    }
+
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Condition {
+        @XmlIDREF private Column input;
+        private Operator operator;
+        @XmlElement(name = "value")
+        private List<String> values;
+        private Boolean not;
+        // Nested group of conditions, e.g. ANY inside ALL
+        private Match match;
+        @XmlElementWrapper(name = "conditions")
+        @XmlElement(name = "condition")
+        private List<Condition> conditions;
+
+        private Condition() {} // For JAXB
+
+        public Condition(Column input, Operator operator, List<String> values, Boolean not, Match match, List<Condition> conditions) {
+            this.input = input;
+            this.operator = operator;
+            this.values = values;
+            this.not = not;
+            this.match = match;
+            this.conditions = conditions;
+        }
+
+        public Column getInput() { return input; }
+        public Operator getOperator() { return operator; }
+        public List<String> getValues() { return values; }
+        /** Nested conditions, empty for a leaf condition. */
+        public List<Condition> getConditions() { return conditions != null ? conditions : List.of(); }
+
+        boolean isGroup() {
+            return conditions != null && !conditions.isEmpty();
+        }
+
+        /** Checks leaf condition and parses its values by column type. */
+        List<Comparable<?>> typedValues() {
+            if (input == null) {
+                throw new IllegalArgumentException("Filter condition requires an input column.");
+            }
+            if (operator == null) {
+                throw new IllegalArgumentException("Filter condition on '" + input.getName() + "' requires an operator.");
+            }
+            int valueCount = values == null ? 0 : values.size();
+            int expected = switch (operator) {
+                case IS_EMPTY -> 0;
+                case BETWEEN -> 2;
+                case IN -> -1;
+                default -> 1;
+            };
+            if ((expected >= 0 && valueCount != expected) || (expected < 0 && valueCount == 0)) {
+                throw new IllegalArgumentException("Filter operator " + operator + " on '" + input.getName()
+                        + "' got " + valueCount + " values.");
+            }
+            List<Comparable<?>> typedValues = new ArrayList<>(valueCount);
+            for (int i = 0; i < valueCount; i++) {
+                Comparable<?> typed = toComparable(values.get(i), input.getType());
+                if (typed == null) {
+                    throw new IllegalArgumentException("Filter value '" + values.get(i) + "' is not a valid "
+                            + input.getType() + " for column '" + input.getName() + "'.");
+                }
+                typedValues.add(typed);
+            }
+            return List.copyOf(typedValues);
+        }
+    }
+
+    /** Condition with its typed values, leaves are numbered for the slots a call resolves. */
+    private record PreparedCondition(Condition condition, List<Comparable<?>> typedValues, int leafIndex, List<PreparedCondition> children) {
+        boolean isGroup() {
+            return leafIndex < 0;
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        boolean test(Function<PreparedCondition, Object> leafValue) {
+            boolean result;
+            if (isGroup()) {
+                result = evaluate(condition.match != null ? condition.match : Match.ALL, children, leafValue);
+            } else {
+                Object rawValue = leafValue.apply(this);
+                if (condition.operator == Operator.IS_EMPTY) {
+                    result = rawValue == null || rawValue.toString().isEmpty();
+                } else {
+                    Comparable value = toComparable(rawValue, condition.input.getType());
+                    if (value == null) {
+                        result = false; // Missing or not parsable values never match a comparison
+                    } else {
+                        result = switch (condition.operator) {
+                            case EQ -> value.compareTo(typedValues.get(0)) == 0;
+                            case NE -> value.compareTo(typedValues.get(0)) != 0;
+                            case LT -> value.compareTo(typedValues.get(0)) < 0;
+                            case LE -> value.compareTo(typedValues.get(0)) <= 0;
+                            case GT -> value.compareTo(typedValues.get(0)) > 0;
+                            case GE -> value.compareTo(typedValues.get(0)) >= 0;
+                            case BETWEEN -> value.compareTo(typedValues.get(0)) >= 0 && value.compareTo(typedValues.get(1)) <= 0;
+                            case IN -> typedValues.stream().anyMatch(typed -> value.compareTo(typed) == 0);
+                            default -> false;
+                        };
+                    }
+                }
+            }
+            return (condition.not != null && condition.not) != result;
+        }
+    }
+
+    public enum Match { ALL, ANY }
+
+    public enum Operator { EQ, NE, LT, LE, GT, GE, BETWEEN, IN, IS_EMPTY }
+}
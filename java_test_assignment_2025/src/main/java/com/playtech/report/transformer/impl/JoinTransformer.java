@@ -0,0 +1,176 @@
+package com.playtech.report.transformer.impl;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.report.row.ColumnSlot;
+import com.playtech.report.dimension.Dimension;
+import com.playtech.report.transformer.Transformer;
+import com.playtech.util.collections.IntObjectHashMap;
+import com.playtech.util.io.CompressedFiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Enriches rows with columns of a dimension CSV (hash join).
+ * Dimension file is loaded once into a hash table (primitive int keys for INTEGER key columns) and probed per row.
+ */
+public class JoinTransformer implements Transformer {
+    public static final String NAME = "Join";
+
+    private final Dimension dimension;
+    private final Column input; // Key column in the report rows
+    private final JoinType joinType;
+
+    // Built on first use: key -> dimension column values (in order of dimension columns)
+    private transient IntObjectHashMap<String[]> intTable;
+    private transient Map<String, String[]> stringTable;
+
+    public JoinTransformer(Dimension dimension, Column input, JoinType joinType) {
+        this.dimension = Objects.requireNonNull(dimension, "Join dimension cannot be null");
+        this.input = Objects.requireNonNull(input, "Join input (key) column cannot be null");
+        this.joinType = joinType != null ? joinType : JoinType.INNER;
+        if (dimension.getPath() == null || dimension.getPath().isEmpty()) {
+            throw new IllegalArgumentException("Dimension '" + dimension.getName() + "' requires a path.");
+        }
+        if (dimension.getKey() == null || dimension.getKey().isEmpty()) {
+            throw new IllegalArgumentException("Dimension '" + dimension.getName() + "' requires a key column.");
+        }
+        if (dimension.getColumns() == null || dimension.getColumns().isEmpty()) {
+            throw new IllegalArgumentException("Dimension '" + dimension.getName() + "' requires at least one column.");
+        }
+    }
+
+    public Dimension getDimension() { return dimension; }
+    public Column getInput() { return input; }
+    public JoinType getJoinType() { return joinType; }
+
+    @Override
+    public void transform(Report report, List<Map<String, Object>> rows) {
+        if (rows == null || rows.isEmpty()) {
+            System.out.println("JoinTransformer: No data rows to join.");
+            return;
+        }
+        loadDimension();
+
+        final String keyName = input.getName();
+        final ColumnSlot keySlot = ColumnSlot.of(rows, keyName);
+        final ColumnSlot[] columnSlots = dimension.getColumns().stream()
+                .map(column -> ColumnSlot.of(rows, column.getName()))
+                .toArray(ColumnSlot[]::new);
+        final boolean intKeys = intTable != null;
+        int before = rows.size();
+
+        // Probing row by row, unmatched rows are removed (INNER) or get nulls (LEFT)
+        rows.removeIf(row -> {
+            if (row == null) return true;
+            String[] match = intKeys ? probeInt(keySlot.get(row)) : probeString(keySlot.get(row));
+            if (match == null && joinType == JoinType.INNER) {
+                return true;
+            }
+            for (int i = 0; i < columnSlots.length; i++) {
+                columnSlots[i].set(row, match != null ? match[i] : null);
+            }
+            return false;
+        });
+        System.out.println("JoinTransformer: " + joinType + " join with '" + dimension.getName() + "' on '" + keyName
+                + "' kept " + rows.size() + " of " + before + " rows.");
+    }
+
+    private String[] probeInt(Object key) {
+        if (key instanceof Number number) {
+            // Only an integral value in int range is a key, 1.9 must not match key 1
+            int intKey = number.intValue();
+            return number.doubleValue() == intKey ? intTable.get(intKey) : null;
+        }
+        Integer parsed = tryParseInt(key);
+        return parsed != null ? intTable.get(parsed) : null;
+    }
+
+    private String[] probeString(Object key) {
+        return key != null ? stringTable.get(key.toString().trim()) : null;
+    }
+
+    /** Reads dimension file once, keeps only key and the declared columns. */
+    private synchronized void loadDimension() {
+        if (intTable != null || stringTable != null) return;
+        System.out.println("JoinTransformer: Loading dimension '" + dimension.getName() + "' from: " + dimension.getPath());
+        boolean intKeys = input.getType() == Column.DataType.INTEGER;
+        IntObjectHashMap<String[]> ints = intKeys ? new IntObjectHashMap<>() : null;
+        Map<String, String[]> strings = intKeys ? null : new HashMap<>();
+        int duplicates = 0;
+        try (BufferedReader reader = CompressedFiles.newBufferedReader(Paths.get(dimension.getPath()))) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IllegalStateException("Dimension file is empty: " + dimension.getPath());
+            }
+            List<String> headers = Arrays.asList(headerLine.split(","));
+            int keyIndex = indexOf(headers, dimension.getKey());
+            int[] columnIndexes = dimension.getColumns().stream()
+                    .mapToInt(column -> indexOf(headers, column.getName()))
+                    .toArray();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] values = line.split(",", -1);
+                if (values.length != headers.size()) {
+                    System.err.println("Warning (Join): Skipping dimension line with inconsistent column count: " + line);
+                    continue;
+                }
+                String[] selected = new String[columnIndexes.length];
+                for (int i = 0; i < columnIndexes.length; i++) {
+                    selected[i] = values[columnIndexes[i]];
+                }
+                String key = values[keyIndex].trim();
+                boolean duplicate;
+                if (intKeys) {
+                    Integer intKey = tryParseInt(key);
+                    if (intKey == null) {
+                        System.err.println("Warning (Join): Skipping dimension line with non integer key '" + key + "'.");
+                        continue;
+                    }
+                    duplicate = ints.containsKey(intKey);
+                    if (!duplicate) ints.put(intKey, selected);
+                } else {
+                    duplicate = strings.putIfAbsent(key, selected) != null;
+                }
+                if (duplicate) duplicates++; // First occurrence wins
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read dimension file: " + dimension.getPath(), e);
+        }
+        if (duplicates > 0) {
+            System.err.println("Warning (Join): Dimension '" + dimension.getName() + "' has " + duplicates + " duplicate keys, first occurrence is used.");
+        }
+        intTable = ints;
+        stringTable = strings;
+        System.out.println("JoinTransformer: Loaded " + (intKeys ? ints.size() : strings.size()) + " dimension keys.");
+    }
+
+    private int indexOf(List<String> headers, String columnName) {
+        int index = headers.indexOf(columnName);
+        if (index < 0) {
+            throw new IllegalStateException("Column '" + columnName + "' not found in dimension file " + dimension.getPath() + " headers " + headers);
+        }
+        return index;
+    }
+
+    private static Integer tryParseInt(Object value) {
+        if (value == null) return null;
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public enum JoinType { INNER, LEFT }
+}
@@ -2,6 +2,8 @@ package com.playtech.report.transformer.impl;
 
 import com.playtech.report.Report;
 import com.playtech.report.column.Column;
+import com.playtech.report.column.Decimal;
+import com.playtech.report.row.ColumnSlot;
 import com.playtech.report.transformer.Transformer;
 
 import java.util.List;
@@ -27,6 +29,10 @@ public class MathOperationTransformer implements Transformer {
         }
     }
 
+    public List<Column> getInputs() { return inputs; }
+    public MathOperation getOperation() { return operation; }
+    public Column getOutput() { return output; }
+
     @Override
     public void transform(Report report, List<Map<String, Object>> rows) {
         if (rows == null || rows.isEmpty()) {
@@ -38,6 +44,9 @@ public class MathOperationTransformer implements Transformer {
         // Getting names of inputs
         final String input1Name = this.inputs.get(0).getName();
         final String input2Name = this.inputs.size() > 1 ? this.inputs.get(1).getName() : null; // Second argument for binary operations
+        final ColumnSlot input1Slot = ColumnSlot.of(rows, input1Name);
+        final ColumnSlot input2Slot = input2Name != null ? ColumnSlot.of(rows, input2Name) : null;
+        final ColumnSlot outputSlot = ColumnSlot.of(rows, outputColumnName);
 
         System.out.println("MathOperationTransformer: Performing operation '" + this.operation + "' into column '" + outputColumnName + "'.");
 
@@ -45,7 +54,16 @@ public class MathOperationTransformer implements Transformer {
         for (Map<String, Object> rowMap : rows) {
             try {
                 // Getting and parsing new value
-                Object rawVal1 = rowMap.get(input1Name);
+                Object rawVal1 = input1Slot.get(rowMap);
+                if (input2Slot != null && isDecimal(rawVal1, this.inputs.get(0)) && isDecimal(input2Slot.get(rowMap), this.inputs.get(1))) {
+                    // Exact fixed point arithmetic on cents, overflow ends up as calculation error
+                    long unscaled1 = parseUnscaled(rawVal1);
+                    long unscaled2 = parseUnscaled(input2Slot.get(rowMap));
+                    outputSlot.set(rowMap, Decimal.ofUnscaled(this.operation == MathOperation.ADD
+                            ? Math.addExact(unscaled1, unscaled2)
+                            : Math.subtractExact(unscaled1, unscaled2)));
+                    continue;
+                }
                 double value1 = parseDouble(rawVal1); // Using additional method
 
                 double result;
@@ -54,10 +72,10 @@ public class MathOperationTransformer implements Transformer {
                 switch (this.operation) {
                     case ADD:
                     case SUBTRACT:
-                        if (input2Name == null) {
+                        if (input2Slot == null) {
                             throw new IllegalStateException(this.operation + " requires two input columns, but second input is missing.");
                         }
-                        Object rawVal2 = rowMap.get(input2Name);
+                        Object rawVal2 = input2Slot.get(rowMap);
                         double value2 = parseDouble(rawVal2);
                         result = (this.operation == MathOperation.ADD) ? (value1 + value2) : (value1 - value2);
                         break;
@@ -71,25 +89,43 @@ public class MathOperationTransformer implements Transformer {
                 }
 
                 // Writing down result (ex, as Double)
-                rowMap.put(outputColumnName, result);
-
-            } catch (NumberFormatException e) {
-                System.err.println("Warning (MathOperation): Could not parse number in row " + rowMap + ". " + e.getMessage() + ". Setting output to 'Calc Error!'");
-                rowMap.put(outputColumnName, "Calc Error!");
-            } catch (ArithmeticException e) {
-                System.err.println("Warning (MathOperation): Calculation error in row " + rowMap + ". " + e.getMessage() + ". Setting output to 'Calc Error!'");
-                rowMap.put(outputColumnName, "Calc Error!");
+                outputSlot.set(rowMap, result);
+
             } catch (Exception e) {
-                // Catching different errors
-                System.err.println("Error processing row in MathOperationTransformer: " + rowMap + ". Error: " + e.getMessage());
-                rowMap.put(outputColumnName, "Calc Error!");
+                outputSlot.set(rowMap, failedValue(rowMap, e));
             }
         }
         System.out.println("MathOperationTransformer: Calculation complete.");
     }
 
+    /** Reports row the operation failed on, returns the value written into output instead (also used by generated code). */
+    public static String failedValue(Map<String, Object> rowMap, Exception e) {
+        if (e instanceof NumberFormatException) {
+            System.err.println("Warning (MathOperation): Could not parse number in row " + rowMap + ". " + e.getMessage() + ". Setting output to 'Calc Error!'");
+        } else if (e instanceof ArithmeticException) {
+            System.err.println("Warning (MathOperation): Calculation error in row " + rowMap + ". " + e.getMessage() + ". Setting output to 'Calc Error!'");
+        } else {
+            // Catching different errors
+            System.err.println("Error processing row in MathOperationTransformer: " + rowMap + ". Error: " + e.getMessage());
+        }
+        return "Calc Error!";
+    }
+
+    /** DECIMAL values (or any value of a DECIMAL column) are calculated exactly. */
+    private static boolean isDecimal(Object value, Column column) {
+        return value instanceof Decimal || column.getType() == Column.DataType.DECIMAL;
+    }
+
+    /** Scaled DECIMAL value, null and empty values count as 0 (as in parseDouble). */
+    public static long parseUnscaled(Object value) throws NumberFormatException {
+        if (value == null || (value instanceof CharSequence text && text.toString().isBlank())) {
+            return 0;
+        }
+        return Decimal.unscaledOf(value);
+    }
+
     /** Additional method for parsing Double, checking null and errors. */
-    private double parseDouble(Object value) throws NumberFormatException {
+    public static double parseDouble(Object value) throws NumberFormatException {
         if (value == null) {
             // throw new NumberFormatException("Input value is null");
             return 0.0; // Null as 0
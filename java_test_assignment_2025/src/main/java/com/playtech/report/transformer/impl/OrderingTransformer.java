@@ -2,6 +2,7 @@ package com.playtech.report.transformer.impl;
 
 import com.playtech.report.Report;
 import com.playtech.report.column.Column;
+import com.playtech.report.row.ColumnSlot;
 import com.playtech.report.transformer.Transformer;
 
 import java.util.Comparator;
@@ -11,7 +12,8 @@ import java.util.Objects; // Для сравнения
 
 public class OrderingTransformer implements Transformer {
 
-    public static final String NAME = "order";
+    public static final String NAME = "Ordering";
+    public static final String LEGACY_NAME = "order"; // Name accepted before, kept for existing configurations
 
     private final Column orderByColumn;
     private final Order orderDirection;
@@ -24,6 +26,9 @@ public class OrderingTransformer implements Transformer {
         }
     }
 
+    public Column getOrderByColumn() { return orderByColumn; }
+    public Order getOrderDirection() { return orderDirection; }
+
     @Override
     public void transform(Report report, List<Map<String, Object>> rows) {
         //  `report` can be needed for getting metha-data if needed
@@ -45,12 +50,24 @@ public class OrderingTransformer implements Transformer {
             return;
         }
 
-        // Creating comparator for Map<String, Object>
+        Comparator<Map<String, Object>> comparator = comparator(rows);
+
+        // Sorting list `rows` by place
+        rows.sort(comparator);
+
+        System.out.println("OrderingTransformer: Data rows ordered by column '" + sortColumnName + "' (" + this.orderDirection + ").");
+
+    }
+
+    /** Order of rows of the schema of rows (used also to merge sorted runs of several shards). */
+    public Comparator<Map<String, Object>> comparator(List<? extends Map<String, Object>> rows) {
+        // Creating comparator for Map<String, Object>, column slot is resolved once
+        final ColumnSlot sortSlot = ColumnSlot.of(rows, orderByColumn.getName());
         Comparator<Map<String, Object>> comparator = (rowMap1, rowMap2) -> {
             if (rowMap1 == null || rowMap2 == null) return 0;
 
-            Object val1 = rowMap1.get(sortColumnName);
-            Object val2 = rowMap2.get(sortColumnName);
+            Object val1 = sortSlot.get(rowMap1);
+            Object val2 = sortSlot.get(rowMap2);
 
             // Better comparison (ex.)
             if (val1 == null && val2 == null) return 0;
@@ -71,12 +88,7 @@ public class OrderingTransformer implements Transformer {
         if (this.orderDirection == Order.DESC) {
             comparator = comparator.reversed();
         }
-
-        // Sorting list `rows` by place
-        rows.sort(comparator);
-
-        System.out.println("OrderingTransformer: Data rows ordered by column '" + sortColumnName + "' (" + this.orderDirection + ").");
-
+        return comparator;
     }
 
     public enum Order { ASC, DESC }
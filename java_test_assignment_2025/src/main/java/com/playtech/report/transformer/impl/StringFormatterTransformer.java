@@ -2,6 +2,8 @@ package com.playtech.report.transformer.impl;
 
 import com.playtech.report.Report;
 import com.playtech.report.column.Column;
+import com.playtech.report.column.Decimal;
+import com.playtech.report.row.ColumnSlot;
 import com.playtech.report.transformer.Transformer;
 
 import java.util.List;
@@ -57,49 +59,74 @@ public class StringFormatterTransformer implements Transformer {
             System.err.println("Warning: StringFormatterTransformer - not all input columns (" + inputColumnNames + ") found in data keys. Formatting might fail.");
         }
 
+        final ColumnSlot[] inputSlots = inputColumnNames.stream().map(name -> ColumnSlot.of(rows, name)).toArray(ColumnSlot[]::new);
+        final ColumnSlot outputSlot = ColumnSlot.of(rows, outputColumnName);
+
         System.out.println("StringFormatterTransformer: Formatting data using format '" + this.format + "' into column '" + outputColumnName + "'.");
 
         // Iterating by rows and modification by place
         for (Map<String, Object> rowMap : rows) {
             try {
                 // Collecting args for formating out of current row
-                Object[] args = inputColumnNames.stream()
-                        .map(colName -> rowMap.getOrDefault(colName, "")) // Using empty row if key is gone
-                        .toArray();
+                Object[] args = new Object[inputSlots.length];
+                for (int i = 0; i < args.length; i++) {
+                    Object value = inputSlots[i].get(rowMap);
+                    args[i] = value != null || rowMap.containsKey(inputSlots[i].getName()) ? value : ""; // Using empty row if key is gone
+                }
 
-                // --- Better logic of convertation args ---
                 // Trying to convert args to types expected by formatted row.
                 // EX, if format "%.2f EUR", expected number.
                 Object[] convertedArgs = new Object[args.length];
                 for (int i = 0; i < args.length; i++) {
-                    // Trying to convert into Double if it is possible
-                    if (args[i] != null) {
-                        try {
-                            // Using toString() for flexibility
-                            convertedArgs[i] = Double.parseDouble(args[i].toString());
-                        } catch (NumberFormatException e) {
-                            // If not parsing as Double, leave them as they are
-                            // System.err.println("Warning (StringFormatter): Could not parse '" + args[i] + "' as Double for formatting. Using original value.");
-                            convertedArgs[i] = args[i]; // as it was
-                        }
-                    } else {
-                        convertedArgs[i] = null; // Saving null
-                    }
+                    convertedArgs[i] = formatArgument(args[i]);
                 }
-                // --- The end  ---
 
                 // Applying formatting
                 String formattedValue = String.format(this.format, convertedArgs);
 
                 // Writing down the result in output column in current session
-                rowMap.put(outputColumnName, formattedValue);
+                outputSlot.set(rowMap, formattedValue);
 
             } catch (Exception e) {
-                // Catching errors of formating
-                System.err.println("Error formatting row in StringFormatterTransformer: " + rowMap + " - Error: " + e.getMessage());
-                rowMap.put(outputColumnName, "Format Error!");
+                outputSlot.set(rowMap, failedValue(rowMap, e));
             }
         }
         System.out.println("StringFormatterTransformer: Formatting complete.");
     }
+
+    /** Value as argument of String.format: number when it parses as one (also used by generated code). */
+    public static Object formatArgument(Object value) {
+        // Trying to convert into Double if it is possible
+        if (value instanceof Decimal decimal) {
+            return decimal.toBigDecimal(); // Exact for %f, no rounding through double
+        } else if (value != null) {
+            String text = value.toString(); // Using toString() for flexibility
+            if (!mayBeNumber(text)) {
+                return value; // Saves the exception of a failing parse, e.g. for every GameType
+            }
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                // If not parsing as Double, leave them as they are
+                return value; // as it was
+            }
+        }
+        return null; // Saving null
+    }
+
+    /** Double.parseDouble accepts only texts with a digit, besides NaN and Infinity. */
+    private static boolean mayBeNumber(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') return true;
+        }
+        return text.contains("NaN") || text.contains("Infinity");
+    }
+
+    /** Reports row formatting failed on, returns the value written into output instead (also used by generated code). */
+    public static String failedValue(Map<String, Object> rowMap, Exception e) {
+        // Catching errors of formating
+        System.err.println("Error formatting row in StringFormatterTransformer: " + rowMap + " - Error: " + e.getMessage());
+        return "Format Error!";
+    }
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.playtech.report.transformer.impl;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.row.ColumnSlot;
+import com.playtech.util.time.IsoDateTimes;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlIDREF;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calendar period of a DATE / DATETIME input as group key: minute, hour, day, ISO week (from Monday) or month in
+ * timeZone (UTC when not set). The key is the start of the period in local time as seconds since 1970-01-01T00:00
+ * (an hour repeated when clocks go back is one bucket), output groups get it formatted with format.
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+public class TimeBucket {
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    @XmlIDREF private Column input;
+    private Unit unit;
+    private String timeZone; // Zone ID, e.g. Europe/Tallinn or +02:00
+    private String format; // Label pattern, default of the unit when not set
+    @XmlIDREF private Column output;
+
+    private transient ZoneId zone;
+    private transient DateTimeFormatter labelFormatter;
+
+    private TimeBucket() {} // For JAXB
+
+    public TimeBucket(Column input, Unit unit, String timeZone, String format, Column output) {
+        this.input = input;
+        this.unit = unit;
+        this.timeZone = timeZone;
+        this.format = format;
+        this.output = output;
+    }
+
+    public Column getInput() { return input; }
+    public Unit getUnit() { return unit; }
+    public String getTimeZone() { return timeZone; }
+    public String getFormat() { return format; }
+    public Column getOutput() { return output; }
+
+    void validate() {
+        if (input == null || output == null) {
+            throw new IllegalArgumentException("Time bucket requires input and output columns.");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("Time bucket requires 'unit' parameter, one of " + Arrays.toString(Unit.values()) + ".");
+        }
+        try {
+            zone = timeZone != null ? ZoneId.of(timeZone.trim()) : ZoneOffset.UTC;
+            labelFormatter = DateTimeFormatter.ofPattern(format != null ? format : unit.defaultFormat);
+        } catch (DateTimeException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid time bucket time zone or format: " + e.getMessage(), e);
+        }
+    }
+
+    String label(long key) {
+        return labelFormatter.format(LocalDateTime.ofEpochSecond(key, 0, ZoneOffset.UTC).atZone(zone));
+    }
+
+    public enum Unit {
+        MINUTE("yyyy-MM-dd HH:mm"), HOUR("yyyy-MM-dd HH:00"), DAY("yyyy-MM-dd"), WEEK("yyyy-MM-dd"), MONTH("yyyy-MM");
+
+        private final String defaultFormat;
+
+        Unit(String defaultFormat) {
+            this.defaultFormat = defaultFormat;
+        }
+    }
+
+    /**
+     * Time bucket keys of one aggregation run. Offset of the zone is cached until its next transition and the key
+     * of the current bucket is reused while rows stay in it, so ordered input boxes one Long per bucket.
+     */
+    static class Keys {
+        private final TimeBucket bucket;
+        private final ZoneRules rules;
+        private int offset;
+        private long offsetFrom = Long.MAX_VALUE; // Epoch seconds range of offset, empty at start
+        private long offsetUntil = Long.MIN_VALUE;
+        private long bucketStart = Long.MAX_VALUE; // Local seconds range of bucketKey, empty at start
+        private long bucketEnd = Long.MIN_VALUE;
+        private Long bucketKey;
+        private long latestLocalSecond = Long.MIN_VALUE; // Latest valid value seen (event time of windows)
+        private long invalidCount;
+        private String firstInvalid;
+
+        Keys(TimeBucket bucket) {
+            this.bucket = bucket;
+            this.rules = bucket.zone.getRules();
+        }
+
+        /** Writes bucket key of every row into the bucket output column, null for missing and invalid dates. */
+        void assign(List<Map<String, Object>> rows) {
+            ColumnSlot inputSlot = ColumnSlot.of(rows, bucket.getInput().getName());
+            ColumnSlot outputSlot = ColumnSlot.of(rows, bucket.getOutput().getName());
+            for (Map<String, Object> row : rows) {
+                if (row == null) continue;
+                outputSlot.set(row, keyOf(inputSlot.get(row)));
+            }
+        }
+
+        private Long keyOf(Object value) {
+            if (value == null) return null;
+            String text = value.toString();
+            if (text.isEmpty()) return null;
+            long epochSecond = IsoDateTimes.toEpochSecond(text);
+            if (epochSecond == IsoDateTimes.INVALID) {
+                if (invalidCount++ == 0) firstInvalid = text;
+                return null;
+            }
+            long localSecond = epochSecond + offsetAt(epochSecond);
+            latestLocalSecond = Math.max(latestLocalSecond, localSecond);
+            if (localSecond < bucketStart || localSecond >= bucketEnd) {
+                startBucket(localSecond);
+            }
+            return bucketKey;
+        }
+
+        private int offsetAt(long epochSecond) {
+            if (epochSecond < offsetFrom || epochSecond >= offsetUntil) {
+                Instant instant = Instant.ofEpochSecond(epochSecond);
+                offset = rules.getOffset(instant).getTotalSeconds();
+                ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1)); // At or before instant
+                ZoneOffsetTransition next = rules.nextTransition(instant);
+                offsetFrom = previous != null ? previous.toEpochSecond() : Long.MIN_VALUE;
+                offsetUntil = next != null ? next.toEpochSecond() : Long.MAX_VALUE;
+            }
+            return offset;
+        }
+
+        private void startBucket(long localSecond) {
+            long day = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+            switch (bucket.getUnit()) {
+                case MINUTE -> setBucket(Math.floorDiv(localSecond, 60) * 60, 60);
+                case HOUR -> setBucket(Math.floorDiv(localSecond, 3600) * 3600, 3600);
+                case DAY -> setBucket(day * SECONDS_PER_DAY, SECONDS_PER_DAY);
+                case WEEK -> setBucket((day - Math.floorMod(day + 3, 7)) * SECONDS_PER_DAY, 7 * SECONDS_PER_DAY); // 1970-01-01 was Thursday
+                case MONTH -> {
+                    LocalDate first = LocalDate.ofEpochDay(day).withDayOfMonth(1);
+                    setBucket(first.toEpochDay() * SECONDS_PER_DAY, first.lengthOfMonth() * SECONDS_PER_DAY);
+                }
+            }
+        }
+
+        /** Latest valid value seen (local seconds), Long.MIN_VALUE before the first one. */
+        long latestLocalSecond() {
+            return latestLocalSecond;
+        }
+
+        /** End (exclusive, local seconds) of the bucket starting at key. */
+        long endOf(long key) {
+            return switch (bucket.getUnit()) {
+                case MINUTE -> key + 60;
+                case HOUR -> key + 3600;
+                case DAY -> key + SECONDS_PER_DAY;
+                case WEEK -> key + 7 * SECONDS_PER_DAY;
+                case MONTH -> LocalDate.ofEpochDay(Math.floorDiv(key, SECONDS_PER_DAY)).plusMonths(1).toEpochDay() * SECONDS_PER_DAY;
+            };
+        }
+
+        private void setBucket(long start, long length) {
+            bucketStart = start;
+            bucketEnd = start + length;
+            bucketKey = start;
+        }
+
+        void reportInvalid() {
+            if (invalidCount > 0) {
+                System.err.println("Warning (Aggregator): " + invalidCount + " values of '" + bucket.getInput().getName()
+                        + "' are not dates (first '" + firstInvalid + "'), their rows are not aggregated.");
+                invalidCount = 0;
+            }
+        }
+    }
+}
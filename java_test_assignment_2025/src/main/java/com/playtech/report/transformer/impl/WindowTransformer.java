@@ -0,0 +1,342 @@
+package com.playtech.report.transformer.impl;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.report.column.Decimal;
+import com.playtech.report.row.ColumnSlot;
+import com.playtech.report.transformer.Transformer;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlIDREF;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Window functions (running SUM, moving AVG, LAG/LEAD, ROW_NUMBER) over partitions.
+ * Unlike Aggregator, rows are not collapsed: every row gets the function result in its output column.
+ * Rows are evaluated in one pass over partition-sorted data, state per function is bounded by its frame.
+ */
+public class WindowTransformer implements Transformer {
+    public static final String NAME = "Window";
+    private static final Object NULL_VALUE = new Object(); // ArrayDeque does not accept null
+
+    private final List<Column> partitionBy; // Can be empty, then whole data is one partition
+    private final Column orderBy; // Can be null, then input order is kept
+    private final OrderingTransformer.Order orderDirection;
+    private final List<WindowFunction> functions;
+    private final boolean presorted; // Input already sorted by partition and order column, sorting is skipped
+
+    public WindowTransformer(List<Column> partitionBy, Column orderBy, OrderingTransformer.Order orderDirection,
+                             List<WindowFunction> functions, boolean presorted) {
+        this.partitionBy = partitionBy != null ? partitionBy : List.of();
+        this.orderBy = orderBy;
+        this.orderDirection = orderDirection != null ? orderDirection : OrderingTransformer.Order.ASC;
+        this.functions = Objects.requireNonNull(functions, "Window functions cannot be null");
+        this.presorted = presorted;
+        if (this.functions.isEmpty()) {
+            throw new IllegalArgumentException("At least one window function is required.");
+        }
+        for (WindowFunction function : this.functions) {
+            function.validate();
+        }
+    }
+
+    public List<Column> getPartitionBy() { return partitionBy; }
+    public Column getOrderBy() { return orderBy; }
+    public List<WindowFunction> getFunctions() { return functions; }
+    public boolean isPresorted() { return presorted; }
+
+    @Override
+    public void transform(Report report, List<Map<String, Object>> rows) {
+        if (rows == null || rows.isEmpty()) {
+            System.out.println("WindowTransformer: No data rows to process.");
+            return;
+        }
+
+        // Slots are resolved once, rows are read by index
+        ColumnSlot[] partitionSlots = partitionBy.stream().map(column -> ColumnSlot.of(rows, column.getName())).toArray(ColumnSlot[]::new);
+        ColumnSlot orderSlot = orderBy != null ? ColumnSlot.of(rows, orderBy.getName()) : null;
+        if (!presorted && (partitionSlots.length > 0 || orderSlot != null)) {
+            Comparator<Map<String, Object>> comparator = partitionComparator(partitionSlots, orderSlot);
+            if (!isSorted(rows, comparator)) {
+                // Stable sort keeps input order of rows with equal keys
+                rows.sort(comparator);
+            }
+        }
+
+        System.out.println("WindowTransformer: Evaluating " + functions.size() + " window functions partitioned by "
+                + partitionBy.stream().map(Column::getName).toList()
+                + (orderBy != null ? " ordered by '" + orderBy.getName() + "' (" + orderDirection + ")" : "") + ".");
+
+        // One state per function, reset on every partition change
+        FunctionState[] states = new FunctionState[functions.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new FunctionState(functions.get(i), rows);
+        }
+
+        // Partition changes by the comparator rows are sorted with, so "1" and "1.0" are one partition
+        Map<String, Object> previousRow = null;
+        int partitions = 0;
+        for (Map<String, Object> row : rows) {
+            if (previousRow == null || !samePartition(previousRow, row, partitionSlots)) {
+                for (FunctionState state : states) {
+                    state.finishPartition();
+                }
+                partitions++;
+            }
+            previousRow = row;
+            for (FunctionState state : states) {
+                state.accept(row);
+            }
+        }
+        for (FunctionState state : states) {
+            state.finishPartition();
+        }
+        System.out.println("WindowTransformer: Evaluation complete for " + rows.size() + " rows in " + partitions + " partitions.");
+    }
+
+    private static boolean samePartition(Map<String, Object> row1, Map<String, Object> row2, ColumnSlot[] partitionSlots) {
+        for (ColumnSlot slot : partitionSlots) {
+            if (compareValues(slot.get(row1), slot.get(row2)) != 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSorted(List<Map<String, Object>> rows, Comparator<Map<String, Object>> comparator) {
+        for (int i = 1; i < rows.size(); i++) {
+            if (comparator.compare(rows.get(i - 1), rows.get(i)) > 0) return false;
+        }
+        return true;
+    }
+
+    private Comparator<Map<String, Object>> partitionComparator(ColumnSlot[] partitionSlots, ColumnSlot orderSlot) {
+        Comparator<Map<String, Object>> comparator = (row1, row2) -> 0;
+        for (ColumnSlot slot : partitionSlots) {
+            comparator = comparator.thenComparing(slot::get, WindowTransformer::compareValues);
+        }
+        if (orderSlot != null) {
+            Comparator<Object> valueComparator = WindowTransformer::compareValues;
+            if (orderDirection == OrderingTransformer.Order.DESC) {
+                valueComparator = valueComparator.reversed();
+            }
+            comparator = comparator.thenComparing(orderSlot::get, valueComparator);
+        }
+        return comparator;
+    }
+
+    /** Nulls first, numbers (or numeric strings) by value, everything else as String. */
+    private static int compareValues(Object val1, Object val2) {
+        if (val1 == null && val2 == null) return 0;
+        if (val1 == null) return -1;
+        if (val2 == null) return 1;
+        Double num1 = toDouble(val1);
+        Double num2 = toDouble(val2);
+        if (num1 != null && num2 != null) {
+            return Double.compare(num1, num2);
+        }
+        return val1.toString().compareTo(val2.toString());
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value == null) return null;
+        String strValue = value.toString().trim();
+        if (strValue.isEmpty()) return null;
+        char first = strValue.charAt(0);
+        if (first != '-' && first != '+' && first != '.' && (first < '0' || first > '9')) return null; // Cheap reject
+        try {
+            return Double.parseDouble(strValue.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Streaming state of one function in the current partition, holds at most frame (or offset) rows. */
+    private static class FunctionState {
+        private final WindowFunction function;
+        private final ColumnSlot input; // Null for ROW_NUMBER
+        private final ColumnSlot output;
+        private long rowNumber;
+        // SUM / AVG, values dropped out of a bounded frame are subtracted, so the sum is compensated (Neumaier)
+        // to keep rounding errors of long partitions from adding up. NULL_VALUE marks a missing value in frame.
+        private final ArrayDeque<Object> frame = new ArrayDeque<>();
+        private double frameSum;
+        private double frameCompensation;
+        private long frameCount;
+        // SUM / AVG of DECIMAL input: exact sums of scaled longs
+        private final boolean decimal;
+        private long unscaledSum;
+        // LAG: last `offset` input values, LEAD: rows waiting for value `offset` rows ahead
+        private final ArrayDeque<Object> lagValues = new ArrayDeque<>();
+        private final ArrayDeque<Map<String, Object>> leadRows = new ArrayDeque<>();
+
+        FunctionState(WindowFunction function, List<Map<String, Object>> rows) {
+            this.function = function;
+            this.input = function.getInput() != null ? ColumnSlot.of(rows, function.getInput().getName()) : null;
+            this.output = ColumnSlot.of(rows, function.getOutput().getName());
+            this.decimal = function.getInput() != null && function.getInput().getType() == Column.DataType.DECIMAL;
+        }
+
+        void accept(Map<String, Object> row) {
+            rowNumber++;
+            switch (function.getFunction()) {
+                case ROW_NUMBER -> output.set(row, rowNumber);
+                case SUM, AVG -> {
+                    if (decimal) {
+                        acceptDecimalAggregate(row);
+                    } else {
+                        acceptAggregate(row);
+                    }
+                }
+                case LAG -> {
+                    Object value = input.get(row); // Read before output is written, input and output can be the same column
+                    Object lagged = null;
+                    if (lagValues.size() == function.getOffset()) {
+                        Object oldest = lagValues.pollFirst();
+                        lagged = oldest == NULL_VALUE ? null : oldest;
+                    }
+                    lagValues.addLast(value != null ? value : NULL_VALUE);
+                    output.set(row, lagged);
+                }
+                case LEAD -> {
+                    leadRows.addLast(row);
+                    if (leadRows.size() > function.getOffset()) {
+                        output.set(leadRows.pollFirst(), input.get(row));
+                    }
+                }
+            }
+        }
+
+        private void acceptAggregate(Map<String, Object> row) {
+            Double value = toDouble(input.get(row)); // Not numeric values are ignored (as in Aggregator)
+            if (value != null) {
+                addToFrameSum(value);
+                frameCount++;
+            }
+            Integer preceding = function.getPreceding();
+            if (preceding != null) {
+                // Bounded frame keeps only last (preceding + 1) values, unbounded needs running totals only
+                frame.addLast(value != null ? value : NULL_VALUE);
+                if (frame.size() > preceding + 1 && frame.pollFirst() instanceof Double dropped) {
+                    addToFrameSum(-dropped);
+                    frameCount--;
+                }
+            }
+            double sum = frameSum + frameCompensation;
+            double result;
+            if (function.getFunction() == Function.SUM) {
+                result = sum;
+            } else {
+                result = frameCount == 0 ? 0.0 : sum / frameCount;
+            }
+            output.set(row, result);
+        }
+
+        private void addToFrameSum(double value) {
+            double total = frameSum + value;
+            if (Math.abs(frameSum) >= Math.abs(value)) {
+                frameCompensation += (frameSum - total) + value;
+            } else {
+                frameCompensation += (value - total) + frameSum;
+            }
+            frameSum = total;
+        }
+
+        private void acceptDecimalAggregate(Map<String, Object> row) {
+            Object value = NULL_VALUE;
+            Object rawValue = input.get(row);
+            if (rawValue != null) {
+                try {
+                    long unscaled = Decimal.unscaledOf(rawValue);
+                    unscaledSum = Math.addExact(unscaledSum, unscaled);
+                    frameCount++;
+                    value = unscaled;
+                } catch (NumberFormatException e) {
+                    // Not numeric values are ignored (as in Aggregator)
+                } catch (ArithmeticException e) {
+                    throw new ArithmeticException("DECIMAL window sum is out of range in column '" + function.getOutput().getName() + "'");
+                }
+            }
+            Integer preceding = function.getPreceding();
+            if (preceding != null) {
+                frame.addLast(value);
+                if (frame.size() > preceding + 1 && frame.pollFirst() instanceof Long dropped) {
+                    unscaledSum -= dropped;
+                    frameCount--;
+                }
+            }
+            long result;
+            if (function.getFunction() == Function.SUM) {
+                result = unscaledSum;
+            } else {
+                result = frameCount == 0 ? 0 : Decimal.divideRounded(unscaledSum, frameCount);
+            }
+            output.set(row, Decimal.ofUnscaled(result));
+        }
+
+        void finishPartition() {
+            // Rows without a following row at `offset` distance get null
+            for (Map<String, Object> row : leadRows) {
+                output.set(row, null);
+            }
+            leadRows.clear();
+            lagValues.clear();
+            frame.clear();
+            frameSum = 0.0;
+            frameCompensation = 0.0;
+            frameCount = 0;
+            unscaledSum = 0;
+            rowNumber = 0;
+        }
+    }
+
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class WindowFunction {
+        @XmlIDREF private Column input;
+        private Function function;
+        @XmlIDREF private Column output;
+        private Integer preceding; // ROWS <preceding> PRECEDING AND CURRENT ROW, unbounded if not set
+        private Integer offset; // For LAG / LEAD, default 1
+
+        private WindowFunction() {} // For JAXB
+
+        public WindowFunction(Column input, Function function, Column output, Integer preceding, Integer offset) {
+            this.input = input;
+            this.function = function;
+            this.output = output;
+            this.preceding = preceding;
+            this.offset = offset;
+        }
+
+        public Column getInput() { return input; }
+        public Function getFunction() { return function; }
+        public Column getOutput() { return output; }
+        public Integer getPreceding() { return preceding; }
+        public int getOffset() { return offset != null ? offset : 1; }
+
+        void validate() {
+            if (function == null) {
+                throw new IllegalArgumentException("Window function requires 'function' parameter.");
+            }
+            if (output == null) {
+                throw new IllegalArgumentException("Window function " + function + " requires an output column.");
+            }
+            if (function != Function.ROW_NUMBER && input == null) {
+                throw new IllegalArgumentException("Window function " + function + " requires an input column.");
+            }
+            if (preceding != null && preceding < 0) {
+                throw new IllegalArgumentException("Window frame 'preceding' cannot be negative: " + preceding);
+            }
+            if (getOffset() < 1) {
+                throw new IllegalArgumentException("Window function offset must be positive: " + offset);
+            }
+        }
+    }
+
+    public enum Function { ROW_NUMBER, SUM, AVG, LAG, LEAD }
+}
@@ -0,0 +1,336 @@
+package com.playtech.util.cache;
+
+import com.playtech.report.column.Column;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+
+/**
+ * On-disk columnar cache of a parsed CSV file.
+ * Entry is keyed by CSV path, size, modification time and declared input column types, so a changed file
+ * or report inputs never hit an old entry. Every column is stored in its own file: INTEGER/DOUBLE columns as
+ * little-endian primitives (when every value round-trips to the same text), everything else dictionary encoded.
+ * Reading memory-maps the column files into typed arrays without scanning or parsing text. Rows read from an entry
+ * are views of these columns: a primitive field is turned into its CSV text only when it is read (as fields of
+ * {@link com.playtech.util.csv.CsvRecord} are), so results equal those of text parsing.
+ */
+public class ColumnarCsvCache {
+    private static final int MAGIC = 0x50544343; // "PTCC"
+    private static final int VERSION = 1;
+    private static final String META_FILE = "meta.bin";
+
+    private static final byte ENCODING_LONG = 0;
+    private static final byte ENCODING_DOUBLE = 1;
+    private static final byte ENCODING_DICTIONARY = 2;
+
+    private final Path cacheDir;
+
+    public ColumnarCsvCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /** Parsed CSV: header names and rows of values (one list per row, in header order, read only when read from cache). */
+    public record Table(List<String> headers, List<List<Object>> rows) {}
+
+    /** Directory of cache entry for the CSV file with given declared inputs. */
+    public Path entryFor(Path csvPath, List<Column> inputs) throws IOException {
+        StringBuilder key = new StringBuilder();
+        key.append(csvPath.toAbsolutePath().normalize()).append('\n')
+                .append(Files.size(csvPath)).append('\n')
+                .append(Files.getLastModifiedTime(csvPath).toMillis()).append('\n');
+        if (inputs != null) {
+            for (Column input : inputs) {
+                key.append(input.getName()).append(':').append(input.getType()).append('\n');
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return cacheDir.resolve(HexFormat.of().formatHex(digest, 0, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** Reads entry if it exists, returns null on cache miss. */
+    public Table read(Path entry) throws IOException {
+        Path metaPath = entry.resolve(META_FILE);
+        if (!Files.isRegularFile(metaPath)) {
+            return null;
+        }
+        List<String> headers = new ArrayList<>();
+        byte[] encodings;
+        int rowCount;
+        try (DataInputStream meta = new DataInputStream(Files.newInputStream(metaPath))) {
+            if (meta.readInt() != MAGIC || meta.readInt() != VERSION) {
+                return null; // Written by other version, rebuilt by caller
+            }
+            rowCount = meta.readInt();
+            int columnCount = meta.readInt();
+            encodings = new byte[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                headers.add(meta.readUTF());
+                encodings[i] = meta.readByte();
+            }
+        }
+
+        // Column-wise decoding into typed arrays: long[], double[] or String[] (same instance for same value)
+        Object[] columns = new Object[headers.size()];
+        for (int column = 0; column < headers.size(); column++) {
+            ByteBuffer data = map(entry.resolve(columnFile(column)));
+            switch (encodings[column]) {
+                case ENCODING_LONG -> {
+                    long[] values = new long[rowCount];
+                    data.asLongBuffer().get(values);
+                    columns[column] = values;
+                }
+                case ENCODING_DOUBLE -> {
+                    double[] values = new double[rowCount];
+                    data.asDoubleBuffer().get(values);
+                    columns[column] = values;
+                }
+                case ENCODING_DICTIONARY -> {
+                    String[] dictionary = readDictionary(map(entry.resolve(dictionaryFile(column))));
+                    String[] values = new String[rowCount];
+                    for (int row = 0; row < rowCount; row++) {
+                        values[row] = dictionary[data.getInt()];
+                    }
+                    columns[column] = values;
+                }
+                default -> throw new IOException("Unknown column encoding " + encodings[column] + " in cache entry " + entry);
+            }
+        }
+        List<List<Object>> rows = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            rows.add(new CachedRow(columns, row));
+        }
+        return new Table(headers, rows);
+    }
+
+    /** Row of a read entry, a primitive field is formatted to its CSV text when it is read. Immutable. */
+    private static final class CachedRow extends AbstractList<Object> implements RandomAccess {
+        private final Object[] columns;
+        private final int row;
+
+        CachedRow(Object[] columns, int row) {
+            this.columns = columns;
+            this.row = row;
+        }
+
+        @Override
+        public Object get(int column) {
+            Object values = columns[column];
+            if (values instanceof long[] longs) return Long.toString(longs[row]);
+            if (values instanceof double[] doubles) return Double.toString(doubles[row]);
+            return ((String[]) values)[row];
+        }
+
+        @Override
+        public int size() {
+            return columns.length;
+        }
+    }
+
+    /**
+     * Writes entry for the parsed table. Entry is written to a temporary directory and renamed,
+     * so concurrent runs never see a partially written entry.
+     */
+    public void write(Path entry, Table table, List<Column> inputs) throws IOException {
+        Files.createDirectories(cacheDir);
+        Path tempDir = Files.createTempDirectory(cacheDir, entry.getFileName() + ".tmp");
+        try {
+            Map<String, Column.DataType> types = new HashMap<>();
+            if (inputs != null) {
+                inputs.forEach(input -> types.put(input.getName(), input.getType()));
+            }
+            List<String> headers = table.headers();
+            // Rows with inconsistent column count are skipped by conversion anyway, runs served from the entry
+            // do not see them at all
+            List<List<Object>> rows = table.rows().stream()
+                    .filter(row -> row != null && row.size() == headers.size())
+                    .toList();
+            if (rows.size() < table.rows().size()) {
+                System.err.println("Warning (columnar cache): " + (table.rows().size() - rows.size())
+                        + " rows of inconsistent column count are not stored in cache entry " + entry + ".");
+            }
+            byte[] encodings = new byte[headers.size()];
+            for (int column = 0; column < headers.size(); column++) {
+                encodings[column] = chooseEncoding(rows, column, types.get(headers.get(column)));
+                writeColumn(tempDir, rows, column, encodings[column]);
+            }
+            try (DataOutputStream meta = new DataOutputStream(Files.newOutputStream(tempDir.resolve(META_FILE)))) {
+                meta.writeInt(MAGIC);
+                meta.writeInt(VERSION);
+                meta.writeInt(rows.size());
+                meta.writeInt(headers.size());
+                for (int column = 0; column < headers.size(); column++) {
+                    meta.writeUTF(headers.get(column));
+                    meta.writeByte(encodings[column]);
+                }
+            }
+            if (Files.isDirectory(entry) && !isCurrent(entry)) {
+                deleteRecursively(entry); // Written by other version, replaced
+            }
+            try {
+                Files.move(tempDir, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                deleteRecursively(tempDir); // Entries are never published half written, so not cached at all
+            } catch (FileSystemException e) {
+                // Renaming onto an existing (non empty) directory fails with DirectoryNotEmptyException or another
+                // FileSystemException: other run was faster, its entry is equal to ours
+                if (!Files.isDirectory(entry)) {
+                    throw e;
+                }
+                deleteRecursively(tempDir);
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteRecursively(tempDir);
+            throw e;
+        }
+    }
+
+    private static boolean isCurrent(Path entry) {
+        try (DataInputStream meta = new DataInputStream(Files.newInputStream(entry.resolve(META_FILE)))) {
+            return meta.readInt() == MAGIC && meta.readInt() == VERSION;
+        } catch (IOException e) {
+            return false; // Partially deleted or not readable
+        }
+    }
+
+    /** Primitive encoding only when text form of every value is reproduced exactly, otherwise dictionary. */
+    private static byte chooseEncoding(List<List<Object>> rows, int column, Column.DataType type) {
+        if (type != Column.DataType.INTEGER && type != Column.DataType.DOUBLE) {
+            return ENCODING_DICTIONARY;
+        }
+        try {
+            for (List<Object> row : rows) {
+                String value = String.valueOf(row.get(column));
+                String roundTrip = type == Column.DataType.INTEGER
+                        ? Long.toString(Long.parseLong(value))
+                        : Double.toString(Double.parseDouble(value));
+                if (!roundTrip.equals(value)) {
+                    return ENCODING_DICTIONARY;
+                }
+            }
+            return type == Column.DataType.INTEGER ? ENCODING_LONG : ENCODING_DOUBLE;
+        } catch (NumberFormatException e) {
+            return ENCODING_DICTIONARY;
+        }
+    }
+
+    private static void writeColumn(Path dir, List<List<Object>> rows, int column, byte encoding) throws IOException {
+        int width = encoding == ENCODING_DICTIONARY ? Integer.BYTES : Long.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(dir.resolve(columnFile(column)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (List<Object> row : rows) {
+                if (buffer.remaining() < width) {
+                    flush(buffer, channel);
+                }
+                String value = String.valueOf(row.get(column));
+                switch (encoding) {
+                    case ENCODING_LONG -> buffer.putLong(Long.parseLong(value));
+                    case ENCODING_DOUBLE -> buffer.putDouble(Double.parseDouble(value));
+                    default -> buffer.putInt(codes.computeIfAbsent(value, v -> {
+                        dictionary.add(v);
+                        return dictionary.size() - 1;
+                    }));
+                }
+            }
+            flush(buffer, channel);
+        }
+        if (encoding == ENCODING_DICTIONARY) {
+            writeDictionary(dir.resolve(dictionaryFile(column)), dictionary);
+        }
+    }
+
+    // Dictionary file: int count, then per entry int byte length + UTF-8 bytes (little-endian)
+    private static void writeDictionary(Path path, List<String> dictionary) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            buffer.putInt(dictionary.size());
+            for (String value : dictionary) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                    flush(buffer, channel);
+                    if (buffer.capacity() < Integer.BYTES + bytes.length) {
+                        buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+                    }
+                }
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            flush(buffer, channel);
+        }
+    }
+
+    private static String[] readDictionary(ByteBuffer data) {
+        String[] dictionary = new String[data.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] bytes = new byte[data.getInt()];
+            data.get(bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return dictionary;
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private static String columnFile(int column) {
+        return "col-" + column + ".bin";
+    }
+
+    private static String dictionaryFile(int column) {
+        return "col-" + column + ".dict";
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignored) {
+                    // Best effort cleanup of temporary files
+                }
+            });
+        } catch (IOException ignored) {
+            // Nothing to clean up
+        }
+    }
+}
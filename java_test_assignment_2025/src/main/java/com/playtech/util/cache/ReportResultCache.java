@@ -0,0 +1,181 @@
+package com.playtech.util.cache;
+
+import com.playtech.util.io.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Content addressed cache of generated report files.
+ * Key combines fingerprints of the files a report reads (size, modification time and a hash of sampled blocks)
+ * with the canonical form of the report configuration, so an unchanged report of an unchanged input is served
+ * by copying the cached file ({@link FileChannel#transferTo}, no copy through Java heap).
+ * Entries are evicted least recently used first (last use is kept as file modification time) when the
+ * cache grows over its size budget.
+ */
+public class ReportResultCache {
+    public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+    private static final String ENTRY_SUFFIX = ".result";
+    private static final int SAMPLE_COUNT = 16;
+    private static final int SAMPLE_SIZE = 4 * 1024;
+
+    private final Path cacheDir;
+    private final long maxBytes;
+
+    public ReportResultCache(Path cacheDir, long maxBytes) {
+        this.cacheDir = cacheDir;
+        this.maxBytes = maxBytes;
+    }
+
+    /** Cache key of report output: fingerprints of all files the report reads and its canonical configuration. */
+    public String keyFor(List<Path> files, String configuration) throws IOException {
+        MessageDigest digest = sha256();
+        for (Path file : files) {
+            digest.update(fingerprint(file).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        digest.update(configuration.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    /**
+     * Fast fingerprint: size, modification time and hash of {@value #SAMPLE_COUNT} blocks spread over the file
+     * (first and last block included). Small files are hashed completely.
+     */
+    public static String fingerprint(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer block = ByteBuffer.allocate(SAMPLE_SIZE);
+            if (size <= (long) SAMPLE_COUNT * SAMPLE_SIZE) {
+                readFully(channel, 0, size, block, digest);
+            } else {
+                long step = (size - SAMPLE_SIZE) / (SAMPLE_COUNT - 1);
+                for (int i = 0; i < SAMPLE_COUNT; i++) {
+                    readFully(channel, i * step, SAMPLE_SIZE, block, digest);
+                }
+            }
+            return file.toAbsolutePath().normalize() + ":" + size + ":" + Files.getLastModifiedTime(file).toMillis()
+                    + ":" + HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    private static void readFully(FileChannel channel, long position, long length, ByteBuffer block, MessageDigest digest) throws IOException {
+        long end = position + length;
+        while (position < end) {
+            block.clear().limit((int) Math.min(block.capacity(), end - position));
+            int read = channel.read(block, position);
+            if (read < 0) break; // File was truncated meanwhile, fingerprint differs anyway
+            position += read;
+            digest.update(block.flip());
+        }
+    }
+
+    /** Copies cached result of key to outputPath (through a temporary file), returns false on cache miss. */
+    public boolean serve(String key, Path outputPath) throws IOException {
+        Path entry = cacheDir.resolve(key + ENTRY_SUFFIX);
+        Path tempFile = AtomicFiles.tempSibling(outputPath);
+        try {
+            try (FileChannel source = FileChannel.open(entry, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                transfer(source, target);
+            } catch (NoSuchFileException e) {
+                if (Files.exists(entry)) throw e; // Output directory is missing, not a cache miss
+                return false;
+            }
+            AtomicFiles.commit(tempFile, outputPath);
+        } finally {
+            AtomicFiles.deleteQuietly(tempFile);
+        }
+        touch(entry);
+        return true;
+    }
+
+    /** Stores generated output under key (written to a temporary file and renamed), then evicts old entries. */
+    public void store(String key, Path outputPath) throws IOException {
+        long size = Files.size(outputPath);
+        if (size > maxBytes) {
+            System.out.println("ReportResultCache: Output of " + size + " bytes exceeds cache size, not cached.");
+            return;
+        }
+        Files.createDirectories(cacheDir);
+        Path entry = cacheDir.resolve(key + ENTRY_SUFFIX);
+        Path tempFile = Files.createTempFile(cacheDir, key, ".tmp");
+        try {
+            try (FileChannel source = FileChannel.open(outputPath, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                transfer(source, target);
+            }
+            AtomicFiles.commit(tempFile, entry);
+        } finally {
+            AtomicFiles.deleteQuietly(tempFile);
+        }
+        evict(entry);
+    }
+
+    private static void transfer(FileChannel source, FileChannel target) throws IOException {
+        long size = source.size();
+        long position = 0;
+        while (position < size) {
+            position += source.transferTo(position, size - position, target);
+        }
+    }
+
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+        } catch (IOException ignored) {
+            // Entry was evicted meanwhile, it is only used for eviction order
+        }
+    }
+
+    /** Deletes least recently used entries until cache fits into its budget, the just stored entry is kept. */
+    private void evict(Path keep) throws IOException {
+        record Entry(Path path, long size, long lastUsed) {}
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(ENTRY_SUFFIX)) continue;
+                try {
+                    Entry entry = new Entry(file, Files.size(file), Files.getLastModifiedTime(file).toMillis());
+                    entries.add(entry);
+                    total += entry.size();
+                } catch (NoSuchFileException ignored) {
+                    // Evicted by a concurrent run
+                }
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::lastUsed));
+        for (Entry entry : entries) {
+            if (total <= maxBytes) break;
+            if (entry.path().equals(keep)) continue;
+            Files.deleteIfExists(entry.path());
+            total -= entry.size();
+            System.out.println("ReportResultCache: Evicted " + entry.path().getFileName() + " (" + entry.size() + " bytes).");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
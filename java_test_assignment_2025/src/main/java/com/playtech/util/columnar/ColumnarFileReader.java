@@ -0,0 +1,275 @@
+package com.playtech.util.columnar;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.column.Decimal;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads files written by ColumnarFileWriter. The file is memory mapped, footer is read first
+ * and only chunks of requested columns are decoded. Values come back as Long, Double or String.
+ */
+public class ColumnarFileReader implements Closeable {
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final List<String> columns = new ArrayList<>();
+    private final List<Column.DataType> types = new ArrayList<>();
+    private final long[] rowGroupOffsets;
+    private final int[] rowGroupRowCounts;
+
+    /** Statistics of one column chunk, min and max are null when chunk has only nulls. */
+    public record ChunkStatistics(int rowCount, int valueCount, Object min, Object max) {}
+
+    public ColumnarFileReader(Path path) throws IOException {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Columnar file is too large to map: " + path);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays valid after close
+        }
+        int size = buffer.capacity();
+        if (size < 16 || buffer.getInt(0) != ColumnarFormat.MAGIC || buffer.getInt(size - 4) != ColumnarFormat.MAGIC) {
+            throw new IOException("Not a columnar report file: " + path);
+        }
+        if (buffer.getInt(4) != ColumnarFormat.VERSION) {
+            throw new IOException("Unsupported columnar file version " + buffer.getInt(4) + ": " + path);
+        }
+        int footerLength = buffer.getInt(size - 8);
+        DataInputStream footer = new DataInputStream(new ByteArrayInputStream(slice(size - 8 - footerLength, footerLength)));
+        int columnCount = footer.readInt();
+        for (int c = 0; c < columnCount; c++) {
+            columns.add(footer.readUTF());
+            String type = footer.readUTF();
+            types.add(type.isEmpty() ? null : Column.DataType.valueOf(type));
+        }
+        int rowGroupCount = footer.readInt();
+        rowGroupOffsets = new long[rowGroupCount];
+        rowGroupRowCounts = new int[rowGroupCount];
+        for (int g = 0; g < rowGroupCount; g++) {
+            rowGroupOffsets[g] = footer.readLong();
+            rowGroupRowCounts[g] = footer.readInt();
+        }
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /** Declared column types, null for columns written without one. */
+    public List<Column.DataType> getTypes() {
+        return types;
+    }
+
+    public int getRowGroupCount() {
+        return rowGroupOffsets.length;
+    }
+
+    public long getRowCount() {
+        long rows = 0;
+        for (int count : rowGroupRowCounts) rows += count;
+        return rows;
+    }
+
+    /** Reads all columns. */
+    public List<List<Object>> readRows() throws IOException {
+        return readRows(columns);
+    }
+
+    /** Reads only given columns (in given order), chunks of other columns are skipped without decoding. */
+    public List<List<Object>> readRows(Collection<String> selectedColumns) throws IOException {
+        int[] selected = columnIndexes(selectedColumns);
+        List<List<Object>> rows = new ArrayList<>((int) getRowCount());
+        for (int g = 0; g < rowGroupOffsets.length; g++) {
+            Object[][] values = new Object[selected.length][];
+            int position = (int) rowGroupOffsets[g];
+            for (int c = 0, s; c < columns.size(); c++) {
+                ChunkHeader header = readHeader(position);
+                if ((s = indexOf(selected, c)) >= 0) {
+                    values[s] = decode(header, rowGroupRowCounts[g]);
+                }
+                position = header.payloadStart + header.storedLength;
+            }
+            for (int r = 0; r < rowGroupRowCounts[g]; r++) {
+                Object[] row = new Object[selected.length];
+                for (int s = 0; s < selected.length; s++) {
+                    row[s] = values[s][r];
+                }
+                rows.add(new ArrayList<>(Arrays.asList(row)));
+            }
+        }
+        return rows;
+    }
+
+    /** Min and max of a column in a row group, read from chunk header only. */
+    public ChunkStatistics statistics(int rowGroup, String column) throws IOException {
+        int target = columnIndexes(List.of(column))[0];
+        int position = (int) rowGroupOffsets[rowGroup];
+        for (int c = 0; ; c++) {
+            ChunkHeader header = readHeader(position);
+            if (c == target) {
+                return new ChunkStatistics(rowGroupRowCounts[rowGroup], header.valueCount, header.min, header.max);
+            }
+            position = header.payloadStart + header.storedLength;
+        }
+    }
+
+    private int[] columnIndexes(Collection<String> names) throws IOException {
+        int[] indexes = new int[names.size()];
+        int i = 0;
+        for (String name : names) {
+            int index = columns.indexOf(name);
+            if (index < 0) {
+                throw new IOException("Column '" + name + "' is not present in " + path);
+            }
+            indexes[i++] = index;
+        }
+        return indexes;
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private record ChunkHeader(byte encoding, ColumnarFormat.Codec codec, boolean hasNulls, int valueCount,
+                               Object min, Object max, int rawLength, int payloadStart, int storedLength) {}
+
+    private ChunkHeader readHeader(int position) throws IOException {
+        ByteBuffer in = buffer.duplicate().position(position);
+        byte encoding = in.get();
+        ColumnarFormat.Codec codec = ColumnarFormat.Codec.values()[in.get()];
+        boolean hasNulls = in.get() != 0;
+        int valueCount = in.getInt();
+        Object min = null;
+        Object max = null;
+        if (valueCount > 0) {
+            switch (encoding) {
+                case ColumnarFormat.ENCODING_INT64 -> {
+                    min = in.getLong();
+                    max = in.getLong();
+                }
+                case ColumnarFormat.ENCODING_FLOAT64 -> {
+                    min = in.getDouble();
+                    max = in.getDouble();
+                }
+                case ColumnarFormat.ENCODING_DECIMAL -> {
+                    min = Decimal.ofUnscaled(in.getLong());
+                    max = Decimal.ofUnscaled(in.getLong());
+                }
+                case ColumnarFormat.ENCODING_STRING_PLAIN, ColumnarFormat.ENCODING_STRING_DICTIONARY_RLE -> {
+                    min = readString(in);
+                    max = readString(in);
+                }
+                default -> throw new IOException("Unknown chunk encoding " + encoding + " in " + path);
+            }
+        }
+        int rawLength = in.getInt();
+        int storedLength = in.getInt();
+        return new ChunkHeader(encoding, codec, hasNulls, valueCount, min, max, rawLength, in.position(), storedLength);
+    }
+
+    private Object[] decode(ChunkHeader header, int rowCount) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(header.codec == ColumnarFormat.Codec.DEFLATE
+                ? inflate(slice(header.payloadStart, header.storedLength), header.rawLength)
+                : slice(header.payloadStart, header.storedLength));
+        byte[] nullBitmap = null;
+        if (header.hasNulls) {
+            nullBitmap = new byte[(rowCount + 7) / 8];
+            in.get(nullBitmap);
+        }
+
+        Object[] values = new Object[header.valueCount];
+        switch (header.encoding) {
+            case ColumnarFormat.ENCODING_INT64 -> {
+                for (int i = 0; i < values.length; i++) values[i] = in.getLong();
+            }
+            case ColumnarFormat.ENCODING_FLOAT64 -> {
+                for (int i = 0; i < values.length; i++) values[i] = in.getDouble();
+            }
+            case ColumnarFormat.ENCODING_DECIMAL -> {
+                for (int i = 0; i < values.length; i++) values[i] = Decimal.ofUnscaled(in.getLong());
+            }
+            case ColumnarFormat.ENCODING_STRING_PLAIN -> {
+                for (int i = 0; i < values.length; i++) values[i] = readString(in);
+            }
+            case ColumnarFormat.ENCODING_STRING_DICTIONARY_RLE -> {
+                String[] dictionary = new String[readVarInt(in)];
+                for (int i = 0; i < dictionary.length; i++) dictionary[i] = readString(in);
+                int i = 0;
+                while (i < values.length) {
+                    int run = readVarInt(in);
+                    String value = dictionary[readVarInt(in)];
+                    Arrays.fill(values, i, i + run, value);
+                    i += run;
+                }
+            }
+            default -> throw new IOException("Unknown chunk encoding " + header.encoding + " in " + path);
+        }
+        if (nullBitmap == null) return values;
+
+        // Spreading values over rows, null bits mark missing values
+        Object[] rows = new Object[rowCount];
+        for (int r = 0, v = 0; r < rowCount; r++) {
+            if ((nullBitmap[r >>> 3] & (1 << (r & 7))) == 0) {
+                rows[r] = values[v++];
+            }
+        }
+        return rows;
+    }
+
+    private byte[] slice(int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return bytes;
+    }
+
+    private static byte[] inflate(byte[] stored, int rawLength) throws IOException {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(stored))) {
+            byte[] raw = in.readNBytes(rawLength);
+            if (raw.length != rawLength) {
+                throw new IOException("Truncated compressed chunk");
+            }
+            return raw;
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    @Override
+    public void close() {
+        // Mapping is released by GC, nothing to close explicitly
+    }
+}
@@ -0,0 +1,377 @@
+package com.playtech.util.columnar;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.column.Decimal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes rows column by column into row groups (see ColumnarFormat for the layout).
+ * Chunk encoding follows the declared column type: INTEGER as int64, DOUBLE as float64, everything else as strings.
+ * When a chunk has a value that does not fit the declared type (e.g. formatted "12.50 EUR" in a DOUBLE column)
+ * the chunk falls back to strings, so no value is lost. Columns without declared type are typed by their values.
+ */
+public class ColumnarFileWriter implements Closeable {
+    private final CountingOutputStream counter;
+    private final DataOutputStream out;
+    private final List<String> columns;
+    private final List<Column.DataType> types; // null entry = not declared
+    private final ColumnarFormat.Codec codec;
+    private final int rowGroupSize;
+    private final Object[][] buffer; // [column][row] of the current row group
+    private final List<long[]> rowGroups = new ArrayList<>(); // {offset, rowCount}
+    private int bufferedRows;
+    private boolean closed;
+
+    public ColumnarFileWriter(OutputStream outputStream, List<String> columns, List<Column.DataType> types,
+                              ColumnarFormat.Codec codec, int rowGroupSize) throws IOException {
+        if (columns.size() != types.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " column types, got " + types.size());
+        }
+        this.counter = new CountingOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+        this.out = new DataOutputStream(counter);
+        this.columns = List.copyOf(columns);
+        this.types = new ArrayList<>(types);
+        this.codec = codec != null ? codec : ColumnarFormat.Codec.NONE;
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+        this.buffer = new Object[columns.size()][this.rowGroupSize];
+        out.writeInt(ColumnarFormat.MAGIC);
+        out.writeInt(ColumnarFormat.VERSION);
+    }
+
+    /** Values are taken by column name, missing ones are written as null. */
+    public void write(Map<String, Object> row) throws IOException {
+        for (int c = 0; c < columns.size(); c++) {
+            buffer[c][bufferedRows] = row.get(columns.get(c));
+        }
+        rowAdded();
+    }
+
+    /** Values in column order. */
+    public void write(Object[] values) throws IOException {
+        for (int c = 0; c < columns.size(); c++) {
+            buffer[c][bufferedRows] = values[c];
+        }
+        rowAdded();
+    }
+
+    private void rowAdded() throws IOException {
+        if (++bufferedRows == rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (bufferedRows == 0) return;
+        rowGroups.add(new long[]{counter.count, bufferedRows});
+        for (int c = 0; c < columns.size(); c++) {
+            writeChunk(buffer[c], bufferedRows, types.get(c));
+            Arrays.fill(buffer[c], 0, bufferedRows, null);
+        }
+        bufferedRows = 0;
+    }
+
+    private void writeChunk(Object[] values, int rowCount, Column.DataType type) throws IOException {
+        byte encoding = chooseEncoding(values, rowCount, type);
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+
+        int valueCount = 0;
+        byte[] nullBitmap = new byte[(rowCount + 7) / 8];
+        for (int i = 0; i < rowCount; i++) {
+            if (values[i] == null) {
+                nullBitmap[i >>> 3] |= (byte) (1 << (i & 7));
+            } else {
+                valueCount++;
+            }
+        }
+        boolean hasNulls = valueCount < rowCount;
+        if (hasNulls) {
+            payload.write(nullBitmap);
+        }
+
+        // Header and statistics are written uncompressed, so readers can skip chunks without inflating them
+        ByteArrayOutputStream statisticsBytes = new ByteArrayOutputStream();
+        DataOutputStream statistics = new DataOutputStream(statisticsBytes);
+        switch (encoding) {
+            case ColumnarFormat.ENCODING_INT64 -> writeLongs(values, rowCount, payload, statistics, valueCount);
+            case ColumnarFormat.ENCODING_FLOAT64 -> writeDoubles(values, rowCount, payload, statistics, valueCount);
+            case ColumnarFormat.ENCODING_DECIMAL -> writeDecimals(values, rowCount, payload, statistics, valueCount);
+            default -> encoding = writeStrings(values, rowCount, payload, statistics, valueCount);
+        }
+        payload.flush();
+        byte[] raw = payloadBytes.toByteArray();
+        byte[] stored = codec == ColumnarFormat.Codec.DEFLATE ? deflate(raw) : raw;
+
+        out.writeByte(encoding);
+        out.writeByte(codec.ordinal());
+        out.writeBoolean(hasNulls);
+        out.writeInt(valueCount);
+        statistics.flush();
+        statisticsBytes.writeTo(out);
+        out.writeInt(raw.length);
+        out.writeInt(stored.length);
+        out.write(stored);
+    }
+
+    private static byte chooseEncoding(Object[] values, int rowCount, Column.DataType type) {
+        if (type == Column.DataType.INTEGER) {
+            return allMatch(values, rowCount, ColumnarFileWriter::toLong) ? ColumnarFormat.ENCODING_INT64 : ColumnarFormat.ENCODING_STRING_PLAIN;
+        }
+        if (type == Column.DataType.DOUBLE) {
+            return allMatch(values, rowCount, ColumnarFileWriter::toDouble) ? ColumnarFormat.ENCODING_FLOAT64 : ColumnarFormat.ENCODING_STRING_PLAIN;
+        }
+        if (type == Column.DataType.DECIMAL) {
+            return allMatch(values, rowCount, ColumnarFileWriter::toUnscaled) ? ColumnarFormat.ENCODING_DECIMAL : ColumnarFormat.ENCODING_STRING_PLAIN;
+        }
+        if (type != null) {
+            return ColumnarFormat.ENCODING_STRING_PLAIN; // STRING, DATE and DATETIME keep their text
+        }
+        // Not declared, typed by Java values only (strings stay strings)
+        boolean allIntegral = true;
+        boolean allDecimals = true;
+        boolean allNumbers = true;
+        for (int i = 0; i < rowCount; i++) {
+            Object value = values[i];
+            if (value == null) continue;
+            if (!(value instanceof Number)) {
+                allNumbers = false;
+                break;
+            }
+            allIntegral &= isIntegral(value);
+            allDecimals &= value instanceof Decimal;
+        }
+        if (allNumbers && allIntegral) return ColumnarFormat.ENCODING_INT64;
+        if (allNumbers && allDecimals) return ColumnarFormat.ENCODING_DECIMAL;
+        return allNumbers ? ColumnarFormat.ENCODING_FLOAT64 : ColumnarFormat.ENCODING_STRING_PLAIN;
+    }
+
+    private static boolean allMatch(Object[] values, int rowCount, Function<Object, ?> converter) {
+        for (int i = 0; i < rowCount; i++) {
+            if (values[i] != null && converter.apply(values[i]) == null) return false;
+        }
+        return true;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    /** Long value or null when value is not an integer. */
+    private static Long toLong(Object value) {
+        if (isIntegral(value)) return ((Number) value).longValue();
+        if (value instanceof String text) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /** Double value or null when value is not a number. */
+    private static Double toDouble(Object value) {
+        if (value instanceof Number number) return number.doubleValue();
+        if (value instanceof String text) {
+            try {
+                return Double.parseDouble(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /** Scaled DECIMAL value or null when value is not a DECIMAL with at most 2 fraction digits. */
+    private static Long toUnscaled(Object value) {
+        try {
+            return Decimal.unscaledOf(value);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static void writeLongs(Object[] values, int rowCount, DataOutputStream payload, DataOutputStream statistics, int valueCount) throws IOException {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < rowCount; i++) {
+            if (values[i] == null) continue;
+            long value = toLong(values[i]);
+            payload.writeLong(value);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (valueCount > 0) {
+            statistics.writeLong(min);
+            statistics.writeLong(max);
+        }
+    }
+
+    private static void writeDecimals(Object[] values, int rowCount, DataOutputStream payload, DataOutputStream statistics, int valueCount) throws IOException {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < rowCount; i++) {
+            if (values[i] == null) continue;
+            long value = Decimal.unscaledOf(values[i]);
+            payload.writeLong(value);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (valueCount > 0) {
+            statistics.writeLong(min);
+            statistics.writeLong(max);
+        }
+    }
+
+    private static void writeDoubles(Object[] values, int rowCount, DataOutputStream payload, DataOutputStream statistics, int valueCount) throws IOException {
+        double min = Double.NaN;
+        double max = Double.NaN;
+        for (int i = 0; i < rowCount; i++) {
+            if (values[i] == null) continue;
+            double value = toDouble(values[i]);
+            payload.writeDouble(value);
+            if (!Double.isNaN(value)) { // NaN does not take part in statistics
+                min = Double.isNaN(min) ? value : Math.min(min, value);
+                max = Double.isNaN(max) ? value : Math.max(max, value);
+            }
+        }
+        if (valueCount > 0) {
+            statistics.writeDouble(min);
+            statistics.writeDouble(max);
+        }
+    }
+
+    /** Dictionary with run length encoded codes when values repeat, plain strings otherwise. Returns the encoding used. */
+    private static byte writeStrings(Object[] values, int rowCount, DataOutputStream payload, DataOutputStream statistics, int valueCount) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        int[] codes = new int[valueCount];
+        String min = null;
+        String max = null;
+        int n = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (values[i] == null) continue;
+            String value = values[i].toString();
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = entries.size();
+                dictionary.put(value, code);
+                entries.add(value);
+                if (min == null || value.compareTo(min) < 0) min = value;
+                if (max == null || value.compareTo(max) > 0) max = value;
+            }
+            codes[n++] = code;
+        }
+        if (valueCount > 0) {
+            writeString(statistics, min);
+            writeString(statistics, max);
+        }
+
+        if (entries.size() > valueCount / 2) {
+            for (int i = 0; i < valueCount; i++) {
+                writeString(payload, entries.get(codes[i]));
+            }
+            return ColumnarFormat.ENCODING_STRING_PLAIN;
+        }
+        writeVarInt(payload, entries.size());
+        for (String entry : entries) {
+            writeString(payload, entry);
+        }
+        int i = 0;
+        while (i < valueCount) {
+            int run = 1;
+            while (i + run < valueCount && codes[i + run] == codes[i]) run++;
+            writeVarInt(payload, run);
+            writeVarInt(payload, codes[i]);
+            i += run;
+        }
+        return ColumnarFormat.ENCODING_STRING_DICTIONARY_RLE;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static byte[] deflate(byte[] raw) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 16);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(compressed, deflater)) {
+            deflaterOut.write(raw);
+        } finally {
+            deflater.end();
+        }
+        return compressed.toByteArray();
+    }
+
+    /** Flushes last row group and writes footer with schema and row group offsets. */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            flushRowGroup();
+            long footerStart = counter.count;
+            out.writeInt(columns.size());
+            for (int c = 0; c < columns.size(); c++) {
+                out.writeUTF(columns.get(c));
+                out.writeUTF(types.get(c) != null ? types.get(c).name() : "");
+            }
+            out.writeInt(rowGroups.size());
+            for (long[] rowGroup : rowGroups) {
+                out.writeLong(rowGroup[0]);
+                out.writeInt((int) rowGroup[1]);
+            }
+            out.writeInt((int) (counter.count - footerStart));
+            out.writeInt(ColumnarFormat.MAGIC);
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Keeps file position for row group offsets. */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.playtech.util.columnar;
+
+/**
+ * Layout of the columnar report file (".pcol").
+ * <pre>
+ * file      := MAGIC VERSION rowGroup* footer footerLength:int MAGIC
+ * rowGroup  := columnChunk* (one per column, in schema order)
+ * chunk     := encoding:byte codec:byte hasNulls:byte statistics uncompressedLength:int storedLength:int payload
+ * payload   := [null bitmap, 1 bit per row] values (possibly deflated as a whole)
+ * footer    := columnCount:int (name:UTF type:UTF)* rowGroupCount:int (offset:long rowCount:int)*
+ * </pre>
+ * All numbers are big-endian (java.io.DataOutput). Statistics hold min and max of the chunk non-null values.
+ */
+public final class ColumnarFormat {
+    public static final int MAGIC = 0x5054434C; // "PTCL"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".pcol";
+    public static final int DEFAULT_ROW_GROUP_SIZE = 64 * 1024;
+
+    /** Value encoding of one chunk. */
+    static final byte ENCODING_INT64 = 0;
+    static final byte ENCODING_FLOAT64 = 1;
+    static final byte ENCODING_STRING_PLAIN = 2;
+    static final byte ENCODING_STRING_DICTIONARY_RLE = 3; // Dictionary + run length encoded codes
+    static final byte ENCODING_DECIMAL = 4; // Scaled longs (cents), read back as Decimal
+
+    /** Compression of chunk payloads. */
+    public enum Codec { NONE, DEFLATE }
+
+    private ColumnarFormat() {
+    }
+}
@@ -0,0 +1,73 @@
+package com.playtech.util.csv;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads single fields of a CSV line by column name without splitting the whole line.
+ * Delimiters are scanned only up to the requested field, extracted values are cached until next {@link #reset(String)}.
+ * One instance is reused for all lines of a file (not thread safe).
+ */
+public class CsvFieldReader implements Function<String, Object> {
+    private static final char DELIMITER = ',';
+
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
+    private final int[] fieldStarts; // Start offset of field i
+    private final String[] values;
+    private final boolean[] extracted;
+    private String line;
+    private int scannedFields; // Number of field starts already known
+
+    public CsvFieldReader(List<String> headers) {
+        for (int i = 0; i < headers.size(); i++) {
+            columnIndexes.putIfAbsent(headers.get(i), i);
+        }
+        this.fieldStarts = new int[headers.size()];
+        this.values = new String[headers.size()];
+        this.extracted = new boolean[headers.size()];
+    }
+
+    /** Switches reader to the next line. */
+    public void reset(String line) {
+        this.line = line;
+        this.fieldStarts[0] = 0;
+        this.scannedFields = 1;
+        Arrays.fill(extracted, false);
+    }
+
+    /** Value of the column in current line, null if column is unknown or line has fewer fields. */
+    @Override
+    public Object apply(String columnName) {
+        Integer index = columnIndexes.get(columnName);
+        if (index == null) return null;
+        return get(index);
+    }
+
+    public String get(int index) {
+        if (extracted[index]) return values[index];
+        if (!scanTo(index + 1)) return null;
+        int start = fieldStarts[index];
+        int end = line.indexOf(DELIMITER, start);
+        values[index] = line.substring(start, end < 0 ? line.length() : end);
+        extracted[index] = true;
+        return values[index];
+    }
+
+    // Makes sure start offsets of fields [0, fieldCount) are known
+    private boolean scanTo(int fieldCount) {
+        if (scannedFields >= fieldCount) return true;
+        int position = fieldStarts[scannedFields - 1];
+        while (scannedFields < fieldCount) {
+            int delimiter = line.indexOf(DELIMITER, position);
+            if (delimiter < 0) {
+                return false; // Line has fewer fields
+            }
+            position = delimiter + 1;
+            fieldStarts[scannedFields++] = position;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+package com.playtech.util.csv;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * CSV line kept undecoded: the line itself and start offsets of its fields, found in one scan of delimiters.
+ * A field is extracted (as String) only when it is read, so lines of reports using few columns are never split.
+ * Immutable, rows decoding the same record from several threads are safe.
+ */
+public final class CsvRecord extends AbstractList<Object> implements RandomAccess {
+    private static final char DELIMITER = ',';
+
+    private final String line;
+    private final int[] fieldStarts; // Start offset of every field, plus one past the end of line
+
+    private CsvRecord(String line, int[] fieldStarts) {
+        this.line = line;
+        this.fieldStarts = fieldStarts;
+    }
+
+    /** Record of the line, null when it does not have exactly fieldCount fields. */
+    public static CsvRecord parse(String line, int fieldCount) {
+        int[] fieldStarts = new int[fieldCount + 1];
+        int fields = 1;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == DELIMITER) {
+                if (fields == fieldCount) return null; // More fields than expected
+                fieldStarts[fields++] = i + 1;
+            }
+        }
+        if (fields != fieldCount) return null;
+        fieldStarts[fieldCount] = line.length() + 1;
+        return new CsvRecord(line, fieldStarts);
+    }
+
+    /** Number of fields in line, also for lines which are not a valid record (for warnings). */
+    public static int countFields(String line) {
+        int fields = 1;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == DELIMITER) fields++;
+        }
+        return fields;
+    }
+
+    @Override
+    public String get(int index) {
+        return line.substring(fieldStarts[index], fieldStarts[index + 1] - 1);
+    }
+
+    @Override
+    public int size() {
+        return fieldStarts.length - 1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.playtech.util.io;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Write-to-temp-then-rename helpers, so readers of an output file never see it partially written
+ * and a failed or cancelled run leaves the previous file (or nothing) behind.
+ */
+public final class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Hidden temporary file next to target, keeping its extensions (compression is chosen by extension):
+     * {@code dir/report.jsonl.gz} is written as {@code dir/.report.tmp-1a2b3c.jsonl.gz}.
+     */
+    public static Path tempSibling(Path target) {
+        String fileName = target.getFileName().toString();
+        int dot = fileName.indexOf('.', 1);
+        String baseName = dot < 0 ? fileName : fileName.substring(0, dot);
+        String extensions = dot < 0 ? "" : fileName.substring(dot);
+        String suffix = Long.toHexString(ThreadLocalRandom.current().nextLong() & 0xFFFFFFFFFFFFL);
+        return target.resolveSibling("." + baseName + ".tmp-" + suffix + extensions);
+    }
+
+    /** Replaces target by temp file, atomically when the file system supports it. */
+    public static void commit(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Best effort cleanup of temporary files
+        }
+    }
+}
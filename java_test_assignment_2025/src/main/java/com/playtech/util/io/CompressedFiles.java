@@ -0,0 +1,73 @@
+package com.playtech.util.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Opens input and output files with compression chosen by file extension.
+ * {@code .gz} files are written as multi-member gzip compressed by several threads, and read in parallel when
+ * members carry their compressed size (written by this class, or BGZF); other gzip files are read sequentially.
+ * Zstandard is not available without an external library, {@code .zst} files are rejected with a clear message.
+ */
+public final class CompressedFiles {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CompressedFiles() {
+    }
+
+    public static boolean isGzip(Path path) {
+        return extension(path).equals("gz");
+    }
+
+    public static InputStream newInputStream(Path path) throws IOException {
+        checkSupported(path);
+        if (isGzip(path)) {
+            return ParallelGzipInputStream.open(path);
+        }
+        return Files.newInputStream(path);
+    }
+
+    public static OutputStream newOutputStream(Path path) throws IOException {
+        checkSupported(path);
+        OutputStream out = Files.newOutputStream(path);
+        if (isGzip(path)) {
+            return new ParallelGzipOutputStream(out);
+        }
+        return out;
+    }
+
+    public static BufferedReader newBufferedReader(Path path) throws IOException {
+        return newBufferedReader(newInputStream(path));
+    }
+
+    /** UTF-8 reader with the buffer size of file readers, over an already opened (e.g. counting) stream. */
+    public static BufferedReader newBufferedReader(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    public static BufferedWriter newBufferedWriter(Path path) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void checkSupported(Path path) throws IOException {
+        String extension = extension(path);
+        if (extension.equals("zst") || extension.equals("zstd")) {
+            throw new IOException("Zstandard compression is not supported (no zstd codec in the JDK), use .gz instead: " + path);
+        }
+    }
+
+    private static String extension(Path path) {
+        String fileName = path.getFileName() != null ? path.getFileName().toString() : "";
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,192 @@
+package com.playtech.util.io;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Byte ranges of a text file that start and end on line boundaries, so every range can be read on its own
+ * (by another process) and the ranges together hold every line exactly once.
+ */
+public final class FileRanges {
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    private static final int LINE_BUFFER_SIZE = 1024; // Sampled lines are read with small reads, lines are short
+    private static final int MIN_STRATUM_BYTES = 1024;
+
+    private FileRanges() {
+    }
+
+    /** Range of bytes [start, end). */
+    public record Range(long start, long end) {
+        public long length() { return end - start; }
+
+        /** Text form used on command lines: {@code start-end}. */
+        @Override
+        public String toString() { return start + "-" + end; }
+
+        public static Range parse(String text) {
+            int separator = text.indexOf('-');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Byte range expected as <start>-<end>, got: " + text);
+            }
+            long start = Long.parseLong(text.substring(0, separator).trim());
+            long end = Long.parseLong(text.substring(separator + 1).trim());
+            if (start < 0 || end < start) {
+                throw new IllegalArgumentException("Invalid byte range: " + text);
+            }
+            return new Range(start, end);
+        }
+    }
+
+    /**
+     * Lines picked at random positions of a file: sampled lines without line ends, the data bytes they were picked
+     * from and bytes of the sampled lines (with line ends). Complete when all lines were read.
+     */
+    public record LineSample(List<String> lines, long dataBytes, long sampledBytes, boolean complete) {
+        /** Lines in the data bytes, estimated from the mean length of the sampled lines. */
+        public double estimatedLineCount() {
+            if (complete || lines.isEmpty()) return lines.size();
+            return (double) dataBytes * lines.size() / sampledBytes;
+        }
+    }
+
+    /**
+     * Stratified sample of about {@code count} lines from {@code start} to the end of file: the bytes are cut into
+     * count strata of equal size, of every stratum the line starting after a random offset in it is read (one seek
+     * per line). Lines are picked about evenly when line lengths do not follow line content. Files with less than
+     * {@value #MIN_STRATUM_BYTES} bytes per stratum are read completely.
+     */
+    public static LineSample sampleLines(Path file, long start, int count, Random random) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long dataBytes = Math.max(0, channel.size() - start);
+            if (dataBytes <= (long) count * MIN_STRATUM_BYTES) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(file, new Range(start, start + dataBytes)), StandardCharsets.UTF_8))) {
+                    reader.lines().forEach(lines::add);
+                }
+                return new LineSample(lines, dataBytes, dataBytes, true);
+            }
+            double stratum = (double) dataBytes / count;
+            long sampledBytes = 0;
+            long previousStart = -1;
+            for (int i = 0; i < count; i++) {
+                long offset = start + (long) ((i + random.nextDouble()) * stratum);
+                long lineStart = offset - 1 + readLine(channel, offset - 1).length; // Rest of the line the offset is in
+                if (lineStart >= channel.size() || lineStart == previousStart) continue; // Past the last line, or picked already
+                byte[] line = readLine(channel, lineStart);
+                previousStart = lineStart;
+                sampledBytes += line.length;
+                lines.add(decodeLine(line));
+            }
+            return new LineSample(lines, dataBytes, sampledBytes, false);
+        }
+    }
+
+    /** Bytes of the line at position up to and including '\n' (or end of file). */
+    private static byte[] readLine(FileChannel channel, long position) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(LINE_BUFFER_SIZE);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int count = channel.read(buffer, offset);
+            if (count < 0) return line.toByteArray();
+            for (int i = 0; i < count; i++) {
+                if (buffer.get(i) == '\n') {
+                    line.write(buffer.array(), 0, i + 1);
+                    return line.toByteArray();
+                }
+            }
+            line.write(buffer.array(), 0, count);
+            offset += count;
+        }
+    }
+
+    private static String decodeLine(byte[] line) {
+        int end = line.length;
+        if (end > 0 && line[end - 1] == '\n') end--;
+        if (end > 0 && line[end - 1] == '\r') end--;
+        return new String(line, 0, end, StandardCharsets.UTF_8);
+    }
+
+    /** Offset just after the first line (the CSV header), size of file when it has only one line. */
+    public static long afterFirstLine(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return nextLineStart(channel, 0);
+        }
+    }
+
+    /**
+     * Splits bytes from {@code start} to the end of file into at most {@code parts} ranges of similar size. Every
+     * boundary is moved forward to the start of the next line, ranges that would be empty are left out.
+     */
+    public static List<Range> split(Path file, long start, int parts) throws IOException {
+        List<Range> ranges = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long rangeStart = start;
+            for (int part = 1; part <= parts && rangeStart < size; part++) {
+                long target = part == parts ? size : start + (size - start) * part / parts;
+                long rangeEnd = target <= rangeStart ? rangeStart : nextLineStart(channel, target - 1);
+                if (rangeEnd > rangeStart) {
+                    ranges.add(new Range(rangeStart, rangeEnd));
+                    rangeStart = rangeEnd;
+                }
+            }
+        }
+        return ranges;
+    }
+
+    /** Stream of the bytes of range, the file is read sequentially from range start. */
+    public static InputStream open(Path file, Range range) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        channel.position(range.start());
+        return new InputStream() {
+            private long remaining = range.length();
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (remaining <= 0) return -1;
+                int count = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, remaining)));
+                if (count > 0) remaining -= count;
+                return count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+
+    /** Offset after the first '\n' at or after position, size of file when there is none. */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int count = channel.read(buffer, offset);
+            if (count < 0) return channel.size();
+            for (int i = 0; i < count; i++) {
+                if (buffer.get(i) == '\n') return offset + i + 1;
+            }
+            offset += count;
+        }
+    }
+}
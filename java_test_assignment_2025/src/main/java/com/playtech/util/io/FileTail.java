@@ -0,0 +1,102 @@
+package com.playtech.util.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Follows a text file while another process appends to it. Only complete lines (ending with '\n') are returned, a
+ * line still being written stays pending until its end arrives. A file getting shorter (truncated or replaced) is
+ * an error, the lines read so far can not be matched with the new content.
+ */
+public class FileTail implements Closeable {
+    private final Path file;
+    private final FileChannel channel;
+    private long position; // Next byte to read
+    private byte[] pending = new byte[0]; // Start of an incomplete line
+    private byte[] lines = new byte[0]; // Lines of the last nextLines, served by lineStream
+    private int served;
+    private final InputStream lineStream = new LineStream();
+
+    public FileTail(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    /**
+     * Complete lines appended since the last call, up to maxBytes are read at once (after the pending start of a
+     * line). Empty when nothing complete was appended.
+     */
+    public byte[] readLines(int maxBytes) throws IOException {
+        long size = channel.size();
+        if (size < position) {
+            throw new IOException("File got shorter while it was followed (truncated or replaced): " + file);
+        }
+        int available = (int) Math.min(size - position, maxBytes);
+        byte[] bytes = Arrays.copyOf(pending, pending.length + available);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, pending.length, available);
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position);
+            if (count < 0) break;
+            position += count;
+        }
+        int end = buffer.position();
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        pending = Arrays.copyOfRange(bytes, end, buffer.position());
+        return end == bytes.length ? bytes : Arrays.copyOf(bytes, end);
+    }
+
+    /** Reads complete lines appended since the last call (see {@link #readLines}) into {@link #lineStream}, returns their length. */
+    public int nextLines(int maxBytes) throws IOException {
+        lines = readLines(maxBytes);
+        served = 0;
+        return lines.length;
+    }
+
+    /**
+     * Stream of the lines of every {@link #nextLines} call: it ends after the lines of the last call and goes on with
+     * the lines of the next one, so one reader on top follows the whole file (readers do not keep the end of stream).
+     */
+    public InputStream lineStream() {
+        return lineStream;
+    }
+
+    /** Bytes of the file read so far, including a pending incomplete line. */
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private class LineStream extends InputStream {
+        @Override
+        public int read() {
+            return served < lines.length ? lines[served++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) return 0;
+            if (served == lines.length) return -1;
+            int count = Math.min(length, lines.length - served);
+            System.arraycopy(lines, served, buffer, offset, count);
+            served += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return lines.length - served;
+        }
+    }
+}
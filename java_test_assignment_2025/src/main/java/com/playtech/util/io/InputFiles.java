@@ -0,0 +1,120 @@
+package com.playtech.util.io;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Input argument naming several files: a directory (its CSV files), a glob on file names (e.g.
+ * {@code feed/casino_gaming_results_2025-10-16T*.csv}) or a comma separated list of files, directories and globs.
+ * An existing file is always one input, also when its name contains ',' or glob characters.
+ */
+public final class InputFiles {
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private InputFiles() {
+    }
+
+    /** True when argument names (possibly) several files, false for a single file path. */
+    public static boolean isMultiple(String argument) {
+        Path path = pathOf(argument);
+        if (path != null && Files.isRegularFile(path)) return false;
+        return (path != null && Files.isDirectory(path)) || argument.contains(",") || isGlob(argument);
+    }
+
+    /**
+     * Files of argument: list elements in the given order, files of a directory or glob sorted by name, every file
+     * once. Directories contribute their .csv and .csv.gz files.
+     */
+    public static List<Path> resolve(String argument) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String element : splitList(argument)) {
+            String trimmed = element.trim();
+            if (trimmed.isEmpty()) continue;
+            Path path = pathOf(trimmed);
+            if (path != null && Files.isRegularFile(path)) {
+                files.add(path);
+            } else if (path != null && Files.isDirectory(path)) {
+                files.addAll(list(path, file -> isCsv(file.getFileName().toString())));
+            } else if (isGlob(trimmed)) {
+                files.addAll(matchGlob(trimmed));
+            } else {
+                throw new NoSuchFileException(trimmed, null, "Input file does not exist");
+            }
+        }
+        if (files.isEmpty()) {
+            throw new NoSuchFileException(argument, null, "No input files found");
+        }
+        return new ArrayList<>(files);
+    }
+
+    /** Glob on file names of one directory, the directory part must not contain glob characters. */
+    private static List<Path> matchGlob(String glob) throws IOException {
+        int separator = Math.max(glob.lastIndexOf('/'), glob.lastIndexOf('\\'));
+        String directoryPart = separator < 0 ? "." : separator == 0 ? glob.substring(0, 1) : glob.substring(0, separator);
+        String namePattern = glob.substring(separator + 1);
+        if (isGlob(directoryPart)) {
+            throw new IOException("Glob characters are only supported in file names, not in directories: " + glob);
+        }
+        Path directory = Paths.get(directoryPart);
+        if (!Files.isDirectory(directory)) {
+            throw new NoSuchFileException(directoryPart, null, "Directory of input glob does not exist");
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + namePattern);
+        List<Path> matches = list(directory, file -> matcher.matches(file.getFileName()));
+        if (matches.isEmpty()) {
+            throw new NoSuchFileException(glob, null, "No input files match");
+        }
+        return separator < 0 ? matches.stream().map(directory::relativize).toList() : matches;
+    }
+
+    /** Elements of a comma separated list, commas inside glob braces ({@code {10,11}}) do not separate. */
+    private static List<String> splitList(String argument) {
+        List<String> elements = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < argument.length(); i++) {
+            char c = argument.charAt(i);
+            if (c == '{') depth++;
+            else if (c == '}' && depth > 0) depth--;
+            else if (c == ',' && depth == 0) {
+                elements.add(argument.substring(start, i));
+                start = i + 1;
+            }
+        }
+        elements.add(argument.substring(start));
+        return elements;
+    }
+
+    private static List<Path> list(Path directory, Predicate<Path> filter) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).filter(filter).sorted().toList();
+        }
+    }
+
+    private static boolean isCsv(String fileName) {
+        return !fileName.startsWith(".") && (fileName.endsWith(".csv") || fileName.endsWith(".csv.gz"));
+    }
+
+    private static boolean isGlob(String argument) {
+        return argument.chars().anyMatch(c -> GLOB_CHARACTERS.indexOf(c) >= 0);
+    }
+
+    private static Path pathOf(String argument) {
+        try {
+            return Paths.get(argument);
+        } catch (InvalidPathException e) {
+            return null; // Glob characters are not valid in paths of some file systems
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.playtech.util.io;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses multi-member gzip files with several threads.
+ * Works when every member header carries the compressed member size in an extra field ("PT" written by
+ * {@link ParallelGzipOutputStream}, or BGZF "BC"); members are then read by position and inflated concurrently,
+ * while data is returned in file order. Other gzip files (single member from gzip tool) are read sequentially.
+ */
+public class ParallelGzipInputStream extends InputStream {
+    private static final int MAX_HEADER_PROBE = 64 * 1024 + 12;
+    private static final int FLAG_FHCRC = 2;
+    private static final int FLAG_FEXTRA = 4;
+    private static final int FLAG_FNAME = 8;
+    private static final int FLAG_FCOMMENT = 16;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final ArrayDeque<Future<byte[]>> inFlight = new ArrayDeque<>();
+    private long nextMemberOffset;
+    private InputStream sequentialRest; // Used when a member without size field is found
+    private byte[] current = new byte[0];
+    private int position;
+
+    private ParallelGzipInputStream(FileChannel channel, int threads) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        int poolSize = Math.max(1, threads);
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "gzip-decompressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxInFlight = poolSize * 2;
+    }
+
+    /** Parallel stream when members are indexed, plain sequential gzip stream otherwise. */
+    public static InputStream open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > 0 && memberSize(channel, 0) > 0) {
+                System.out.println("Reading gzip members in parallel: " + path);
+                return new ParallelGzipInputStream(channel, Runtime.getRuntime().availableProcessors());
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        return new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024), 64 * 1024);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureData()) return -1;
+        return current[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (!ensureData()) return -1;
+        int chunk = Math.min(length, current.length - position);
+        System.arraycopy(current, position, bytes, offset, chunk);
+        position += chunk;
+        return chunk;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        try {
+            if (sequentialRest != null) sequentialRest.close();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private boolean ensureData() throws IOException {
+        while (position >= current.length) {
+            if (sequentialRest != null) {
+                current = sequentialRest.readNBytes(64 * 1024);
+                position = 0;
+                if (current.length == 0) return false;
+                continue;
+            }
+            scheduleMembers();
+            if (inFlight.isEmpty()) {
+                if (nextMemberOffset < fileSize) {
+                    // Member without size field, rest of the file is decompressed sequentially
+                    channel.position(nextMemberOffset);
+                    sequentialRest = new GZIPInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+                    continue;
+                }
+                return false;
+            }
+            current = takeOldest();
+            position = 0;
+        }
+        return true;
+    }
+
+    private void scheduleMembers() throws IOException {
+        while (inFlight.size() < maxInFlight && nextMemberOffset < fileSize) {
+            long size = memberSize(channel, nextMemberOffset);
+            if (size <= 0) return;
+            long offset = nextMemberOffset;
+            if (offset + size > fileSize) {
+                throw new EOFException("Truncated gzip member at offset " + offset);
+            }
+            inFlight.addLast(executor.submit(() -> inflateMember(offset, (int) size)));
+            nextMemberOffset += size;
+        }
+    }
+
+    private byte[] takeOldest() throws IOException {
+        try {
+            return inFlight.pollFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while decompressing gzip member", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to decompress gzip member", e.getCause());
+        }
+    }
+
+    /** Total size of member at offset from its extra field, 0 if the header has no size field. */
+    private static long memberSize(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate((int) Math.min(MAX_HEADER_PROBE, channel.size() - offset)).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, offset);
+        header.flip();
+        if (header.remaining() < 12 || (header.get(0) & 0xff) != 0x1f || (header.get(1) & 0xff) != 0x8b) {
+            throw new IOException("Not a gzip member at offset " + offset);
+        }
+        if ((header.get(3) & FLAG_FEXTRA) == 0) return 0;
+        int extraLength = header.getShort(10) & 0xffff;
+        int end = Math.min(header.limit(), 12 + extraLength);
+        for (int i = 12; i + 4 <= end; ) {
+            byte id1 = header.get(i);
+            byte id2 = header.get(i + 1);
+            int length = header.getShort(i + 2) & 0xffff;
+            if (id1 == ParallelGzipOutputStream.SUBFIELD_ID1 && id2 == ParallelGzipOutputStream.SUBFIELD_ID2 && length == 4) {
+                return header.getInt(i + 4) & 0xffffffffL;
+            }
+            if (id1 == 'B' && id2 == 'C' && length == 2) { // BGZF block size - 1
+                return (header.getShort(i + 4) & 0xffff) + 1L;
+            }
+            i += 4 + length;
+        }
+        return 0;
+    }
+
+    /** Reads and inflates one member, checks CRC and size from the trailer. */
+    private byte[] inflateMember(long offset, int size) throws IOException, DataFormatException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Truncated gzip member at offset " + offset);
+            }
+        }
+        byte[] member = buffer.array();
+        int flags = member[3];
+        int dataStart = 10;
+        if ((flags & FLAG_FEXTRA) != 0) dataStart += 2 + (buffer.getShort(10) & 0xffff);
+        if ((flags & FLAG_FNAME) != 0) dataStart = skipZeroTerminated(member, dataStart);
+        if ((flags & FLAG_FCOMMENT) != 0) dataStart = skipZeroTerminated(member, dataStart);
+        if ((flags & FLAG_FHCRC) != 0) dataStart += 2;
+        int expectedCrc = buffer.getInt(size - 8);
+        int uncompressedSize = buffer.getInt(size - 4);
+
+        byte[] data = new byte[uncompressedSize];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(member, dataStart, size - 8 - dataStart);
+            int length = 0;
+            while (length < data.length && !inflater.finished()) {
+                int inflated = inflater.inflate(data, length, data.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new EOFException("Unexpected end of gzip member at offset " + offset);
+                }
+                length += inflated;
+            }
+        } finally {
+            inflater.end();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Gzip CRC mismatch in member at offset " + offset);
+        }
+        return data;
+    }
+
+    private static int skipZeroTerminated(byte[] bytes, int offset) {
+        while (bytes[offset] != 0) offset++;
+        return offset + 1;
+    }
+}
@@ -0,0 +1,163 @@
+package com.playtech.util.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip output compressed by several threads (pigz style).
+ * Data is cut into blocks, every block is compressed on its own into a complete gzip member and members are
+ * written in order. Concatenated members are a valid gzip file for any reader. Every member header carries
+ * its compressed size in an extra field, so {@link ParallelGzipInputStream} can decompress members in parallel.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+    static final int BLOCK_SIZE = 1024 * 1024;
+    // Extra subfield "PT" with 4 byte little-endian total member size
+    static final byte SUBFIELD_ID1 = 'P';
+    static final byte SUBFIELD_ID2 = 'T';
+    static final int HEADER_SIZE = 10 + 2 + 4 + 4; // Fixed header, XLEN, subfield header, member size
+    static final int TRAILER_SIZE = 8; // CRC32 and ISIZE
+
+    private final OutputStream out;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final ArrayDeque<Future<byte[]>> inFlight = new ArrayDeque<>();
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength;
+    private boolean closed;
+
+    public ParallelGzipOutputStream(OutputStream out) {
+        this(out, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelGzipOutputStream(OutputStream out, int threads) {
+        this.out = out;
+        int poolSize = Math.max(1, threads);
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "gzip-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxInFlight = poolSize * 2; // Bounds memory to a few blocks per thread
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (blockLength == block.length) {
+            submitBlock();
+        }
+        block[blockLength++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (blockLength == block.length) {
+                submitBlock();
+            }
+            int chunk = Math.min(length, block.length - blockLength);
+            System.arraycopy(bytes, offset, block, blockLength, chunk);
+            blockLength += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /** Only writes already compressed members; a partial block is compressed on close. */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (blockLength > 0 || inFlight.isEmpty()) {
+                submitBlock(); // Empty input still produces one valid (empty) member
+            }
+            while (!inFlight.isEmpty()) {
+                writeOldest();
+            }
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] data = blockLength == block.length ? block : Arrays.copyOf(block, blockLength);
+        inFlight.addLast(executor.submit(() -> compressMember(data)));
+        block = new byte[BLOCK_SIZE];
+        blockLength = 0;
+        if (inFlight.size() >= maxInFlight) {
+            writeOldest();
+        }
+    }
+
+    private void writeOldest() throws IOException {
+        try {
+            out.write(inFlight.pollFirst().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing gzip block", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress gzip block", e.getCause());
+        }
+    }
+
+    /** Complete gzip member for one block. */
+    static byte[] compressMember(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] member = new byte[HEADER_SIZE + data.length + data.length / 1000 + 64 + TRAILER_SIZE];
+            int length = HEADER_SIZE;
+            while (!deflater.finished()) {
+                if (length == member.length - TRAILER_SIZE) {
+                    member = Arrays.copyOf(member, member.length * 2);
+                }
+                length += deflater.deflate(member, length, member.length - TRAILER_SIZE - length);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            int total = length + TRAILER_SIZE;
+            // Header: magic, deflate, FEXTRA flag, no mtime, no extra flags, unknown OS
+            member[0] = 0x1f;
+            member[1] = (byte) 0x8b;
+            member[2] = 8;
+            member[3] = 4;
+            member[9] = (byte) 0xff;
+            putShortLE(member, 10, 8); // XLEN
+            member[12] = SUBFIELD_ID1;
+            member[13] = SUBFIELD_ID2;
+            putShortLE(member, 14, 4);
+            putIntLE(member, 16, total);
+            putIntLE(member, length, (int) crc.getValue());
+            putIntLE(member, length + 4, data.length);
+            return Arrays.copyOf(member, total);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void putShortLE(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+    }
+
+    private static void putIntLE(byte[] bytes, int offset, int value) {
+        putShortLE(bytes, offset, value);
+        putShortLE(bytes, offset + 2, value >>> 16);
+    }
+}
@@ -0,0 +1,93 @@
+package com.playtech.util.io;
+
+import com.playtech.report.column.Decimal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Typed binary form of row values written to temporary spill files (one tag byte, then the value).
+ * Covers the values rows hold: CSV strings, numbers produced by transformers and lists of them (composite keys).
+ */
+public final class SpillCodec {
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte DECIMAL = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte LIST = 7;
+
+    private SpillCodec() {
+    }
+
+    public static void writeValue(DataOutput out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(NULL);
+            case String string -> {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8); // writeUTF is limited to 64 KB
+                out.writeByte(STRING);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            case Long number -> {
+                out.writeByte(LONG);
+                out.writeLong(number);
+            }
+            case Integer number -> {
+                out.writeByte(INTEGER);
+                out.writeInt(number);
+            }
+            case Double number -> {
+                out.writeByte(DOUBLE);
+                out.writeDouble(number);
+            }
+            case Decimal number -> {
+                out.writeByte(DECIMAL);
+                out.writeLong(number.unscaledValue());
+            }
+            case Boolean bool -> {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean(bool);
+            }
+            case List<?> list -> {
+                out.writeByte(LIST);
+                out.writeInt(list.size());
+                for (Object element : list) {
+                    writeValue(out, element);
+                }
+            }
+            default -> throw new IOException("Value of type " + value.getClass().getName() + " can not be spilled: " + value);
+        }
+    }
+
+    public static Object readValue(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case STRING -> {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                yield new String(bytes, StandardCharsets.UTF_8);
+            }
+            case LONG -> in.readLong();
+            case INTEGER -> in.readInt();
+            case DOUBLE -> in.readDouble();
+            case DECIMAL -> Decimal.ofUnscaled(in.readLong());
+            case BOOLEAN -> in.readBoolean();
+            case LIST -> {
+                Object[] elements = new Object[in.readInt()];
+                for (int i = 0; i < elements.length; i++) {
+                    elements[i] = readValue(in);
+                }
+                yield Arrays.asList(elements); // Same equals and hashCode as the key lists of groupKeyOf
+            }
+            default -> throw new IOException("Corrupted spill file, unknown value tag " + tag);
+        };
+    }
+}
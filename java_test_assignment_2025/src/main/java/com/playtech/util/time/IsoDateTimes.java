@@ -0,0 +1,108 @@
+package com.playtech.util.time;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * ISO-8601 dates and date-times of CSV fields to epoch seconds, without allocating for the usual forms.
+ * yyyy-MM-dd and yyyy-MM-ddTHH:mm[:ss[.fraction]] with optional Z or +HH:mm offset are parsed digit by digit,
+ * anything else (zone IDs, other offset forms) goes through java.time. Values without offset are UTC, as
+ * FilterTransformer reads them. Fractions of second are dropped.
+ */
+public final class IsoDateTimes {
+    /** Returned for values which are not ISO dates or date-times. */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private IsoDateTimes() {
+    }
+
+    public static long toEpochSecond(String value) {
+        long epochSecond = parseCommonForms(value);
+        return epochSecond != INVALID ? epochSecond : parseOtherForms(value.trim());
+    }
+
+    private static long parseCommonForms(String value) {
+        int length = value.length();
+        if (length < 10 || value.charAt(4) != '-' || value.charAt(7) != '-') return INVALID;
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) return INVALID;
+        long epochSecond = epochDay(year, month, day) * SECONDS_PER_DAY;
+        if (length == 10) return epochSecond;
+
+        if (length < 16 || value.charAt(10) != 'T' || value.charAt(13) != ':') return INVALID;
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = 0;
+        int position = 16;
+        if (position < length && value.charAt(position) == ':') {
+            second = digits(value, position + 1, 2);
+            position += 3;
+            if (position < length && value.charAt(position) == '.') {
+                do {
+                    position++;
+                } while (position < length && Character.isDigit(value.charAt(position)));
+            }
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) return INVALID;
+        epochSecond += hour * 3600L + minute * 60L + second;
+
+        if (position == length) return epochSecond;
+        char zone = value.charAt(position);
+        if (zone == 'Z' && position + 1 == length) return epochSecond;
+        if ((zone == '+' || zone == '-') && position + 6 == length && value.charAt(position + 3) == ':') {
+            int offsetHours = digits(value, position + 1, 2);
+            int offsetMinutes = digits(value, position + 4, 2);
+            if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59) return INVALID;
+            int offset = offsetHours * 3600 + offsetMinutes * 60;
+            return zone == '+' ? epochSecond - offset : epochSecond + offset;
+        }
+        return INVALID;
+    }
+
+    private static long parseOtherForms(String value) {
+        try {
+            return ZonedDateTime.parse(value).toEpochSecond();
+        } catch (DateTimeParseException e1) {
+            try {
+                return LocalDateTime.parse(value).toEpochSecond(ZoneOffset.UTC);
+            } catch (DateTimeParseException e2) {
+                try {
+                    return LocalDate.parse(value).toEpochDay() * SECONDS_PER_DAY;
+                } catch (DateTimeParseException e3) {
+                    return INVALID;
+                }
+            }
+        }
+    }
+
+    /** Number of count decimal digits at start, -1 when one of them is not a digit (or out of the value). */
+    private static int digits(String value, int start, int count) {
+        if (start + count > value.length()) return -1;
+        int number = 0;
+        for (int i = start; i < start + count; i++) {
+            char ch = value.charAt(i);
+            if (ch < '0' || ch > '9') return -1;
+            number = number * 10 + (ch - '0');
+        }
+        return number;
+    }
+
+    /** Days since 1970-01-01 of a date of the proleptic Gregorian calendar (days from civil, H. Hinnant). */
+    static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * ((month + 9) % 12) + 2) / 5 + day - 1; // Year starting with March
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+}
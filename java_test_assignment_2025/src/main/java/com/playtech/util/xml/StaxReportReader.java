@@ -0,0 +1,572 @@
+package com.playtech.util.xml;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.report.dimension.Dimension;
+import com.playtech.report.transformer.Transformer;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.report.transformer.impl.FilterTransformer;
+import com.playtech.report.transformer.impl.JoinTransformer;
+import com.playtech.report.transformer.impl.MathOperationTransformer;
+import com.playtech.report.transformer.impl.OrderingTransformer;
+import com.playtech.report.transformer.impl.TimeBucket;
+import com.playtech.report.transformer.impl.WindowTransformer;
+import com.playtech.util.columnar.ColumnarFormat;
+import com.playtech.util.xml.adapters.TransformerAdapter;
+import com.playtech.util.xml.helpers.Parameters;
+import com.playtech.util.xml.helpers.TransformerWrapper;
+import jakarta.xml.bind.UnmarshalException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Report configuration reader on StAX: one pass over the document, no JAXB context (creating it reflects over
+ * all mapped classes and was most of the start-up time of a small report).
+ * Follows the JAXB mapping of the annotated classes: it builds the same objects, resolves column and dimension
+ * references the same way and collects the same errors (message and line) before failing, so both read a
+ * configuration alike. Transformers are created once the whole report is read, so a reference to a column defined
+ * further down is resolved in all their parameters (JAXB resolves it in nested parameter objects only, the
+ * transformer gets null for the others). Expected elements of "unexpected element" errors are listed in the
+ * order of the element tables below (fields of the mapped classes).
+ */
+final class StaxReportReader {
+    private static final XMLInputFactory FACTORY = createFactory(); // The JDK implementation is safe to share once configured
+
+    // Child elements of every element type, in the order of the fields of the mapped classes
+    private static final List<String> ROOT_ELEMENTS = List.of("report", "column", "transformer");
+    private static final List<String> REPORT_ELEMENTS = List.of("reportName", "outputFormat", "outputCompression", "inputs", "dimensions",
+            "outputs", "partitionBy", "transformers");
+    private static final List<String> COLUMN_ELEMENTS = List.of("name", "type");
+    private static final List<String> DIMENSION_ELEMENTS = List.of("name", "path", "key", "columns");
+    private static final List<String> TRANSFORMER_ELEMENTS = List.of("name", "parameters");
+    private static final List<String> PARAMETERS_ELEMENTS = List.of("inputs", "input", "output", "format", "order", "operation", "groupBy",
+            "aggregateBys", "rollup", "groupingSets", "maxGroupsInMemory", "timeBucket", "partitionBy", "orderBy", "windowFunctions",
+            "presorted", "match", "conditions", "dimension", "joinType");
+    private static final List<String> AGGREGATE_BY_ELEMENTS = List.of("input", "method", "output");
+    private static final List<String> GROUPING_SET_ELEMENTS = List.of("groupBy");
+    private static final List<String> TIME_BUCKET_ELEMENTS = List.of("input", "unit", "timeZone", "format", "output");
+    private static final List<String> WINDOW_FUNCTION_ELEMENTS = List.of("input", "function", "output", "preceding", "offset");
+    private static final List<String> CONDITION_ELEMENTS = List.of("input", "operator", "value", "not", "match", "conditions");
+    private static final List<String> NO_ELEMENTS = List.of();
+
+    private final XMLStreamReader reader;
+    private final Path baseDirectory; // Directory of the configuration, null for a file in the working directory
+    private final TransformerAdapter transformerAdapter = new TransformerAdapter();
+    private final List<String> errors = new ArrayList<>(); // Null for a slot of a transformer created without error
+    // Columns and dimensions by name (one space of IDs as in JAXB), a later definition replaces an earlier one
+    private final Map<String, Object> definitions = new HashMap<>();
+    // References to names not defined at that point, reported at the end when still not defined
+    private final List<Reference> forwardReferences = new ArrayList<>();
+
+    private record Reference(String name, int line) {}
+
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read() throws XMLStreamException;
+    }
+
+    /** Value of an element read before the end of the report, it may refer to columns defined further down. */
+    @FunctionalInterface
+    private interface Resolver<T> {
+        T resolve();
+
+        static <T> Resolver<T> of(T value) {
+            return () -> value;
+        }
+
+        static <T> Resolver<List<T>> all(List<Resolver<T>> items) {
+            return items == null ? of(null) : () -> {
+                List<T> values = new ArrayList<>(items.size());
+                items.forEach(item -> values.add(item.resolve()));
+                return values;
+            };
+        }
+    }
+
+    private StaxReportReader(XMLStreamReader reader, Path baseDirectory) {
+        this.reader = reader;
+        this.baseDirectory = baseDirectory;
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /** Reads report configuration, errors are described as by JAXB (see {@link XmlParser#parseReport}). */
+    static Report read(String filePath) throws UnmarshalException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(filePath)))) {
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+            try {
+                return new StaxReportReader(reader, Path.of(filePath).getParent()).readDocument(filePath);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new UnmarshalException(e); // No message, the cause is linked (as JAXB does for unreadable XML)
+        }
+    }
+
+    private Report readDocument(String filePath) throws XMLStreamException, UnmarshalException {
+        while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+            // Prolog: declaration, DOCTYPE, comments
+        }
+        if (!isElement("report")) {
+            throw new UnmarshalException(unexpectedElement() + expected(ROOT_ELEMENTS));
+        }
+        Report report = readReport();
+        forwardReferences.sort(Comparator.comparingInt(Reference::line)); // Report partitionBy is resolved last
+        for (Reference reference : forwardReferences) {
+            if (!definitions.containsKey(reference.name())) {
+                error("Undefined ID \"" + reference.name() + "\".", reference.line());
+            }
+        }
+        errors.removeIf(Objects::isNull);
+        if (!errors.isEmpty()) {
+            throw new UnmarshalException("Invalid report configuration " + filePath + ": " + String.join("; ", errors));
+        }
+        return report;
+    }
+
+    private Report readReport() throws XMLStreamException {
+        String reportName = null;
+        Report.FileFormat outputFormat = null;
+        ColumnarFormat.Codec outputCompression = null;
+        List<Column> inputs = null;
+        List<Dimension> dimensions = null;
+        List<Column> outputs = null;
+        String partitionBy = null; // Resolved at the end, report fields may refer to columns defined below them
+        int partitionByLine = 0;
+        List<Resolver<Transformer>> transformers = null;
+        while (nextChild(REPORT_ELEMENTS)) {
+            switch (reader.getLocalName()) {
+                case "reportName" -> reportName = readText();
+                case "outputFormat" -> outputFormat = readEnum(Report.FileFormat.values());
+                case "outputCompression" -> outputCompression = readEnum(ColumnarFormat.Codec.values());
+                case "inputs" -> inputs = readList("input", this::readColumn);
+                case "dimensions" -> dimensions = readList("dimension", this::readDimension);
+                case "outputs" -> outputs = readList("output", this::readColumn);
+                case "partitionBy" -> {
+                    partitionBy = readText().trim();
+                    partitionByLine = line();
+                }
+                case "transformers" -> transformers = readList("transformer", this::readTransformer);
+                default -> skipUnexpected(REPORT_ELEMENTS);
+            }
+        }
+        Column partitionByColumn = partitionBy != null ? resolve(partitionBy, partitionByLine, Column.class) : null;
+        // All columns are defined now
+        return new Report(reportName, outputFormat, outputCompression, inputs, dimensions, outputs, partitionByColumn,
+                Resolver.all(transformers).resolve());
+    }
+
+    private Column readColumn() throws XMLStreamException {
+        String name = null;
+        Column.DataType type = null;
+        while (nextChild(COLUMN_ELEMENTS)) {
+            switch (reader.getLocalName()) {
+                case "name" -> name = readText().trim();
+                case "type" -> type = readEnum(Column.DataType.values());
+                default -> skipUnexpected(COLUMN_ELEMENTS);
+            }
+        }
+        return define(name, new Column(name, type));
+    }
+
+    private Dimension readDimension() throws XMLStreamException {
+        String name = null;
+        String path = null;
+        String key = null;
+        List<Column> columns = null;
+        while (nextChild(DIMENSION_ELEMENTS)) {
+            switch (reader.getLocalName()) {
+                case "name" -> name = readText().trim();
+                case "path" -> path = readText();
+                case "key" -> key = readText();
+                case "columns" -> columns = readList("column", this::readColumn);
+                default -> skipUnexpected(DIMENSION_ELEMENTS);
+            }
+        }
+        return define(name, new Dimension(name, resolveAgainstConfiguration(path), key, columns));
+    }
+
+    /** Relative dimension paths point from the configuration file, so a report runs the same from any working directory. */
+    private String resolveAgainstConfiguration(String path) {
+        if (path == null || path.isBlank() || baseDirectory == null) return path;
+        return baseDirectory.resolve(path.trim()).normalize().toString();
+    }
+
+    /**
+     * Transformer built by {@link TransformerAdapter} once the report is read, null when it rejects the parameters
+     * (error is collected at the place of the transformer).
+     */
+    private Resolver<Transformer> readTransformer() throws XMLStreamException {
+        String name = null;
+        Resolver<Parameters> parameters = null;
+        while (nextChild(TRANSFORMER_ELEMENTS)) {
+            switch (reader.getLocalName()) {
+                case "name" -> name = readText();
+                case "parameters" -> parameters = readParameters();
+                default -> skipUnexpected(TRANSFORMER_ELEMENTS);
+            }
+        }
+        String transformerName = name;
+        Resolver<Parameters> transformerParameters = parameters != null ? parameters : Resolver.of(null);
+        int line = line();
+        int errorSlot = errors.size();
+        errors.add(null);
+        return () -> {
+            try {
+                return transformerAdapter.unmarshal(new TransformerWrapper(transformerName, transformerParameters.resolve()));
+            } catch (RuntimeException e) {
+                Throwable cause = e;
+                while (cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                errors.set(errorSlot, located(cause.getMessage() != null ? cause.getMessage() : cause.toString(), line));
+                return null;
+            }
+        };
+    }
+
+    private Resolver<Parameters> readParameters() throws XMLStreamException {
+        List<Runnable> settings = new ArrayList<>(); // Parameters referring to columns, set when resolved
+        Parameters parameters = new Parameters();
+        while (nextChild(PARAMETERS_ELEMENTS)) {
+            switch (reader.getLocalName()) {
+                case "inputs" -> settings.add(set(parameters, Parameters::setInputs, Resolver.all(readList("input", this::readColumnReference))));
+                case "input" -> settings.add(set(parameters, Parameters::setInput, readColumnReference()));
+                case "output" -> settings.add(set(parameters, Parameters::setOutput, readColumnReference()));
+                case "format" -> parameters.setFormat(readText());
+                case "order" -> parameters.setOrder(readEnum(OrderingTransformer.Order.values()));
+                case "operation" -> parameters.setOperation(readEnum(MathOperationTransformer.MathOperation.values()));
+                case "groupBy" -> settings.add(set(parameters, Parameters::setGroupBy, readColumnReference()));
+                case "aggregateBys" -> settings.add(set(parameters, Parameters::setAggregateBys, Resolver.all(readList("aggregateBy", this::readAggregateBy))));
+                case "rollup" -> settings.add(set(parameters, Parameters::setRollup, Resolver.all(readList("groupBy", this::readColumnReference))));
+                case "groupingSets" -> settings.add(set(parameters, Parameters::setGroupingSets, Resolver.all(readList("groupingSet", this::readGroupingSet))));
+                case "maxGroupsInMemory" -> parameters.setMaxGroupsInMemory(readInteger());
+                case "timeBucket" -> settings.add(set(parameters, Parameters::setTimeBucket, readTimeBucket()));
+                case "partitionBy" -> settings.add(set(parameters, Parameters::setPartitionBy, Resolver.all(readList("input", this::readColumnReference))));
+                case "orderBy" -> settings.add(set(parameters, Parameters::setOrderBy, readColumnReference()));
+                case "windowFunctions" -> settings.add(set(parameters, Parameters::setWindowFunctions,
+                        Resolver.all(readList("windowFunction", this::readWindowFunction))));
+                case "presorted" -> parameters.setPresorted(readBoolean());
+                case "match" -> parameters.setMatch(readEnum(FilterTransformer.Match.values()));
+                case "conditions" -> settings.add(set(parameters, Parameters::setConditions, Resolver.all(readList("condition", this::readCondition))));
+                case "dimension" -> settings.add(set(parameters, Parameters::setDimension, readReference(Dimension.class)));
+                case "joinType" -> parameters.setJoinType(readEnum(JoinTransformer.JoinType.values()));
+                default -> skipUnexpected(PARAMETERS_ELEMENTS);
+            }
+        }
+        return () -> {
+            settings.forEach(Runnable::run); // In document order, a repeated element replaces the value before
+            return parameters;
+        };
+    }
+
+    private static <T> Runnable set(Parameters parameters, BiConsumer<Parameters, T> setter, Resolver<T> value) {
+        return () -> setter.accept(parameters, value.resolve());
+    }
+
+    private Resolver<AggregatorTransformer.AggregateBy> readAggregateBy() throws XMLStreamException {
+        Resolver<Column> input = Resolver.of(null);
+        AggregatorTransformer.Method method = null;
+        Resolver<Column> output = Resolver.of(null);
+        while (nextChild(AGGREGATE_BY_ELEMENTS)) {
+            switch (reader.getLocalName()) {
+                case "input" -> input = readColumnReference();
+                case "method" -> method = readEnum(AggregatorTransformer.Method.values());
+                case "output" -> output = readColumnReference();
+                default -> skipUnexpected(AGGREGATE_BY_ELEMENTS);
+            }
+        }
+        Resolver<Column> aggregateInput = input;
+        AggregatorTransformer.Method aggregateMethod = method;
+        Resolver<Column> aggregateOutput = output;
+        return () -> new AggregatorTransformer.AggregateBy(aggregateInput.resolve(), aggregateMethod, aggregateOutput.resolve());
+    }
+
+    private Resolver<AggregatorTransformer.GroupingSet> readGroupingSet() throws XMLStreamException {
+        List<Resolver<Column>> columns = null; // Repeated groupBy elements without a wrapper
+        while (nextChild(GROUPING_SET_ELEMENTS)) {
+            if (reader.getLocalName().equals("groupBy")) {
+                if (columns == null) columns = new ArrayList<>();
+                columns.add(readColumnReference());
+            } else {
+                skipUnexpected(GROUPING_SET_ELEMENTS);
+            }
+        }
+        Resolver<List<Column>> setColumns = Resolver.all(columns);
+        return () -> new AggregatorTransformer.GroupingSet(setColumns.resolve());
+    }
+
+    private Resolver<TimeBucket> readTimeBucket() throws XMLStreamException {
+        Resolver<Column> input = Resolver.of(null);
+        TimeBucket.Unit unit = null;
+        String timeZone = null;
+        String format = null;
+        Resolver<Column> output = Resolver.of(null);
+        while (nextChild(TIME_BUCKET_ELEMENTS)) {
+            switch (reader.getLocalName()) {
+                case "input" -> input = readColumnReference();
+                case "unit" -> unit = readEnum(TimeBucket.Unit.values());
+                case "timeZone" -> timeZone = readText();
+                case "format" -> format = readText();
+                case "output" -> output = readColumnReference();
+                default -> skipUnexpected(TIME_BUCKET_ELEMENTS);
+            }
+        }
+        Resolver<Column> bucketInput = input;
+        TimeBucket.Unit bucketUnit = unit;
+        String bucketTimeZone = timeZone;
+        String bucketFormat = format;
+        Resolver<Column> bucketOutput = output;
+        return () -> new TimeBucket(bucketInput.resolve(), bucketUnit, bucketTimeZone, bucketFormat, bucketOutput.resolve());
+    }
+
+    private Resolver<WindowTransformer.WindowFunction> readWindowFunction() throws XMLStreamException {
+        Resolver<Column> input = Resolver.of(null);
+        WindowTransformer.Function function = null;
+        Resolver<Column> output = Resolver.of(null);
+        Integer preceding = null;
+        Integer offset = null;
+        while (nextChild(WINDOW_FUNCTION_ELEMENTS)) {
+            switch (reader.getLocalName()) {
+                case "input" -> input = readColumnReference();
+                case "function" -> function = readEnum(WindowTransformer.Function.values());
+                case "output" -> output = readColumnReference();
+                case "preceding" -> preceding = readInteger();
+                case "offset" -> offset = readInteger();
+                default -> skipUnexpected(WINDOW_FUNCTION_ELEMENTS);
+            }
+        }
+        Resolver<Column> functionInput = input;
+        WindowTransformer.Function windowFunction = function;
+        Resolver<Column> functionOutput = output;
+        Integer functionPreceding = preceding;
+        Integer functionOffset = offset;
+        return () -> new WindowTransformer.WindowFunction(functionInput.resolve(), windowFunction, functionOutput.resolve(),
+                functionPreceding, functionOffset);
+    }
+
+    private Resolver<FilterTransformer.Condition> readCondition() throws XMLStreamException {
+        Resolver<Column> input = Resolver.of(null);
+        FilterTransformer.Operator operator = null;
+        List<String> values = null; // Repeated value elements without a wrapper
+        Boolean not = null;
+        FilterTransformer.Match match = null;
+        Resolver<List<FilterTransformer.Condition>> conditions = Resolver.of(null);
+        while (nextChild(CONDITION_ELEMENTS)) {
+            switch (reader.getLocalName()) {
+                case "input" -> input = readColumnReference();
+                case "operator" -> operator = readEnum(FilterTransformer.Operator.values());
+                case "value" -> {
+                    if (values == null) values = new ArrayList<>();
+                    values.add(readText());
+                }
+                case "not" -> not = readBoolean();
+                case "match" -> match = readEnum(FilterTransformer.Match.values());
+                case "conditions" -> conditions = Resolver.all(readList("condition", this::readCondition));
+                default -> skipUnexpected(CONDITION_ELEMENTS);
+            }
+        }
+        Resolver<Column> conditionInput = input;
+        FilterTransformer.Operator conditionOperator = operator;
+        List<String> conditionValues = values;
+        Boolean conditionNot = not;
+        FilterTransformer.Match conditionMatch = match;
+        Resolver<List<FilterTransformer.Condition>> nested = conditions;
+        return () -> new FilterTransformer.Condition(conditionInput.resolve(), conditionOperator, conditionValues, conditionNot,
+                conditionMatch, nested.resolve());
+    }
+
+    /** Items of a wrapper element, a repeated wrapper replaces the list read before. */
+    private <T> List<T> readList(String itemName, ElementReader<T> itemReader) throws XMLStreamException {
+        List<String> expected = List.of(itemName);
+        List<T> items = new ArrayList<>();
+        while (nextChild(expected)) {
+            if (reader.getLocalName().equals(itemName)) {
+                items.add(itemReader.read());
+            } else {
+                skipUnexpected(expected);
+            }
+        }
+        return items;
+    }
+
+    private Resolver<Column> readColumnReference() throws XMLStreamException {
+        return readReference(Column.class);
+    }
+
+    /** Reference to a definition above, or to one further down that is looked up when resolved. */
+    private <T> Resolver<T> readReference(Class<T> type) throws XMLStreamException {
+        String name = readText().trim();
+        int line = line();
+        if (definitions.containsKey(name)) {
+            return Resolver.of(resolve(name, line, type));
+        }
+        forwardReferences.add(new Reference(name, line)); // Reported at the end when still not defined
+        return () -> definitions.containsKey(name) ? resolve(name, line, type) : null;
+    }
+
+    private <T> T resolve(String name, int line, Class<T> type) {
+        Object definition = definitions.get(name);
+        if (definition == null) {
+            forwardReferences.add(new Reference(name, line));
+            return null;
+        }
+        if (!type.isInstance(definition)) {
+            error("The type of the field is " + type + ", but the type of the object is " + definition.getClass(), line);
+            return null;
+        }
+        return type.cast(definition);
+    }
+
+    private <T> T define(String name, T definition) {
+        if (name != null) {
+            definitions.put(name, definition);
+        }
+        return definition;
+    }
+
+    /** Enum constant of exactly this name, null for anything else (JAXB does not report unknown values). */
+    private <E extends Enum<E>> E readEnum(E[] constants) throws XMLStreamException {
+        String text = readText();
+        for (E constant : constants) {
+            if (constant.name().equals(text)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    /** Decimal int with one optional leading sign, surrounding whitespace allowed; anything else is an error (null). */
+    private Integer readInteger() throws XMLStreamException {
+        String text = readText().trim();
+        int start = text.startsWith("-") || text.startsWith("+") ? 1 : 0;
+        boolean digits = text.length() > start;
+        for (int i = start; i < text.length() && digits; i++) {
+            digits = text.charAt(i) >= '0' && text.charAt(i) <= '9';
+        }
+        if (!digits) {
+            error("Not a number: \"" + text + "\".", line());
+            return null;
+        }
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            error("Number out of range of int: \"" + text + "\".", line());
+            return null;
+        }
+    }
+
+    /** true / 1 and false / 0, null for anything else. */
+    private Boolean readBoolean() throws XMLStreamException {
+        return switch (readText().trim()) {
+            case "true", "1" -> Boolean.TRUE;
+            case "false", "0" -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    /** Text content of the current element (comments skipped), reader is left on its end tag. */
+    private String readText() throws XMLStreamException {
+        String text = null;
+        StringBuilder parts = null; // Only when text is split by comments or elements
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                    if (text == null) {
+                        text = reader.getText();
+                    } else {
+                        if (parts == null) parts = new StringBuilder(text);
+                        parts.append(reader.getText());
+                    }
+                }
+                case XMLStreamConstants.START_ELEMENT -> skipUnexpected(NO_ELEMENTS);
+                case XMLStreamConstants.END_ELEMENT -> {
+                    return parts != null ? parts.toString() : text != null ? text : "";
+                }
+                default -> {
+                    // Comments and processing instructions
+                }
+            }
+        }
+    }
+
+    /** Moves to the next child element of the current element, false at its end tag; text is ignored. */
+    private boolean nextChild(List<String> expected) throws XMLStreamException {
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String namespace = reader.getNamespaceURI();
+                if (namespace == null || namespace.isEmpty()) {
+                    return true;
+                }
+                skipUnexpected(expected);
+            }
+        }
+    }
+
+    /** Reports the current element as unexpected and skips it with all its content. */
+    private void skipUnexpected(List<String> expected) throws XMLStreamException {
+        error(unexpectedElement() + expected(expected), line());
+        for (int depth = 1; depth > 0; ) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private String unexpectedElement() {
+        String namespace = reader.getNamespaceURI();
+        return "unexpected element (uri:\"" + (namespace != null ? namespace : "") + "\", local:\"" + reader.getLocalName()
+                + "\"). Expected elements are ";
+    }
+
+    /** Expected elements as JAXB lists them, "(none)" for an element with text only. */
+    private static String expected(List<String> elements) {
+        return elements.isEmpty() ? "(none)" : elements.stream().map(name -> "<{}" + name + ">").collect(Collectors.joining(","));
+    }
+
+    private boolean isElement(String name) {
+        String namespace = reader.getNamespaceURI();
+        return (namespace == null || namespace.isEmpty()) && reader.getLocalName().equals(name);
+    }
+
+    private int line() {
+        return reader.getLocation().getLineNumber();
+    }
+
+    private void error(String message, int line) {
+        errors.add(located(message, line));
+    }
+
+    private static String located(String message, int line) {
+        return line > 0 ? message + " (line " + line + ")" : message;
+    }
+}
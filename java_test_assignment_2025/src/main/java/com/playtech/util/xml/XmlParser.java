@@ -1,16 +1,16 @@
 package com.playtech.util.xml;
 
 import com.playtech.report.Report;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
-import jakarta.xml.bind.Unmarshaller;
-
-import java.io.File;
 
 public class XmlParser {
+
+    /**
+     * Reads report configuration with {@link StaxReportReader} (JAXB annotations of the model describe the format).
+     * Invalid elements and values, transformers rejecting their parameters and unresolved references are
+     * collected with their lines and fail parsing together in one UnmarshalException.
+     */
     public static Report parseReport(String filePath) throws JAXBException {
-        JAXBContext context = JAXBContext.newInstance(Report.class);
-        Unmarshaller unmarshaller = context.createUnmarshaller();
-        return (Report) unmarshaller.unmarshal(new File(filePath));
+        return StaxReportReader.read(filePath);
     }
 }
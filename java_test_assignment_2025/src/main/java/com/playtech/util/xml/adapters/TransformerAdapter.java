@@ -1,15 +1,26 @@
 package com.playtech.util.xml.adapters;
 
+import com.playtech.report.column.Column;
 import com.playtech.report.transformer.Transformer;
 import com.playtech.report.transformer.impl.AggregatorTransformer;
 import com.playtech.report.transformer.impl.DateTimeFormatterTransformer;
+import com.playtech.report.transformer.impl.FilterTransformer;
+import com.playtech.report.transformer.impl.JoinTransformer;
 import com.playtech.report.transformer.impl.MathOperationTransformer;
 import com.playtech.report.transformer.impl.OrderingTransformer;
 import com.playtech.report.transformer.impl.StringFormatterTransformer;
+import com.playtech.report.transformer.impl.WindowTransformer;
+import com.playtech.util.xml.helpers.Parameters;
 import com.playtech.util.xml.helpers.TransformerWrapper;
 import jakarta.xml.bind.annotation.adapters.XmlAdapter;
 
+import java.util.List;
+
 public class TransformerAdapter extends XmlAdapter<TransformerWrapper, Transformer> {
+    private static final List<String> KNOWN_NAMES = List.of(StringFormatterTransformer.NAME, OrderingTransformer.NAME,
+            MathOperationTransformer.NAME, DateTimeFormatterTransformer.NAME, AggregatorTransformer.NAME,
+            FilterTransformer.NAME, JoinTransformer.NAME, WindowTransformer.NAME);
+
     @Override
     public Transformer unmarshal(TransformerWrapper wrapper) {
         if (wrapper == null) return null;
@@ -17,18 +28,55 @@ public class TransformerAdapter extends XmlAdapter<TransformerWrapper, Transform
         return switch (wrapper.getName()) {
             case StringFormatterTransformer.NAME ->
                     new StringFormatterTransformer(wrapper.getParameters().getInputs(), wrapper.getParameters().getFormat(), wrapper.getParameters().getOutput());
-            case OrderingTransformer.NAME ->
+            case OrderingTransformer.NAME, OrderingTransformer.LEGACY_NAME ->
                     new OrderingTransformer(wrapper.getParameters().getInput(), wrapper.getParameters().getOrder());
             case MathOperationTransformer.NAME ->
                     new MathOperationTransformer(wrapper.getParameters().getInputs(), wrapper.getParameters().getOperation(), wrapper.getParameters().getOutput());
             case DateTimeFormatterTransformer.NAME ->
                     new DateTimeFormatterTransformer(wrapper.getParameters().getInput(), wrapper.getParameters().getFormat(), wrapper.getParameters().getOutput());
-            case AggregatorTransformer.NAME ->
-                    new AggregatorTransformer(wrapper.getParameters().getGroupBy(), wrapper.getParameters().getAggregateBys());
-            default -> throw new IllegalArgumentException("Unknown transformer type: " + wrapper.getName());
+            case AggregatorTransformer.NAME -> createAggregator(wrapper.getParameters());
+            case FilterTransformer.NAME ->
+                    new FilterTransformer(wrapper.getParameters().getMatch(), wrapper.getParameters().getConditions());
+            case JoinTransformer.NAME ->
+                    new JoinTransformer(wrapper.getParameters().getDimension(), wrapper.getParameters().getInput(), wrapper.getParameters().getJoinType());
+            case WindowTransformer.NAME ->
+                    new WindowTransformer(wrapper.getParameters().getPartitionBy(), wrapper.getParameters().getOrderBy(), wrapper.getParameters().getOrder(),
+                            wrapper.getParameters().getWindowFunctions(), wrapper.getParameters().isPresorted());
+            default -> throw new IllegalArgumentException("Unknown transformer type: " + wrapper.getName() + ", known types: " + KNOWN_NAMES);
         };
     }
 
+    /** Aggregator accepts one of: groupBy, rollup or groupingSets; with timeBucket alone it groups by the bucket. */
+    private static AggregatorTransformer createAggregator(Parameters parameters) {
+        int definitions = (parameters.getGroupBy() != null ? 1 : 0)
+                + (parameters.getRollup() != null ? 1 : 0)
+                + (parameters.getGroupingSets() != null ? 1 : 0);
+        if (definitions > 1) {
+            throw new IllegalArgumentException("Aggregator accepts only one of groupBy, rollup or groupingSets.");
+        }
+        AggregatorTransformer.Options options = AggregatorTransformer.Options.DEFAULT
+                .withPresorted(parameters.isPresorted())
+                .withMaxGroupsInMemory(parameters.getMaxGroupsInMemory())
+                .withTimeBucket(parameters.getTimeBucket());
+        if (parameters.getRollup() != null) {
+            return new AggregatorTransformer(AggregatorTransformer.rollup(parameters.getRollup()), parameters.getAggregateBys(), options);
+        }
+        if (parameters.getGroupingSets() != null) {
+            List<List<Column>> sets = parameters.getGroupingSets().stream()
+                    .map(AggregatorTransformer.GroupingSet::getColumns)
+                    .toList();
+            return new AggregatorTransformer(sets, parameters.getAggregateBys(), options);
+        }
+        Column groupBy = parameters.getGroupBy();
+        if (groupBy == null && parameters.getTimeBucket() != null) {
+            groupBy = parameters.getTimeBucket().getOutput();
+        }
+        if (groupBy == null) {
+            throw new IllegalArgumentException("Aggregator requires one of groupBy, rollup, groupingSets or timeBucket.");
+        }
+        return new AggregatorTransformer(List.of(List.of(groupBy)), parameters.getAggregateBys(), options);
+    }
+
     @Override
     public TransformerWrapper marshal(Transformer transformer) {
         // ignoring marshalling
@@ -1,9 +1,14 @@
 package com.playtech.util.xml.helpers;
 
 import com.playtech.report.column.Column;
+import com.playtech.report.dimension.Dimension;
 import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.report.transformer.impl.FilterTransformer;
+import com.playtech.report.transformer.impl.JoinTransformer;
 import com.playtech.report.transformer.impl.MathOperationTransformer;
 import com.playtech.report.transformer.impl.OrderingTransformer;
+import com.playtech.report.transformer.impl.TimeBucket;
+import com.playtech.report.transformer.impl.WindowTransformer;
 import com.playtech.util.xml.adapters.ColumnAdapter;
 import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
@@ -33,6 +38,32 @@ public class Parameters {
     @XmlElementWrapper(name = "aggregateBys")
     @XmlElement(name = "aggregateBy")
     private List<AggregatorTransformer.AggregateBy> aggregateBys;
+    @XmlElementWrapper(name = "rollup")
+    @XmlElement(name = "groupBy")
+    @XmlJavaTypeAdapter(ColumnAdapter.class)
+    private List<Column> rollup;
+    @XmlElementWrapper(name = "groupingSets")
+    @XmlElement(name = "groupingSet")
+    private List<AggregatorTransformer.GroupingSet> groupingSets;
+    private Integer maxGroupsInMemory;
+    private TimeBucket timeBucket;
+    @XmlElementWrapper(name = "partitionBy")
+    @XmlElement(name = "input")
+    @XmlJavaTypeAdapter(ColumnAdapter.class)
+    private List<Column> partitionBy;
+    @XmlIDREF
+    private Column orderBy;
+    @XmlElementWrapper(name = "windowFunctions")
+    @XmlElement(name = "windowFunction")
+    private List<WindowTransformer.WindowFunction> windowFunctions;
+    private Boolean presorted;
+    private FilterTransformer.Match match;
+    @XmlElementWrapper(name = "conditions")
+    @XmlElement(name = "condition")
+    private List<FilterTransformer.Condition> conditions;
+    @XmlIDREF
+    private Dimension dimension;
+    private JoinTransformer.JoinType joinType;
 
     public List<Column> getInputs() {
         return inputs;
@@ -65,4 +96,134 @@ public class Parameters {
     public List<AggregatorTransformer.AggregateBy> getAggregateBys() {
         return aggregateBys;
     }
+
+    public List<Column> getRollup() {
+        return rollup;
+    }
+
+    public List<AggregatorTransformer.GroupingSet> getGroupingSets() {
+        return groupingSets;
+    }
+
+    public List<Column> getPartitionBy() {
+        return partitionBy;
+    }
+
+    public Column getOrderBy() {
+        return orderBy;
+    }
+
+    public List<WindowTransformer.WindowFunction> getWindowFunctions() {
+        return windowFunctions;
+    }
+
+    public TimeBucket getTimeBucket() {
+        return timeBucket;
+    }
+
+    public int getMaxGroupsInMemory() {
+        return maxGroupsInMemory != null ? maxGroupsInMemory : 0;
+    }
+
+    public boolean isPresorted() {
+        return presorted != null && presorted;
+    }
+
+    public FilterTransformer.Match getMatch() {
+        return match;
+    }
+
+    public List<FilterTransformer.Condition> getConditions() {
+        return conditions;
+    }
+
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    public JoinTransformer.JoinType getJoinType() {
+        return joinType;
+    }
+
+    // Setters are used by StaxReportReader, JAXB sets the fields directly
+
+    public void setInputs(List<Column> inputs) {
+        this.inputs = inputs;
+    }
+
+    public void setInput(Column input) {
+        this.input = input;
+    }
+
+    public void setOutput(Column output) {
+        this.output = output;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public void setOrder(OrderingTransformer.Order order) {
+        this.order = order;
+    }
+
+    public void setOperation(MathOperationTransformer.MathOperation operation) {
+        this.operation = operation;
+    }
+
+    public void setGroupBy(Column groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public void setAggregateBys(List<AggregatorTransformer.AggregateBy> aggregateBys) {
+        this.aggregateBys = aggregateBys;
+    }
+
+    public void setRollup(List<Column> rollup) {
+        this.rollup = rollup;
+    }
+
+    public void setGroupingSets(List<AggregatorTransformer.GroupingSet> groupingSets) {
+        this.groupingSets = groupingSets;
+    }
+
+    public void setMaxGroupsInMemory(Integer maxGroupsInMemory) {
+        this.maxGroupsInMemory = maxGroupsInMemory;
+    }
+
+    public void setTimeBucket(TimeBucket timeBucket) {
+        this.timeBucket = timeBucket;
+    }
+
+    public void setPartitionBy(List<Column> partitionBy) {
+        this.partitionBy = partitionBy;
+    }
+
+    public void setOrderBy(Column orderBy) {
+        this.orderBy = orderBy;
+    }
+
+    public void setWindowFunctions(List<WindowTransformer.WindowFunction> windowFunctions) {
+        this.windowFunctions = windowFunctions;
+    }
+
+    public void setPresorted(Boolean presorted) {
+        this.presorted = presorted;
+    }
+
+    public void setMatch(FilterTransformer.Match match) {
+        this.match = match;
+    }
+
+    public void setConditions(List<FilterTransformer.Condition> conditions) {
+        this.conditions = conditions;
+    }
+
+    public void setDimension(Dimension dimension) {
+        this.dimension = dimension;
+    }
+
+    public void setJoinType(JoinTransformer.JoinType joinType) {
+        this.joinType = joinType;
+    }
 }
@@ -10,6 +10,15 @@ public class TransformerWrapper {
     private String name;
     private Parameters parameters;
 
+    private TransformerWrapper() {
+        // For JAXB
+    }
+
+    public TransformerWrapper(String name, Parameters parameters) {
+        this.name = name;
+        this.parameters = parameters;
+    }
+
     public String getName() {
         return name;
     }
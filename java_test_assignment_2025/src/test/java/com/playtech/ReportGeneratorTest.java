@@ -0,0 +1,57 @@
+package com.playtech;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Path resource(String name) throws Exception {
+        return Paths.get(ReportGeneratorTest.class.getClassLoader().getResource(name).toURI());
+    }
+
+    /** Input with the columns of both test configurations. */
+    private Path input() throws Exception {
+        return Files.writeString(tempDir.resolve("input.csv"), """
+                PlayerID,Location,StartDate,StartDateTime,BetAmount,WinAmount
+                1,Tallinn,2025-01-01,2025-01-01T10:00:00Z,10.0,4.0
+                2,Tallinn,2025-01-01,2025-01-01T11:00:00Z,5.5,0.0
+                1,Tallinn,2025-01-02,2025-01-02T09:30:00Z,1.0,2.5
+                1,Riga,2025-01-01,2025-01-01T12:00:00Z,2.0,1.0
+                """);
+    }
+
+    @Test
+    void batchWritesSameReportsAsSeparateRuns() throws Exception {
+        Path input = input();
+        List<Path> configs = List.of(resource("config/compiler_config.xml"), resource("config/grouping_sets_config.xml"));
+        Path batchDir = Files.createDirectories(tempDir.resolve("batch"));
+        Path concurrentDir = Files.createDirectories(tempDir.resolve("concurrent"));
+        String configList = configs.get(0) + "," + configs.get(1);
+
+        ReportGenerator.main(new String[]{input.toString(), configList, batchDir.toString(), "--batch"});
+        ReportGenerator.main(new String[]{input.toString(), configList, concurrentDir.toString(), "--batch", "--concurrent"});
+
+        try (var outputs = Files.list(batchDir)) {
+            assertThat(outputs.map(path -> path.getFileName().toString()))
+                    .containsExactlyInAnyOrder("CompilerReport.jsonl", "GroupingSetsReport.jsonl");
+        }
+        for (Path config : configs) {
+            Path single = tempDir.resolve("single.jsonl");
+            ReportGenerator.main(new String[]{input.toString(), config.toString(), single.toString()});
+            String name = config.getFileName().toString().startsWith("compiler") ? "CompilerReport.jsonl" : "GroupingSetsReport.jsonl";
+
+            assertThat(Files.readAllLines(batchDir.resolve(name))).isNotEmpty().isEqualTo(Files.readAllLines(single));
+            assertThat(Files.readAllLines(concurrentDir.resolve(name))).isEqualTo(Files.readAllLines(single));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.playtech.report.codegen;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.column.Decimal;
+import com.playtech.report.row.Row;
+import com.playtech.report.row.RowSchema;
+import com.playtech.report.transformer.Transformer;
+import com.playtech.report.transformer.impl.DateTimeFormatterTransformer;
+import com.playtech.report.transformer.impl.MathOperationTransformer;
+import com.playtech.report.transformer.impl.StringFormatterTransformer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportCodegenTest {
+    private static final Column BET = new Column("Bet", Column.DataType.DECIMAL);
+    private static final Column WIN = new Column("Win", Column.DataType.DECIMAL);
+    private static final Column RATE = new Column("Rate", Column.DataType.DOUBLE);
+    private static final Column BONUS = new Column("Bonus", Column.DataType.STRING);
+    private static final Column PLAYER = new Column("Player", Column.DataType.STRING);
+    private static final Column START = new Column("Start", Column.DataType.STRING);
+    private static final List<String> HEADERS = List.of("Bet", "Win", "Rate", "Bonus", "Player", "Start");
+
+    // Every output is a function of the inputs, including failure values (Calc Error!, unformatted dates)
+    private static List<Transformer> transformers() {
+        Column total = new Column("Total", Column.DataType.DECIMAL);
+        Column net = new Column("Net", Column.DataType.DOUBLE);
+        return List.of(
+                new MathOperationTransformer(List.of(BET, WIN), MathOperationTransformer.MathOperation.ADD, total),
+                new MathOperationTransformer(List.of(RATE, BONUS), MathOperationTransformer.MathOperation.SUBTRACT, net),
+                new StringFormatterTransformer(List.of(PLAYER, total), "%s@%s 100%%", new Column("Label", Column.DataType.STRING)),
+                new StringFormatterTransformer(List.of(net), "%.2f", new Column("Fixed", Column.DataType.STRING)),
+                new StringFormatterTransformer(List.of(PLAYER), "%s-%s", new Column("Broken", Column.DataType.STRING)),
+                new DateTimeFormatterTransformer(START, "yyyy-MM-dd", new Column("Day", Column.DataType.STRING)),
+                new DateTimeFormatterTransformer(START, "HH:mm", new Column("Time", Column.DataType.STRING), "dd.MM.yyyy HH:mm"));
+    }
+
+    private static List<Map<String, Object>> rows() {
+        RowSchema schema = new RowSchema(HEADERS);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object[] values : new Object[][] {
+                {"10.50", "-0.25", "1.5", "0.5", "p1", "2025-01-02T10:15:30Z"},
+                {Decimal.ofUnscaled(Long.MAX_VALUE), "0.01", "2", "abc", "p2", "02.01.2025 10:15"}, // Overflow, not a number
+                {"", null, null, "", null, ""},
+                {"1.001", "1", "x", "1", "p4", "not a date"}}) {
+            Row row = new Row(schema);
+            for (int i = 0; i < HEADERS.size(); i++) {
+                if (values[i] != null) row.put(HEADERS.get(i), values[i]);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    void generatedProgramGivesSameRowsAsTransformers() {
+        List<Map<String, Object>> expected = rows();
+        for (Transformer transformer : transformers()) {
+            transformer.transform(null, expected);
+        }
+
+        List<Transformer> fused = ReportCodegen.fuse("CodegenTest", transformers());
+        List<Map<String, Object>> actual = rows();
+        assertThat(fused).hasSize(1);
+        GeneratedTransformer generated = (GeneratedTransformer) fused.get(0);
+        assertThat(generated.codegen().programFor(Row.schemaOf(actual))).isNotNull(); // Not the interpreted fallback
+        generated.transform(null, actual);
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual.get(0)).containsEntry("Total", Decimal.ofUnscaled(1025)).containsEntry("Label", "p1@10.25 100%")
+                .containsEntry("Day", "2025-01-02");
+        assertThat(actual.get(1)).containsEntry("Total", "Calc Error!").containsEntry("Net", "Calc Error!").containsEntry("Time", "10:15");
+    }
+
+    @Test
+    void formattedMatchesStringFormat() {
+        for (Object argument : new Object[] {null, "GT", 51.1, new java.math.BigDecimal("-0.10"), 7L}) {
+            assertThat(ReportCodegen.formatted(argument)).isEqualTo(String.format("%s", argument));
+        }
+    }
+}
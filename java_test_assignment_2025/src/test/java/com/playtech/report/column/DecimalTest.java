@@ -0,0 +1,37 @@
+package com.playtech.report.column;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DecimalTest {
+
+    @Test
+    void parsesScaledValuesWithoutRounding() {
+        assertThat(Decimal.parseUnscaled("12")).isEqualTo(1200);
+        assertThat(Decimal.parseUnscaled(" 12.5 ")).isEqualTo(1250);
+        assertThat(Decimal.parseUnscaled("12,05")).isEqualTo(1205);
+        assertThat(Decimal.parseUnscaled("-0.05")).isEqualTo(-5);
+        assertThat(Decimal.parseUnscaled("-92233720368547758.08")).isEqualTo(Long.MIN_VALUE);
+        assertThat(Decimal.ofUnscaled(-5).toString()).isEqualTo("-0.05");
+
+        assertThatThrownBy(() -> Decimal.parseUnscaled("1.005")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Decimal.parseUnscaled("12.50 EUR")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Decimal.parseUnscaled("92233720368547758.08")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void sumsAreExact() {
+        long sum = 0;
+        for (int i = 0; i < 10; i++) {
+            sum += Decimal.parseUnscaled("0.10");
+        }
+        assertThat(Decimal.ofUnscaled(sum)).isEqualTo(Decimal.parse("1.00"));
+        assertThat(Decimal.unscaledOf(0.1 + 0.2)).isEqualTo(30);
+        assertThat(Decimal.divideRounded(-5, 2)).isEqualTo(-3);
+        assertThat(Decimal.divideRounded(1000, 3)).isEqualTo(333);
+        assertThatThrownBy(() -> Decimal.ofUnscaled(Long.MAX_VALUE).add(Decimal.ofUnscaled(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
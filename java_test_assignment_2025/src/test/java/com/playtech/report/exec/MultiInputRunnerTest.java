@@ -0,0 +1,66 @@
+package com.playtech.report.exec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MultiInputRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String HEADER = "PlayerID,Location,StartDate,StartDateTime,BetAmount,WinAmount\n";
+    // Groups (days, locations, players) span the files, so partial aggregates of several files are merged
+    private static final String FIRST = """
+            1,Tallinn,2025-01-01,2025-01-01T10:00:00Z,10.0,4.0
+            2,Tallinn,2025-01-01,2025-01-01T11:00:00Z,5.5,0.0
+            """;
+    private static final String SECOND = """
+            Riga,2.0,1,2025-01-01T12:00:00Z,2025-01-01,1.0,x
+            Tallinn,0.25,1,2025-01-02T09:30:00Z,2025-01-02,2.5,y
+            """;
+    private static final String THIRD = """
+            3,Riga,2025-01-02,2025-01-02T08:00:00Z,1.5,0.0
+            2,Tallinn,2025-01-01,2025-01-01T23:59:59Z,4.0,8.0
+            """;
+
+    private static Path resource(String name) throws Exception {
+        return Paths.get(MultiInputRunnerTest.class.getClassLoader().getResource(name).toURI());
+    }
+
+    @Test
+    void directoryOfInputsGivesSameReportAsOneFile() throws Exception {
+        Path inputs = Files.createDirectories(tempDir.resolve("inputs"));
+        Files.writeString(inputs.resolve("part1.csv"), HEADER + FIRST);
+        // Other column order and an extra column, matched by name
+        Files.writeString(inputs.resolve("part2.csv"), "Location,BetAmount,PlayerID,StartDateTime,StartDate,WinAmount,Note\n" + SECOND);
+        try (OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(inputs.resolve("part3.csv.gz")))) {
+            gzip.write((HEADER + THIRD).getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder secondInFirstOrder = new StringBuilder();
+        for (String line : SECOND.split("\n")) {
+            String[] fields = line.split(",");
+            secondInFirstOrder.append(String.join(",", fields[2], fields[0], fields[4], fields[3], fields[1], fields[5])).append('\n');
+        }
+        Path single = Files.writeString(tempDir.resolve("single.csv"), HEADER + FIRST + secondInFirstOrder + THIRD);
+
+        for (String config : List.of("config/compiler_config.xml", "config/grouping_sets_config.xml")) {
+            Path merged = tempDir.resolve("merged.jsonl");
+            Path expected = tempDir.resolve("expected.jsonl");
+            SingleReportRunner.run(new CommandLineArgs(inputs.toString(), resource(config).toString(), merged.toString(), Map.of()));
+            SingleReportRunner.run(new CommandLineArgs(single.toString(), resource(config).toString(), expected.toString(), Map.of()));
+
+            assertThat(Files.readAllLines(merged)).as(config).isNotEmpty().isEqualTo(Files.readAllLines(expected));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.playtech.report.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReportJobExecutorTest {
+    private static final long MB = 1024 * 1024;
+
+    /** Job recording its start, then waiting for release. */
+    private static Callable<Object> job(String name, List<String> started, CountDownLatch release) {
+        return () -> {
+            started.add(name);
+            release.await();
+            return null;
+        };
+    }
+
+    @Test
+    void startsJobOnlyWhenItFitsIntoMemoryBudgetInOrderOfSubmission() throws Exception {
+        List<String> started = new CopyOnWriteArrayList<>();
+        CountDownLatch releaseBig = new CountDownLatch(1);
+        CountDownLatch releaseOthers = new CountDownLatch(1);
+        try (ReportJobExecutor executor = new ReportJobExecutor(1, 10 * MB)) {
+            executor.submit("big", 8 * MB, job("big", started, releaseBig));
+            waitUntil(() -> started.contains("big"));
+            executor.submit("medium", 6 * MB, job("medium", started, releaseOthers));
+            Thread.sleep(200); // Medium is waiting for the budget
+            executor.submit("small", 1, job("small", started, releaseOthers));
+            Thread.sleep(200);
+
+            // Small would fit next to big, but the fair budget does not let it pass the waiting medium job
+            assertThat(started).containsExactly("big");
+
+            releaseBig.countDown();
+            waitUntil(() -> started.size() == 3);
+            assertThat(started).containsExactly("big", "medium", "small");
+            releaseOthers.countDown();
+            assertThat(executor.awaitAll()).isEmpty();
+        }
+    }
+
+    @Test
+    void jobBiggerThanBudgetRunsAlone() throws Exception {
+        try (ReportJobExecutor executor = new ReportJobExecutor(1, 4 * MB)) {
+            AtomicBoolean ran = new AtomicBoolean();
+            executor.submit("huge", 100 * MB, () -> ran.getAndSet(true));
+
+            assertThat(executor.awaitAll()).isEmpty();
+            assertThat(ran).isTrue();
+            assertThat(executor.getMemoryBudget()).isEqualTo(4 * MB);
+        }
+    }
+
+    @Test
+    void reportsFailedJobsByNameInOrderOfSubmission() throws Exception {
+        try (ReportJobExecutor executor = new ReportJobExecutor(2, 16 * MB)) {
+            executor.submit("second", 0, () -> {
+                throw new IOException("disk full");
+            });
+            executor.submit("ok", 0, () -> "done");
+            executor.submit("first", 0, () -> {
+                throw new IllegalStateException("bad data");
+            });
+
+            assertThatThrownBy(() -> executor.submit("ok", 0, () -> null)).isInstanceOf(IllegalArgumentException.class);
+            Map<String, Throwable> failures = executor.awaitAll();
+
+            assertThat(failures.keySet()).containsExactly("second", "first");
+            assertThat(failures.get("second")).isInstanceOf(IOException.class).hasMessage("disk full");
+            assertThat(failures.get("first")).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void nestedComputeRunsOnCallingPoolThread() throws Exception {
+        try (ReportJobExecutor executor = new ReportJobExecutor(1, 16 * MB)) {
+            // With one pool thread a nested submit would wait for itself
+            int result = executor.compute(() -> executor.compute(() -> 41) + 1);
+
+            assertThat(result).isEqualTo(42);
+            assertThatThrownBy(() -> executor.compute(() -> {
+                throw new IOException("unwrapped");
+            })).isInstanceOf(IOException.class).hasMessage("unwrapped");
+        }
+    }
+
+    @Test
+    void closeWaitsForRunningJobsWithoutInterruptingThem() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        ReportJobExecutor executor = new ReportJobExecutor(1, 16 * MB);
+        executor.submit("slow", 0, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(300);
+                finished.set(true);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return null;
+        });
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        executor.close();
+
+        assertThat(finished).isTrue();
+        assertThat(interrupted).isFalse();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition within 10 s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.playtech.report.exec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReportProgressTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void checkpointThrowsOnlyAfterCancel() {
+        ReportProgress progress = new ReportProgress(Duration.ZERO, null);
+        progress.stage("reading input.csv");
+
+        assertThatNoException().isThrownBy(progress::checkpoint);
+        progress.cancel();
+
+        assertThat(progress.isCancelled()).isTrue();
+        assertThatThrownBy(progress::checkpoint).isInstanceOf(ReportCancelledException.class)
+                .hasMessage("Report generation cancelled during reading input.csv");
+    }
+
+    @Test
+    void workStopsAtNextCheckpointWhenCancelledFromOtherThread() throws Exception {
+        ReportProgress progress = new ReportProgress(Duration.ZERO, null);
+        AtomicInteger batches = new AtomicInteger();
+        CompletableFuture<Void> work = CompletableFuture.runAsync(() -> {
+            while (true) {
+                progress.checkpoint();
+                batches.incrementAndGet();
+            }
+        });
+        while (batches.get() < 10) {
+            Thread.onSpinWait();
+        }
+
+        progress.cancel();
+
+        assertThatThrownBy(() -> work.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(ReportCancelledException.class);
+    }
+
+    @Test
+    void finishPublishesFinalStateAndReleasesWaiters() throws Exception {
+        Path statusFile = tempDir.resolve("status.json");
+        ReportProgress progress = new ReportProgress(Duration.ZERO, statusFile);
+        progress.addInput(1_000);
+        progress.addRead(250, 10);
+        progress.cancel();
+
+        assertThat(progress.awaitFinish(Duration.ofMillis(10))).isFalse();
+        progress.finish(ReportProgress.State.CANCELLED);
+
+        assertThat(progress.awaitFinish(Duration.ZERO)).isTrue();
+        JsonNode status = new ObjectMapper().readTree(statusFile.toFile());
+        assertThat(status.get("state").asText()).isEqualTo("CANCELLED");
+        assertThat(status.get("bytesRead").asLong()).isEqualTo(250);
+        assertThat(status.get("totalBytes").asLong()).isEqualTo(1_000);
+        assertThat(status.get("rowsRead").asLong()).isEqualTo(10);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(statusFile); // Written through a temporary file
+        }
+    }
+
+    @Test
+    void inputOfUnknownSizeHasNoEta() {
+        ReportProgress progress = new ReportProgress(Duration.ZERO, null);
+        progress.addInput(1_000);
+        progress.addInputOfUnknownSize();
+        progress.addRead(100, 1);
+
+        ReportProgress.Snapshot snapshot = progress.snapshot();
+
+        assertThat(snapshot.totalBytes()).isEqualTo(-1);
+        assertThat(snapshot.etaSeconds()).isEqualTo(-1);
+        assertThat(ReportProgress.describe(snapshot)).doesNotContain("ETA").doesNotContain("%");
+    }
+}
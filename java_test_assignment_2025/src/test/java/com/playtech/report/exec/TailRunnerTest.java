@@ -0,0 +1,80 @@
+package com.playtech.report.exec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TailRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Path resource(String name) throws Exception {
+        return Paths.get(TailRunnerTest.class.getClassLoader().getResource(name).toURI());
+    }
+
+    private static void append(Path file, String lines) throws Exception {
+        Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    /** Waits until the runner wrote count lines (a poll of the input is 500 ms). */
+    private static List<String> awaitLines(Path output, int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (Files.exists(output) && Files.readAllLines(output).size() >= count) break;
+            Thread.sleep(50);
+        }
+        return Files.readAllLines(output);
+    }
+
+    @Test
+    void windowsAreWrittenAsTheWatermarkPassesThem() throws Exception {
+        Path input = Files.writeString(tempDir.resolve("events.csv"), """
+                EventTime,Amount
+                2025-01-01T10:05:00Z,5.0
+                2025-01-01T10:30:00Z,1.0
+                2025-01-01T11:10:00Z,2.0
+                """);
+        Path output = tempDir.resolve("tail.jsonl");
+        CommandLineArgs cmdArgs = new CommandLineArgs(input.toString(), resource("config/tail_config.xml").toString(), output.toString(),
+                Map.of(CommandLineArgs.OPTION_TAIL, "true", CommandLineArgs.OPTION_TAIL_IDLE, "3"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> tail = executor.submit(() -> {
+                TailRunner.run(cmdArgs);
+                return null;
+            });
+
+            // 11:10 passed the end of window 10:00, window 11:00 stays open
+            assertThat(awaitLines(output, 1)).containsExactly("{\"Hour\":\"2025-01-01 10:00\",\"AmountSum\":6.0}");
+
+            // Event of the written window is late, a line is completed by the next append
+            append(input, "2025-01-01T10:50:00Z,7.0\n2025-01-01T11:40:00Z,3.");
+            Thread.sleep(700);
+            append(input, "0\n2025-01-01T12:00:00Z,1.5\n");
+            assertThat(awaitLines(output, 2)).containsExactly("{\"Hour\":\"2025-01-01 10:00\",\"AmountSum\":6.0}",
+                    "{\"Hour\":\"2025-01-01 11:00\",\"AmountSum\":5.0}");
+            assertThat(tail.isDone()).isFalse();
+
+            // Input does not grow for --tail-idle seconds, the open window is written and the run ends
+            tail.get(10, TimeUnit.SECONDS);
+            assertThat(Files.readAllLines(output)).containsExactly("{\"Hour\":\"2025-01-01 10:00\",\"AmountSum\":6.0}",
+                    "{\"Hour\":\"2025-01-01 11:00\",\"AmountSum\":5.0}", "{\"Hour\":\"2025-01-01 12:00\",\"AmountSum\":1.5}");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
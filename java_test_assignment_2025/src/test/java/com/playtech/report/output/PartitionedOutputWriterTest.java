@@ -0,0 +1,74 @@
+package com.playtech.report.output;
+
+import com.playtech.report.Report;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionedOutputWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Map<String, Object> row(String location, int bet) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("Location", location);
+        row.put("Bet", bet);
+        return row;
+    }
+
+    @Test
+    void writesOneFilePerValueKeepingRowOrder() throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(
+                row("Las Vegas", 1), row("Riga", 2), row("Las Vegas", 3), row(null, 4)));
+        Path output = tempDir.resolve("report.csv");
+
+        Map<Object, Path> files = new PartitionedOutputWriter(Report.FileFormat.CSV, "Location", 1).write(rows, output);
+
+        assertThat(files.keySet()).containsExactly("Las Vegas", "Riga", null);
+        assertThat(files.values()).containsExactly(tempDir.resolve("report-Las_Vegas.csv"), tempDir.resolve("report-Riga.csv"),
+                tempDir.resolve("report-null.csv"));
+        assertThat(Files.readAllLines(files.get("Las Vegas"))).containsExactly("Location,Bet", "Las Vegas,1", "Las Vegas,3");
+        assertThat(Files.readAllLines(files.get("Riga"))).containsExactly("Location,Bet", "Riga,2");
+        try (var written = Files.list(tempDir)) {
+            assertThat(written).hasSize(3); // No temporary files are left, no unpartitioned output
+        }
+    }
+
+    @Test
+    void writesPartitionsConcurrentlyWithSameContent() throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            rows.add(row("L" + (i % 7), i));
+        }
+
+        Map<Object, Path> files = new PartitionedOutputWriter(Report.FileFormat.JSONL, "Location", 4).write(rows, tempDir.resolve("report.jsonl"));
+
+        assertThat(files).hasSize(7);
+        for (Map.Entry<Object, Path> file : files.entrySet()) {
+            List<String> lines = Files.readAllLines(file.getValue());
+            assertThat(lines).hasSize(143 - (file.getKey().equals("L6") ? 1 : 0)).allMatch(line -> line.contains("\"" + file.getKey() + "\""));
+        }
+    }
+
+    @Test
+    void valuesEqualAfterSanitizingGetDistinctNames() {
+        Set<String> used = new HashSet<>();
+        Path output = tempDir.resolve("report.csv.gz");
+
+        assertThat(PartitionedOutputWriter.partitionPath(output, "a/b", used)).isEqualTo(tempDir.resolve("report-a_b.csv.gz"));
+        assertThat(PartitionedOutputWriter.partitionPath(output, "a b", used)).isEqualTo(tempDir.resolve("report-a_b-2.csv.gz"));
+        // File systems ignoring case would put these into one file
+        assertThat(PartitionedOutputWriter.partitionPath(output, "A_B", used)).isEqualTo(tempDir.resolve("report-A_B-3.csv.gz"));
+    }
+}
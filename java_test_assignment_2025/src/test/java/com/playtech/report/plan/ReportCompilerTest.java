@@ -0,0 +1,76 @@
+package com.playtech.report.plan;
+
+import com.playtech.report.Report;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import com.playtech.report.transformer.impl.DateTimeFormatterTransformer;
+import com.playtech.report.transformer.impl.OrderingTransformer;
+import com.playtech.util.xml.XmlParser;
+import jakarta.xml.bind.JAXBException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReportCompilerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Path configPath() throws Exception {
+        return Paths.get(ReportCompilerTest.class.getClassLoader().getResource("config/compiler_config.xml").toURI());
+    }
+
+    /** Config with replaced fragments (pairs of target and replacement). */
+    private Report loadModified(String... replacements) throws Exception {
+        String xml = Files.readString(configPath());
+        for (int i = 0; i < replacements.length; i += 2) {
+            assertThat(xml).contains(replacements[i]);
+            xml = xml.replace(replacements[i], replacements[i + 1]);
+        }
+        Path modified = tempDir.resolve("modified.xml");
+        Files.writeString(modified, xml);
+        return XmlParser.parseReport(modified.toString());
+    }
+
+    @Test
+    void removesTransformersWhoseOutputIsOverwrittenOrDroppedAndAssignsSlots() throws Exception {
+        CompiledReport compiled = ReportCompiler.compile(XmlParser.parseReport(configPath().toString()));
+
+        // First Label formatter is overwritten, Profit is dropped by the aggregator, second Label too
+        assertThat(compiled.transformers()).hasSize(3);
+        assertThat(compiled.transformers().get(0)).isInstanceOf(DateTimeFormatterTransformer.class);
+        assertThat(compiled.transformers().get(1)).isInstanceOf(AggregatorTransformer.class);
+        assertThat(compiled.transformers().get(2)).isInstanceOf(OrderingTransformer.class);
+
+        assertThat(compiled.slotNames()).containsExactly("Location", "StartDateTime", "BetAmount", "WinAmount", "StartDate", "BetAmountSum");
+        assertThat(compiled.warnings()).containsExactly(
+                "output column 'Profit' is not produced by the report",
+                "output column 'Label' is not produced by the report");
+    }
+
+    @Test
+    void reportsMissingColumnsAndTypeErrorsTogether() throws Exception {
+        // Math on text, ordering by a column the aggregator dropped
+        Report report = loadModified(
+                "<input>WinAmount</input>\n                    <input>BetAmount</input>",
+                "<input>Location</input>\n                    <input>BetAmount</input>",
+                "<input>StartDate</input>\n                <order>", "<input>WinAmount</input>\n                <order>");
+
+        assertThatThrownBy(() -> ReportCompiler.compile(report))
+                .isInstanceOfSatisfying(ReportCompilationException.class, e -> assertThat(e.getErrors()).containsExactly(
+                        "Transformer #3 (MathOperation): column 'Location' is STRING, INTEGER, DOUBLE or DECIMAL expected",
+                        "Transformer #6 (Ordering) reads column 'WinAmount' which is not available at this point"));
+    }
+
+    @Test
+    void unknownTransformerNameFailsParsing() throws Exception {
+        assertThatThrownBy(() -> loadModified("<name>Ordering</name>", "<name>Sorting</name>"))
+                .isInstanceOf(JAXBException.class)
+                .hasMessageContaining("Unknown transformer type: Sorting");
+    }
+}
@@ -0,0 +1,52 @@
+package com.playtech.report.row;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnSlotTest {
+
+    @Test
+    void readsAndWritesRowsOfResolvedSchemaBySlot() {
+        RowSchema schema = new RowSchema(List.of("a", "b"));
+        Row row = new Row(schema);
+        ColumnSlot slot = ColumnSlot.of(List.of(row), "b");
+
+        slot.set(row, "value");
+
+        assertThat(row.get(1)).isEqualTo("value");
+        assertThat(slot.get(row)).isEqualTo("value");
+        assertThat(slot.getName()).isEqualTo("b");
+    }
+
+    @Test
+    void resolvingUnknownColumnAddsItsSlot() {
+        RowSchema schema = new RowSchema(List.of("a"));
+        Row row = new Row(schema);
+
+        ColumnSlot slot = ColumnSlot.of(row, "new");
+        slot.set(row, 1);
+
+        assertThat(schema.indexOf("new")).isEqualTo(1);
+        assertThat(row).containsEntry("new", 1);
+    }
+
+    @Test
+    void fallsBackToNamesForPlainMapsAndRowsOfOtherSchemas() {
+        ColumnSlot slot = ColumnSlot.of(List.of(new Row(new RowSchema(List.of("x", "a")))), "a");
+        Map<String, Object> map = new HashMap<>();
+        Row other = new Row(new RowSchema(List.of("a")));
+
+        slot.set(map, "in map");
+        slot.set(other, "in other row");
+
+        assertThat(map).containsEntry("a", "in map");
+        assertThat(other.get(0)).isEqualTo("in other row");
+        assertThat(slot.get(other)).isEqualTo("in other row");
+        assertThat(ColumnSlot.of(List.of(map), "a").get(map)).isEqualTo("in map");
+    }
+}
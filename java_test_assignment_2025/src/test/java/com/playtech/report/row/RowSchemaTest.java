@@ -0,0 +1,62 @@
+package com.playtech.report.row;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowSchemaTest {
+
+    @Test
+    void appendsSlotsOfNewColumnsAndKeepsExistingOnes() {
+        RowSchema schema = new RowSchema(List.of("a", "b", "a"));
+
+        assertThat(schema.names()).containsExactly("a", "b");
+        assertThat(schema.slotOf("b")).isEqualTo(1);
+        assertThat(schema.slotOf("c")).isEqualTo(2);
+        assertThat(schema.nameOf(2)).isEqualTo("c");
+        assertThat(schema.size()).isEqualTo(3);
+    }
+
+    @Test
+    void indexOfDoesNotAddSlots() {
+        RowSchema schema = new RowSchema(List.of("a"));
+
+        assertThat(schema.indexOf("missing")).isEqualTo(-1);
+        assertThat(schema.indexOf(42)).isEqualTo(-1);
+        assertThat(schema.size()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentSlotOfGivesEveryColumnOneSlot() throws Exception {
+        RowSchema schema = new RowSchema(List.of());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                results.add(executor.submit(() -> {
+                    List<Integer> slots = new ArrayList<>();
+                    for (int i = 0; i < 500; i++) {
+                        slots.add(schema.slotOf("c" + i));
+                    }
+                    return slots;
+                }));
+            }
+            List<Integer> first = results.get(0).get();
+            for (Future<List<Integer>> result : results) {
+                assertThat(result.get()).isEqualTo(first);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(schema.size()).isEqualTo(500);
+        for (int i = 0; i < 500; i++) {
+            assertThat(schema.nameOf(schema.indexOf("c" + i))).isEqualTo("c" + i);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.playtech.report.row;
+
+import com.playtech.util.csv.CsvRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowTest {
+
+    @Test
+    void mapViewHoldsWrittenColumnsInSlotOrder() {
+        RowSchema schema = new RowSchema(List.of("a", "b", "c"));
+        Row row = new Row(schema);
+
+        row.put("c", 3);
+        row.put("a", 1);
+        row.put("b", null); // Written null is present
+
+        assertThat(row).hasSize(3).containsEntry("b", null);
+        assertThat(row.keySet()).containsExactly("a", "b", "c");
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("a", 1);
+        expected.put("b", null);
+        expected.put("c", 3);
+        assertThat(row).isEqualTo(expected).hasSameHashCodeAs(expected);
+        assertThat(row.containsKey("d")).isFalse();
+        assertThat(row.get("d")).isNull();
+        assertThat(schema.indexOf("d")).isEqualTo(-1); // Reading an unknown column does not add a slot
+    }
+
+    @Test
+    void removeAndIteratorRemoveMakeColumnsAbsent() {
+        Row row = new Row(new RowSchema(List.of("a", "b", "c")));
+        row.put("a", 1);
+        row.put("b", 2);
+        row.put("c", 3);
+
+        assertThat(row.remove("a")).isEqualTo(1);
+        assertThat(row.remove("a")).isNull();
+        Iterator<Map.Entry<String, Object>> entries = row.entrySet().iterator();
+        entries.next();
+        entries.remove();
+
+        assertThat(row).containsOnlyKeys("c");
+        assertThat(row.isEmpty()).isFalse();
+        row.entrySet().iterator().next().setValue(30);
+        assertThat(row).containsEntry("c", 30);
+    }
+
+    @Test
+    void columnsAddedToSchemaLaterGrowTheRow() {
+        RowSchema schema = new RowSchema(List.of("a"));
+        Row row = new Row(schema);
+        int slot = schema.slotOf("late");
+
+        assertThat(row.get(slot)).isNull();
+        assertThat(row.has(slot)).isFalse();
+        row.set(slot, "x");
+
+        assertThat(row).containsEntry("late", "x");
+    }
+
+    @Test
+    void sourceFieldsAreDecodedOnFirstReadOnly() {
+        AtomicInteger reads = new AtomicInteger();
+        List<Object> source = new AbstractList<>() {
+            @Override
+            public Object get(int index) {
+                reads.incrementAndGet();
+                return index == 1 ? null : "f" + index;
+            }
+
+            @Override
+            public int size() {
+                return 2;
+            }
+        };
+        RowSchema schema = new RowSchema(List.of("extra"));
+        List<String> headers = List.of("x", "y");
+        Row row = new Row(schema, source, Row.sourceFieldsOf(schema, headers));
+
+        // Undecoded fields are present
+        assertThat(row.size()).isEqualTo(2);
+        assertThat(new ArrayList<>(row.keySet())).containsExactly("x", "y");
+        assertThat(reads).hasValue(0);
+        assertThat(row.get("x")).isEqualTo("f0");
+        assertThat(row.get("x")).isEqualTo("f0");
+        assertThat(row.get("y")).isNull();
+        assertThat(row.containsKey("y")).isTrue();
+        assertThat(reads).hasValue(2);
+    }
+
+    @Test
+    void copyKeepsSchemaAndSourceButNotLaterWrites() {
+        RowSchema schema = new RowSchema(List.of());
+        List<String> headers = List.of("a", "b");
+        Row row = new Row(schema, CsvRecord.parse("1,2", 2), Row.sourceFieldsOf(schema, headers));
+
+        Map<String, Object> copy = Row.copyOf(row);
+        row.put("a", "changed");
+
+        assertThat(copy).isInstanceOf(Row.class).containsEntry("a", "1").containsEntry("b", "2");
+        assertThat(((Row) copy).getSchema()).isSameAs(schema);
+    }
+
+    @Test
+    void newRowLikeFollowsKindOfRows() {
+        RowSchema schema = new RowSchema(List.of("a"));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(null);
+        rows.add(new Row(schema));
+
+        assertThat(Row.newRowLike(rows)).isInstanceOfSatisfying(Row.class, row -> assertThat(row.getSchema()).isSameAs(schema));
+        assertThat(Row.newRowLike(List.of(new LinkedHashMap<>()))).isInstanceOf(LinkedHashMap.class);
+        assertThat(Row.newRowLike(List.of())).isInstanceOf(LinkedHashMap.class);
+        assertThat(Row.copyOf(new LinkedHashMap<>(Map.of("a", 1)))).isInstanceOf(LinkedHashMap.class).containsEntry("a", 1);
+    }
+}
@@ -0,0 +1,314 @@
+package com.playtech.report.transformer.impl;
+
+import com.playtech.report.Report;
+import com.playtech.report.column.Column;
+import com.playtech.util.xml.XmlParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class AggregatorTransformerTest {
+    private static final Column START_DATE = new Column("StartDate", Column.DataType.DATETIME);
+    private static final Column START_HOUR = new Column("StartHour", Column.DataType.STRING);
+
+    private Report report;
+    private AggregatorTransformer hashAggregator; // ROLLUP(Location, StartDate) of the test configuration
+
+    /** Aggregation of rows in another way than one hash aggregation of all of them. */
+    private interface Aggregation {
+        List<Map<String, Object>> aggregate(AggregatorTransformer hashAggregator, List<Map<String, Object>> rows) throws Exception;
+    }
+
+    @BeforeEach
+    void loadReport() throws Exception {
+        report = XmlParser.parseReport(Paths.get(AggregatorTransformerTest.class.getClassLoader()
+                .getResource("config/grouping_sets_config.xml").toURI()).toString());
+        hashAggregator = (AggregatorTransformer) report.getTransformers().get(0);
+    }
+
+    private static Map<String, Object> row(String playerId, String location, String date, String bet) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("PlayerID", playerId);
+        row.put("Location", location);
+        row.put("StartDate", date);
+        row.put("BetAmount", bet);
+        return row;
+    }
+
+    /** Rows ordered by (Location, StartDate) of Tallinn, then Riga. */
+    private static List<Map<String, Object>> rows() {
+        return new ArrayList<>(List.of(
+                row("1", "Tallinn", "2025-01-01", "10.0"),
+                row("2", "Tallinn", "2025-01-01", "5.5"),
+                row("1", "Tallinn", "2025-01-02", "1.0"),
+                row("1", "Riga", "2025-01-01", "2.0")));
+    }
+
+    private AggregatorTransformer withOptions(AggregatorTransformer.Options options) {
+        return new AggregatorTransformer(hashAggregator.getGroupingSets(), hashAggregator.getAggregateColumns(), options);
+    }
+
+    private AggregatorTransformer hourBucketAggregator(String timeZone) {
+        TimeBucket timeBucket = new TimeBucket(START_DATE, TimeBucket.Unit.HOUR, timeZone, null, START_HOUR);
+        return new AggregatorTransformer(List.of(List.of(START_HOUR)), hashAggregator.getAggregateColumns(),
+                AggregatorTransformer.Options.DEFAULT.withTimeBucket(timeBucket));
+    }
+
+    @Test
+    void rollupComputesAllLevelsInOnePass() {
+        List<Map<String, Object>> rows = rows();
+
+        hashAggregator.transform(report, rows);
+
+        // (Location, StartDate) -> 3 groups, (Location) -> 2 groups, () -> 1 grand total
+        assertThat(rows).hasSize(6);
+        assertThat(rows.get(0)).containsEntry("Location", "Tallinn").containsEntry("StartDate", "2025-01-01")
+                .containsEntry("BetAmountSum", 15.5).containsEntry("Players", 2.0);
+        assertThat(rows.get(3)).containsEntry("Location", "Tallinn").containsEntry("StartDate", null)
+                .containsEntry("BetAmountSum", 16.5).containsEntry("Players", 2.0);
+        assertThat(rows.get(5)).containsEntry("Location", null).containsEntry("StartDate", null)
+                .containsEntry("BetAmountSum", 18.5).containsEntry("Players", 2.0);
+    }
+
+    static Stream<Arguments> aggregations() {
+        Aggregation presortedInBatches = (hash, rows) -> {
+            AggregatorTransformer sorted = new AggregatorTransformer(hash.getGroupingSets(), hash.getAggregateColumns(),
+                    AggregatorTransformer.Options.DEFAULT.withPresorted(true));
+            // Group (Tallinn, 2025-01-01) spans both batches
+            AggregatorTransformer.SortedAggregation aggregation = sorted.new SortedAggregation();
+            aggregation.accept(new ArrayList<>(rows.subList(0, 1)));
+            aggregation.accept(new ArrayList<>(rows.subList(1, rows.size())));
+            return aggregation.finish();
+        };
+        Aggregation spilling = (hash, rows) -> {
+            List<Map<String, Object>> spilled = new ArrayList<>(rows);
+            new AggregatorTransformer(hash.getGroupingSets(), hash.getAggregateColumns(),
+                    AggregatorTransformer.Options.DEFAULT.withMaxGroupsInMemory(2)).transform(null, spilled);
+            return spilled;
+        };
+        Aggregation serializedShards = (hash, rows) -> {
+            AggregatorTransformer.PartialAggregation shard = hash.new PartialAggregation(rows);
+            shard.accept(new ArrayList<>(rows.subList(2, rows.size())));
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                shard.writeTo(output);
+            }
+            AggregatorTransformer.PartialAggregation merged = hash.new PartialAggregation(rows);
+            merged.accept(new ArrayList<>(rows.subList(0, 2)));
+            merged.mergeFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            return merged.finish();
+        };
+        Aggregation inProcessShards = (hash, rows) -> {
+            AggregatorTransformer.PartialAggregation shard = hash.new PartialAggregation(rows);
+            shard.accept(new ArrayList<>(rows.subList(2, rows.size())));
+            AggregatorTransformer.PartialAggregation merged = hash.new PartialAggregation(rows);
+            merged.accept(new ArrayList<>(rows.subList(0, 2)));
+            merged.mergeFrom(shard);
+            return merged.finish();
+        };
+        // Spilled groups come out partition by partition
+        return Stream.of(
+                Arguments.of("presorted in batches", presortedInBatches, true),
+                Arguments.of("spilling", spilling, false),
+                Arguments.of("serialized shards", serializedShards, true),
+                Arguments.of("in process shards", inProcessShards, true));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("aggregations")
+    void givesSameRowsAsHashAggregation(String name, Aggregation aggregation, boolean sameOrder) throws Exception {
+        List<Map<String, Object>> expected = rows();
+        hashAggregator.transform(report, expected);
+
+        List<Map<String, Object>> actual = aggregation.aggregate(hashAggregator, rows());
+
+        if (sameOrder) {
+            assertThat(actual).isEqualTo(expected);
+        } else {
+            assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "STRING,  5", // Ids are compared as text, zero padded ids are other ids
+            "INTEGER, 2", // 7 and 0
+            "DOUBLE,  2"})
+    void countDistinctComparesValuesOfInputType(Column.DataType type, double expected) {
+        Column location = new Column("Location", Column.DataType.STRING);
+        Column id = new Column("Id", type);
+        AggregatorTransformer aggregator = new AggregatorTransformer(List.of(List.of(location)),
+                List.of(new AggregatorTransformer.AggregateBy(id, AggregatorTransformer.Method.COUNT_DISTINCT, new Column("Ids", Column.DataType.DOUBLE))),
+                AggregatorTransformer.Options.DEFAULT);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String value : List.of("007", "7", "+7", "0", "-0", "7")) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("Location", "Tallinn");
+            row.put("Id", value);
+            rows.add(row);
+        }
+
+        aggregator.transform(report, rows);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsEntry("Ids", expected);
+    }
+
+    @Test
+    void presortedAggregationRejectsUnorderedInput() {
+        AggregatorTransformer sortedAggregator = withOptions(AggregatorTransformer.Options.DEFAULT.withPresorted(true));
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(
+                row("1", "Tallinn", "2025-01-01", "10.0"),
+                row("1", "Riga", "2025-01-01", "2.0"),
+                row("2", "Tallinn", "2025-01-01", "5.5")));
+
+        assertThatThrownBy(() -> sortedAggregator.transform(report, rows))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not ordered");
+    }
+
+    @Test
+    void presortedAggregationAcceptsIdsOrderedAsText() {
+        Column playerId = new Column("PlayerID", Column.DataType.INTEGER);
+        AggregatorTransformer sortedAggregator = new AggregatorTransformer(List.of(List.of(playerId)), hashAggregator.getAggregateColumns(),
+                AggregatorTransformer.Options.DEFAULT.withPresorted(true));
+        // Ascending as text, not by value
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(
+                row("10", "Tallinn", "2025-01-01", "10.0"),
+                row("9", "Riga", "2025-01-01", "2.0"),
+                row("90", "Tallinn", "2025-01-01", "5.5"),
+                row("90", "Riga", "2025-01-02", "1.0")));
+
+        sortedAggregator.transform(report, rows);
+
+        assertThat(rows).extracting(row -> row.get("PlayerID")).containsExactly("10", "9", "90");
+        assertThat(rows.get(2)).containsEntry("BetAmountSum", 6.5);
+    }
+
+    @Test
+    void negativeMaxGroupsInMemoryIsRejected() {
+        assertThatThrownBy(() -> AggregatorTransformer.Options.DEFAULT.withMaxGroupsInMemory(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void spilledAggregationKeepsAtMostMaxGroupsPerPartition() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(row(String.valueOf(i % 7), "Location" + i % 300, "2025-01-0" + (1 + i % 3), "1.5"));
+        }
+        List<Map<String, Object>> expected = new ArrayList<>(rows);
+        hashAggregator.transform(report, expected);
+        AggregatorTransformer spilling = withOptions(AggregatorTransformer.Options.DEFAULT.withMaxGroupsInMemory(4));
+
+        // 601 groups in 64 partitions, most of them are partitioned again
+        List<Map<String, Object>> actual = new ArrayList<>();
+        try (AggregatorTransformer.SpilledAggregation aggregation = spilling.new SpilledAggregation()) {
+            for (int start = 0; start < rows.size(); start += 100) {
+                aggregation.accept(new ArrayList<>(rows.subList(start, start + 100)));
+            }
+            for (List<Map<String, Object>> partitionRows = aggregation.nextRows(); !partitionRows.isEmpty(); partitionRows = aggregation.nextRows()) {
+                assertThat(partitionRows).hasSizeLessThanOrEqualTo(4);
+                actual.addAll(partitionRows);
+            }
+        }
+
+        assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void spilledAggregationFailsWhenKeysOfEqualHashDoNotFit() {
+        Column location = new Column("Location", Column.DataType.STRING);
+        AggregatorTransformer spilling = new AggregatorTransformer(List.of(List.of(location)), hashAggregator.getAggregateColumns(),
+                AggregatorTransformer.Options.DEFAULT.withMaxGroupsInMemory(2));
+        // All have the hash code of "AaAa", no partitioning can split them
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(
+                row("1", "AaAa", "2025-01-01", "1.0"),
+                row("1", "AaBB", "2025-01-01", "1.0"),
+                row("1", "BBAa", "2025-01-01", "1.0"),
+                row("1", "BBBB", "2025-01-01", "1.0")));
+
+        assertThatThrownBy(() -> spilling.transform(report, rows))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("more than maxGroupsInMemory 2 groups");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            // Tallinn is UTC+2 in winter
+            "Europe/Tallinn, 2025-01-01 23:00, 2025-01-02 00:00",
+            "UTC,            2025-01-01 21:00, 2025-01-01 22:00"})
+    void timeBucketGroupsEpochValuesByLocalPeriod(String timeZone, String firstHour, String secondHour) {
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(
+                row("1", "Tallinn", "2025-01-01T21:59:59Z", "10.0"),
+                row("2", "Tallinn", "2025-01-01T22:00:00Z", "5.5"),
+                row("1", "Riga", "2025-01-02T00:30:00+02:00", "1.0"),
+                row("3", "Riga", "not a date", "2.0")));
+
+        hourBucketAggregator(timeZone).transform(report, rows);
+
+        // The row with invalid date is left out
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsEntry("StartHour", firstHour).containsEntry("BetAmountSum", 10.0);
+        assertThat(rows.get(1)).containsEntry("StartHour", secondHour).containsEntry("BetAmountSum", 6.5).containsEntry("Players", 2.0);
+    }
+
+    @Test
+    void windowedAggregationFinishesWindowsBehindWatermark() {
+        AggregatorTransformer.WindowedAggregation windows = hourBucketAggregator(null).new WindowedAggregation(600);
+
+        windows.accept(new ArrayList<>(List.of(row("1", "Tallinn", "2025-01-01T10:05:00Z", "1.0"), row("2", "Riga", "2025-01-01T10:40:00Z", "2.0"))));
+        assertThat(windows.finishedWindows()).isEmpty(); // Watermark 10:30
+
+        windows.accept(new ArrayList<>(List.of(row("1", "Tallinn", "2025-01-01T11:20:00Z", "4.0"))));
+        List<Map<String, Object>> finished = windows.finishedWindows(); // Watermark 11:10
+        assertThat(finished).hasSize(1);
+        assertThat(finished.get(0)).containsEntry("StartHour", "2025-01-01 10:00").containsEntry("BetAmountSum", 3.0);
+
+        // Window of 10:00 is finished, its late row is dropped
+        windows.accept(new ArrayList<>(List.of(row("3", "Riga", "2025-01-01T10:50:00Z", "8.0"), row("3", "Riga", "2025-01-01T11:05:00Z", "16.0"))));
+        assertThat(windows.finishedWindows()).isEmpty();
+        assertThat(windows.openWindowCount()).isEqualTo(1);
+        assertThat(windows.lateRowCount()).isEqualTo(1);
+
+        List<Map<String, Object>> rest = windows.finishAll();
+        assertThat(rest).hasSize(1);
+        assertThat(rest.get(0)).containsEntry("StartHour", "2025-01-01 11:00").containsEntry("BetAmountSum", 20.0);
+    }
+
+    @Test
+    void sampledAggregationScalesSumsWithConfidence() {
+        List<Map<String, Object>> rows = rows();
+        AggregatorTransformer.SampledAggregation sample = hashAggregator.new SampledAggregation(rows, 4, 8); // Every row stands for 2
+        sample.accept(rows);
+
+        List<Map<String, Object>> estimated = sample.finish();
+        assertThat(estimated).hasSize(6);
+        Map<String, Object> total = estimated.get(5);
+        assertThat(total).containsEntry("BetAmountSum", 37.0).containsEntry("Players", 2.0).doesNotContainKey("Players_ci95");
+        // 1.96 * 2 * sqrt(4 * 16.5625 (sample variance) * 0.5 (finite population correction))
+        assertThat((Double) total.get("BetAmountSum_ci95")).isCloseTo(22.561, within(0.001));
+
+        AggregatorTransformer.SampledAggregation whole = hashAggregator.new SampledAggregation(rows, 4, 4);
+        whole.accept(rows);
+        assertThat(whole.finish().get(5)).containsEntry("BetAmountSum", 18.5).containsEntry("BetAmountSum_ci95", 0.0);
+    }
+}
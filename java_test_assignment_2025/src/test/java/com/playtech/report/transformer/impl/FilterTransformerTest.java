@@ -0,0 +1,183 @@
+package com.playtech.report.transformer.impl;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.row.Row;
+import com.playtech.report.row.RowSchema;
+import com.playtech.report.transformer.impl.FilterTransformer.Condition;
+import com.playtech.report.transformer.impl.FilterTransformer.Match;
+import com.playtech.report.transformer.impl.FilterTransformer.Operator;
+import com.playtech.util.csv.CsvFieldReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FilterTransformerTest {
+    private static final Column PLAYER = new Column("PlayerID", Column.DataType.STRING);
+    private static final Column BET = new Column("Bet", Column.DataType.DOUBLE);
+    private static final Column AMOUNT = new Column("Amount", Column.DataType.DECIMAL);
+    private static final Column DATE = new Column("Date", Column.DataType.DATE);
+    private static final List<String> HEADERS = List.of("PlayerID", "Bet", "Amount", "Date");
+    private static final List<String> LINES = List.of(
+            "p1,1.5,1.50,2025-01-01",
+            "p2,10,10.00,2025-01-02",
+            "p3,,0.10,2025-01-03",
+            "p4,abc,2.00,2025-01-04",
+            "p5,100,100.00,");
+
+    private static List<Map<String, Object>> rows() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String line : LINES) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            String[] fields = line.split(",", -1);
+            for (int i = 0; i < HEADERS.size(); i++) {
+                row.put(HEADERS.get(i), fields[i]);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Condition condition(Column input, Operator operator, String... values) {
+        return new Condition(input, operator, List.of(values), null, null, null);
+    }
+
+    private static List<Object> kept(FilterTransformer filter) {
+        List<Map<String, Object>> rows = rows();
+        filter.transform(null, rows);
+        return rows.stream().map(row -> row.get("PlayerID")).toList();
+    }
+
+    /** Players of lines the filter keeps when it is evaluated on CSV fields (pushdown). */
+    private static List<Object> keptByPushdown(FilterTransformer filter) {
+        CsvFieldReader reader = new CsvFieldReader(HEADERS);
+        List<Object> kept = new ArrayList<>();
+        for (String line : LINES) {
+            reader.reset(line);
+            if (filter.test(reader)) kept.add(line.substring(0, line.indexOf(',')));
+        }
+        return kept;
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "EQ      | 10       | p2",
+            "NE      | 10       | p1 p5",
+            "LT      | 10       | p1",
+            "LE      | 10       | p1 p2",
+            "GT      | 1.5      | p2 p5",
+            "GE      | 1.5      | p1 p2 p5",
+            "BETWEEN | 1.5 10.0 | p1 p2",
+            "IN      | 100 1.5  | p1 p5"})
+    void numericOperatorsCompareByValueAndSkipMissingOrInvalidValues(Operator operator, String values, String expected) {
+        FilterTransformer filter = new FilterTransformer(Match.ALL, List.of(condition(BET, operator, values.split(" "))));
+
+        assertThat(kept(filter)).containsExactly((Object[]) expected.split(" "));
+        assertThat(keptByPushdown(filter)).containsExactly((Object[]) expected.split(" "));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "EQ      | 9007199254740993 | 9007199254740993",
+            "GT      | 9007199254740992 | 9007199254740993",
+            "LT      | 2.5              | 2",
+            "BETWEEN | 1.5 9007199254740992 | 2 9007199254740992"})
+    void integerConditionsCompareExactlyAbove2Pow53(Operator operator, String values, String expected) {
+        Column id = new Column("Id", Column.DataType.INTEGER);
+        FilterTransformer filter = new FilterTransformer(Match.ALL, List.of(condition(id, operator, values.split(" "))));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object value : List.of("2", "9007199254740992", 9007199254740993L)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("Id", value);
+            rows.add(row);
+        }
+
+        filter.transform(null, rows);
+
+        assertThat(rows).extracting(row -> row.get("Id").toString()).containsExactly(expected.split(" "));
+    }
+
+    @Test
+    void decimalAndDateConditionsCompareTypedValues() {
+        FilterTransformer filter = new FilterTransformer(Match.ALL, List.of(
+                condition(AMOUNT, Operator.GE, "1.5"),
+                condition(DATE, Operator.LT, "2025-01-04")));
+
+        assertThat(kept(filter)).containsExactly("p1", "p2");
+        assertThat(keptByPushdown(filter)).containsExactly("p1", "p2");
+    }
+
+    @Test
+    void isEmptyNotAndNestedGroupsCombine() {
+        // Bet is empty, or NOT (date before 2025-01-02) AND player in (p2, p5)
+        Condition emptyBet = new Condition(BET, Operator.IS_EMPTY, null, null, null, null);
+        Condition notEarly = new Condition(DATE, Operator.LT, List.of("2025-01-02"), true, null, null);
+        Condition players = condition(PLAYER, Operator.IN, "p2", "p5");
+        Condition group = new Condition(null, null, null, null, Match.ALL, List.of(notEarly, players));
+        FilterTransformer filter = new FilterTransformer(Match.ANY, List.of(emptyBet, group));
+
+        assertThat(kept(filter)).containsExactly("p2", "p3", "p5");
+        assertThat(keptByPushdown(filter)).containsExactly("p2", "p3", "p5");
+    }
+
+    @Test
+    void pushdownReadsMissingFieldsOfShortLinesAsNull() {
+        FilterTransformer filter = new FilterTransformer(Match.ALL, List.of(new Condition(DATE, Operator.IS_EMPTY, null, null, null, null)));
+        CsvFieldReader reader = new CsvFieldReader(HEADERS);
+        reader.reset("p6,1");
+
+        assertThat(filter.test(reader)).isTrue();
+        assertThat(filter.getReferencedColumnNames()).containsExactly("Date");
+    }
+
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThatThrownBy(() -> new FilterTransformer(Match.ALL, List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FilterTransformer(Match.ALL, List.of(condition(BET, Operator.BETWEEN, "1"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("got 1 values");
+        assertThatThrownBy(() -> new FilterTransformer(Match.ALL, List.of(condition(BET, Operator.EQ, "x"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("not a valid DOUBLE");
+    }
+
+    @Test
+    void concurrentCallsOnRowsOfDifferentSchemasDoNotShareSlots() throws Exception {
+        FilterTransformer filter = new FilterTransformer(Match.ALL, List.of(condition(BET, Operator.GE, "10")));
+        // Bet is at another slot in each schema
+        List<RowSchema> schemas = List.of(new RowSchema(HEADERS), new RowSchema(List.of("Amount", "Date", "Bet", "PlayerID")));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                RowSchema schema = schemas.get(i % 2);
+                results.add(executor.submit(() -> {
+                    List<Map<String, Object>> rows = new ArrayList<>();
+                    for (String bet : Arrays.asList("1", "10", "100")) {
+                        Row row = new Row(schema);
+                        row.put("Bet", bet);
+                        row.put("Amount", "0");
+                        rows.add(row);
+                    }
+                    filter.transform(null, rows);
+                    return rows.size();
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertThat(result.get()).isEqualTo(2);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.playtech.report.transformer.impl;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.dimension.Dimension;
+import com.playtech.report.transformer.impl.JoinTransformer.JoinType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JoinTransformerTest {
+    private static final Column GAME_ID = new Column("GameID", Column.DataType.INTEGER);
+    private static final Column GAME_CODE = new Column("GameCode", Column.DataType.STRING);
+    private static final Column GAME_NAME = new Column("GameName", Column.DataType.STRING);
+
+    @TempDir
+    Path tempDir;
+
+    private JoinTransformer join(Column input, JoinType joinType) throws Exception {
+        Path games = tempDir.resolve("games.csv");
+        Files.writeString(games, """
+                GameID,GameCode,GameName
+                1,BJ,Blackjack
+                2,RL,Roulette
+                1,BJ2,Blackjack again
+                x,XX,Not a number
+                """);
+        Dimension dimension = new Dimension("games", games.toString(), input.getName(), List.of(GAME_NAME));
+        return new JoinTransformer(dimension, input, joinType);
+    }
+
+    private static List<Map<String, Object>> rows(String column, Object... keys) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object key : keys) {
+            Map<String, Object> row = new HashMap<>();
+            row.put(column, key);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    void innerJoinKeepsMatchingRowsWithDimensionColumns() throws Exception {
+        List<Map<String, Object>> rows = rows("GameID", "2", 1L, " 1 ", "3", null);
+
+        join(GAME_ID, JoinType.INNER).transform(null, rows);
+
+        assertThat(rows).extracting(row -> row.get("GameName")).containsExactly("Roulette", "Blackjack", "Blackjack");
+    }
+
+    @Test
+    void leftJoinKeepsMissesWithNulls() throws Exception {
+        List<Map<String, Object>> rows = rows("GameCode", "RL", "NOPE");
+
+        join(GAME_CODE, JoinType.LEFT).transform(null, rows);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsEntry("GameName", "Roulette");
+        assertThat(rows.get(1)).containsEntry("GameName", null);
+    }
+
+    @Test
+    void firstOccurrenceOfDuplicateKeyWins() throws Exception {
+        List<Map<String, Object>> rows = rows("GameID", "1");
+
+        join(GAME_ID, JoinType.INNER).transform(null, rows);
+
+        assertThat(rows.get(0)).containsEntry("GameName", "Blackjack");
+    }
+
+    @Test
+    void nonIntegralNumbersDoNotMatchIntegerKeys() throws Exception {
+        List<Map<String, Object>> rows = rows("GameID", 1.9, 2.0, 4_294_967_297L, "1.9");
+
+        join(GAME_ID, JoinType.LEFT).transform(null, rows);
+
+        assertThat(rows).extracting(row -> row.get("GameName")).containsExactly(null, "Roulette", null, null);
+    }
+}
@@ -0,0 +1,124 @@
+package com.playtech.report.transformer.impl;
+
+import com.playtech.report.column.Column;
+import com.playtech.report.column.Decimal;
+import com.playtech.report.transformer.impl.WindowTransformer.Function;
+import com.playtech.report.transformer.impl.WindowTransformer.WindowFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class WindowTransformerTest {
+    private static final Column PLAYER = new Column("PlayerID", Column.DataType.STRING);
+    private static final Column DAY = new Column("Day", Column.DataType.INTEGER);
+    private static final Column BET = new Column("Bet", Column.DataType.DOUBLE);
+    private static final Column AMOUNT = new Column("Amount", Column.DataType.DECIMAL);
+    private static final Column RESULT = new Column("Result", Column.DataType.DOUBLE);
+
+    private static Map<String, Object> row(String player, int day, Object bet) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put(PLAYER.getName(), player);
+        row.put(DAY.getName(), day);
+        row.put(BET.getName(), bet);
+        row.put(AMOUNT.getName(), bet);
+        return row;
+    }
+
+    private static List<Object> run(WindowFunction function, boolean presorted, List<Map<String, Object>> rows) {
+        new WindowTransformer(List.of(PLAYER), DAY, OrderingTransformer.Order.ASC, List.of(function), presorted).transform(null, rows);
+        return rows.stream().map(row -> row.get(RESULT.getName())).toList();
+    }
+
+    private static List<Map<String, Object>> rows() {
+        // Unordered on purpose: B before A, days of A descending
+        return new ArrayList<>(List.of(
+                row("B", 1, "5"),
+                row("A", 3, "3"),
+                row("A", 2, "2"),
+                row("A", 1, "1"),
+                row("B", 2, null)));
+    }
+
+    @Test
+    void rowNumberRestartsInEveryPartitionInOrderOfOrderColumn() {
+        List<Map<String, Object>> rows = rows();
+        List<Object> result = run(new WindowFunction(null, Function.ROW_NUMBER, RESULT, null, null), false, rows);
+
+        assertThat(rows).extracting(row -> row.get("PlayerID") + "/" + row.get("Day")).containsExactly("A/1", "A/2", "A/3", "B/1", "B/2");
+        assertThat(result).containsExactly(1L, 2L, 3L, 1L, 2L);
+    }
+
+    @Test
+    void boundedFrameSumsCurrentAndPrecedingRowsAndSkipsMissingValues() {
+        List<Object> result = run(new WindowFunction(BET, Function.SUM, RESULT, 1, null), false, rows());
+
+        assertThat(result).containsExactly(1.0, 3.0, 5.0, 5.0, 5.0);
+    }
+
+    @Test
+    void averageOfUnboundedFrameIsRunningAverage() {
+        List<Object> result = run(new WindowFunction(BET, Function.AVG, RESULT, null, null), false, rows());
+
+        assertThat(result).containsExactly(1.0, 1.5, 2.0, 5.0, 5.0);
+    }
+
+    @Test
+    void lagAndLeadReadValuesAtOffsetWithinPartition() {
+        assertThat(run(new WindowFunction(BET, Function.LAG, RESULT, null, 1), false, rows())).containsExactly(null, "1", "2", null, "5");
+        assertThat(run(new WindowFunction(BET, Function.LEAD, RESULT, null, 2), false, rows())).containsExactly("3", null, null, null, null);
+    }
+
+    @Test
+    void presortedInputKeepsItsOrder() {
+        List<Map<String, Object>> rows = rows();
+        List<Object> result = run(new WindowFunction(null, Function.ROW_NUMBER, RESULT, null, null), true, rows);
+
+        // Every key change starts a partition, B appears twice
+        assertThat(rows.get(0)).containsEntry("PlayerID", "B");
+        assertThat(result).containsExactly(1L, 1L, 2L, 3L, 1L);
+    }
+
+    @Test
+    void partitionKeysEqualByValueAreOnePartition() {
+        // Sorted as equal, so they must not start new partitions
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(
+                row("1", 1, "1"),
+                row("1.0", 2, "2"),
+                row("1", 3, "3")));
+        List<Object> result = run(new WindowFunction(null, Function.ROW_NUMBER, RESULT, null, null), false, rows);
+
+        assertThat(result).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void boundedFrameOfDoublesDoesNotAccumulateRoundingErrors() {
+        // A large value passing through the frame would leave rounding errors of the small ones behind
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(row("A", 0, "1e16"));
+        for (int day = 1; day <= 1000; day++) {
+            rows.add(row("A", day, "0.1"));
+        }
+        List<Object> result = run(new WindowFunction(BET, Function.SUM, RESULT, 2, null), true, rows);
+
+        assertThat((double) result.get(result.size() - 1)).isCloseTo(0.3, within(1e-12));
+    }
+
+    @Test
+    void decimalFrameTreatsEveryValueAsPresent() {
+        // Long.MIN_VALUE unscaled is a value like any other, missing values are marked separately
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(
+                row("A", 1, Decimal.ofUnscaled(Long.MIN_VALUE)),
+                row("A", 2, "1.00"),
+                row("A", 3, null),
+                row("A", 4, "2.00")));
+        List<Object> result = run(new WindowFunction(AMOUNT, Function.SUM, RESULT, 0, null), true, rows);
+
+        assertThat(result).containsExactly(Decimal.ofUnscaled(Long.MIN_VALUE), Decimal.ofUnscaled(100), Decimal.ofUnscaled(0), Decimal.ofUnscaled(200));
+    }
+}
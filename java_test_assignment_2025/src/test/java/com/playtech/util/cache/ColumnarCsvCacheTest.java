@@ -0,0 +1,124 @@
+package com.playtech.util.cache;
+
+import com.playtech.report.column.Column;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarCsvCacheTest {
+    private static final List<Column> INPUTS = List.of(
+            new Column("PlayerID", Column.DataType.STRING),
+            new Column("Rounds", Column.DataType.INTEGER),
+            new Column("Bet", Column.DataType.DOUBLE),
+            new Column("Code", Column.DataType.INTEGER));
+
+    @TempDir
+    Path tempDir;
+
+    private static ColumnarCsvCache.Table table() {
+        List<List<Object>> rows = new ArrayList<>();
+        rows.add(new ArrayList<>(List.of("p1", "3", "1.5", "007")));
+        rows.add(new ArrayList<>(List.of("p2", "-12", "10.0", "8")));
+        rows.add(new ArrayList<>(List.of("p1", "0", "0.25", "9")));
+        return new ColumnarCsvCache.Table(List.of("PlayerID", "Rounds", "Bet", "Code"), rows);
+    }
+
+    private Path csv() throws Exception {
+        return Files.writeString(tempDir.resolve("input.csv"), "PlayerID,Rounds,Bet,Code\n");
+    }
+
+    @Test
+    void readsWrittenEntryBackAsCsvValues() throws Exception {
+        ColumnarCsvCache cache = new ColumnarCsvCache(tempDir.resolve("cache"));
+        Path entry = cache.entryFor(csv(), INPUTS);
+        ColumnarCsvCache.Table table = table();
+        table.rows().add(List.of("short row"));
+
+        cache.write(entry, table, INPUTS);
+        ColumnarCsvCache.Table read = cache.read(entry);
+
+        assertThat(read.headers()).isEqualTo(table.headers());
+        // Rows of wrong column count are not stored, numbers read back as their CSV text ("007" is stored as text)
+        assertThat(read.rows()).containsExactly(
+                List.of("p1", "3", "1.5", "007"),
+                List.of("p2", "-12", "10.0", "8"),
+                List.of("p1", "0", "0.25", "9"));
+    }
+
+    @Test
+    void missesWhenInputOrDeclaredTypesChange() throws Exception {
+        ColumnarCsvCache cache = new ColumnarCsvCache(tempDir.resolve("cache"));
+        Path csv = csv();
+        Path entry = cache.entryFor(csv, INPUTS);
+        cache.write(entry, table(), INPUTS);
+
+        List<Column> retyped = new ArrayList<>(INPUTS);
+        retyped.set(1, new Column("Rounds", Column.DataType.STRING));
+        assertThat(cache.entryFor(csv, retyped)).isNotEqualTo(entry);
+
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 1_000));
+        Path changed = cache.entryFor(csv, INPUTS);
+        assertThat(changed).isNotEqualTo(entry);
+        assertThat(cache.read(changed)).isNull();
+    }
+
+    @Test
+    void replacesEntryOfOtherVersion() throws Exception {
+        ColumnarCsvCache cache = new ColumnarCsvCache(tempDir.resolve("cache"));
+        Path entry = cache.entryFor(csv(), INPUTS);
+        Files.createDirectories(entry);
+        try (DataOutputStream meta = new DataOutputStream(Files.newOutputStream(entry.resolve("meta.bin")))) {
+            meta.writeInt(0x50544343);
+            meta.writeInt(0); // Unknown version
+        }
+        assertThat(cache.read(entry)).isNull();
+
+        cache.write(entry, table(), INPUTS);
+
+        assertThat(cache.read(entry).rows()).hasSize(3);
+    }
+
+    @Test
+    void concurrentWritesOfSameEntryAllSucceed() throws Exception {
+        ColumnarCsvCache cache = new ColumnarCsvCache(tempDir.resolve("cache"));
+        Path entry = cache.entryFor(csv(), INPUTS);
+        int writers = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    cache.write(entry, table(), INPUTS);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(); // Losing writers must not fail on the existing entry
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // Written again after all of them, onto the existing non empty entry
+        cache.write(entry, table(), INPUTS);
+
+        assertThat(cache.read(entry).rows()).hasSize(3);
+        try (var files = Files.list(tempDir.resolve("cache"))) {
+            assertThat(files).containsExactly(entry); // Temporary directories are removed
+        }
+    }
+}
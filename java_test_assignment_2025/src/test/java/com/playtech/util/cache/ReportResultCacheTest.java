@@ -0,0 +1,58 @@
+package com.playtech.util.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file(String name, int size, char content) throws Exception {
+        return Files.writeString(tempDir.resolve(name), String.valueOf(content).repeat(size));
+    }
+
+    @Test
+    void keyChangesWithInputContentAndConfiguration() throws Exception {
+        ReportResultCache cache = new ReportResultCache(tempDir.resolve("cache"), 1024);
+        Path input = file("input.csv", 200_000, 'a');
+        String key = cache.keyFor(List.of(input), "config");
+
+        assertThat(cache.keyFor(List.of(input), "config")).isEqualTo(key);
+        assertThat(cache.keyFor(List.of(input), "other config")).isNotEqualTo(key);
+
+        // Same size and modification time, different content in the first sampled block
+        FileTime modified = Files.getLastModifiedTime(input);
+        Files.writeString(input, "b" + "a".repeat(199_999));
+        Files.setLastModifiedTime(input, modified);
+        assertThat(cache.keyFor(List.of(input), "config")).isNotEqualTo(key);
+    }
+
+    @Test
+    void servesStoredResultAndEvictsLeastRecentlyUsed() throws Exception {
+        Path cacheDir = tempDir.resolve("cache");
+        ReportResultCache cache = new ReportResultCache(cacheDir, 250);
+        cache.store("first", file("first.jsonl", 100, '1'));
+        cache.store("second", file("second.jsonl", 100, '2'));
+        Files.setLastModifiedTime(cacheDir.resolve("first.result"), FileTime.fromMillis(1_000));
+        Files.setLastModifiedTime(cacheDir.resolve("second.result"), FileTime.fromMillis(2_000));
+
+        // Serving makes "first" the most recently used entry
+        Path output = tempDir.resolve("output.jsonl");
+        assertThat(cache.serve("first", output)).isTrue();
+        assertThat(Files.readString(output)).isEqualTo("1".repeat(100));
+
+        cache.store("third", file("third.jsonl", 100, '3'));
+        assertThat(cache.serve("second", output)).isFalse();
+        assertThat(cache.serve("first", output)).isTrue();
+        assertThat(cache.serve("third", output)).isTrue();
+        assertThat(Files.readString(output)).isEqualTo("3".repeat(100));
+    }
+}
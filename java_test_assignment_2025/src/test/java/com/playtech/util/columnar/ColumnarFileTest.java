@@ -0,0 +1,90 @@
+package com.playtech.util.columnar;
+
+import com.playtech.report.column.Column;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarFileTest {
+    private static final List<String> COLUMNS = List.of("Id", "Amount", "Location", "Label");
+    private static final List<Column.DataType> TYPES =
+            Arrays.asList(Column.DataType.INTEGER, Column.DataType.DOUBLE, Column.DataType.STRING, null);
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(List<Map<String, Object>> rows, ColumnarFormat.Codec codec) throws Exception {
+        Path file = tempDir.resolve("report-" + codec + ColumnarFormat.EXTENSION);
+        try (OutputStream out = Files.newOutputStream(file);
+             ColumnarFileWriter writer = new ColumnarFileWriter(out, COLUMNS, TYPES, codec, 4)) {
+            for (Map<String, Object> row : rows) {
+                writer.write(row);
+            }
+        }
+        return file;
+    }
+
+    private static Map<String, Object> row(Object id, Object amount, Object location, Object label) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("Id", id);
+        row.put("Amount", amount);
+        row.put("Location", location);
+        row.put("Label", label);
+        return row;
+    }
+
+    @Test
+    void valuesAreReadBackTypedByDeclaredColumnType() throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(row(String.valueOf(i), i * 1.5, i % 3 == 0 ? null : "Riga", "label-" + i));
+        }
+        for (ColumnarFormat.Codec codec : ColumnarFormat.Codec.values()) {
+            try (ColumnarFileReader reader = new ColumnarFileReader(write(rows, codec))) {
+                assertThat(reader.getColumns()).isEqualTo(COLUMNS);
+                assertThat(reader.getTypes()).isEqualTo(TYPES);
+                assertThat(reader.getRowGroupCount()).isEqualTo(3);
+
+                List<List<Object>> read = reader.readRows();
+                assertThat(read).hasSize(10);
+                for (int i = 0; i < 10; i++) {
+                    assertThat(read.get(i)).containsExactly((long) i, i * 1.5, i % 3 == 0 ? null : "Riga", "label-" + i);
+                }
+                assertThat(reader.readRows(List.of("Label", "Id")).get(9)).containsExactly("label-9", 9L);
+            }
+        }
+    }
+
+    @Test
+    void chunkFallsBackToStringsWhenValueDoesNotFitDeclaredType() throws Exception {
+        List<Map<String, Object>> rows = List.of(
+                row(1L, 10.0, "Riga", 7L),
+                row(2L, "12.50 EUR", "Riga", 8L),
+                row(3L, 11.0, "Riga", 9L),
+                row(4L, 13.0, "Riga", 10L),
+                row(5L, 14.0, "Tallinn", 2.5));
+        try (ColumnarFileReader reader = new ColumnarFileReader(write(rows, ColumnarFormat.Codec.NONE))) {
+            List<List<Object>> read = reader.readRows();
+            // First row group has the formatted value, second one stays numeric
+            assertThat(read.get(0).get(1)).isEqualTo("10.0");
+            assertThat(read.get(1).get(1)).isEqualTo("12.50 EUR");
+            assertThat(read.get(4).get(1)).isEqualTo(14.0);
+            // Not declared column is typed by values
+            assertThat(read.get(0).get(3)).isEqualTo(7L);
+            assertThat(read.get(4).get(3)).isEqualTo(2.5);
+
+            assertThat(reader.statistics(0, "Id")).isEqualTo(new ColumnarFileReader.ChunkStatistics(4, 4, 1L, 4L));
+            assertThat(reader.statistics(1, "Location")).isEqualTo(new ColumnarFileReader.ChunkStatistics(1, 1, "Tallinn", "Tallinn"));
+        }
+    }
+}
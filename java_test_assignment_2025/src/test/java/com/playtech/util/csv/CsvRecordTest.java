@@ -0,0 +1,39 @@
+package com.playtech.util.csv;
+
+import com.playtech.report.row.Row;
+import com.playtech.report.row.RowSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvRecordTest {
+
+    @Test
+    void fieldsMatchSplitOfLine() {
+        CsvRecord record = CsvRecord.parse("1,,Las Vegas,", 4);
+
+        assertThat(record).containsExactly("1", "", "Las Vegas", "");
+        assertThat(CsvRecord.parse("1,2,3", 4)).isNull();
+        assertThat(CsvRecord.parse("1,2,3,4,5", 4)).isNull();
+        assertThat(CsvRecord.countFields("1,2,3,4,5")).isEqualTo(5);
+    }
+
+    @Test
+    void rowDecodesFieldsOnFirstRead() {
+        List<String> headers = List.of("PlayerID", "Location", "BetAmount");
+        RowSchema schema = new RowSchema(headers);
+        schema.slotOf("BetAmountSum");
+        Row row = new Row(schema, CsvRecord.parse("7,Tallinn,1.5", 3), Row.sourceFieldsOf(schema, headers));
+
+        assertThat(row.get("Location")).isEqualTo("Tallinn");
+        assertThat(row.containsKey("BetAmount")).isTrue();
+        assertThat(row.containsKey("BetAmountSum")).isFalse();
+        row.put("PlayerID", 7L);
+
+        Map<String, Object> copy = Row.copyOf(row);
+        assertThat(copy).containsExactly(Map.entry("PlayerID", 7L), Map.entry("Location", "Tallinn"), Map.entry("BetAmount", "1.5"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.playtech.util.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+class AtomicFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void tempSiblingIsHiddenAndKeepsExtensions() {
+        Path target = tempDir.resolve("report.jsonl.gz");
+
+        Path temp = AtomicFiles.tempSibling(target);
+
+        assertThat(temp.getParent()).isEqualTo(tempDir);
+        assertThat(temp.getFileName().toString()).matches("\\.report\\.tmp-[0-9a-f]+\\.jsonl\\.gz");
+        assertThat(AtomicFiles.tempSibling(target)).isNotEqualTo(temp);
+        assertThat(AtomicFiles.tempSibling(tempDir.resolve("report")).getFileName().toString()).matches("\\.report\\.tmp-[0-9a-f]+");
+        // Leading dot is part of the name, not an extension
+        assertThat(AtomicFiles.tempSibling(tempDir.resolve(".status.json")).getFileName().toString())
+                .matches("\\.\\.status\\.tmp-[0-9a-f]+\\.json");
+    }
+
+    @Test
+    void commitReplacesExistingTarget() throws Exception {
+        Path target = Files.writeString(tempDir.resolve("report.csv"), "old");
+        Path temp = Files.writeString(AtomicFiles.tempSibling(target), "new");
+
+        AtomicFiles.commit(temp, target);
+
+        assertThat(target).hasContent("new");
+        assertThat(temp).doesNotExist();
+    }
+
+    @Test
+    void commitCreatesMissingTarget() throws Exception {
+        Path target = tempDir.resolve("report.csv");
+        Path temp = Files.writeString(AtomicFiles.tempSibling(target), "new");
+
+        AtomicFiles.commit(temp, target);
+
+        assertThat(target).hasContent("new");
+    }
+
+    @Test
+    void deleteQuietlyIgnoresMissingAndUndeletableFiles() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("file"), "x");
+        Path nonEmptyDirectory = Files.createDirectories(tempDir.resolve("dir"));
+        Files.writeString(nonEmptyDirectory.resolve("child"), "x");
+
+        AtomicFiles.deleteQuietly(file);
+
+        assertThat(file).doesNotExist();
+        assertThatNoException().isThrownBy(() -> AtomicFiles.deleteQuietly(file));
+        assertThatNoException().isThrownBy(() -> AtomicFiles.deleteQuietly(nonEmptyDirectory));
+        assertThat(nonEmptyDirectory).exists();
+    }
+}
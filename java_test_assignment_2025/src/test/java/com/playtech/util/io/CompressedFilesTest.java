@@ -0,0 +1,74 @@
+package com.playtech.util.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] sampleData(int size) {
+        // Compressible but not trivial content spanning several gzip blocks
+        byte[] data = new byte[size];
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return data;
+    }
+
+    @Test
+    void parallelGzipRoundTripIsReadableByAnyGzipReader() throws Exception {
+        byte[] data = sampleData(3 * ParallelGzipOutputStream.BLOCK_SIZE + 123);
+        Path file = tempDir.resolve("data.csv.gz");
+        try (OutputStream out = CompressedFiles.newOutputStream(file)) {
+            out.write(data);
+        }
+
+        try (InputStream in = CompressedFiles.newInputStream(file)) {
+            assertThat(in).isInstanceOf(ParallelGzipInputStream.class);
+            assertThat(in.readAllBytes()).isEqualTo(data);
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertThat(in.readAllBytes()).isEqualTo(data);
+        }
+    }
+
+    @Test
+    void plainGzipAndTrailingMembersWithoutSizeAreReadSequentially() throws Exception {
+        byte[] first = sampleData(1000);
+        byte[] second = sampleData(2000);
+        Path file = tempDir.resolve("mixed.gz");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(ParallelGzipOutputStream.compressMember(first));
+            try (GZIPOutputStream plainMember = new GZIPOutputStream(out)) {
+                plainMember.write(second);
+            }
+        }
+
+        try (InputStream in = CompressedFiles.newInputStream(file)) {
+            byte[] expected = new byte[first.length + second.length];
+            System.arraycopy(first, 0, expected, 0, first.length);
+            System.arraycopy(second, 0, expected, first.length, second.length);
+            assertThat(in.readAllBytes()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void zstdIsRejected() {
+        assertThatThrownBy(() -> CompressedFiles.newInputStream(tempDir.resolve("data.csv.zst")))
+                .hasMessageContaining("Zstandard");
+    }
+}
@@ -0,0 +1,65 @@
+package com.playtech.util.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileRangesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void rangesEndOnLineBoundariesAndHoldEveryLineOnce() throws Exception {
+        StringBuilder content = new StringBuilder("id,name\n");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String line = i + "," + "x".repeat(i % 17);
+            lines.add(line);
+            content.append(line).append('\n');
+        }
+        content.setLength(content.length() - 1); // Last line without newline
+        Path file = tempDir.resolve("data.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        long start = FileRanges.afterFirstLine(file);
+        assertThat(start).isEqualTo("id,name\n".length());
+        List<FileRanges.Range> ranges = FileRanges.split(file, start, 7);
+        assertThat(ranges).hasSize(7);
+
+        List<String> read = new ArrayList<>();
+        long expectedStart = start;
+        for (FileRanges.Range range : ranges) {
+            assertThat(range.start()).isEqualTo(expectedStart);
+            assertThat(FileRanges.Range.parse(range.toString())).isEqualTo(range);
+            try (InputStream in = FileRanges.open(file, range)) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                read.addAll(List.of(text.split("\n")));
+            }
+            expectedStart = range.end();
+        }
+        assertThat(expectedStart).isEqualTo(Files.size(file));
+        assertThat(read).isEqualTo(lines);
+    }
+
+    @Test
+    void moreRangesThanLinesLeavesNoEmptyRange() throws Exception {
+        Path file = tempDir.resolve("small.csv");
+        Files.writeString(file, "h\na\nb\n");
+
+        List<FileRanges.Range> ranges = FileRanges.split(file, FileRanges.afterFirstLine(file), 8);
+
+        assertThat(ranges).extracting(FileRanges.Range::length).allMatch(length -> length > 0);
+        assertThat(ranges.get(ranges.size() - 1).end()).isEqualTo(Files.size(file));
+        assertThatThrownBy(() -> FileRanges.Range.parse("10-5")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,52 @@
+package com.playtech.util.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileTailTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void oneReaderFollowsLinesOfEveryCall() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("data.csv"), "id,name\n1,a\n2,", StandardCharsets.UTF_8);
+        try (FileTail tail = new FileTail(file);
+             BufferedReader reader = CompressedFiles.newBufferedReader(tail.lineStream())) {
+            assertThat(tail.nextLines(1024)).isEqualTo("id,name\n1,a\n".length());
+            assertThat(reader.readLine()).isEqualTo("id,name");
+            assertThat(reader.readLine()).isEqualTo("1,a");
+            assertThat(reader.readLine()).isNull(); // Line "2," is still being written
+
+            assertThat(tail.nextLines(1024)).isZero();
+            assertThat(reader.readLine()).isNull();
+
+            Files.writeString(file, "b\n3,c\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            assertThat(tail.nextLines(1024)).isEqualTo("2,b\n3,c\n".length());
+            assertThat(reader.readLine()).isEqualTo("2,b");
+            assertThat(reader.readLine()).isEqualTo("3,c");
+            assertThat(reader.readLine()).isNull();
+            assertThat(tail.position()).isEqualTo(Files.size(file));
+        }
+    }
+
+    @Test
+    void shorterFileIsAnError() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("data.csv"), "id\n1\n2\n", StandardCharsets.UTF_8);
+        try (FileTail tail = new FileTail(file)) {
+            tail.nextLines(1024);
+            Files.writeString(file, "id\n", StandardCharsets.UTF_8);
+
+            assertThatThrownBy(() -> tail.nextLines(1024)).hasMessageContaining("got shorter");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.playtech.util.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InputFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void resolvesDirectoriesGlobsAndListsInOrder() throws Exception {
+        for (String name : new String[] {"feed_T11.csv", "feed_T10.csv", "feed_T12.csv.gz", "notes.txt", ".hidden.csv"}) {
+            Files.writeString(tempDir.resolve(name), "id\n");
+        }
+        Path t10 = tempDir.resolve("feed_T10.csv");
+        Path t11 = tempDir.resolve("feed_T11.csv");
+        Path t12 = tempDir.resolve("feed_T12.csv.gz");
+
+        assertThat(InputFiles.isMultiple(t10.toString())).isFalse();
+        assertThat(InputFiles.isMultiple(tempDir.toString())).isTrue();
+        assertThat(InputFiles.resolve(tempDir.toString())).containsExactly(t10, t11, t12);
+        assertThat(InputFiles.resolve(tempDir + "/feed_T1{0,1}.csv")).containsExactly(t10, t11);
+        assertThat(InputFiles.resolve(t11 + "," + tempDir + "/feed_T*.csv")).containsExactly(t11, t10);
+
+        assertThatThrownBy(() -> InputFiles.resolve(tempDir + "/other_*.csv")).isInstanceOf(NoSuchFileException.class);
+        assertThatThrownBy(() -> InputFiles.resolve(t10 + "," + tempDir.resolve("missing.csv"))).isInstanceOf(NoSuchFileException.class);
+    }
+}
@@ -0,0 +1,125 @@
+package com.playtech.util.xml;
+
+import com.playtech.report.Report;
+import com.playtech.report.dimension.Dimension;
+import com.playtech.report.plan.TransformerSignature;
+import com.playtech.report.transformer.impl.AggregatorTransformer;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.UnmarshalException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StaxReportReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Path resource(String name) throws Exception {
+        return Paths.get(StaxReportReaderTest.class.getClassLoader().getResource(name).toURI());
+    }
+
+    @Test
+    void readsSameReportAsJaxb() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(Report.class);
+        for (Path config : new Path[]{resource("config/compiler_config.xml"), resource("config/grouping_sets_config.xml"),
+                Paths.get("input/DailyBetWinLossReport.xml")}) {
+            Report expected = (Report) context.createUnmarshaller().unmarshal(config.toFile());
+
+            Report report = StaxReportReader.read(config.toString());
+
+            assertThat(TransformerSignature.ofReport(report)).isEqualTo(TransformerSignature.ofReport(expected));
+        }
+    }
+
+    @Test
+    void collectsErrorsWithLines() throws Exception {
+        String xml = Files.readString(resource("config/compiler_config.xml"))
+                .replace("<reportName>", "<title/><reportName>")
+                .replace("<input>StartDate</input>", "<input>Nope</input>");
+        Path config = tempDir.resolve("invalid.xml");
+        Files.writeString(config, xml);
+
+        assertThatThrownBy(() -> StaxReportReader.read(config.toString()))
+                .isInstanceOf(UnmarshalException.class)
+                .hasMessage("Invalid report configuration " + config + ": unexpected element (uri:\"\", local:\"title\"). "
+                        + "Expected elements are <{}reportName>,<{}outputFormat>,<{}outputCompression>,<{}inputs>,<{}dimensions>,"
+                        + "<{}outputs>,<{}partitionBy>,<{}transformers> (line 3); "
+                        + "OrderingTransformer requires 'orderByColumn' parameter. (line 101); Undefined ID \"Nope\". (line 98)");
+    }
+
+    private Path aggregatorConfig(String maxGroupsInMemory) throws Exception {
+        Path config = tempDir.resolve("aggregator.xml");
+        // Output column is defined after the transformer referring to it
+        Files.writeString(config, """
+                <report>
+                    <reportName>Totals</reportName>
+                    <inputs>
+                        <input><name>Location</name><type>STRING</type></input>
+                        <input><name>Bet</name><type>DOUBLE</type></input>
+                    </inputs>
+                    <transformers>
+                        <transformer>
+                            <name>Aggregator</name>
+                            <parameters>
+                                <groupBy>Location</groupBy>
+                                <maxGroupsInMemory>%s</maxGroupsInMemory>
+                                <aggregateBys>
+                                    <aggregateBy><input>Bet</input><method>SUM</method><output>Total</output></aggregateBy>
+                                </aggregateBys>
+                            </parameters>
+                        </transformer>
+                    </transformers>
+                    <outputs>
+                        <output><name>Total</name><type>DOUBLE</type></output>
+                    </outputs>
+                </report>""".formatted(maxGroupsInMemory));
+        return config;
+    }
+
+    @Test
+    void resolvesColumnsDefinedAfterTheTransformer() throws Exception {
+        Report report = StaxReportReader.read(aggregatorConfig(" +100 ").toString());
+
+        AggregatorTransformer aggregator = (AggregatorTransformer) report.getTransformers().get(0);
+        assertThat(aggregator.getAggregateColumns().get(0).getOutput()).isSameAs(report.getOutputs().get(0));
+        assertThat(aggregator.getMaxGroupsInMemory()).isEqualTo(100);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1-2", "--5", "5-", "", "1 2", "2147483648"})
+    void rejectsMalformedIntegers(String value) throws Exception {
+        Path config = aggregatorConfig(value);
+
+        assertThatThrownBy(() -> StaxReportReader.read(config.toString()))
+                .isInstanceOf(UnmarshalException.class)
+                .hasMessageContaining("\"" + value + "\". (line 12)");
+    }
+
+    @Test
+    void resolvesRelativeDimensionPathsAgainstConfigurationDirectory() throws Exception {
+        Path configDir = Files.createDirectories(tempDir.resolve("reports"));
+        String dimensions = """
+                <dimensions>
+                    <dimension><name>relative</name><path>../dims/games.csv</path><key>GameID</key>
+                        <columns><column><name>Provider</name><type>STRING</type></column></columns></dimension>
+                    <dimension><name>absolute</name><path>/data/games.csv</path><key>GameID</key>
+                        <columns><column><name>Studio</name><type>STRING</type></column></columns></dimension>
+                </dimensions>""";
+        Path config = configDir.resolve("join.xml");
+        Files.writeString(config, "<report><reportName>Join</reportName>" + dimensions + "</report>");
+
+        Report report = StaxReportReader.read(config.toString());
+
+        assertThat(report.getDimensions()).extracting(Dimension::getPath)
+                .containsExactly(tempDir.resolve("dims/games.csv").toString(), "/data/games.csv");
+    }
+}